@@ -14,6 +14,8 @@ import com.lucance.boot.backend.entity.Strategy;
 import com.lucance.boot.backend.repository.KlineRepository;
 import com.lucance.boot.backend.service.BacktestService;
 import com.lucance.boot.backend.service.StrategyService;
+import com.lucance.boot.backend.strategy.CompiledEntryConditions;
+import com.lucance.boot.backend.strategy.CompiledStrategyCache;
 import com.lucance.boot.backend.strategy.ConditionEvaluator;
 import com.lucance.boot.backend.strategy.model.EntryConditionConfig;
 import com.lucance.boot.backend.strategy.model.ExitConditionConfig;
@@ -40,7 +42,7 @@ public class BacktestEngine {
     private final StrategyService strategyService;
     private final BacktestService backtestService;
     private final ChanCalculationEngine chanEngine;
-    private final ConditionEvaluator conditionEvaluator;
+    private final CompiledStrategyCache compiledStrategyCache;
     private final MetricsCalculator metricsCalculator;
     private final ObjectMapper objectMapper;
 
@@ -59,9 +61,10 @@ public class BacktestEngine {
             Strategy strategy = strategyService.getStrategyById(task.getStrategyId())
                     .orElseThrow(() -> new IllegalArgumentException("Strategy not found: " + task.getStrategyId()));
 
-            // Parse strategy conditions
-            EntryConditionConfig entryConfig = conditionEvaluator.parseEntryConditions(strategy.getEntryConditions());
-            ExitConditionConfig exitConfig = conditionEvaluator.parseExitConditions(strategy.getExitConditions());
+            // Conditions are compiled once per strategy version
+            CompiledStrategyCache.CompiledStrategy compiled = compiledStrategyCache.get(strategy);
+            EntryConditionConfig entryConfig = compiled.entryConfig();
+            ExitConditionConfig exitConfig = compiled.exitConfig();
 
             if (entryConfig == null || exitConfig == null) {
                 throw new IllegalArgumentException("Invalid strategy conditions");
@@ -81,7 +84,7 @@ public class BacktestEngine {
             String interval = intervals[0];
 
             // Run backtest
-            BacktestResult result = runBacktest(task, strategy, entryConfig, exitConfig, symbol, interval);
+            BacktestResult result = runBacktest(task, strategy, compiled.entry(), exitConfig, symbol, interval);
 
             // Save result
             backtestService.saveResult(result);
@@ -102,7 +105,7 @@ public class BacktestEngine {
     private BacktestResult runBacktest(
             BacktestTask task,
             Strategy strategy,
-            EntryConditionConfig entryConfig,
+            CompiledEntryConditions entryConditions,
             ExitConditionConfig exitConfig,
             String symbol,
             String interval) {
@@ -113,8 +116,8 @@ public class BacktestEngine {
         // Initialize backtest state
         BacktestState state = BacktestState.initialize(task.getId(), task.getInitialCapital());
 
-        // Load K-lines for the backtest period
-        List<Kline> klines = klineRepository.findBySymbolAndIntervalAndTimeRange(
+        // Load K-lines for the backtest period (read-only JDBC path, no managed entities)
+        List<Kline> klines = klineRepository.findRangeReadOnly(
                 symbol,
                 interval,
                 task.getStartTime().toInstant(),
@@ -171,7 +174,7 @@ public class BacktestEngine {
             // Check entry conditions if we have available capital
             if (state.getOpenPositions().size() < getMaxPositions(strategy) &&
                     state.getAvailableBalance().compareTo(BigDecimal.ZERO) > 0) {
-                checkEntryConditions(state, context, entryConfig, exitConfig, task, strategy, currentKline);
+                checkEntryConditions(state, context, entryConditions, exitConfig, task, strategy, currentKline);
             }
 
             // Update equity
@@ -200,13 +203,13 @@ public class BacktestEngine {
     private void checkEntryConditions(
             BacktestState state,
             ConditionEvaluator.EvaluationContext context,
-            EntryConditionConfig entryConfig,
+            CompiledEntryConditions entryConditions,
             ExitConditionConfig exitConfig,
             BacktestTask task,
             Strategy strategy,
             Kline currentKline) {
 
-        ConditionEvaluator.EvaluationResult result = conditionEvaluator.evaluateEntry(entryConfig, context);
+        ConditionEvaluator.EvaluationResult result = entryConditions.evaluate(context);
 
         if (result.satisfied()) {
             // Determine position side based on signal
@@ -51,49 +51,27 @@ public class ChanCalculationEngine {
             List<Bi> bis) {
     }
 
+    /**
+     * 按需计算：各阶段在首次访问时计算并缓存，只计算到调用方实际需要的阶段
+     */
+    public Computation compute(List<Kline> klines) {
+        return new Computation(klines);
+    }
+
     /**
      * 完整计算（包含线段和中枢）
      */
     public ChanResultFull calculateFull(List<Kline> klines) {
         log.info("Starting full Chan calculation with {} klines", klines.size());
 
-        // 1. 处理包含关系
-        List<MergedKline> mergedKlines = inclusionHandler.process(klines);
-        log.debug("After inclusion processing: {} merged klines", mergedKlines.size());
-
-        // 2. 识别分型
-        List<Fenxing> fenxings = fenxingIdentifier.identify(mergedKlines);
-        log.debug("Identified {} fenxings", fenxings.size());
-
-        // 3. 构建笔
-        List<Bi> bis = biBuilder.build(fenxings, mergedKlines);
-        log.debug("Built {} bis", bis.size());
-
-        // 4. 识别线段
-        List<Xianduan> xianduans = xianduanIdentifier.identify(bis);
-        log.debug("Identified {} xianduans", xianduans.size());
-
-        // 5. 识别中枢（笔中枢 + 线段中枢）
-        List<Zhongshu> biZhongshus = zhongshuIdentifier.identifyBiZhongshu(bis);
-        List<Zhongshu> xianduanZhongshus = zhongshuIdentifier.identifyXianduanZhongshu(xianduans);
-        List<Zhongshu> zhongshus = new java.util.ArrayList<>(biZhongshus);
-        zhongshus.addAll(xianduanZhongshus);
-        log.debug("Identified {} zhongshus (bi: {}, xianduan: {})", zhongshus.size(), biZhongshus.size(),
-                xianduanZhongshus.size());
-
-        // 6. 识别买卖点（只用已确认的线段）
-        List<Xianduan> confirmedXianduans = xianduans.stream()
-                .filter(Xianduan::isConfirmed)
-                .toList();
-        List<TradingPoint> tradingPoints = tradingPointIdentifier.identify(bis, confirmedXianduans, zhongshus, klines);
-        log.debug("Identified {} trading points", tradingPoints.size());
+        ChanResultFull result = compute(klines).toFull();
 
         log.info(
                 "Full Chan calculation completed: {} merged klines, {} fenxings, {} bis, {} xianduans, {} zhongshus, {} trading points",
-                mergedKlines.size(), fenxings.size(), bis.size(), xianduans.size(), zhongshus.size(),
-                tradingPoints.size());
+                result.mergedKlines().size(), result.fenxings().size(), result.bis().size(),
+                result.xianduans().size(), result.zhongshus().size(), result.tradingPoints().size());
 
-        return new ChanResultFull(mergedKlines, fenxings, bis, xianduans, zhongshus, tradingPoints);
+        return result;
     }
 
     /**
@@ -102,30 +80,20 @@ public class ChanCalculationEngine {
     public ChanResult calculate(List<Kline> klines) {
         log.info("Starting Chan calculation with {} klines", klines.size());
 
-        // 1. 处理包含关系
-        List<MergedKline> mergedKlines = inclusionHandler.process(klines);
-        log.debug("After inclusion processing: {} merged klines", mergedKlines.size());
-
-        // 2. 识别分型
-        List<Fenxing> fenxings = fenxingIdentifier.identify(mergedKlines);
-        log.debug("Identified {} fenxings", fenxings.size());
-
-        // 3. 构建笔
-        List<Bi> bis = biBuilder.build(fenxings, mergedKlines);
-        log.debug("Built {} bis", bis.size());
+        Computation computation = compute(klines);
+        ChanResult result = new ChanResult(computation.mergedKlines(), computation.fenxings(), computation.bis());
 
         log.info("Chan calculation completed: {} merged klines, {} fenxings, {} bis",
-                mergedKlines.size(), fenxings.size(), bis.size());
+                result.mergedKlines().size(), result.fenxings().size(), result.bis().size());
 
-        return new ChanResult(mergedKlines, fenxings, bis);
+        return result;
     }
 
     /**
      * 仅计算到分型
      */
     public List<Fenxing> calculateFenxings(List<Kline> klines) {
-        List<MergedKline> mergedKlines = inclusionHandler.process(klines);
-        return fenxingIdentifier.identify(mergedKlines);
+        return compute(klines).fenxings();
     }
 
     /**
@@ -139,9 +107,7 @@ public class ChanCalculationEngine {
      * 仅计算笔
      */
     public List<Bi> calculateBis(List<Kline> klines) {
-        List<MergedKline> mergedKlines = inclusionHandler.process(klines);
-        List<Fenxing> fenxings = fenxingIdentifier.identify(mergedKlines);
-        return biBuilder.build(fenxings, mergedKlines);
+        return compute(klines).bis();
     }
 
     /**
@@ -157,4 +123,93 @@ public class ChanCalculationEngine {
     public List<Zhongshu> calculateZhongshus(List<Bi> bis) {
         return zhongshuIdentifier.identifyBiZhongshu(bis);
     }
+
+    /**
+     * 单次按需计算（非线程安全，供单个请求使用）
+     * 流水线：K线 -> 包含处理 -> 分型 -> 笔 -> 线段 -> 中枢 -> 买卖点，访问某阶段时只计算其依赖的前序阶段
+     */
+    public final class Computation {
+
+        private final List<Kline> klines;
+        private List<MergedKline> mergedKlines;
+        private List<Fenxing> fenxings;
+        private List<Bi> bis;
+        private List<Xianduan> xianduans;
+        private List<Zhongshu> zhongshus;
+        private List<TradingPoint> tradingPoints;
+
+        private Computation(List<Kline> klines) {
+            this.klines = klines;
+        }
+
+        public List<Kline> klines() {
+            return klines;
+        }
+
+        public List<MergedKline> mergedKlines() {
+            if (mergedKlines == null) {
+                mergedKlines = inclusionHandler.process(klines);
+                log.debug("After inclusion processing: {} merged klines", mergedKlines.size());
+            }
+            return mergedKlines;
+        }
+
+        public List<Fenxing> fenxings() {
+            if (fenxings == null) {
+                fenxings = fenxingIdentifier.identify(mergedKlines());
+                log.debug("Identified {} fenxings", fenxings.size());
+            }
+            return fenxings;
+        }
+
+        public List<Bi> bis() {
+            if (bis == null) {
+                bis = biBuilder.build(fenxings(), mergedKlines());
+                log.debug("Built {} bis", bis.size());
+            }
+            return bis;
+        }
+
+        public List<Xianduan> xianduans() {
+            if (xianduans == null) {
+                xianduans = xianduanIdentifier.identify(bis());
+                log.debug("Identified {} xianduans", xianduans.size());
+            }
+            return xianduans;
+        }
+
+        /**
+         * 笔中枢 + 线段中枢
+         */
+        public List<Zhongshu> zhongshus() {
+            if (zhongshus == null) {
+                List<Zhongshu> biZhongshus = zhongshuIdentifier.identifyBiZhongshu(bis());
+                List<Zhongshu> xianduanZhongshus = zhongshuIdentifier.identifyXianduanZhongshu(xianduans());
+                List<Zhongshu> combined = new ArrayList<>(biZhongshus);
+                combined.addAll(xianduanZhongshus);
+                zhongshus = combined;
+                log.debug("Identified {} zhongshus (bi: {}, xianduan: {})", zhongshus.size(), biZhongshus.size(),
+                        xianduanZhongshus.size());
+            }
+            return zhongshus;
+        }
+
+        /**
+         * 买卖点（只用已确认的线段，需要计算 MACD 与背驰）
+         */
+        public List<TradingPoint> tradingPoints() {
+            if (tradingPoints == null) {
+                List<Xianduan> confirmedXianduans = xianduans().stream()
+                        .filter(Xianduan::isConfirmed)
+                        .toList();
+                tradingPoints = tradingPointIdentifier.identify(bis(), confirmedXianduans, zhongshus(), klines);
+                log.debug("Identified {} trading points", tradingPoints.size());
+            }
+            return tradingPoints;
+        }
+
+        public ChanResultFull toFull() {
+            return new ChanResultFull(mergedKlines(), fenxings(), bis(), xianduans(), zhongshus(), tradingPoints());
+        }
+    }
 }
@@ -0,0 +1,248 @@
+package com.lucance.boot.backend.chan.model;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * 轻量缠论分析的二进制列式编码（application/x-chan-columnar）
+ * <p>
+ * 全部小端序，每一列起始位置按 8 字节对齐，浏览器可直接用 Float64Array / Int32Array / Uint8Array 视图读取：
+ * <pre>
+ * header   : "CHAN" | int32 version | int32 dictSize | int32 × 7 各列表长度（klines, mergedKlines, fenxings,
+ *            bis, xianduans, zhongshus, tradingPoints）
+ * dict     : dictSize 个字符串，每个为 uint8 长度 + UTF-8 字节（枚举列存字典下标）
+ * klines   : f64 time(Δ) | f64 open | f64 high | f64 low | f64 close | f64 volume
+ * merged   : i32 index | f64 timestamp(Δ)
+ * fenxings : i32 index | u8 type | f64 price
+ * bis      : i32 startIndex | i32 endIndex | u8 direction | f64 startPrice | f64 endPrice
+ * xianduans: f64 startTime | f64 endTime | u8 direction | f64 startPrice | f64 endPrice
+ * zhongshus: f64 startTime | f64 endTime | f64 high | f64 low | f64 center
+ * points   : f64 timestamp | u8 type | i32 level | f64 price
+ * </pre>
+ * (Δ) 表示差分编码：首个值为绝对毫秒，其余为与前一个的差值，解码时求前缀和。
+ * 时间用 f64 存储（2^53 以内的整数精确），价格为 f64，缺失值为 NaN
+ */
+public final class ChanColumnarFormat {
+
+    public static final String MEDIA_TYPE = "application/x-chan-columnar";
+    public static final int VERSION = 1;
+
+    private static final byte[] MAGIC = { 'C', 'H', 'A', 'N' };
+    private static final int HEADER_SIZE = 4 + 4 + 4 + 7 * 4;
+
+    private ChanColumnarFormat() {
+    }
+
+    /**
+     * 编码K线与轻量缠论结果
+     */
+    public static byte[] encode(List<KlineLite> klines, ChanResultLite result) {
+        Dictionary dict = new Dictionary();
+        // 先登记枚举值，字典写在数据之前
+        result.fenxings().forEach(f -> dict.indexOf(f.type()));
+        result.bis().forEach(b -> dict.indexOf(b.direction()));
+        result.xianduans().forEach(x -> dict.indexOf(x.direction()));
+        result.tradingPoints().forEach(t -> dict.indexOf(t.type()));
+
+        Writer out = new Writer(estimateSize(klines.size(), result));
+        out.bytes(MAGIC);
+        out.int32(VERSION);
+        out.int32(dict.values.size());
+        out.int32(klines.size());
+        out.int32(result.mergedKlines().size());
+        out.int32(result.fenxings().size());
+        out.int32(result.bis().size());
+        out.int32(result.xianduans().size());
+        out.int32(result.zhongshus().size());
+        out.int32(result.tradingPoints().size());
+        for (byte[] value : dict.encoded) {
+            out.uint8(value.length);
+            out.bytes(value);
+        }
+        out.align();
+
+        out.deltaColumn(klines, KlineLite::time);
+        out.priceColumn(klines, KlineLite::open);
+        out.priceColumn(klines, KlineLite::high);
+        out.priceColumn(klines, KlineLite::low);
+        out.priceColumn(klines, KlineLite::close);
+        out.priceColumn(klines, KlineLite::volume);
+
+        List<ChanResultLite.MergedKlineLite> merged = result.mergedKlines();
+        out.intColumn(merged, ChanResultLite.MergedKlineLite::index);
+        out.deltaColumn(merged, ChanResultLite.MergedKlineLite::timestamp);
+
+        List<ChanResultLite.FenxingLite> fenxings = result.fenxings();
+        out.intColumn(fenxings, ChanResultLite.FenxingLite::index);
+        out.enumColumn(fenxings, ChanResultLite.FenxingLite::type, dict);
+        out.priceColumn(fenxings, ChanResultLite.FenxingLite::price);
+
+        List<ChanResultLite.BiLite> bis = result.bis();
+        out.intColumn(bis, ChanResultLite.BiLite::startIndex);
+        out.intColumn(bis, ChanResultLite.BiLite::endIndex);
+        out.enumColumn(bis, ChanResultLite.BiLite::direction, dict);
+        out.priceColumn(bis, ChanResultLite.BiLite::startPrice);
+        out.priceColumn(bis, ChanResultLite.BiLite::endPrice);
+
+        List<ChanResultLite.XianduanLite> xianduans = result.xianduans();
+        out.timeColumn(xianduans, ChanResultLite.XianduanLite::startTime);
+        out.timeColumn(xianduans, ChanResultLite.XianduanLite::endTime);
+        out.enumColumn(xianduans, ChanResultLite.XianduanLite::direction, dict);
+        out.priceColumn(xianduans, ChanResultLite.XianduanLite::startPrice);
+        out.priceColumn(xianduans, ChanResultLite.XianduanLite::endPrice);
+
+        List<ChanResultLite.ZhongshuLite> zhongshus = result.zhongshus();
+        out.timeColumn(zhongshus, ChanResultLite.ZhongshuLite::startTime);
+        out.timeColumn(zhongshus, ChanResultLite.ZhongshuLite::endTime);
+        out.priceColumn(zhongshus, ChanResultLite.ZhongshuLite::high);
+        out.priceColumn(zhongshus, ChanResultLite.ZhongshuLite::low);
+        out.priceColumn(zhongshus, ChanResultLite.ZhongshuLite::center);
+
+        List<ChanResultLite.TradingPointLite> points = result.tradingPoints();
+        out.timeColumn(points, ChanResultLite.TradingPointLite::timestamp);
+        out.enumColumn(points, ChanResultLite.TradingPointLite::type, dict);
+        out.intColumn(points, ChanResultLite.TradingPointLite::level);
+        out.priceColumn(points, ChanResultLite.TradingPointLite::price);
+
+        return out.toByteArray();
+    }
+
+    private static int estimateSize(int klineCount, ChanResultLite result) {
+        int rows = result.mergedKlines().size() + result.fenxings().size() + result.bis().size()
+                + result.xianduans().size() + result.zhongshus().size() + result.tradingPoints().size();
+        return HEADER_SIZE + 256 + klineCount * 48 + rows * 48 + 15 * 8;
+    }
+
+    /**
+     * 枚举字符串字典（最多 256 项）
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> index = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private final List<byte[]> encoded = new ArrayList<>();
+
+        int indexOf(String value) {
+            String key = value != null ? value : "";
+            Integer existing = index.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            if (values.size() == 256) {
+                throw new IllegalArgumentException("Too many distinct enum values for columnar encoding");
+            }
+            byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 255) {
+                throw new IllegalArgumentException("Enum value too long for columnar encoding: " + key);
+            }
+            index.put(key, values.size());
+            values.add(key);
+            encoded.add(bytes);
+            return values.size() - 1;
+        }
+    }
+
+    /**
+     * 小端序写入，每列结束后对齐到 8 字节
+     */
+    private static final class Writer {
+        private ByteBuffer buffer;
+
+        Writer(int capacity) {
+            buffer = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        void bytes(byte[] value) {
+            ensure(value.length);
+            buffer.put(value);
+        }
+
+        void uint8(int value) {
+            ensure(1);
+            buffer.put((byte) value);
+        }
+
+        void int32(int value) {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        void align() {
+            int padding = (8 - (buffer.position() & 7)) & 7;
+            ensure(padding);
+            buffer.position(buffer.position() + padding);
+        }
+
+        <T> void priceColumn(List<T> rows, Function<T, BigDecimal> getter) {
+            ensure(rows.size() * 8);
+            for (T row : rows) {
+                BigDecimal value = getter.apply(row);
+                buffer.putDouble(value != null ? value.doubleValue() : Double.NaN);
+            }
+            align();
+        }
+
+        <T> void timeColumn(List<T> rows, ToDoubleFunction<T> getter) {
+            ensure(rows.size() * 8);
+            for (T row : rows) {
+                buffer.putDouble(getter.applyAsDouble(row));
+            }
+            align();
+        }
+
+        <T> void deltaColumn(List<T> rows, ToLongFunction<T> getter) {
+            ensure(rows.size() * 8);
+            long previous = 0;
+            for (T row : rows) {
+                long value = getter.applyAsLong(row);
+                buffer.putDouble(value - previous);
+                previous = value;
+            }
+            align();
+        }
+
+        <T> void intColumn(List<T> rows, ToIntFunction<T> getter) {
+            ensure(rows.size() * 4);
+            for (T row : rows) {
+                buffer.putInt(getter.applyAsInt(row));
+            }
+            align();
+        }
+
+        <T> void enumColumn(List<T> rows, Function<T, String> getter, Dictionary dict) {
+            ensure(rows.size());
+            for (T row : rows) {
+                buffer.put((byte) dict.indexOf(getter.apply(row)));
+            }
+            align();
+        }
+
+        byte[] toByteArray() {
+            byte[] result = new byte[buffer.position()];
+            buffer.flip();
+            buffer.get(result);
+            return result;
+        }
+
+        private void ensure(int bytes) {
+            // 对齐填充最多 7 字节
+            if (buffer.remaining() >= bytes + 7) {
+                return;
+            }
+            int capacity = Math.max(buffer.capacity() * 2, buffer.position() + bytes + 8);
+            ByteBuffer grown = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.flip();
+            grown.put(buffer);
+            buffer = grown;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.lucance.boot.backend.chan.model;
+
+import com.lucance.boot.backend.chan.ChanCalculationEngine;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 轻量缠论结果（仅包含渲染必要字段，减少网络负载）
+ * 供 /api/chan/analysis?lite=true 与 /ws/chan 增量推送共用
+ */
+public record ChanResultLite(
+        List<MergedKlineLite> mergedKlines,
+        List<FenxingLite> fenxings,
+        List<BiLite> bis,
+        List<XianduanLite> xianduans,
+        List<ZhongshuLite> zhongshus,
+        List<TradingPointLite> tradingPoints) {
+
+    public ChanResultLite(ChanCalculationEngine.ChanResultFull full) {
+        this(
+                full.mergedKlines().stream()
+                        .map(m -> new MergedKlineLite(m.getIndex(), m.getTimestamp()))
+                        .toList(),
+                full.fenxings().stream()
+                        .map(f -> new FenxingLite(f.getCenterIndex(), f.getType().name(), f.getPrice())).toList(),
+                full.bis().stream()
+                        .map(b -> new BiLite(b.getStartFenxing().getCenterIndex(),
+                                b.getEndFenxing().getCenterIndex(), b.getDirection().name(), b.getStartPrice(),
+                                b.getEndPrice()))
+                        .toList(),
+                full.xianduans().stream()
+                        .map(x -> new XianduanLite(x.getStartTime(), x.getEndTime(), x.getDirection().name(),
+                                x.getStartPrice(), x.getEndPrice()))
+                        .toList(),
+                full.zhongshus().stream()
+                        .map(z -> new ZhongshuLite(z.getStartTime(), z.getEndTime(), z.getHigh(), z.getLow(),
+                                z.getCenter()))
+                        .toList(),
+                full.tradingPoints().stream().map(
+                        t -> new TradingPointLite(t.getTimestamp(), t.getType().name(), t.getLevel(), t.getPrice()))
+                        .toList());
+    }
+
+    public record MergedKlineLite(int index, long timestamp) {
+    }
+
+    public record FenxingLite(int index, String type, BigDecimal price) {
+    }
+
+    public record BiLite(int startIndex, int endIndex, String direction, BigDecimal startPrice,
+            BigDecimal endPrice) {
+    }
+
+    public record XianduanLite(long startTime, long endTime, String direction, BigDecimal startPrice,
+            BigDecimal endPrice) {
+    }
+
+    public record ZhongshuLite(long startTime, long endTime, BigDecimal high, BigDecimal low, BigDecimal center) {
+    }
+
+    public record TradingPointLite(long timestamp, String type, int level, BigDecimal price) {
+    }
+}
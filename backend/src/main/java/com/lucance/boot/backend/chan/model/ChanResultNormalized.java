@@ -0,0 +1,199 @@
+package com.lucance.boot.backend.chan.model;
+
+import com.lucance.boot.backend.chan.ChanCalculationEngine;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 归一化缠论结果（按下标引用，不含对象图）
+ * <p>
+ * 完整结果中笔持有分型与合并K线、线段持有笔、中枢持有笔/线段、买卖点持有关联结构，序列化时同一根合并K线会重复输出多次。
+ * 这里各结构只保存其引用对象在对应列表中的下标：
+ * <ul>
+ * <li>合并K线的原始K线为 klines[firstKline, firstKline + klineCount)</li>
+ * <li>分型、笔的合并K线由 leftIndex..rightIndex / 起止分型的 centerIndex 确定</li>
+ * <li>线段、中枢、买卖点引用 bis / xianduans / zhongshus 的下标，缺失为 null</li>
+ * </ul>
+ * 需要对象关系时用 {@link #fenxingBars}、{@link #biBars}、{@link #xianduanBis} 等按需取回
+ */
+public record ChanResultNormalized(
+        List<MergedBar> mergedKlines,
+        List<FenxingRef> fenxings,
+        List<BiRef> bis,
+        List<XianduanRef> xianduans,
+        List<ZhongshuRef> zhongshus,
+        List<TradingPointRef> tradingPoints) {
+
+    public static ChanResultNormalized from(ChanCalculationEngine.ChanResultFull full) {
+        Map<Object, Integer> fenxingIndex = indexOf(full.fenxings());
+        Map<Object, Integer> biIndex = indexOf(full.bis());
+        Map<Object, Integer> xianduanIndex = indexOf(full.xianduans());
+        Map<Object, Integer> zhongshuIndex = indexOf(full.zhongshus());
+
+        List<MergedBar> mergedKlines = new ArrayList<>(full.mergedKlines().size());
+        int firstKline = 0;
+        for (MergedKline m : full.mergedKlines()) {
+            int klineCount = m.getElements() != null ? m.getElements().size() : 1;
+            mergedKlines.add(new MergedBar(m.getIndex(), name(m.getDirection()), m.getOpen(), m.getHigh(), m.getLow(),
+                    m.getClose(), m.getVolume(), m.getTime().toEpochMilli(), firstKline, klineCount));
+            firstKline += klineCount;
+        }
+
+        List<FenxingRef> fenxings = full.fenxings().stream()
+                .map(f -> new FenxingRef(name(f.getType()), f.getCenterIndex(), f.getLeftIndex(), f.getRightIndex(),
+                        f.getPrice(), f.getTime() != null ? f.getTime().toEpochMilli() : 0, f.isConfirmed()))
+                .toList();
+
+        List<BiRef> bis = full.bis().stream()
+                .map(b -> new BiRef(fenxingIndex.get(b.getStartFenxing()), fenxingIndex.get(b.getEndFenxing()),
+                        name(b.getDirection()), b.getKlineCount(), b.getStartPrice(), b.getEndPrice(),
+                        b.getStartTime(), b.getEndTime(), b.isConfirmed()))
+                .toList();
+
+        List<XianduanRef> xianduans = full.xianduans().stream()
+                .map(x -> new XianduanRef(biIndex.get(x.getStartBi()), biIndex.get(x.getEndBi()),
+                        indices(x.getBis(), biIndex), name(x.getDirection()), x.getStartPrice(), x.getEndPrice(),
+                        x.getStartTime(), x.getEndTime(), x.isConfirmed(), x.isBroken(),
+                        x.getFeatures() == null ? List.of() : x.getFeatures().stream()
+                                .map(e -> new FeatureRef(e.getIndex(), biIndex.get(e.getBi1()),
+                                        biIndex.get(e.getBi2()), e.getHigh(), e.getLow(), e.isHasGap(),
+                                        e.getGapSize()))
+                                .toList()))
+                .toList();
+
+        List<ZhongshuRef> zhongshus = full.zhongshus().stream()
+                .map(z -> new ZhongshuRef(name(z.getLevel()), indices(z.getBiComponents(), biIndex),
+                        indices(z.getXianduanComponents(), xianduanIndex), z.getHigh(), z.getLow(), z.getCenter(),
+                        z.getStartTime(), z.getEndTime(), name(z.getType()), z.getOscillations(), z.isConfirmed()))
+                .toList();
+
+        List<TradingPointRef> tradingPoints = full.tradingPoints().stream()
+                .map(t -> new TradingPointRef(name(t.getType()), t.getLevel(), t.getPrice(), t.getTimestamp(),
+                        name(t.getConfidence()), t.getReason(),
+                        t.getDivergence() == null ? null : new DivergenceRef(
+                                name(t.getDivergence().getType()), t.getDivergence().getPriceChange(),
+                                t.getDivergence().getMacdChange(), t.getDivergence().getVolumeChange(),
+                                name(t.getDivergence().getStrength()),
+                                xianduanIndex.get(t.getDivergence().getXianduan1()),
+                                xianduanIndex.get(t.getDivergence().getXianduan2())),
+                        biIndex.get(t.getRelatedBi()), xianduanIndex.get(t.getRelatedXianduan()),
+                        zhongshuIndex.get(t.getRelatedZhongshu())))
+                .toList();
+
+        return new ChanResultNormalized(mergedKlines, fenxings, bis, xianduans, zhongshus, tradingPoints);
+    }
+
+    /**
+     * 分型包含的合并K线
+     */
+    public List<MergedBar> fenxingBars(int fenxing) {
+        FenxingRef f = fenxings.get(fenxing);
+        return mergedKlines.subList(f.leftIndex(), f.rightIndex() + 1);
+    }
+
+    /**
+     * 笔覆盖的合并K线（起止分型的中心K线之间，含两端）
+     */
+    public List<MergedBar> biBars(int bi) {
+        BiRef b = bis.get(bi);
+        return mergedKlines.subList(fenxings.get(b.startFenxing()).centerIndex(),
+                fenxings.get(b.endFenxing()).centerIndex() + 1);
+    }
+
+    /**
+     * 线段包含的笔
+     */
+    public List<BiRef> xianduanBis(int xianduan) {
+        int[] indices = xianduans.get(xianduan).bis();
+        List<BiRef> result = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            result.add(bis.get(index));
+        }
+        return result;
+    }
+
+    private static Map<Object, Integer> indexOf(List<?> items) {
+        Map<Object, Integer> index = new IdentityHashMap<>(items.size() * 2);
+        for (int i = 0; i < items.size(); i++) {
+            index.put(items.get(i), i);
+        }
+        return index;
+    }
+
+    private static int[] indices(List<?> items, Map<Object, Integer> index) {
+        if (items == null) {
+            return new int[0];
+        }
+        return items.stream()
+                .map(index::get)
+                .filter(i -> i != null)
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    private static String name(Enum<?> value) {
+        return value != null ? value.name() : null;
+    }
+
+    /**
+     * 合并K线，原始K线为 klines[firstKline, firstKline + klineCount)
+     */
+    public record MergedBar(int index, String direction, BigDecimal open, BigDecimal high, BigDecimal low,
+            BigDecimal close, BigDecimal volume, long time, int firstKline, int klineCount) {
+    }
+
+    /**
+     * 分型，leftIndex..rightIndex 为合并K线下标
+     */
+    public record FenxingRef(String type, int centerIndex, int leftIndex, int rightIndex, BigDecimal price,
+            long time, boolean confirmed) {
+    }
+
+    /**
+     * 笔，起止为分型下标
+     */
+    public record BiRef(Integer startFenxing, Integer endFenxing, String direction, int klineCount,
+            BigDecimal startPrice, BigDecimal endPrice, long startTime, long endTime, boolean confirmed) {
+    }
+
+    /**
+     * 线段，笔均为 bis 下标
+     */
+    public record XianduanRef(Integer startBi, Integer endBi, int[] bis, String direction, BigDecimal startPrice,
+            BigDecimal endPrice, long startTime, long endTime, boolean confirmed, boolean broken,
+            List<FeatureRef> features) {
+    }
+
+    /**
+     * 特征序列元素，bi1/bi2 为 bis 下标
+     */
+    public record FeatureRef(int index, Integer bi1, Integer bi2, BigDecimal high, BigDecimal low, boolean hasGap,
+            BigDecimal gapSize) {
+    }
+
+    /**
+     * 中枢，构成部分为 bis / xianduans 下标
+     */
+    public record ZhongshuRef(String level, int[] bis, int[] xianduans, BigDecimal high, BigDecimal low,
+            BigDecimal center, long startTime, long endTime, String type, int oscillations, boolean confirmed) {
+    }
+
+    /**
+     * 背驰，xianduan1/xianduan2 为 xianduans 下标
+     */
+    public record DivergenceRef(String type, BigDecimal priceChange, BigDecimal macdChange, BigDecimal volumeChange,
+            String strength, Integer xianduan1, Integer xianduan2) {
+    }
+
+    /**
+     * 买卖点，关联结构为对应列表下标
+     */
+    public record TradingPointRef(String type, int level, BigDecimal price, long timestamp, String confidence,
+            String reason, DivergenceRef divergence, Integer relatedBi, Integer relatedXianduan,
+            Integer relatedZhongshu) {
+    }
+}
@@ -0,0 +1,17 @@
+package com.lucance.boot.backend.chan.model;
+
+import com.lucance.boot.backend.entity.Kline;
+
+import java.math.BigDecimal;
+
+/**
+ * 轻量K线（仅包含渲染必要字段）
+ */
+public record KlineLite(long time, BigDecimal open, BigDecimal high, BigDecimal low, BigDecimal close,
+        BigDecimal volume) {
+
+    public static KlineLite of(Kline kline) {
+        return new KlineLite(kline.getTime().toEpochMilli(),
+                kline.getOpen(), kline.getHigh(), kline.getLow(), kline.getClose(), kline.getVolume());
+    }
+}
@@ -0,0 +1,19 @@
+package com.lucance.boot.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 历史数据回补配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "backfill")
+public class BackfillProperties {
+
+    /**
+     * 同时在途的批次请求数（限流由 HTTP 客户端的令牌桶保证）
+     */
+    private int pipelineDepth = 4;
+}
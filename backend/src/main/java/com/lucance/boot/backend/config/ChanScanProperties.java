@@ -0,0 +1,45 @@
+package com.lucance.boot.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 多序列批量缠论扫描配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "chan-scan")
+public class ChanScanProperties {
+
+    /**
+     * 并行计算线程数，0 表示使用 CPU 核数
+     */
+    private int parallelism = 0;
+
+    /**
+     * 单次请求最多扫描的序列数
+     */
+    private int maxSeries = 200;
+
+    /**
+     * 每个序列参与计算的K线数量上限
+     */
+    private int maxLimit = 2_000;
+
+    /**
+     * 每个序列返回的最新买卖点数量
+     */
+    private int tradingPoints = 3;
+
+    /**
+     * 单次扫描超时，超时未完成的序列返回错误
+     */
+    private Duration timeout = Duration.ofSeconds(60);
+
+    public int resolveParallelism() {
+        return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+}
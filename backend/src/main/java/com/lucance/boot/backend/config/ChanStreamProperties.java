@@ -0,0 +1,38 @@
+package com.lucance.boot.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 缠论结构实时推送配置（/ws/chan）
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "chan-stream")
+public class ChanStreamProperties {
+
+    /**
+     * 每个序列参与计算的K线数量；窗口增长到两倍后重新对齐并推送全量快照
+     */
+    private int window = 500;
+
+    /**
+     * 单个连接最多订阅的序列数
+     */
+    private int maxSubscriptionsPerSession = 20;
+
+    /**
+     * 单条消息发送超时，超时的连接视为失效并关闭
+     */
+    private Duration sendTimeLimit = Duration.ofSeconds(10);
+
+    /**
+     * 允许的跨域来源
+     */
+    private List<String> allowedOrigins = List.of("http://localhost:5173", "http://localhost:3000",
+            "http://localhost:8080");
+}
@@ -4,6 +4,8 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 /**
  * 交易所配置属性
  */
@@ -16,6 +18,22 @@ public class ExchangeProperties {
     private BinanceConfig binance = new BinanceConfig();
     private OkxConfig okx = new OkxConfig();
     private BybitConfig bybit = new BybitConfig();
+    private FanOutConfig fanOut = new FanOutConfig();
+    private RoutingConfig routing = new RoutingConfig();
+    private HttpPoolConfig httpPool = new HttpPoolConfig();
+
+    /**
+     * K线入库的交易所。klines 表没有交易所列，只保存这一个交易所的数据，
+     * 其他交易所的请求不能用数据库/热点缓存中的历史K线应答
+     */
+    private String persistedExchange = "binance";
+
+    /**
+     * 该交易所的K线是否保存在数据库中
+     */
+    public boolean isPersisted(String exchange) {
+        return exchange != null && exchange.equalsIgnoreCase(persistedExchange);
+    }
 
     @Data
     public static class ProxySettings {
@@ -35,6 +53,8 @@ public class ExchangeProperties {
         private String baseUrl = "https://api.binance.com";
         private String wsUrl = "wss://stream.binance.com:9443/ws";
         private RateLimitConfig rateLimit = new RateLimitConfig();
+        private StreamConfig stream = new StreamConfig();
+        private HttpClientConfig http = new HttpClientConfig();
     }
 
     @Data
@@ -44,6 +64,9 @@ public class ExchangeProperties {
         private String secretKey;
         private String passphrase;
         private String baseUrl = "https://www.okx.com";
+        // OKX 按端点限频，没有全局权重额度
+        private RateLimitConfig rateLimit = RateLimitConfig.of(10, 0);
+        private HttpClientConfig http = new HttpClientConfig();
     }
 
     @Data
@@ -52,11 +75,91 @@ public class ExchangeProperties {
         private String apiKey;
         private String secretKey;
         private String baseUrl = "https://api.bybit.com";
+        // Bybit 按 IP 与端点限频，没有全局权重额度
+        private RateLimitConfig rateLimit = RateLimitConfig.of(10, 0);
+        private HttpClientConfig http = new HttpClientConfig();
     }
 
     @Data
     public static class RateLimitConfig {
         private int requestsPerSecond = 10;
+        // 每分钟请求权重额度（按交易所的端点权重计数，Binance 对应 REQUEST_WEIGHT），小于等于 0 时不限制
         private int requestsPerMinute = 1200;
+
+        public static RateLimitConfig of(int requestsPerSecond, int requestsPerMinute) {
+            RateLimitConfig config = new RateLimitConfig();
+            config.setRequestsPerSecond(requestsPerSecond);
+            config.setRequestsPerMinute(requestsPerMinute);
+            return config;
+        }
+    }
+
+    /**
+     * WebSocket 组合流配置
+     */
+    @Data
+    public static class StreamConfig {
+        // 单连接最多订阅的流数量（Binance 上限 1024）
+        private int maxStreamsPerConnection = 1024;
+        // 单连接每秒最多发送的控制消息数（Binance 上限 5，含 ping/pong，预留余量）
+        private int maxMessagesPerSecond = 4;
+        // 单条 SUBSCRIBE/UNSUBSCRIBE 消息携带的流数量
+        private int subscribeBatchSize = 200;
+    }
+
+    /**
+     * 多交易所并发查询配置
+     */
+    @Data
+    public static class FanOutConfig {
+        // 单个交易所的超时时间，超时的交易所视为失败
+        private Duration timeout = Duration.ofSeconds(3);
+    }
+
+    /**
+     * 按延迟与错误率路由读请求的配置
+     */
+    @Data
+    public static class RoutingConfig {
+        // 统计窗口
+        private Duration window = Duration.ofSeconds(60);
+        // 窗口内样本数不足时不触发熔断
+        private int minSamples = 10;
+        // 窗口内错误率达到该值（0~1）时熔断
+        private double errorRateThreshold = 0.5;
+        // 熔断持续时间，到期后半开重新统计
+        private Duration openDuration = Duration.ofSeconds(30);
+        // 首选交易所超过其 p95 仍未返回时向次选交易所发起对冲请求
+        private boolean hedge = true;
+        // 对冲等待的下限（样本不足时使用）
+        private Duration minHedgeDelay = Duration.ofMillis(200);
+    }
+
+    /**
+     * 所有交易所共享的 HTTP 连接池与调度线程配置
+     */
+    @Data
+    public static class HttpPoolConfig {
+        // 连接池保留的最大空闲连接数（所有交易所合计）
+        private int maxIdleConnections = 20;
+        // 空闲连接保活时间（连接池共享，对所有交易所生效）
+        private Duration keepAlive = Duration.ofMinutes(5);
+        // WebSocket 重连、控制消息节流共用的调度线程数
+        private int schedulerThreads = 2;
+    }
+
+    /**
+     * 单个交易所的 HTTP 客户端配置（在共享连接池之上按交易所调整）
+     */
+    @Data
+    public static class HttpClientConfig {
+        // 该交易所同时在途的最大请求数
+        private int maxRequests = 256;
+        // 单个主机同时在途的最大请求数
+        private int maxRequestsPerHost = 64;
+        // 是否协商 HTTP/2（关闭时仅使用 HTTP/1.1）
+        private boolean http2 = true;
+        private Duration connectTimeout = Duration.ofSeconds(10);
+        private Duration readTimeout = Duration.ofSeconds(30);
     }
 }
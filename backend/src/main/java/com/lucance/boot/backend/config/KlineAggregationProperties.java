@@ -0,0 +1,63 @@
+package com.lucance.boot.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * K线聚合配置
+ * 开启后只从交易所采集基础周期（默认1m），更高周期由基础周期聚合得到
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "kline-aggregation")
+public class KlineAggregationProperties {
+
+    /**
+     * 是否开启派生周期
+     */
+    private boolean enabled = false;
+
+    /**
+     * 聚合方式
+     */
+    private Mode mode = Mode.ROLLUP;
+
+    /**
+     * 基础周期，只有该周期会从交易所采集
+     */
+    private String baseInterval = "1m";
+
+    /**
+     * 由基础周期派生的周期
+     */
+    private List<String> derivedIntervals = new ArrayList<>(List.of("5m", "15m", "30m", "1h", "4h", "1d"));
+
+    public enum Mode {
+        /**
+         * 应用内增量聚合，派生K线写回 klines 表（H2 / 普通 Postgres）
+         */
+        ROLLUP,
+        /**
+         * TimescaleDB 连续聚合，派生K线从 klines_<interval> 视图读取
+         */
+        CONTINUOUS_AGGREGATE
+    }
+
+    /**
+     * 判断周期是否为派生周期
+     */
+    public boolean isDerived(String interval) {
+        return enabled && interval != null && derivedIntervals.contains(interval);
+    }
+
+    /**
+     * 判断派生周期是否从连续聚合视图读取
+     */
+    public boolean isContinuousAggregate(String interval) {
+        return mode == Mode.CONTINUOUS_AGGREGATE && isDerived(interval);
+    }
+}
@@ -0,0 +1,45 @@
+package com.lucance.boot.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 热点K线缓存配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "kline-cache")
+public class KlineCacheProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 每个序列保留的最新K线数量
+     */
+    private int capacity = 2000;
+
+    /**
+     * 最多缓存的序列数，超出时按 LRU 淘汰未订阅的序列
+     */
+    private int maxSeries = 200;
+
+    /**
+     * 未订阅序列的有效期，过期后重新从数据库加载
+     */
+    private Duration unsubscribedTtl = Duration.ofSeconds(60);
+
+    /**
+     * 启动时预热的交易所
+     */
+    private String warmExchange = "binance";
+
+    /**
+     * 启动时为 market.symbols 预热的周期
+     */
+    private List<String> warmIntervals = new ArrayList<>(List.of("1m", "15m", "1h", "4h", "1d"));
+}
@@ -0,0 +1,47 @@
+package com.lucance.boot.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 实时K线分发配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "kline-dispatch")
+public class KlineDispatchProperties {
+
+    /**
+     * 关闭时回调直接在 WebSocket 读线程上执行
+     */
+    private boolean enabled = true;
+
+    /**
+     * 每个 (symbol, interval) 流的队列容量
+     */
+    private int queueCapacity = 256;
+
+    /**
+     * 队列满时的处理策略（闭合K线任何策略下都不丢弃）
+     */
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST_PARTIAL;
+
+    /**
+     * 排队延迟超过该值时告警
+     */
+    private Duration lagWarnThreshold = Duration.ofSeconds(2);
+
+    public enum OverflowPolicy {
+        /**
+         * 丢弃队列中最早的未闭合K线，为新消息腾出位置
+         */
+        DROP_OLDEST_PARTIAL,
+        /**
+         * 丢弃新到达的未闭合K线
+         */
+        DROP_NEWEST_PARTIAL
+    }
+}
@@ -0,0 +1,45 @@
+package com.lucance.boot.backend.config;
+
+import com.lucance.boot.backend.util.KlineIntervalUtil;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * K线查询限制配置
+ * 一次性返回整个列表的接口按时间范围估算行数并设上限，更大的范围使用分页或 NDJSON 导出
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "kline-query")
+public class KlineQueryProperties {
+
+    /**
+     * 一次性返回列表的接口允许的最大行数（按时间范围 / 周期估算）
+     */
+    private int maxRangeRows = 50_000;
+
+    /**
+     * 分页接口的默认每页行数
+     */
+    private int defaultPageSize = 1_000;
+
+    /**
+     * 分页接口的最大每页行数
+     */
+    private int maxPageSize = 10_000;
+
+    /**
+     * 范围是否超过一次性返回的上限（无固定时长的周期不做估算）
+     */
+    public void checkRange(String interval, long startTime, long endTime) {
+        if (!KlineIntervalUtil.isSupported(interval)) {
+            return;
+        }
+        long rows = (endTime - startTime) / KlineIntervalUtil.toMillis(interval);
+        if (rows > maxRangeRows) {
+            throw new IllegalArgumentException("Range covers about " + rows + " klines, max " + maxRangeRows
+                    + "; use /api/klines/page or /api/klines/export for larger ranges");
+        }
+    }
+}
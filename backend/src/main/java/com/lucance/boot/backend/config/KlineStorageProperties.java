@@ -0,0 +1,67 @@
+package com.lucance.boot.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * K线存储策略配置
+ * TimescaleDB 分块、压缩与保留策略，启动时幂等应用
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "kline-storage")
+public class KlineStorageProperties {
+
+    /**
+     * 是否在启动时应用存储策略
+     */
+    private boolean enabled = true;
+
+    /**
+     * klines 超表的分块时长（仅影响新建分块）
+     */
+    private Duration chunkInterval = Duration.ofDays(1);
+
+    /**
+     * 各派生周期连续聚合的分块时长，key 为周期
+     */
+    private Map<String, Duration> aggregateChunkIntervals = new LinkedHashMap<>(Map.of(
+            "1h", Duration.ofDays(30),
+            "4h", Duration.ofDays(90),
+            "1d", Duration.ofDays(365)));
+
+    private Compression compression = new Compression();
+    private Retention retention = new Retention();
+
+    @Data
+    public static class Compression {
+        private boolean enabled = true;
+        /**
+         * 超过该时长的分块进行压缩
+         */
+        private Duration after = Duration.ofDays(7);
+    }
+
+    @Data
+    public static class Retention {
+        /**
+         * 逐笔级别（秒级）周期，只保留最近一段时间
+         */
+        private List<String> tickIntervals = new ArrayList<>(List.of("1s"));
+        /**
+         * 逐笔级别数据的保留时长，应小于压缩时长
+         */
+        private Duration tickKeep = Duration.ofDays(3);
+        /**
+         * 整表保留时长，为空表示不删除
+         */
+        private Duration dropAfter;
+    }
+}
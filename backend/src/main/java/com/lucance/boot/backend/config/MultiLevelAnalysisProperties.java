@@ -0,0 +1,33 @@
+package com.lucance.boot.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 多级别缠论分析配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "multi-level")
+public class MultiLevelAnalysisProperties {
+
+    /**
+     * 每个级别参与计算的K线数量
+     */
+    private int window = 500;
+
+    /**
+     * 各级别并行计算的线程数，0 表示使用 CPU 核数
+     */
+    private int parallelism = 0;
+
+    /**
+     * 是否用最小级别的K线补齐高级别最近的（含未闭合）K线
+     */
+    private boolean deriveFromBase = true;
+
+    public int resolveParallelism() {
+        return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+}
@@ -0,0 +1,40 @@
+package com.lucance.boot.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 逐笔成交合成K线配置
+ * 启用后，列出的周期改为订阅交易所成交流并在进程内合成，而不是订阅交易所K线流
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "trade-ingest")
+public class TradeIngestProperties {
+
+    /**
+     * 是否启用
+     */
+    private boolean enabled = false;
+
+    /**
+     * 由成交合成的周期，可包含交易所不提供的周期（如 10s）
+     */
+    private List<String> intervals = List.of("1s");
+
+    /**
+     * 未闭合K线的最小推送间隔
+     */
+    private Duration publishInterval = Duration.ofMillis(250);
+
+    /**
+     * 该周期是否由成交合成
+     */
+    public boolean isTradeInterval(String interval) {
+        return enabled && intervals.contains(interval);
+    }
+}
@@ -0,0 +1,26 @@
+package com.lucance.boot.backend.config;
+
+import com.lucance.boot.backend.controller.ChanStreamHandler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/**
+ * WebSocket 配置
+ */
+@Configuration
+@EnableWebSocket
+@RequiredArgsConstructor
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final ChanStreamHandler chanStreamHandler;
+    private final ChanStreamProperties chanStreamProperties;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(chanStreamHandler, "/ws/chan")
+                .setAllowedOrigins(chanStreamProperties.getAllowedOrigins().toArray(String[]::new));
+    }
+}
@@ -2,21 +2,35 @@ package com.lucance.boot.backend.controller;
 
 import com.lucance.boot.backend.chan.ChanCalculationEngine;
 import com.lucance.boot.backend.chan.model.Bi;
+import com.lucance.boot.backend.chan.model.ChanColumnarFormat;
+import com.lucance.boot.backend.chan.model.ChanResultLite;
+import com.lucance.boot.backend.chan.model.ChanResultNormalized;
 import com.lucance.boot.backend.chan.model.Fenxing;
+import com.lucance.boot.backend.chan.model.KlineLite;
 import com.lucance.boot.backend.chan.model.MergedKline;
 import com.lucance.boot.backend.chan.model.TradingPoint;
 import com.lucance.boot.backend.chan.model.Xianduan;
 import com.lucance.boot.backend.chan.model.Zhongshu;
+import com.lucance.boot.backend.config.ExchangeProperties;
+import com.lucance.boot.backend.config.KlineQueryProperties;
 import com.lucance.boot.backend.entity.Kline;
 import com.lucance.boot.backend.exchange.ExchangeAdapter;
 import com.lucance.boot.backend.repository.KlineRepository;
+import com.lucance.boot.backend.repository.KlineRepositoryCustom;
+import com.lucance.boot.backend.service.ChanScanService;
+import com.lucance.boot.backend.service.ChanStreamService;
 import com.lucance.boot.backend.service.ExchangeRouterService;
+import com.lucance.boot.backend.service.KlineCacheService;
+import com.lucance.boot.backend.service.RequestCoalescingService;
+import com.lucance.boot.backend.util.KlineIntervalUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -33,6 +47,12 @@ public class ChanController {
     private final ChanCalculationEngine chanEngine;
     private final KlineRepository klineRepository;
     private final ExchangeRouterService exchangeRouterService;
+    private final KlineCacheService klineCacheService;
+    private final ChanStreamService chanStreamService;
+    private final KlineQueryProperties queryProperties;
+    private final ExchangeProperties exchangeProperties;
+    private final RequestCoalescingService coalescingService;
+    private final ChanScanService chanScanService;
 
     /**
      * 基础缠论计算（到笔）
@@ -56,21 +76,27 @@ public class ChanController {
 
     /**
      * 完整缠论计算（包含线段和中枢）
+     *
+     * @param normalized 为 true 时返回按下标引用的归一化结果（{@link ChanResultNormalized}），不重复输出对象图
      */
     @GetMapping("/calculate-full")
-    public ResponseEntity<ChanCalculationEngine.ChanResultFull> calculateFull(
+    public ResponseEntity<?> calculateFull(
             @RequestParam String symbol,
             @RequestParam String interval,
             @RequestParam(required = false) Long startTime,
             @RequestParam(required = false) Long endTime,
             @RequestParam(defaultValue = "500") Integer limit,
-            @RequestParam(defaultValue = "binance") String exchange) {
+            @RequestParam(defaultValue = "binance") String exchange,
+            @RequestParam(defaultValue = "false") boolean normalized) {
 
         log.info("Full Chan calculation request: symbol={}, interval={}, limit={}, exchange={}",
                 symbol, interval, limit, exchange);
 
-        List<Kline> klines = getKlines(symbol, interval, startTime, endTime, limit, exchange);
-        ChanCalculationEngine.ChanResultFull result = chanEngine.calculateFull(klines);
+        Object result = coalescingService.execute("chan.calculate-full", () -> {
+            List<Kline> klines = getKlines(symbol, interval, startTime, endTime, limit, exchange);
+            ChanCalculationEngine.ChanResultFull full = chanEngine.calculateFull(klines);
+            return normalized ? ChanResultNormalized.from(full) : full;
+        }, exchange.toLowerCase(), symbol, interval, startTime, endTime, limit, normalized);
         return ResponseEntity.ok(result);
     }
 
@@ -78,7 +104,8 @@ public class ChanController {
      * Return same-batch klines and FULL chan result (including
      * xianduan/zhongshu/tradingPoints).
      * 
-     * @param lite if true, return lightweight fields only (reduce network payload)
+     * @param lite       if true, return lightweight fields only (reduce network payload)
+     * @param normalized if true (and not lite), return the index-based result without duplicated object graphs
      */
     @GetMapping("/analysis")
     public ResponseEntity<?> getAnalysis(
@@ -88,15 +115,43 @@ public class ChanController {
             @RequestParam(required = false) Long endTime,
             @RequestParam(defaultValue = "500") Integer limit,
             @RequestParam(defaultValue = "binance") String exchange,
-            @RequestParam(defaultValue = "false") boolean lite) {
+            @RequestParam(defaultValue = "false") boolean lite,
+            @RequestParam(defaultValue = "false") boolean normalized) {
+
+        // 同一时刻打开看板的大量请求共享一次取数与计算
+        Object response = coalescingService.execute("chan.analysis", () -> {
+            List<Kline> klines = getKlines(symbol, interval, startTime, endTime, limit, exchange);
+            ChanCalculationEngine.ChanResultFull result = chanEngine.calculateFull(klines);
+            if (lite) {
+                return new ChanAnalysisResponseLite(klines, result);
+            }
+            return normalized ? new ChanAnalysisResponseNormalized(klines, result)
+                    : new ChanAnalysisResponseFull(klines, result);
+        }, exchange.toLowerCase(), symbol, interval, startTime, endTime, limit, lite, normalized);
+        return ResponseEntity.ok(response);
+    }
 
-        List<Kline> klines = getKlines(symbol, interval, startTime, endTime, limit, exchange);
-        ChanCalculationEngine.ChanResultFull result = chanEngine.calculateFull(klines);
+    /**
+     * 完整缠论分析的二进制列式版本（Accept: application/x-chan-columnar）
+     * 字段与 lite=true 相同，编码格式见 {@link ChanColumnarFormat}
+     */
+    @GetMapping(value = "/analysis", produces = ChanColumnarFormat.MEDIA_TYPE)
+    public ResponseEntity<byte[]> getAnalysisColumnar(
+            @RequestParam String symbol,
+            @RequestParam String interval,
+            @RequestParam(required = false) Long startTime,
+            @RequestParam(required = false) Long endTime,
+            @RequestParam(defaultValue = "500") Integer limit,
+            @RequestParam(defaultValue = "binance") String exchange) {
 
-        if (lite) {
-            return ResponseEntity.ok(new ChanAnalysisResponseLite(klines, result));
-        }
-        return ResponseEntity.ok(new ChanAnalysisResponseFull(klines, result));
+        byte[] body = coalescingService.execute("chan.analysis.columnar", () -> {
+            List<Kline> klines = getKlines(symbol, interval, startTime, endTime, limit, exchange);
+            ChanAnalysisResponseLite lite = new ChanAnalysisResponseLite(klines, chanEngine.calculateFull(klines));
+            return ChanColumnarFormat.encode(lite.klines(), lite.result());
+        }, exchange.toLowerCase(), symbol, interval, startTime, endTime, limit);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ChanColumnarFormat.MEDIA_TYPE))
+                .body(body);
     }
 
     /**
@@ -146,8 +201,7 @@ public class ChanController {
             @RequestParam(defaultValue = "binance") String exchange) {
 
         List<Kline> klines = getKlines(symbol, interval, startTime, endTime, limit, exchange);
-        ChanCalculationEngine.ChanResultFull result = chanEngine.calculateFull(klines);
-        return ResponseEntity.ok(result.xianduans());
+        return ResponseEntity.ok(chanEngine.compute(klines).xianduans());
     }
 
     /**
@@ -163,8 +217,7 @@ public class ChanController {
             @RequestParam(defaultValue = "binance") String exchange) {
 
         List<Kline> klines = getKlines(symbol, interval, startTime, endTime, limit, exchange);
-        ChanCalculationEngine.ChanResultFull result = chanEngine.calculateFull(klines);
-        return ResponseEntity.ok(result.zhongshus());
+        return ResponseEntity.ok(chanEngine.compute(klines).zhongshus());
     }
 
     /**
@@ -184,6 +237,62 @@ public class ChanController {
         return ResponseEntity.ok(mergedKlines);
     }
 
+    /**
+     * 批量获取缠论结构：一次取K线、一次计算，只返回 include 指定的结构，也只计算到其所需的阶段
+     *
+     * @param include 逗号分隔，可选 klines, mergedKlines, fenxings, bis, xianduans, zhongshus, tradingPoints
+     */
+    @GetMapping("/structures")
+    public ResponseEntity<Map<String, Object>> getStructures(
+            @RequestParam String symbol,
+            @RequestParam String interval,
+            @RequestParam List<String> include,
+            @RequestParam(required = false) Long startTime,
+            @RequestParam(required = false) Long endTime,
+            @RequestParam(defaultValue = "500") Integer limit,
+            @RequestParam(defaultValue = "binance") String exchange) {
+
+        Map<String, Object> response = coalescingService.execute("chan.structures", () -> {
+            List<Kline> klines = getKlines(symbol, interval, startTime, endTime, limit, exchange);
+            ChanCalculationEngine.Computation computation = chanEngine.compute(klines);
+
+            Map<String, Object> structures = new LinkedHashMap<>();
+            for (String name : include) {
+                String structure = name.trim();
+                structures.put(structure, switch (structure) {
+                    case "klines" -> computation.klines();
+                    case "mergedKlines" -> computation.mergedKlines();
+                    case "fenxings" -> computation.fenxings();
+                    case "bis" -> computation.bis();
+                    case "xianduans" -> computation.xianduans();
+                    case "zhongshus" -> computation.zhongshus();
+                    case "tradingPoints" -> computation.tradingPoints();
+                    default -> throw new IllegalArgumentException("Unknown structure: " + structure);
+                });
+            }
+            return structures;
+        }, exchange.toLowerCase(), symbol, interval, startTime, endTime, limit, String.join(",", include));
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 多序列批量扫描：一次请求返回各序列的趋势、当前中枢与最新买卖点
+     * 请求体: {"exchange":"binance","limit":500,"series":[{"symbol":"BTC/USDT","interval":"1h"}, ...]}
+     */
+    @PostMapping("/scan")
+    public ResponseEntity<List<ChanScanService.SeriesSummary>> scan(@RequestBody ScanRequest request) {
+        if (request.series() == null || request.series().isEmpty()) {
+            throw new IllegalArgumentException("series is required");
+        }
+        List<KlineRepositoryCustom.SeriesKey> series = request.series().stream()
+                .map(target -> new KlineRepositoryCustom.SeriesKey(target.symbol(), target.interval()))
+                .toList();
+        return ResponseEntity.ok(chanScanService.scan(
+                request.exchange() != null ? request.exchange() : "binance",
+                series,
+                request.limit() != null ? request.limit() : 500));
+    }
+
     /**
      * 获取计算统计
      */
@@ -197,7 +306,8 @@ public class ChanController {
             @RequestParam(defaultValue = "binance") String exchange) {
 
         List<Kline> klines = getKlines(symbol, interval, startTime, endTime, limit, exchange);
-        ChanCalculationEngine.ChanResultFull result = chanEngine.calculateFull(klines);
+        // 统计不需要买卖点，只计算到中枢
+        ChanCalculationEngine.Computation result = chanEngine.compute(klines);
 
         return ResponseEntity.ok(Map.of(
                 "exchange", exchange,
@@ -218,9 +328,13 @@ public class ChanController {
      */
     private List<Kline> getKlines(String symbol, String interval, Long startTime, Long endTime,
             Integer limit, String exchange) {
-        // 优先从数据库查询
-        if (startTime != null && endTime != null) {
-            List<Kline> klines = klineRepository.findBySymbolAndIntervalAndTimeRange(
+        // 数据库只保存入库交易所的K线，其他交易所直接回源
+        boolean persisted = exchangeProperties.isPersisted(exchange);
+
+        // 优先从数据库查询（缠论计算需要整段K线在内存中，范围过大时直接拒绝）
+        if (persisted && startTime != null && endTime != null) {
+            queryProperties.checkRange(interval, startTime, endTime);
+            List<Kline> klines = klineRepository.findRangeReadOnly(
                     symbol, interval,
                     Instant.ofEpochMilli(startTime),
                     Instant.ofEpochMilli(endTime));
@@ -229,11 +343,43 @@ public class ChanController {
             }
         }
 
+        // 最新K线：实时订阅的序列（由该交易所推送维护）从热点缓存读取，入库交易所持续同步的序列从缓存/数据库读取；
+        // 根数不足或数据已落后时回源交易所
+        if (startTime == null && endTime == null) {
+            List<Kline> stored = null;
+            if (klineCacheService.isLive(exchange, symbol, interval)) {
+                stored = klineCacheService.getLatest(exchange, symbol, interval, limit);
+            } else if (persisted) {
+                stored = klineCacheService.getLatestOrLoad(exchange, symbol, interval, limit);
+            }
+            if (stored != null && stored.size() >= limit && isRecent(stored, interval)) {
+                return stored;
+            }
+        }
+
         // 从指定交易所获取
         ExchangeAdapter adapter = exchangeRouterService.getAdapter(exchange);
         return adapter.getKlines(symbol, interval, startTime, endTime, limit);
     }
 
+    /**
+     * 最新一根K线距今不超过两个周期，视为持续同步中的序列
+     */
+    private boolean isRecent(List<Kline> klines, String interval) {
+        // 月线等无固定时长的周期无法判断，交给交易所
+        if (klines.isEmpty() || !KlineIntervalUtil.isSupported(interval)) {
+            return false;
+        }
+        long lastTime = klines.get(klines.size() - 1).getTime().toEpochMilli();
+        return System.currentTimeMillis() - lastTime <= 2 * KlineIntervalUtil.toMillis(interval);
+    }
+
+    public record ScanRequest(String exchange, Integer limit, List<ScanTarget> series) {
+    }
+
+    public record ScanTarget(String symbol, String interval) {
+    }
+
     public record ChanAnalysisResponse(List<Kline> klines, ChanCalculationEngine.ChanResult result) {
     }
 
@@ -251,69 +397,30 @@ public class ChanController {
             ChanResultLite result) {
         public ChanAnalysisResponseLite(List<Kline> klines, ChanCalculationEngine.ChanResultFull full) {
             this(
-                    klines.stream().map(k -> new KlineLite(
-                            k.getTime().toEpochMilli(),
-                            k.getOpen(), k.getHigh(), k.getLow(), k.getClose(), k.getVolume())).toList(),
+                    klines.stream().map(KlineLite::of).toList(),
                     new ChanResultLite(full));
         }
     }
 
-    public record KlineLite(long time, java.math.BigDecimal open, java.math.BigDecimal high,
-            java.math.BigDecimal low, java.math.BigDecimal close, java.math.BigDecimal volume) {
-    }
-
-    public record ChanResultLite(
-            List<MergedKlineLite> mergedKlines,
-            List<FenxingLite> fenxings,
-            List<BiLite> bis,
-            List<XianduanLite> xianduans,
-            List<ZhongshuLite> zhongshus,
-            List<TradingPointLite> tradingPoints) {
-        public ChanResultLite(ChanCalculationEngine.ChanResultFull full) {
+    /**
+     * 归一化缠论分析响应（结构间按下标引用，合并K线的原始K线为 klines 下标区间）
+     */
+    public record ChanAnalysisResponseNormalized(
+            List<KlineLite> klines,
+            ChanResultNormalized result) {
+        public ChanAnalysisResponseNormalized(List<Kline> klines, ChanCalculationEngine.ChanResultFull full) {
             this(
-                    full.mergedKlines().stream()
-                            .map(m -> new MergedKlineLite(m.getIndex(), m.getTimestamp()))
-                            .toList(),
-                    full.fenxings().stream()
-                            .map(f -> new FenxingLite(f.getCenterIndex(), f.getType().name(), f.getPrice())).toList(),
-                    full.bis().stream()
-                            .map(b -> new BiLite(b.getStartFenxing().getCenterIndex(),
-                                    b.getEndFenxing().getCenterIndex(), b.getDirection().name(), b.getStartPrice(),
-                                    b.getEndPrice()))
-                            .toList(),
-                    full.xianduans().stream()
-                            .map(x -> new XianduanLite(x.getStartTime(), x.getEndTime(), x.getDirection().name(),
-                                    x.getStartPrice(), x.getEndPrice()))
-                            .toList(),
-                    full.zhongshus().stream()
-                            .map(z -> new ZhongshuLite(z.getStartTime(), z.getEndTime(), z.getHigh(), z.getLow(),
-                                    z.getCenter()))
-                            .toList(),
-                    full.tradingPoints().stream().map(
-                            t -> new TradingPointLite(t.getTimestamp(), t.getType().name(), t.getLevel(), t.getPrice()))
-                            .toList());
+                    klines.stream().map(KlineLite::of).toList(),
+                    ChanResultNormalized.from(full));
         }
     }
 
-    public record MergedKlineLite(int index, long timestamp) {
-    }
-
-    public record FenxingLite(int index, String type, java.math.BigDecimal price) {
-    }
-
-    public record BiLite(int startIndex, int endIndex, String direction, java.math.BigDecimal startPrice,
-            java.math.BigDecimal endPrice) {
-    }
-
-    public record XianduanLite(long startTime, long endTime, String direction, java.math.BigDecimal startPrice,
-            java.math.BigDecimal endPrice) {
-    }
-
-    public record ZhongshuLite(long startTime, long endTime, java.math.BigDecimal high, java.math.BigDecimal low,
-            java.math.BigDecimal center) {
-    }
-
-    public record TradingPointLite(long timestamp, String type, int level, java.math.BigDecimal price) {
+    /**
+     * 实时推送（/ws/chan）统计
+     */
+    @GetMapping("/stream/stats")
+    public ResponseEntity<List<ChanStreamService.StreamStats>> getStreamStats() {
+        return ResponseEntity.ok(chanStreamService.getStats());
     }
 
     /**
@@ -329,7 +436,6 @@ public class ChanController {
             @RequestParam(defaultValue = "binance") String exchange) {
 
         List<Kline> klines = getKlines(symbol, interval, startTime, endTime, limit, exchange);
-        ChanCalculationEngine.ChanResultFull result = chanEngine.calculateFull(klines);
-        return ResponseEntity.ok(result.tradingPoints());
+        return ResponseEntity.ok(chanEngine.compute(klines).tradingPoints());
     }
 }
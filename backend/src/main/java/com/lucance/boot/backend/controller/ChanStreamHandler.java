@@ -0,0 +1,121 @@
+package com.lucance.boot.backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lucance.boot.backend.config.ChanStreamProperties;
+import com.lucance.boot.backend.service.ChanStreamService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 缠论结构实时推送（/ws/chan）
+ * 客户端消息:
+ * {"action":"subscribe","exchange":"binance","symbol":"BTC/USDT","interval":"1m"}
+ * {"action":"unsubscribe","exchange":"binance","symbol":"BTC/USDT","interval":"1m"}
+ * 服务端消息见 {@link ChanStreamService.StreamMessage}，出错时返回 {"type":"error","message":"..."}
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChanStreamHandler extends TextWebSocketHandler {
+
+    // 发送缓冲上限，超过说明客户端已严重落后，关闭连接
+    private static final int SEND_BUFFER_LIMIT = 4 * 1024 * 1024;
+
+    private final ChanStreamService chanStreamService;
+    private final ChanStreamProperties properties;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // 连接 -> (序列 -> 订阅)
+    private final Map<String, ClientSession> sessions = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        WebSocketSession decorated = new ConcurrentWebSocketSessionDecorator(session,
+                (int) properties.getSendTimeLimit().toMillis(), SEND_BUFFER_LIMIT);
+        sessions.put(session.getId(), new ClientSession(decorated));
+        log.debug("Chan stream client connected: {}", session.getId());
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws IOException {
+        ClientSession client = sessions.get(session.getId());
+        if (client == null) {
+            return;
+        }
+        try {
+            JsonNode request = objectMapper.readTree(message.getPayload());
+            String action = request.path("action").asText();
+            String exchange = request.path("exchange").asText("binance");
+            String symbol = request.path("symbol").asText(null);
+            String interval = request.path("interval").asText(null);
+            if (symbol == null || interval == null) {
+                throw new IllegalArgumentException("symbol and interval are required");
+            }
+            String key = exchange.toLowerCase() + "|" + symbol + "|" + interval;
+
+            switch (action) {
+                case "subscribe" -> subscribe(client, key, exchange, symbol, interval);
+                case "unsubscribe" -> {
+                    ChanStreamService.Subscription subscription = client.subscriptions.remove(key);
+                    if (subscription != null) {
+                        chanStreamService.unsubscribe(subscription);
+                    }
+                }
+                default -> throw new IllegalArgumentException("Unknown action: " + action);
+            }
+        } catch (Exception e) {
+            sendError(client, e.getMessage());
+        }
+    }
+
+    private void subscribe(ClientSession client, String key, String exchange, String symbol, String interval) {
+        if (client.subscriptions.containsKey(key)) {
+            return;
+        }
+        if (client.subscriptions.size() >= properties.getMaxSubscriptionsPerSession()) {
+            throw new IllegalArgumentException("Too many subscriptions, max "
+                    + properties.getMaxSubscriptionsPerSession());
+        }
+        ChanStreamService.Subscription subscription = chanStreamService.subscribe(exchange, symbol, interval,
+                msg -> client.session.sendMessage(new TextMessage(objectMapper.writeValueAsString(msg))));
+        client.subscriptions.put(key, subscription);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        ClientSession client = sessions.remove(session.getId());
+        if (client != null) {
+            client.subscriptions.values().forEach(chanStreamService::unsubscribe);
+            client.subscriptions.clear();
+        }
+        log.debug("Chan stream client disconnected: {} {}", session.getId(), status);
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.warn("Chan stream transport error: {} {}", session.getId(), exception.getMessage());
+    }
+
+    private void sendError(ClientSession client, String message) throws IOException {
+        client.session.sendMessage(new TextMessage(objectMapper.writeValueAsString(
+                Map.of("type", "error", "message", message != null ? message : "Unknown error"))));
+    }
+
+    private record ClientSession(WebSocketSession session,
+            Map<String, ChanStreamService.Subscription> subscriptions) {
+        ClientSession(WebSocketSession session) {
+            this(session, new ConcurrentHashMap<>());
+        }
+    }
+}
@@ -1,18 +1,32 @@
 package com.lucance.boot.backend.controller;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.lucance.boot.backend.config.ExchangeProperties;
+import com.lucance.boot.backend.config.KlineQueryProperties;
 import com.lucance.boot.backend.entity.Kline;
 import com.lucance.boot.backend.exchange.ExchangeAdapter;
 import com.lucance.boot.backend.exchange.model.HealthStatus;
 import com.lucance.boot.backend.exchange.model.Ticker;
 import com.lucance.boot.backend.repository.KlineRepository;
+import com.lucance.boot.backend.service.ExchangeFanOutService;
 import com.lucance.boot.backend.service.ExchangeRouterService;
+import com.lucance.boot.backend.service.KlineCacheService;
+import com.lucance.boot.backend.service.RequestCoalescingService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -25,11 +39,20 @@ import java.util.Set;
 @RequiredArgsConstructor
 public class KlineController {
 
+    private static final String AUTO_EXCHANGE = "auto";
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
     private final KlineRepository klineRepository;
     private final ExchangeRouterService exchangeRouterService;
+    private final KlineCacheService klineCacheService;
+    private final ExchangeFanOutService exchangeFanOutService;
+    private final KlineQueryProperties queryProperties;
+    private final RequestCoalescingService coalescingService;
+    private final ExchangeProperties exchangeProperties;
 
     /**
-     * 获取K线数据（优先从数据库，缺失则从交易所获取）
+     * 获取K线数据（入库交易所优先从数据库，缺失则从交易所获取）
+     * exchange=auto 时按近期延迟与错误率自动选择交易所
      */
     @GetMapping
     public ResponseEntity<List<Kline>> getKlines(
@@ -43,23 +66,122 @@ public class KlineController {
         log.info("Getting klines: symbol={}, interval={}, limit={}, exchange={}",
                 symbol, interval, limit, exchange);
 
-        ExchangeAdapter adapter = exchangeRouterService.getAdapter(exchange);
+        // 参数相同的并发请求共享一次查询
+        List<Kline> klines = coalescingService.execute("klines",
+                () -> loadKlines(symbol, interval, startTime, endTime, limit, exchange),
+                exchange.toLowerCase(), symbol, interval, startTime, endTime, limit);
+        return ResponseEntity.ok(klines);
+    }
 
-        // 如果指定了时间范围，从数据库查询
+    private List<Kline> loadKlines(String symbol, String interval, Long startTime, Long endTime,
+            Integer limit, String exchange) {
+
+        // 如果指定了时间范围，从数据库查询（范围过大时要求改用分页或导出）；数据库只有入库交易所的K线
         if (startTime != null && endTime != null) {
+            queryProperties.checkRange(interval, startTime, endTime);
+        }
+        if (startTime != null && endTime != null && isPersisted(exchange)) {
             List<Kline> klines = klineRepository.findBySymbolAndIntervalAndTimeRange(
                     symbol, interval,
                     Instant.ofEpochMilli(startTime),
                     Instant.ofEpochMilli(endTime));
 
             if (!klines.isEmpty()) {
-                return ResponseEntity.ok(klines);
+                return klines;
             }
         }
 
-        // 从交易所获取
-        List<Kline> klines = adapter.getKlines(symbol, interval, startTime, endTime, limit);
-        return ResponseEntity.ok(klines);
+        // 从交易所获取（exchange=auto 时按延迟与错误率选路）
+        if (AUTO_EXCHANGE.equalsIgnoreCase(exchange)) {
+            return exchangeRouterService.routeRead(null,
+                    adapter -> adapter.getKlines(symbol, interval, startTime, endTime, limit));
+        }
+        ExchangeAdapter adapter = exchangeRouterService.getAdapter(exchange);
+        return adapter.getKlines(symbol, interval, startTime, endTime, limit);
+    }
+
+    /**
+     * 按时间游标分页读取数据库中的K线（时间升序）
+     * 首页传 startTime，之后传上一页返回的 nextCursor；nextCursor 为空表示已读完
+     */
+    @GetMapping("/page")
+    public ResponseEntity<KlinePage> getKlinePage(
+            @RequestParam String symbol,
+            @RequestParam String interval,
+            @RequestParam(required = false) Long startTime,
+            @RequestParam(required = false) Long endTime,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer pageSize) {
+
+        long from = cursor != null ? cursor : startTime != null ? startTime : 0L;
+        long to = endTime != null ? endTime : System.currentTimeMillis();
+        int size = pageSize != null ? pageSize : queryProperties.getDefaultPageSize();
+        if (size <= 0 || size > queryProperties.getMaxPageSize()) {
+            throw new IllegalArgumentException("pageSize must be between 1 and " + queryProperties.getMaxPageSize());
+        }
+
+        // 多取一根用于判断是否还有下一页，其开盘时间即下一页游标
+        List<Kline> klines = klineRepository.findRangePageReadOnly(symbol, interval,
+                Instant.ofEpochMilli(from), Instant.ofEpochMilli(to), size + 1);
+        Long nextCursor = null;
+        if (klines.size() > size) {
+            nextCursor = klines.get(size).getTimestamp();
+            klines = klines.subList(0, size);
+        }
+        return ResponseEntity.ok(new KlinePage(klines, nextCursor));
+    }
+
+    /**
+     * 以 NDJSON 流式导出数据库中的K线（时间升序），边读数据库游标边写响应，不在内存中组装整个列表
+     * 每行: {"symbol":"BTCUSDT","interval":"1m","time":1700000000000,"open":...,"volume":...}
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportKlines(
+            @RequestParam String symbol,
+            @RequestParam String interval,
+            @RequestParam Long startTime,
+            @RequestParam(required = false) Long endTime) {
+
+        Instant start = Instant.ofEpochMilli(startTime);
+        Instant end = endTime != null ? Instant.ofEpochMilli(endTime) : Instant.now();
+        log.info("Exporting klines: symbol={}, interval={}, {} - {}", symbol, interval, start, end);
+
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                klineRepository.streamRangeReadOnly(symbol, interval, start, end, kline -> {
+                    try {
+                        writeKline(generator, kline);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    /**
+     * 数据库中的K线是否属于该交易所（auto 路由的结果可能来自任意交易所，按未入库处理）
+     */
+    private boolean isPersisted(String exchange) {
+        return !AUTO_EXCHANGE.equalsIgnoreCase(exchange) && exchangeProperties.isPersisted(exchange);
+    }
+
+    private static void writeKline(JsonGenerator generator, Kline kline) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("symbol", kline.getSymbol());
+        generator.writeStringField("interval", kline.getInterval());
+        generator.writeNumberField("time", kline.getTimestamp());
+        generator.writeNumberField("open", kline.getOpen());
+        generator.writeNumberField("high", kline.getHigh());
+        generator.writeNumberField("low", kline.getLow());
+        generator.writeNumberField("close", kline.getClose());
+        generator.writeNumberField("volume", kline.getVolume());
+        generator.writeEndObject();
+        generator.writeRaw('\n');
     }
 
     /**
@@ -72,17 +194,52 @@ public class KlineController {
             @RequestParam(defaultValue = "100") Integer limit,
             @RequestParam(defaultValue = "binance") String exchange) {
 
-        ExchangeAdapter adapter = exchangeRouterService.getAdapter(exchange);
-        List<Kline> klines = klineRepository.findLatestKlines(symbol, interval, limit);
+        // 优先从热点缓存读取（缓存为时间升序，接口保持与数据库一致的倒序）
+        List<Kline> cached = klineCacheService.getLatestOrLoad(exchange, symbol, interval, limit);
+        if (cached != null && !cached.isEmpty()) {
+            List<Kline> descending = new ArrayList<>(cached);
+            Collections.reverse(descending);
+            return ResponseEntity.ok(descending);
+        }
+
+        List<Kline> klines = isPersisted(exchange)
+                ? klineRepository.findLatestKlines(symbol, interval, limit)
+                : List.of();
 
         if (klines.isEmpty()) {
-            // 从交易所获取
-            klines = adapter.getKlines(symbol, interval, null, null, limit);
+            // 从交易所获取（exchange=auto 时按延迟与错误率选路）
+            klines = AUTO_EXCHANGE.equalsIgnoreCase(exchange)
+                    ? exchangeRouterService.routeRead(null,
+                            adapter -> adapter.getKlines(symbol, interval, null, null, limit))
+                    : exchangeRouterService.getAdapter(exchange).getKlines(symbol, interval, null, null, limit);
         }
 
         return ResponseEntity.ok(klines);
     }
 
+    /**
+     * 并发从多个交易所获取K线
+     * mode=first 返回最先成功的交易所结果，mode=all 返回所有成功交易所的结果
+     */
+    @GetMapping("/fanout")
+    public ResponseEntity<Map<String, List<Kline>>> getKlinesFanOut(
+            @RequestParam String symbol,
+            @RequestParam String interval,
+            @RequestParam(required = false) Long startTime,
+            @RequestParam(required = false) Long endTime,
+            @RequestParam(defaultValue = "500") Integer limit,
+            @RequestParam(required = false) List<String> exchanges,
+            @RequestParam(defaultValue = "first") String mode) {
+
+        if ("all".equalsIgnoreCase(mode)) {
+            return ResponseEntity.ok(exchangeFanOutService.getKlinesAll(
+                    exchanges, symbol, interval, startTime, endTime, limit));
+        }
+        ExchangeFanOutService.FanOutResult<List<Kline>> result = exchangeFanOutService.getKlinesFirst(
+                exchanges, symbol, interval, startTime, endTime, limit);
+        return ResponseEntity.ok(Map.of(result.exchange(), result.data()));
+    }
+
     /**
      * 从交易所拉取并保存K线数据
      */
@@ -98,6 +255,11 @@ public class KlineController {
         log.info("Fetching klines from exchange: symbol={}, interval={}, exchange={}",
                 symbol, interval, exchange);
 
+        // K线表不区分交易所，只保存入库交易所的数据
+        if (!isPersisted(exchange)) {
+            throw new IllegalArgumentException("Klines are only stored for exchange: "
+                    + exchangeProperties.getPersistedExchange());
+        }
         ExchangeAdapter adapter = exchangeRouterService.getAdapter(exchange);
         List<Kline> klines = adapter.getKlines(symbol, interval, startTime, endTime, limit);
         klineRepository.saveAll(klines);
@@ -114,11 +276,24 @@ public class KlineController {
             @RequestParam String symbol,
             @RequestParam(defaultValue = "binance") String exchange) {
 
+        if (AUTO_EXCHANGE.equalsIgnoreCase(exchange)) {
+            return ResponseEntity.ok(exchangeRouterService.routeRead(null, adapter -> adapter.getTicker(symbol)));
+        }
         ExchangeAdapter adapter = exchangeRouterService.getAdapter(exchange);
         Ticker ticker = adapter.getTicker(symbol);
         return ResponseEntity.ok(ticker);
     }
 
+    /**
+     * 并发获取多个交易所的行情
+     */
+    @GetMapping("/tickers")
+    public ResponseEntity<Map<String, Ticker>> getTickers(
+            @RequestParam String symbol,
+            @RequestParam(required = false) List<String> exchanges) {
+        return ResponseEntity.ok(exchangeFanOutService.getTickers(exchanges, symbol));
+    }
+
     /**
      * 健康检查
      */
@@ -159,6 +334,17 @@ public class KlineController {
                 latest != null ? latest.getTimestamp() : null));
     }
 
+    /**
+     * 获取热点K线缓存统计
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(klineCacheService.getStats());
+    }
+
+    public record KlinePage(List<Kline> items, Long nextCursor) {
+    }
+
     public record KlineStats(String symbol, String interval, long count, Long latestTimestamp) {
     }
 
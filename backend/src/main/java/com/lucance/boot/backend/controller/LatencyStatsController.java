@@ -1,6 +1,9 @@
 package com.lucance.boot.backend.controller;
 
+import com.lucance.boot.backend.exchange.OkHttpClientFactory;
+import com.lucance.boot.backend.service.ExchangeRouterService;
 import com.lucance.boot.backend.service.LatencyStatsService;
+import com.lucance.boot.backend.service.RequestCoalescingService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -17,6 +20,9 @@ import java.util.Map;
 public class LatencyStatsController {
 
     private final LatencyStatsService latencyStatsService;
+    private final ExchangeRouterService exchangeRouterService;
+    private final OkHttpClientFactory clientFactory;
+    private final RequestCoalescingService coalescingService;
 
     /**
      * 获取所有延迟统计
@@ -26,6 +32,32 @@ public class LatencyStatsController {
         return ResponseEntity.ok(latencyStatsService.getAllStats());
     }
 
+    /**
+     * 获取各交易所的路由状态（p95、错误率、熔断状态，按优先级排序）
+     */
+    @GetMapping("/routing")
+    public ResponseEntity<List<ExchangeRouterService.RouteStatus>> getRoutingStatus() {
+        return ResponseEntity.ok(exchangeRouterService.getRoutingStatus());
+    }
+
+    /**
+     * 获取共享 HTTP 连接池与各交易所请求调度的使用情况
+     */
+    @GetMapping("/http-pool")
+    public ResponseEntity<OkHttpClientFactory.PoolStats> getHttpPoolStats() {
+        return ResponseEntity.ok(clientFactory.getStats());
+    }
+
+    /**
+     * 获取并发请求合并（single-flight）统计
+     */
+    @GetMapping("/coalescing")
+    public ResponseEntity<Map<String, Object>> getCoalescingStats() {
+        return ResponseEntity.ok(Map.of(
+                "inFlight", coalescingService.getInFlightCount(),
+                "operations", coalescingService.getStats()));
+    }
+
     /**
      * 获取指定交易所的统计
      */
@@ -1,11 +1,13 @@
 package com.lucance.boot.backend.controller;
 
+import com.lucance.boot.backend.exchange.KlineDispatcher;
 import com.lucance.boot.backend.service.RealtimeSyncService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -20,6 +22,7 @@ import java.util.Set;
 public class RealtimeSyncController {
 
     private final RealtimeSyncService realtimeSyncService;
+    private final KlineDispatcher klineDispatcher;
 
     /**
      * 订阅 K线数据
@@ -89,4 +92,12 @@ public class RealtimeSyncController {
                 "count", realtimeSyncService.getActiveSubscriptions().size(),
                 "availableExchanges", realtimeSyncService.getAvailableExchanges()));
     }
+
+    /**
+     * 获取K线分发队列统计（队列深度、丢弃数、排队延迟）
+     */
+    @GetMapping("/dispatch/stats")
+    public ResponseEntity<List<KlineDispatcher.StreamStats>> getDispatchStats() {
+        return ResponseEntity.ok(klineDispatcher.getStats());
+    }
 }
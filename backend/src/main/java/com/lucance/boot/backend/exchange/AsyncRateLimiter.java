@@ -0,0 +1,62 @@
+package com.lucance.boot.backend.exchange;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 非阻塞令牌桶限流器
+ * 按预约方式发放许可：每次获取返回需要等待的时间，异步调用在定时器上延迟继续，不占用线程；
+ * 空闲期间最多积累 1 秒的许可用于突发
+ */
+public class AsyncRateLimiter {
+
+    private static final long MAX_BURST_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final long intervalNanos;
+    private final LongSupplier ticker;
+    private long nextFreeNanos;
+
+    public AsyncRateLimiter(double permitsPerSecond) {
+        this(permitsPerSecond, System::nanoTime);
+    }
+
+    /**
+     * @param ticker 纳秒时钟
+     */
+    AsyncRateLimiter(double permitsPerSecond, LongSupplier ticker) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive: " + permitsPerSecond);
+        }
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.ticker = ticker;
+        this.nextFreeNanos = ticker.getAsLong();
+    }
+
+    /**
+     * 预约一个许可，返回需要等待的纳秒数
+     */
+    public synchronized long reserve() {
+        long now = ticker.getAsLong();
+        if (nextFreeNanos < now - MAX_BURST_NANOS) {
+            nextFreeNanos = now - MAX_BURST_NANOS;
+        }
+        long wait = Math.max(0, nextFreeNanos - now);
+        nextFreeNanos += intervalNanos;
+        return wait;
+    }
+
+    /**
+     * 异步获取许可，许可可用时完成
+     */
+    public CompletableFuture<Void> acquire(ScheduledExecutorService timer) {
+        long wait = reserve();
+        if (wait == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> permit = new CompletableFuture<>();
+        timer.schedule(() -> permit.complete(null), wait, TimeUnit.NANOSECONDS);
+        return permit;
+    }
+}
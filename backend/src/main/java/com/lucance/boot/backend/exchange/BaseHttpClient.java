@@ -1,18 +1,21 @@
 package com.lucance.boot.backend.exchange;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.common.util.concurrent.RateLimiter;
 import com.lucance.boot.backend.service.LatencyStatsService;
 import okhttp3.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.net.InetSocketAddress;
-import java.net.Proxy;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -23,13 +26,25 @@ import java.util.stream.Collectors;
  */
 public abstract class BaseHttpClient {
 
+    // 限流等待与重试退避共用的定时器，等待期间不占用线程
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "http-client-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final int MAX_RETRIES = 3;
+
+    // 每分钟权重用量超过该比例后开始减速
+    private static final double SLOWDOWN_THRESHOLD = 0.8;
+
     protected final Logger log = LoggerFactory.getLogger(getClass());
 
     protected final OkHttpClient httpClient;
     protected final String baseUrl;
     protected final String apiKey;
     protected final String secretKey;
-    protected final RateLimiter rateLimiter;
+    protected final WeightedRateLimiter rateLimiter;
     protected final ObjectMapper objectMapper;
     protected LatencyStatsService latencyStatsService; // Optional
 
@@ -46,31 +61,68 @@ public abstract class BaseHttpClient {
         this(baseUrl, apiKey, secretKey, proxyConfig, requestsPerSecond, 10, 5);
     }
 
+    public BaseHttpClient(String baseUrl, String apiKey, String secretKey,
+            ProxyConfig proxyConfig, double requestsPerSecond, int weightPerMinute) {
+        this(baseUrl, apiKey, secretKey, proxyConfig, requestsPerSecond, weightPerMinute, 10, 5);
+    }
+
     public BaseHttpClient(String baseUrl, String apiKey, String secretKey,
             ProxyConfig proxyConfig, double requestsPerSecond,
             int maxIdleConnections, int keepAliveDurationMinutes) {
+        this(baseUrl, apiKey, secretKey, proxyConfig, requestsPerSecond, 0, maxIdleConnections,
+                keepAliveDurationMinutes);
+    }
+
+    public BaseHttpClient(String baseUrl, String apiKey, String secretKey,
+            ProxyConfig proxyConfig, double requestsPerSecond, int weightPerMinute,
+            int maxIdleConnections, int keepAliveDurationMinutes) {
+        this(baseUrl, apiKey, secretKey,
+                standaloneClientBuilder(proxyConfig, maxIdleConnections, keepAliveDurationMinutes),
+                requestsPerSecond, weightPerMinute);
+        if (proxyConfig != null && proxyConfig.isEnabled()) {
+            log.info("Proxy configured: {}://{}:{}",
+                    proxyConfig.getType(), proxyConfig.getHost(), proxyConfig.getPort());
+        }
+    }
+
+    /**
+     * 使用外部提供的客户端构建器（通常来自 {@link OkHttpClientFactory}，共享连接池与调度线程）
+     */
+    public BaseHttpClient(String baseUrl, String apiKey, String secretKey,
+            OkHttpClient.Builder clientBuilder, double requestsPerSecond, int weightPerMinute) {
         this.baseUrl = baseUrl;
         this.apiKey = apiKey;
         this.secretKey = secretKey;
-        this.rateLimiter = RateLimiter.create(requestsPerSecond);
+        this.rateLimiter = new WeightedRateLimiter(requestsPerSecond, weightPerMinute, SLOWDOWN_THRESHOLD);
         this.objectMapper = new ObjectMapper();
+        this.httpClient = clientBuilder
+                .addInterceptor(new LoggingInterceptor())
+                .addInterceptor(new LatencyTrackingInterceptor())
+                .build();
+    }
+
+    /**
+     * 独立的客户端构建器（自带连接池与 Dispatcher）
+     */
+    private static OkHttpClient.Builder standaloneClientBuilder(ProxyConfig proxyConfig,
+            int maxIdleConnections, int keepAliveDurationMinutes) {
+        // 异步请求由 Dispatcher 排队，放宽并发上限以支持大量请求同时在途
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(256);
+        dispatcher.setMaxRequestsPerHost(64);
 
-        // 配置 OkHttp 客户端
         OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
                 .connectTimeout(10, TimeUnit.SECONDS)
                 .readTimeout(30, TimeUnit.SECONDS)
                 .writeTimeout(30, TimeUnit.SECONDS)
-                .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveDurationMinutes, TimeUnit.MINUTES))
-                .addInterceptor(new LoggingInterceptor())
-                .addInterceptor(new LatencyTrackingInterceptor())
-                .addInterceptor(new RetryInterceptor(3));
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveDurationMinutes, TimeUnit.MINUTES));
 
         // 配置代理
-        if (proxyConfig != null && proxyConfig.isEnabled()) {
-            configureProxy(builder, proxyConfig);
+        if (proxyConfig != null) {
+            proxyConfig.applyTo(builder);
         }
-
-        this.httpClient = builder.build();
+        return builder;
     }
 
     /**
@@ -81,218 +133,300 @@ public abstract class BaseHttpClient {
     }
 
     /**
-     * 配置代理
+     * GET 请求
      */
-    private void configureProxy(OkHttpClient.Builder builder, ProxyConfig config) {
-        try {
-            Proxy proxy = new Proxy(
-                    config.getType(),
-                    new InetSocketAddress(config.getHost(), config.getPort()));
-            builder.proxy(proxy);
-
-            // 如果需要代理认证
-            if (config.getUsername() != null && config.getPassword() != null) {
-                builder.proxyAuthenticator((route, response) -> {
-                    if (response.request().header("Proxy-Authorization") != null) {
-                        return null; // 已经尝试过认证
-                    }
+    protected <T> T get(String endpoint, Map<String, String> params, Class<T> responseType) {
+        return get(endpoint, params, responseType, false);
+    }
 
-                    String credential = Credentials.basic(
-                            config.getUsername(),
-                            config.getPassword());
+    /**
+     * GET 请求（支持签名）
+     */
+    protected <T> T get(String endpoint, Map<String, String> params, Class<T> responseType, boolean signed) {
+        return await(getAsync(endpoint, params, responseType, signed));
+    }
 
-                    return response.request().newBuilder()
-                            .header("Proxy-Authorization", credential)
-                            .build();
-                });
-            }
+    /**
+     * GET 请求（返回泛型类型）
+     */
+    protected <T> T get(String endpoint, Map<String, String> params, TypeReference<T> typeRef) {
+        return get(endpoint, params, typeRef, false);
+    }
 
-            log.info("Proxy configured: {}://{}:{}",
-                    config.getType(), config.getHost(), config.getPort());
+    /**
+     * GET 请求（返回泛型类型，支持签名）
+     */
+    protected <T> T get(String endpoint, Map<String, String> params, TypeReference<T> typeRef, boolean signed) {
+        return await(getAsync(endpoint, params, typeRef, signed));
+    }
 
-        } catch (Exception e) {
-            log.error("Failed to configure proxy", e);
-            throw new ExchangeApiException("Failed to configure proxy", e);
-        }
+    /**
+     * 异步 GET 请求
+     */
+    protected <T> CompletableFuture<T> getAsync(String endpoint, Map<String, String> params,
+            Class<T> responseType, boolean signed) {
+        return executeAsync(endpoint, () -> buildGetRequest(endpoint, params, signed),
+                response -> handleResponse(response, responseType));
     }
 
     /**
-     * GET 请求
+     * 异步 GET 请求（返回泛型类型）
      */
-    protected <T> T get(String endpoint, Map<String, String> params, Class<T> responseType) {
-        return get(endpoint, params, responseType, false);
+    protected <T> CompletableFuture<T> getAsync(String endpoint, Map<String, String> params,
+            TypeReference<T> typeRef, boolean signed) {
+        return executeAsync(endpoint, () -> buildGetRequest(endpoint, params, signed),
+                response -> handleResponse(response, typeRef));
     }
 
     /**
-     * GET 请求（支持签名）
+     * 异步 GET 请求，响应体直接从字节流按令牌解码，不经过中间字符串与树模型
      */
-    protected <T> T get(String endpoint, Map<String, String> params, Class<T> responseType, boolean signed) {
-        rateLimiter.acquire();
+    protected <T> CompletableFuture<T> getAsync(String endpoint, Map<String, String> params,
+            BodyDecoder<T> decoder, boolean signed) {
+        return executeAsync(endpoint, () -> buildGetRequest(endpoint, params, signed),
+                response -> handleResponse(response, decoder));
+    }
 
-        try {
-            HttpUrl.Builder urlBuilder = HttpUrl.parse(baseUrl + endpoint).newBuilder();
-            if (params != null) {
-                params.forEach(urlBuilder::addQueryParameter);
-            }
+    /**
+     * POST 请求（需要签名）
+     */
+    protected <T> T post(String endpoint, Map<String, String> params, Class<T> responseType) {
+        return await(executeAsync(endpoint, () -> buildPostRequest(endpoint, params),
+                response -> handleResponse(response, responseType)));
+    }
 
-            Request.Builder requestBuilder = new Request.Builder()
-                    .url(urlBuilder.build())
-                    .get()
-                    .addHeader("Content-Type", "application/json");
+    /**
+     * POST 请求（需要签名，返回泛型类型）
+     */
+    protected <T> T post(String endpoint, Map<String, String> params, TypeReference<T> typeRef) {
+        return await(executeAsync(endpoint, () -> buildPostRequest(endpoint, params),
+                response -> handleResponse(response, typeRef)));
+    }
 
-            // 需要签名的请求添加 API Key
-            if (signed && apiKey != null) {
-                requestBuilder.addHeader("X-MBX-APIKEY", apiKey);
-            }
+    /**
+     * DELETE 请求（需要签名）
+     */
+    protected <T> T delete(String endpoint, Map<String, String> params, TypeReference<T> typeRef) {
+        return await(executeAsync(endpoint, () -> buildDeleteRequest(endpoint, params),
+                response -> handleResponse(response, typeRef)));
+    }
 
-            try (Response response = httpClient.newCall(requestBuilder.build()).execute()) {
-                return handleResponse(response, responseType);
-            }
+    private Request buildGetRequest(String endpoint, Map<String, String> params, boolean signed) {
+        HttpUrl.Builder urlBuilder = HttpUrl.parse(baseUrl + endpoint).newBuilder();
+        Map<String, String> query = signed ? signParams(params) : params;
+        if (query != null) {
+            query.forEach(urlBuilder::addQueryParameter);
+        }
+
+        Request.Builder requestBuilder = new Request.Builder()
+                .url(urlBuilder.build())
+                .get()
+                .addHeader("Content-Type", "application/json");
 
-        } catch (IOException e) {
-            throw new ExchangeApiException("GET request failed: " + endpoint, e);
+        // 需要签名的请求添加 API Key
+        if (signed && apiKey != null) {
+            requestBuilder.addHeader("X-MBX-APIKEY", apiKey);
         }
+        return requestBuilder.build();
+    }
+
+    private Request buildPostRequest(String endpoint, Map<String, String> params) {
+        // 构建请求体
+        FormBody.Builder formBuilder = new FormBody.Builder();
+        signParams(params).forEach(formBuilder::add);
+
+        return new Request.Builder()
+                .url(baseUrl + endpoint)
+                .post(formBuilder.build())
+                .addHeader("X-MBX-APIKEY", apiKey)
+                .build();
+    }
+
+    private Request buildDeleteRequest(String endpoint, Map<String, String> params) {
+        // 构建 URL 参数
+        HttpUrl.Builder urlBuilder = HttpUrl.parse(baseUrl + endpoint).newBuilder();
+        signParams(params).forEach(urlBuilder::addQueryParameter);
+
+        return new Request.Builder()
+                .url(urlBuilder.build())
+                .delete()
+                .addHeader("X-MBX-APIKEY", apiKey)
+                .build();
     }
 
     /**
-     * GET 请求（返回泛型类型）
+     * 返回带当前时间戳与签名的参数副本，不修改调用方的参数（每次构造请求都重新签名）
      */
-    protected <T> T get(String endpoint, Map<String, String> params, TypeReference<T> typeRef) {
-        return get(endpoint, params, typeRef, false);
+    private Map<String, String> signParams(Map<String, String> params) {
+        Map<String, String> signed = params != null ? new LinkedHashMap<>(params) : new LinkedHashMap<>();
+        signed.remove("signature");
+        signed.put("timestamp", String.valueOf(System.currentTimeMillis()));
+        signed.put("signature", sign(buildQueryString(signed)));
+        return signed;
     }
 
     /**
-     * GET 请求（返回泛型类型，支持签名）
+     * 异步执行请求
+     * 先非阻塞获取限流许可，许可到手后才构造请求（签名时间戳不会因排队、暂停或退避而过期），
+     * 再通过 OkHttp enqueue 发送；
+     * GET 请求在 5xx/429 与网络异常时按 1s/2s/4s 退避重试，每次重试重新构造请求；
+     * 下单、撤单等非 GET 请求不重试，避免重复提交。退避在定时器上调度，不阻塞任何线程
      */
-    protected <T> T get(String endpoint, Map<String, String> params, TypeReference<T> typeRef, boolean signed) {
-        rateLimiter.acquire();
+    protected <T> CompletableFuture<T> executeAsync(String endpoint, RequestFactory requestFactory,
+            ResponseHandler<T> handler) {
+        int weight;
+        boolean retryable;
+        try {
+            Request request = requestFactory.create();
+            weight = requestWeight(request);
+            retryable = "GET".equals(request.method());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attempt(endpoint, requestFactory, weight, retryable ? MAX_RETRIES : 0, handler, 0, result);
+        return result;
+    }
 
+    private <T> void attempt(String endpoint, RequestFactory requestFactory, int weight, int maxRetries,
+            ResponseHandler<T> handler, int attempt, CompletableFuture<T> result) {
+        CompletableFuture<Void> permit;
         try {
-            HttpUrl.Builder urlBuilder = HttpUrl.parse(baseUrl + endpoint).newBuilder();
-            if (params != null) {
-                params.forEach(urlBuilder::addQueryParameter);
+            permit = rateLimiter.acquire(weight, TIMER);
+        } catch (RuntimeException e) {
+            result.completeExceptionally(new ExchangeApiException("Request failed: " + endpoint, e));
+            return;
+        }
+        permit.whenComplete((ignored, error) -> {
+            if (error != null) {
+                result.completeExceptionally(new ExchangeApiException("Request failed: " + endpoint,
+                        error instanceof CompletionException && error.getCause() != null ? error.getCause() : error));
+                return;
             }
+            try {
+                Request request = requestFactory.create();
+                httpClient.newCall(request).enqueue(new Callback() {
+                    @Override
+                    public void onResponse(Call call, Response response) {
+                        try (response) {
+                            long retryAfterMs = applyRateLimitHeaders(response);
+                            // 服务器错误（5xx）或限流（429）时重试
+                            if (isRetryable(response) && attempt < maxRetries) {
+                                long delay = Math.max(retryDelayMs(attempt), retryAfterMs);
+                                log.warn("Retrying request after {}ms (attempt {}/{}): {} {}",
+                                        delay, attempt + 1, maxRetries, response.code(), endpoint);
+                                scheduleRetry(endpoint, requestFactory, weight, maxRetries, handler, attempt, result,
+                                        delay);
+                                return;
+                            }
+                            result.complete(handler.handle(response));
+                        } catch (Exception e) {
+                            result.completeExceptionally(e instanceof ExchangeApiException
+                                    ? e
+                                    : new ExchangeApiException("Request failed: " + endpoint, e));
+                        }
+                    }
 
-            Request.Builder requestBuilder = new Request.Builder()
-                    .url(urlBuilder.build())
-                    .get()
-                    .addHeader("Content-Type", "application/json");
-
-            if (signed && apiKey != null) {
-                requestBuilder.addHeader("X-MBX-APIKEY", apiKey);
+                    @Override
+                    public void onFailure(Call call, IOException e) {
+                        if (attempt < maxRetries) {
+                            long delay = retryDelayMs(attempt);
+                            log.warn("Request failed, retrying after {}ms: {}", delay, e.getMessage());
+                            scheduleRetry(endpoint, requestFactory, weight, maxRetries, handler, attempt, result,
+                                    delay);
+                        } else {
+                            result.completeExceptionally(new ExchangeApiException(
+                                    request.method() + " request failed: " + endpoint, e));
+                        }
+                    }
+                });
+            } catch (Throwable e) {
+                result.completeExceptionally(e instanceof ExchangeApiException
+                        ? e
+                        : new ExchangeApiException("Request failed: " + endpoint, e));
             }
+        });
+    }
 
-            try (Response response = httpClient.newCall(requestBuilder.build()).execute()) {
-                return handleResponse(response, typeRef);
-            }
+    private <T> void scheduleRetry(String endpoint, RequestFactory requestFactory, int weight, int maxRetries,
+            ResponseHandler<T> handler, int attempt, CompletableFuture<T> result, long delayMs) {
+        TIMER.schedule(() -> attempt(endpoint, requestFactory, weight, maxRetries, handler, attempt + 1, result),
+                delayMs, TimeUnit.MILLISECONDS);
+    }
 
-        } catch (IOException e) {
-            throw new ExchangeApiException("GET request failed: " + endpoint, e);
-        }
+    /**
+     * 请求权重（默认 1，按交易所规则覆盖）
+     */
+    protected int requestWeight(Request request) {
+        return 1;
     }
 
     /**
-     * POST 请求（需要签名）
+     * 报告已用权重的响应头（为 null 时不同步）
      */
-    protected <T> T post(String endpoint, Map<String, String> params, Class<T> responseType) {
-        rateLimiter.acquire();
+    protected String usedWeightHeader() {
+        return null;
+    }
 
-        try {
-            // 添加时间戳
-            params.put("timestamp", String.valueOf(System.currentTimeMillis()));
-
-            // 生成签名
-            String queryString = buildQueryString(params);
-            String signature = sign(queryString);
-            params.put("signature", signature);
-
-            // 构建请求体
-            FormBody.Builder formBuilder = new FormBody.Builder();
-            params.forEach(formBuilder::add);
-
-            // 构建请求
-            Request request = new Request.Builder()
-                    .url(baseUrl + endpoint)
-                    .post(formBuilder.build())
-                    .addHeader("X-MBX-APIKEY", apiKey)
-                    .build();
-
-            try (Response response = httpClient.newCall(request).execute()) {
-                return handleResponse(response, responseType);
+    /**
+     * 根据响应头同步权重用量；429/418 时按 Retry-After 暂停所有请求，返回暂停毫秒数
+     */
+    private long applyRateLimitHeaders(Response response) {
+        long now = System.currentTimeMillis();
+        String header = usedWeightHeader();
+        if (header != null) {
+            String used = response.header(header);
+            if (used != null) {
+                try {
+                    rateLimiter.syncUsedWeight(Integer.parseInt(used.trim()), now);
+                } catch (NumberFormatException e) {
+                    log.debug("Invalid {} header: {}", header, used);
+                }
             }
+        }
 
-        } catch (IOException e) {
-            throw new ExchangeApiException("POST request failed: " + endpoint, e);
+        if (response.code() == 429 || response.code() == 418) {
+            long retryAfterMs = parseRetryAfterMs(response.header("Retry-After"));
+            rateLimiter.pauseFor(retryAfterMs, now);
+            log.warn("Rate limited ({}), pausing requests for {}ms", response.code(), retryAfterMs);
+            return retryAfterMs;
         }
+        return 0;
     }
 
-    /**
-     * POST 请求（需要签名，返回泛型类型）
-     */
-    protected <T> T post(String endpoint, Map<String, String> params, TypeReference<T> typeRef) {
-        rateLimiter.acquire();
-
-        try {
-            // 添加时间戳
-            params.put("timestamp", String.valueOf(System.currentTimeMillis()));
-
-            // 生成签名
-            String queryString = buildQueryString(params);
-            String signature = sign(queryString);
-            params.put("signature", signature);
-
-            // 构建请求体
-            FormBody.Builder formBuilder = new FormBody.Builder();
-            params.forEach(formBuilder::add);
-
-            // 构建请求
-            Request request = new Request.Builder()
-                    .url(baseUrl + endpoint)
-                    .post(formBuilder.build())
-                    .addHeader("X-MBX-APIKEY", apiKey)
-                    .build();
-
-            try (Response response = httpClient.newCall(request).execute()) {
-                return handleResponse(response, typeRef);
+    private static long parseRetryAfterMs(String retryAfter) {
+        if (retryAfter != null) {
+            try {
+                return Long.parseLong(retryAfter.trim()) * 1000;
+            } catch (NumberFormatException ignored) {
+                // 非秒数格式时使用默认值
             }
-
-        } catch (IOException e) {
-            throw new ExchangeApiException("POST request failed: " + endpoint, e);
         }
+        return 1000;
+    }
+
+    private static boolean isRetryable(Response response) {
+        return !response.isSuccessful() && (response.code() == 429 || response.code() >= 500);
     }
 
     /**
-     * DELETE 请求（需要签名）
+     * 第 attempt 次重试前的退避时间
      */
-    protected <T> T delete(String endpoint, Map<String, String> params, TypeReference<T> typeRef) {
-        rateLimiter.acquire();
+    protected long retryDelayMs(int attempt) {
+        return (1L << attempt) * 1000;
+    }
 
+    /**
+     * 同步等待异步结果，异常按 ExchangeApiException 抛出
+     */
+    protected static <T> T await(CompletableFuture<T> future) {
         try {
-            // 添加时间戳
-            params.put("timestamp", String.valueOf(System.currentTimeMillis()));
-
-            // 生成签名
-            String queryString = buildQueryString(params);
-            String signature = sign(queryString);
-            params.put("signature", signature);
-
-            // 构建 URL 参数
-            HttpUrl.Builder urlBuilder = HttpUrl.parse(baseUrl + endpoint).newBuilder();
-            params.forEach(urlBuilder::addQueryParameter);
-
-            // 构建请求
-            Request request = new Request.Builder()
-                    .url(urlBuilder.build())
-                    .delete()
-                    .addHeader("X-MBX-APIKEY", apiKey)
-                    .build();
-
-            try (Response response = httpClient.newCall(request).execute()) {
-                return handleResponse(response, typeRef);
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof ExchangeApiException apiException) {
+                throw apiException;
             }
-
-        } catch (IOException e) {
-            throw new ExchangeApiException("DELETE request failed: " + endpoint, e);
+            throw new ExchangeApiException("Request failed", e.getCause());
         }
     }
 
@@ -324,6 +458,45 @@ public abstract class BaseHttpClient {
         return objectMapper.readValue(body, typeRef);
     }
 
+    /**
+     * 处理响应（流式解码）
+     */
+    private <T> T handleResponse(Response response, BodyDecoder<T> decoder) throws IOException {
+        if (!response.isSuccessful()) {
+            String errorBody = response.body() != null ? response.body().string() : "Unknown error";
+            throw new ExchangeApiException(
+                    String.format("Request failed with code %d: %s", response.code(), errorBody));
+        }
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(response.body().byteStream())) {
+            return decoder.decode(parser);
+        }
+    }
+
+    /**
+     * 请求构造（每次获取许可后执行一次，签名请求因此总是携带最新时间戳）
+     */
+    @FunctionalInterface
+    protected interface RequestFactory {
+        Request create();
+    }
+
+    /**
+     * 响应处理
+     */
+    @FunctionalInterface
+    protected interface ResponseHandler<T> {
+        T handle(Response response) throws IOException;
+    }
+
+    /**
+     * 响应体流式解码
+     */
+    @FunctionalInterface
+    protected interface BodyDecoder<T> {
+        T decode(JsonParser parser) throws IOException;
+    }
+
     /**
      * 签名方法（子类实现）
      */
@@ -415,65 +588,4 @@ public abstract class BaseHttpClient {
     protected String getExchangeName() {
         return this.getClass().getSimpleName().replace("Adapter", "");
     }
-
-    /**
-     * 重试拦截器
-     */
-    static class RetryInterceptor implements Interceptor {
-        private static final Logger log = LoggerFactory.getLogger(RetryInterceptor.class);
-        private final int maxRetries;
-
-        public RetryInterceptor(int maxRetries) {
-            this.maxRetries = maxRetries;
-        }
-
-        @Override
-        public Response intercept(Chain chain) throws IOException {
-            Request request = chain.request();
-            Response response = null;
-            IOException lastException = null;
-
-            for (int i = 0; i <= maxRetries; i++) {
-                try {
-                    response = chain.proceed(request);
-
-                    // 如果是服务器错误（5xx）或限流（429），重试
-                    if (response.isSuccessful() ||
-                            (response.code() != 429 && response.code() < 500)) {
-                        return response;
-                    }
-
-                    response.close();
-
-                    if (i < maxRetries) {
-                        long delay = (long) Math.pow(2, i) * 1000;
-                        log.warn("Retrying request after {}ms (attempt {}/{})", delay, i + 1, maxRetries);
-                        Thread.sleep(delay);
-                    }
-
-                } catch (IOException e) {
-                    lastException = e;
-                    if (i < maxRetries) {
-                        try {
-                            long delay = (long) Math.pow(2, i) * 1000;
-                            log.warn("Request failed, retrying after {}ms: {}", delay, e.getMessage());
-                            Thread.sleep(delay);
-                        } catch (InterruptedException ie) {
-                            Thread.currentThread().interrupt();
-                            throw e;
-                        }
-                    }
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    throw new IOException("Retry interrupted", e);
-                }
-            }
-
-            if (lastException != null) {
-                throw lastException;
-            }
-
-            return response;
-        }
-    }
 }
@@ -4,10 +4,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.*;
 
-import java.net.InetSocketAddress;
-import java.net.Proxy;
 import java.util.Map;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
 /**
@@ -17,14 +17,23 @@ import java.util.function.Consumer;
 @Slf4j
 public abstract class BaseWebSocketClient {
 
+    // 重连退避：1s 起指数增长，上限 60s，叠加随机抖动避免多连接同时重连
+    private static final long INITIAL_RECONNECT_DELAY_MS = 1_000;
+    private static final long MAX_RECONNECT_DELAY_MS = 60_000;
+
     protected final OkHttpClient client;
     protected WebSocket webSocket;
     protected final Map<String, Consumer<String>> subscriptions = new ConcurrentHashMap<>();
-    protected final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+    protected final ScheduledExecutorService scheduler;
+    private final boolean ownsScheduler;
     protected final ObjectMapper objectMapper = new ObjectMapper();
 
     private volatile boolean isConnected = false;
     private volatile boolean shouldReconnect = true;
+    private volatile boolean closed = false;
+    private volatile boolean everConnected = false;
+    private final AtomicInteger reconnectAttempts = new AtomicInteger();
+    private final AtomicBoolean reconnectScheduled = new AtomicBoolean(false);
     private String currentUrl;
 
     public BaseWebSocketClient() {
@@ -32,52 +41,38 @@ public abstract class BaseWebSocketClient {
     }
 
     public BaseWebSocketClient(ProxyConfig proxyConfig) {
-        OkHttpClient.Builder builder = new OkHttpClient.Builder()
-                .pingInterval(30, TimeUnit.SECONDS)
-                .connectTimeout(10, TimeUnit.SECONDS)
-                .readTimeout(0, TimeUnit.SECONDS);
-
-        // 配置代理
+        this(createClient(proxyConfig), null);
         if (proxyConfig != null && proxyConfig.isEnabled()) {
-            configureProxy(builder, proxyConfig);
+            log.info("WebSocket proxy configured: {}://{}:{}",
+                    proxyConfig.getType(), proxyConfig.getHost(), proxyConfig.getPort());
         }
-
-        this.client = builder.build();
     }
 
     /**
-     * 配置代理
+     * 使用外部提供的客户端与调度器（通常来自 {@link OkHttpClientFactory}）
+     *
+     * @param scheduler 共享调度器，关闭连接时不会关闭它；为 null 时创建独占调度器
      */
-    private void configureProxy(OkHttpClient.Builder builder, ProxyConfig config) {
-        try {
-            Proxy proxy = new Proxy(
-                    config.getType(),
-                    new InetSocketAddress(config.getHost(), config.getPort()));
-            builder.proxy(proxy);
-
-            if (config.getUsername() != null && config.getPassword() != null) {
-                builder.proxyAuthenticator((route, response) -> {
-                    if (response.request().header("Proxy-Authorization") != null) {
-                        return null;
-                    }
-
-                    String credential = Credentials.basic(
-                            config.getUsername(),
-                            config.getPassword());
-
-                    return response.request().newBuilder()
-                            .header("Proxy-Authorization", credential)
-                            .build();
-                });
-            }
+    public BaseWebSocketClient(OkHttpClient client, ScheduledExecutorService scheduler) {
+        this.client = client;
+        this.ownsScheduler = scheduler == null;
+        this.scheduler = scheduler != null ? scheduler : Executors.newScheduledThreadPool(1);
+    }
 
-            log.info("WebSocket proxy configured: {}://{}:{}",
-                    config.getType(), config.getHost(), config.getPort());
+    /**
+     * 独立的 WebSocket 客户端（自带连接池）
+     */
+    public static OkHttpClient createClient(ProxyConfig proxyConfig) {
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .pingInterval(30, TimeUnit.SECONDS)
+                .connectTimeout(10, TimeUnit.SECONDS)
+                .readTimeout(0, TimeUnit.SECONDS);
 
-        } catch (Exception e) {
-            log.error("Failed to configure WebSocket proxy", e);
-            throw new RuntimeException("Failed to configure WebSocket proxy", e);
+        // 配置代理
+        if (proxyConfig != null) {
+            proxyConfig.applyTo(builder);
         }
+        return builder.build();
     }
 
     /**
@@ -96,7 +91,13 @@ public abstract class BaseWebSocketClient {
             public void onOpen(WebSocket webSocket, Response response) {
                 log.info("WebSocket connected: {}", url);
                 isConnected = true;
+                reconnectAttempts.set(0);
+                boolean reconnected = everConnected;
+                everConnected = true;
                 onConnected();
+                if (reconnected) {
+                    onReconnected();
+                }
             }
 
             @Override
@@ -161,21 +162,52 @@ public abstract class BaseWebSocketClient {
      */
     public void close() {
         shouldReconnect = false;
+        closed = true;
         if (webSocket != null) {
             webSocket.close(1000, "Client closing");
         }
-        scheduler.shutdown();
+        if (ownsScheduler) {
+            scheduler.shutdown();
+        }
         subscriptions.clear();
     }
 
     /**
-     * 重连调度
+     * 重连调度（带抖动的指数退避，失败与关闭事件同时到达时只调度一次）
      */
     private void scheduleReconnect() {
-        scheduler.schedule(() -> {
-            log.info("Attempting to reconnect...");
-            connect(currentUrl);
-        }, 5, TimeUnit.SECONDS);
+        if (closed || scheduler.isShutdown() || !reconnectScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        long delay = reconnectDelayMs(reconnectAttempts.getAndIncrement());
+        log.info("Reconnecting in {} ms (attempt {})", delay, reconnectAttempts.get());
+        try {
+            scheduler.schedule(() -> {
+                reconnectScheduled.set(false);
+                if (shouldReconnect) {
+                    log.info("Attempting to reconnect...");
+                    connect(reconnectUrl());
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            reconnectScheduled.set(false);
+        }
+    }
+
+    /**
+     * 第 attempt 次重连的等待时间，在 [base/2, base] 之间随机
+     */
+    static long reconnectDelayMs(int attempt) {
+        long base = INITIAL_RECONNECT_DELAY_MS << Math.min(attempt, 16);
+        base = Math.min(base, MAX_RECONNECT_DELAY_MS);
+        return base / 2 + ThreadLocalRandom.current().nextLong(base / 2 + 1);
+    }
+
+    /**
+     * 重连使用的地址（订阅集合会变化的子类可覆盖）
+     */
+    protected String reconnectUrl() {
+        return currentUrl;
     }
 
     /**
@@ -190,6 +222,12 @@ public abstract class BaseWebSocketClient {
      */
     protected abstract void onConnected();
 
+    /**
+     * 断线重连成功后的处理（在 onConnected 之后调用，子类可覆盖用于补齐断线期间的数据）
+     */
+    protected void onReconnected() {
+    }
+
     /**
      * 发送订阅消息（子类实现）
      */
@@ -4,6 +4,7 @@ import com.lucance.boot.backend.entity.Kline;
 import com.lucance.boot.backend.exchange.model.*;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 /**
@@ -35,6 +36,16 @@ public interface ExchangeAdapter {
      */
     List<Kline> getKlines(String symbol, String interval, Long startTime, Long endTime, int limit);
 
+    /**
+     * 异步获取K线数据
+     * 默认在虚拟线程上执行同步版本，支持非阻塞 HTTP 的适配器应覆盖
+     */
+    default CompletableFuture<List<Kline>> getKlinesAsync(String symbol, String interval,
+            Long startTime, Long endTime, int limit) {
+        return CompletableFuture.supplyAsync(() -> getKlines(symbol, interval, startTime, endTime, limit),
+                task -> Thread.ofVirtual().start(task));
+    }
+
     /**
      * 获取最新价格
      */
@@ -52,6 +63,31 @@ public interface ExchangeAdapter {
      */
     void unsubscribeKline(String symbol, String interval);
 
+    /**
+     * 是否支持由逐笔成交流合成K线
+     */
+    default boolean supportsTradeKline() {
+        return false;
+    }
+
+    /**
+     * 订阅由逐笔成交流合成的K线（可为交易所不提供的周期，如 "1s"、"10s"）
+     *
+     * @param closedOnly        是否仅推送闭合K线
+     * @param publishIntervalMs 未闭合K线的最小推送间隔
+     */
+    default void subscribeTradeKline(String symbol, String interval, Consumer<Kline> callback,
+            boolean closedOnly, long publishIntervalMs) {
+        throw new ExchangeApiException(getExchangeName() + " does not support trade stream klines");
+    }
+
+    /**
+     * 取消成交合成K线订阅
+     */
+    default void unsubscribeTradeKline(String symbol, String interval) {
+        throw new ExchangeApiException(getExchangeName() + " does not support trade stream klines");
+    }
+
     // ==================== 交易接口（需要API Key）====================
 
     /**
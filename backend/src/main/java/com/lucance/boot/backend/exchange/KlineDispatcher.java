@@ -0,0 +1,216 @@
+package com.lucance.boot.backend.exchange;
+
+import com.lucance.boot.backend.config.KlineDispatchProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 实时K线分发器
+ * 把订阅者回调从 WebSocket 读线程移到虚拟线程执行：每个流一个有界队列，
+ * 同一流串行消费保证顺序，不同流互不阻塞；队列满时按策略丢弃未闭合K线，闭合K线从不丢弃
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class KlineDispatcher {
+
+    private final KlineDispatchProperties properties;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, StreamQueue> queues = new ConcurrentHashMap<>();
+
+    /**
+     * 提交一条K线的回调任务
+     *
+     * @param stream 流标识（如 "binance:btcusdt@kline_1m"）
+     * @param closed 是否为闭合K线
+     * @param task   回调任务
+     */
+    public void submit(String stream, boolean closed, Runnable task) {
+        if (!properties.isEnabled()) {
+            task.run();
+            return;
+        }
+        Item item = new Item(task, closed, System.nanoTime());
+        while (true) {
+            StreamQueue queue = queues.computeIfAbsent(stream, StreamQueue::new);
+            OfferResult result = queue.offer(item);
+            if (result == OfferResult.REMOVED) {
+                // 队列刚被移除，重新取（创建）该流的队列
+                continue;
+            }
+            if (result == OfferResult.START_DRAIN) {
+                executor.execute(() -> drain(queue));
+            }
+            return;
+        }
+    }
+
+    /**
+     * 取消订阅后移除流的队列
+     * 正在消费时只标记退役，已排队的任务执行完后由消费者移除；退役期间重新订阅会继续使用同一队列，
+     * 保证同一流任何时刻只有一个消费者
+     */
+    public void remove(String stream) {
+        StreamQueue queue = queues.get(stream);
+        if (queue != null) {
+            queue.retire();
+        }
+    }
+
+    /**
+     * 各流的队列深度、丢弃数与排队延迟
+     */
+    public List<StreamStats> getStats() {
+        return queues.values().stream()
+                .map(StreamQueue::stats)
+                .sorted(Comparator.comparing(StreamStats::stream))
+                .toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain(StreamQueue queue) {
+        Item item;
+        while ((item = queue.poll()) != null) {
+            long lagMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - item.enqueuedAt());
+            queue.recordLag(lagMs);
+            if (lagMs > properties.getLagWarnThreshold().toMillis()) {
+                log.warn("Kline dispatch lagging on {}: {} ms", queue.stream, lagMs);
+            }
+            try {
+                item.task().run();
+            } catch (Exception e) {
+                log.error("Kline callback failed on {}", queue.stream, e);
+            }
+        }
+    }
+
+    private record Item(Runnable task, boolean closed, long enqueuedAt) {
+    }
+
+    private enum OfferResult {
+        START_DRAIN, QUEUED, REMOVED
+    }
+
+    public record StreamStats(String stream, int depth, int maxDepth, long submitted, long dropped,
+            long lastLagMs, long maxLagMs) {
+    }
+
+    /**
+     * 单个流的有界队列，draining 标记保证同一时刻只有一个消费者
+     */
+    private final class StreamQueue {
+        private final String stream;
+        private final ArrayDeque<Item> items = new ArrayDeque<>();
+        private boolean draining;
+        private boolean retired;
+        private boolean removed;
+        private int maxDepth;
+        private long submitted;
+        private long dropped;
+        private volatile long lastLagMs;
+        private volatile long maxLagMs;
+
+        StreamQueue(String stream) {
+            this.stream = stream;
+        }
+
+        /**
+         * 入队，返回是否需要启动消费者；队列已从映射中移除时不入队
+         */
+        synchronized OfferResult offer(Item item) {
+            if (removed) {
+                return OfferResult.REMOVED;
+            }
+            retired = false;
+            submitted++;
+            if (items.size() >= properties.getQueueCapacity() && !makeRoom(item)) {
+                dropped++;
+                return OfferResult.QUEUED;
+            }
+            items.addLast(item);
+            maxDepth = Math.max(maxDepth, items.size());
+            if (draining) {
+                return OfferResult.QUEUED;
+            }
+            draining = true;
+            return OfferResult.START_DRAIN;
+        }
+
+        /**
+         * 标记退役，空闲时立即移除
+         */
+        synchronized void retire() {
+            retired = true;
+            if (!draining) {
+                detach();
+            }
+        }
+
+        /**
+         * 队列已满时腾出位置，返回新消息是否可以入队
+         */
+        private boolean makeRoom(Item incoming) {
+            if (properties.getOverflowPolicy() == KlineDispatchProperties.OverflowPolicy.DROP_OLDEST_PARTIAL) {
+                Iterator<Item> it = items.iterator();
+                while (it.hasNext()) {
+                    if (!it.next().closed()) {
+                        it.remove();
+                        dropped++;
+                        return true;
+                    }
+                }
+            }
+            // 未闭合K线直接丢弃；闭合K线即使超出容量也必须入队
+            return incoming.closed();
+        }
+
+        synchronized Item poll() {
+            Item item = items.pollFirst();
+            if (item == null) {
+                draining = false;
+                if (retired) {
+                    detach();
+                }
+            }
+            return item;
+        }
+
+        private void detach() {
+            removed = true;
+            queues.remove(stream, this);
+        }
+
+        void recordLag(long lagMs) {
+            lastLagMs = lagMs;
+            if (lagMs > maxLagMs) {
+                maxLagMs = lagMs;
+            }
+        }
+
+        synchronized StreamStats stats() {
+            return new StreamStats(stream, items.size(), maxDepth, submitted, dropped, lastLagMs, maxLagMs);
+        }
+    }
+}
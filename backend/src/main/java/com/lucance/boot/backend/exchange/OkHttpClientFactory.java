@@ -0,0 +1,145 @@
+package com.lucance.boot.backend.exchange;
+
+import com.lucance.boot.backend.config.ExchangeProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * OkHttp 客户端工厂
+ * 所有交易所共享一个连接池、一组调度线程与 WebSocket 调度器；
+ * 每个交易所有独立的 Dispatcher（共享线程池），可单独限制并发、超时与 HTTP/2
+ */
+@Slf4j
+@Component
+public class OkHttpClientFactory {
+
+    private final ExchangeProperties.HttpPoolConfig poolConfig;
+    private final ConnectionPool connectionPool;
+    private final ExecutorService dispatchExecutor;
+    private final ScheduledExecutorService scheduler;
+    private final OkHttpClient rootClient;
+    private final Map<String, Dispatcher> dispatchers = new ConcurrentHashMap<>();
+
+    public OkHttpClientFactory(ExchangeProperties properties) {
+        this.poolConfig = properties.getHttpPool();
+        this.connectionPool = new ConnectionPool(poolConfig.getMaxIdleConnections(),
+                poolConfig.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS);
+        // 与 OkHttp 默认 Dispatcher 线程池一致：按需创建、空闲 60s 回收
+        this.dispatchExecutor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), daemonThreads("okhttp-dispatcher"));
+        this.scheduler = Executors.newScheduledThreadPool(Math.max(1, poolConfig.getSchedulerThreads()),
+                daemonThreads("ws-scheduler"));
+        this.rootClient = new OkHttpClient.Builder()
+                .connectionPool(connectionPool)
+                .build();
+    }
+
+    /**
+     * 交易所 REST 客户端构建器，调用方可继续添加拦截器
+     */
+    public OkHttpClient.Builder httpClientBuilder(String exchange, ExchangeProperties.HttpClientConfig config,
+            ProxyConfig proxyConfig) {
+        Dispatcher dispatcher = dispatchers.computeIfAbsent(exchange.toLowerCase(),
+                k -> new Dispatcher(dispatchExecutor));
+        dispatcher.setMaxRequests(config.getMaxRequests());
+        dispatcher.setMaxRequestsPerHost(config.getMaxRequestsPerHost());
+
+        OkHttpClient.Builder builder = rootClient.newBuilder()
+                .dispatcher(dispatcher)
+                .connectTimeout(config.getConnectTimeout())
+                .readTimeout(config.getReadTimeout())
+                .writeTimeout(config.getReadTimeout())
+                .protocols(config.isHttp2()
+                        ? List.of(Protocol.HTTP_2, Protocol.HTTP_1_1)
+                        : List.of(Protocol.HTTP_1_1));
+        applyProxy(builder, proxyConfig, exchange);
+        return builder;
+    }
+
+    /**
+     * WebSocket 客户端（长连接不占用 Dispatcher 并发额度，共享连接池与代理设置）
+     */
+    public OkHttpClient webSocketClient(ProxyConfig proxyConfig) {
+        OkHttpClient.Builder builder = rootClient.newBuilder()
+                .pingInterval(30, TimeUnit.SECONDS)
+                .connectTimeout(10, TimeUnit.SECONDS)
+                .readTimeout(0, TimeUnit.SECONDS);
+        applyProxy(builder, proxyConfig, "websocket");
+        return builder.build();
+    }
+
+    /**
+     * WebSocket 共享调度器（重连、控制消息节流）
+     */
+    public ScheduledExecutorService scheduler() {
+        return scheduler;
+    }
+
+    /**
+     * 连接池与各交易所 Dispatcher 的使用情况
+     */
+    public PoolStats getStats() {
+        Map<String, DispatcherStats> stats = new TreeMap<>();
+        dispatchers.forEach((exchange, dispatcher) -> stats.put(exchange, new DispatcherStats(
+                dispatcher.runningCallsCount(), dispatcher.queuedCallsCount(),
+                dispatcher.getMaxRequests(), dispatcher.getMaxRequestsPerHost())));
+        int activeThreads = dispatchExecutor instanceof ThreadPoolExecutor pool ? pool.getActiveCount() : -1;
+        return new PoolStats(connectionPool.connectionCount(), connectionPool.idleConnectionCount(),
+                poolConfig.getMaxIdleConnections(), activeThreads, stats);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        dispatchExecutor.shutdown();
+        connectionPool.evictAll();
+    }
+
+    private static void applyProxy(OkHttpClient.Builder builder, ProxyConfig proxyConfig, String owner) {
+        if (proxyConfig != null && proxyConfig.isEnabled()) {
+            proxyConfig.applyTo(builder);
+            log.info("Proxy configured for {}: {}://{}:{}", owner,
+                    proxyConfig.getType(), proxyConfig.getHost(), proxyConfig.getPort());
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * 连接池统计
+     */
+    public record PoolStats(int connectionCount, int idleConnectionCount, int maxIdleConnections,
+            int activeDispatchThreads, Map<String, DispatcherStats> dispatchers) {
+    }
+
+    /**
+     * 单个交易所的请求调度统计
+     */
+    public record DispatcherStats(int runningCalls, int queuedCalls, int maxRequests, int maxRequestsPerHost) {
+    }
+}
@@ -1,8 +1,12 @@
 package com.lucance.boot.backend.exchange;
 
+import com.lucance.boot.backend.config.ExchangeProperties;
 import lombok.Builder;
 import lombok.Data;
+import okhttp3.Credentials;
+import okhttp3.OkHttpClient;
 
+import java.net.InetSocketAddress;
 import java.net.Proxy;
 
 /**
@@ -72,6 +76,43 @@ public class ProxyConfig {
                 .build();
     }
 
+    /**
+     * 从全局代理配置创建
+     */
+    public static ProxyConfig fromSettings(ExchangeProperties.ProxySettings proxy) {
+        if (proxy == null || !proxy.isEnabled()) {
+            return disabled();
+        }
+        return fromProperties(
+                proxy.isEnabled(),
+                proxy.getType(),
+                proxy.getHost(),
+                proxy.getPort(),
+                proxy.getUsername(),
+                proxy.getPassword());
+    }
+
+    /**
+     * 将代理（及认证）应用到 OkHttp 客户端构建器，未启用时不做修改
+     */
+    public void applyTo(OkHttpClient.Builder builder) {
+        if (!enabled) {
+            return;
+        }
+        builder.proxy(new Proxy(type, new InetSocketAddress(host, port)));
+
+        if (username != null && password != null) {
+            builder.proxyAuthenticator((route, response) -> {
+                if (response.request().header("Proxy-Authorization") != null) {
+                    return null; // 已经尝试过认证
+                }
+                return response.request().newBuilder()
+                        .header("Proxy-Authorization", Credentials.basic(username, password))
+                        .build();
+            });
+        }
+    }
+
     /**
      * 禁用代理的配置
      */
@@ -0,0 +1,208 @@
+package com.lucance.boot.backend.exchange;
+
+import com.lucance.boot.backend.entity.Kline;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * 由逐笔成交合成K线（单个交易对、单个周期）
+ * 价格与数量以 8 位小数的定点 long 累计，逐笔成交不分配对象；只有推送K线时才构造 {@link Kline}。
+ * 成交由 WebSocket 读线程写入，定时器只负责关闭已到期的K线，两者在同一个对象上的竞争极少
+ */
+public class TradeBarAggregator {
+
+    /**
+     * 定点数的小数位数（与 klines 表的 scale 一致）
+     */
+    public static final int SCALE = 8;
+
+    private static final long[] POW10 = { 1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L,
+            10_000_000L, 100_000_000L };
+
+    private final String symbol;
+    private final String interval;
+    private final long intervalMs;
+    private final long publishIntervalMs;
+    private final BarListener listener;
+
+    // 当前K线状态（定点数）
+    private long barStart = Long.MIN_VALUE;
+    // 已闭合K线的结束时间，早于该时间的迟到成交忽略
+    private long closedUntil = Long.MIN_VALUE;
+    private long open;
+    private long high;
+    private long low;
+    private long close;
+    private long volume;
+    private long tradeCount;
+    private long lastPublished;
+    private boolean dirty;
+    private volatile boolean publishPartial = true;
+
+    /**
+     * @param intervalMs        K线周期
+     * @param publishIntervalMs 未闭合K线的最小推送间隔，0 表示每笔成交都推送
+     */
+    public TradeBarAggregator(String symbol, String interval, long intervalMs, long publishIntervalMs,
+            BarListener listener) {
+        if (intervalMs <= 0) {
+            throw new IllegalArgumentException("intervalMs must be positive: " + intervalMs);
+        }
+        this.symbol = symbol;
+        this.interval = interval;
+        this.intervalMs = intervalMs;
+        this.publishIntervalMs = publishIntervalMs;
+        this.listener = listener;
+    }
+
+    /**
+     * 处理一笔成交
+     *
+     * @param tradeTime 成交时间（毫秒）
+     * @param price     定点价格
+     * @param quantity  定点数量
+     */
+    public synchronized void onTrade(long tradeTime, long price, long quantity) {
+        if (tradeTime < closedUntil) {
+            // 迟到的已闭合K线成交，忽略
+            return;
+        }
+        long start = Math.floorDiv(tradeTime, intervalMs) * intervalMs;
+        if (start != barStart || tradeCount == 0) {
+            closeCurrent();
+            barStart = start;
+            open = high = low = close = price;
+            volume = quantity;
+            tradeCount = 1;
+        } else {
+            if (price > high) {
+                high = price;
+            }
+            if (price < low) {
+                low = price;
+            }
+            close = price;
+            volume += quantity;
+            tradeCount++;
+        }
+        dirty = publishPartial;
+
+        if (dirty && tradeTime - lastPublished >= publishIntervalMs) {
+            lastPublished = tradeTime;
+            dirty = false;
+            listener.onBar(toKline(), false);
+        }
+    }
+
+    /**
+     * 关闭已到期的K线；尚未到期但有未推送更新时补推一次未闭合K线
+     *
+     * @param now 当前时间（调用方可减去容忍的时钟偏差）
+     */
+    public synchronized void closeExpired(long now) {
+        if (tradeCount == 0) {
+            return;
+        }
+        if (now >= barStart + intervalMs) {
+            closeCurrent();
+        } else if (dirty && now - lastPublished >= publishIntervalMs) {
+            lastPublished = now;
+            dirty = false;
+            listener.onBar(toKline(), false);
+        }
+    }
+
+    /**
+     * 是否推送未闭合K线（只有仅闭合订阅者时关闭，避免无用的对象构造）
+     */
+    public void setPublishPartial(boolean publishPartial) {
+        this.publishPartial = publishPartial;
+    }
+
+    /**
+     * 当前K线已累计的成交笔数
+     */
+    public synchronized long getTradeCount() {
+        return tradeCount;
+    }
+
+    public String getInterval() {
+        return interval;
+    }
+
+    private void closeCurrent() {
+        if (tradeCount == 0) {
+            return;
+        }
+        Kline kline = toKline();
+        tradeCount = 0;
+        closedUntil = barStart + intervalMs;
+        dirty = false;
+        listener.onBar(kline, true);
+    }
+
+    private Kline toKline() {
+        return Kline.builder()
+                .symbol(symbol)
+                .interval(interval)
+                .time(Instant.ofEpochMilli(barStart))
+                .open(BigDecimal.valueOf(open, SCALE))
+                .high(BigDecimal.valueOf(high, SCALE))
+                .low(BigDecimal.valueOf(low, SCALE))
+                .close(BigDecimal.valueOf(close, SCALE))
+                .volume(BigDecimal.valueOf(volume, SCALE))
+                .build();
+    }
+
+    /**
+     * 将十进制字符解析为定点数，超出 {@link #SCALE} 的小数位截断
+     */
+    public static long toFixed(char[] chars, int offset, int length) {
+        if (length == 0) {
+            throw new IllegalArgumentException("Empty decimal");
+        }
+        int end = offset + length;
+        int i = offset;
+        boolean negative = chars[i] == '-';
+        if (negative) {
+            i++;
+        }
+        long value = 0;
+        int decimals = -1;
+        boolean digits = false;
+        for (; i < end; i++) {
+            char c = chars[i];
+            if (c == '.') {
+                if (decimals >= 0) {
+                    throw new IllegalArgumentException("Invalid decimal: " + new String(chars, offset, length));
+                }
+                decimals = 0;
+            } else if (c >= '0' && c <= '9') {
+                digits = true;
+                if (decimals >= SCALE) {
+                    continue;
+                }
+                value = Math.addExact(Math.multiplyExact(value, 10), c - '0');
+                if (decimals >= 0) {
+                    decimals++;
+                }
+            } else {
+                throw new IllegalArgumentException("Invalid decimal: " + new String(chars, offset, length));
+            }
+        }
+        if (!digits) {
+            throw new IllegalArgumentException("Invalid decimal: " + new String(chars, offset, length));
+        }
+        value = Math.multiplyExact(value, POW10[SCALE - Math.max(decimals, 0)]);
+        return negative ? -value : value;
+    }
+
+    /**
+     * K线推送
+     */
+    @FunctionalInterface
+    public interface BarListener {
+        void onBar(Kline kline, boolean closed);
+    }
+}
@@ -0,0 +1,127 @@
+package com.lucance.boot.backend.exchange;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按请求权重限流的限流器
+ * 同时约束每秒请求数与每分钟权重（按自然分钟窗口，与交易所统计口径一致）：
+ * 权重用量超过 slowdownThreshold 后把剩余额度均匀分布到窗口剩余时间，额度耗尽时等待下一窗口；
+ * 用量可由响应头同步，收到 429/418 时按 Retry-After 暂停所有请求
+ */
+public class WeightedRateLimiter {
+
+    private static final long WINDOW_MS = 60_000;
+
+    private final AsyncRateLimiter perSecond;
+    private final int weightPerMinute;
+    private final double slowdownThreshold;
+
+    private long windowStart;
+    private int usedWeight;
+    private long nextPacedAt;
+    private long pausedUntil;
+
+    /**
+     * @param requestsPerSecond 每秒请求数
+     * @param weightPerMinute   每分钟权重额度，小于等于 0 时不限制
+     * @param slowdownThreshold 开始减速的用量比例（0~1）
+     */
+    public WeightedRateLimiter(double requestsPerSecond, int weightPerMinute, double slowdownThreshold) {
+        this.perSecond = new AsyncRateLimiter(requestsPerSecond);
+        this.weightPerMinute = weightPerMinute;
+        this.slowdownThreshold = slowdownThreshold;
+    }
+
+    /**
+     * 异步获取指定权重的许可
+     */
+    public CompletableFuture<Void> acquire(int weight, ScheduledExecutorService timer) {
+        Reservation reservation = reserve(weight, System.currentTimeMillis());
+        if (reservation.granted() && reservation.waitMs() == 0) {
+            return perSecond.acquire(timer);
+        }
+
+        CompletableFuture<Void> permit = new CompletableFuture<>();
+        timer.schedule(() -> {
+            CompletableFuture<Void> next = reservation.granted() ? perSecond.acquire(timer) : acquire(weight, timer);
+            next.whenComplete((ignored, error) -> {
+                if (error != null) {
+                    permit.completeExceptionally(error);
+                } else {
+                    permit.complete(null);
+                }
+            });
+        }, reservation.waitMs(), TimeUnit.MILLISECONDS);
+        return permit;
+    }
+
+    /**
+     * 预约权重：granted 为 false 表示本窗口额度不足或处于暂停期，等待后需重新预约
+     */
+    synchronized Reservation reserve(int weight, long now) {
+        if (now < pausedUntil) {
+            return new Reservation(pausedUntil - now, false);
+        }
+        if (weightPerMinute <= 0) {
+            return new Reservation(0, true);
+        }
+        rollWindow(now);
+
+        long windowEnd = windowStart + WINDOW_MS;
+        if (usedWeight + weight > weightPerMinute) {
+            return new Reservation(windowEnd - now + 1, false);
+        }
+        usedWeight += weight;
+        if (usedWeight <= weightPerMinute * slowdownThreshold) {
+            return new Reservation(0, true);
+        }
+
+        // 接近额度：按剩余额度均匀分布到窗口剩余时间
+        int remaining = weightPerMinute - usedWeight;
+        long interval = (windowEnd - now) * weight / (remaining + weight);
+        long start = Math.max(now, nextPacedAt);
+        nextPacedAt = start + interval;
+        return new Reservation(start - now, true);
+    }
+
+    /**
+     * 以交易所返回的已用权重校准（取较大值，本地计数包含尚未被服务端统计的在途请求）
+     */
+    public synchronized void syncUsedWeight(int serverUsedWeight, long now) {
+        if (weightPerMinute <= 0) {
+            return;
+        }
+        rollWindow(now);
+        usedWeight = Math.max(usedWeight, serverUsedWeight);
+    }
+
+    /**
+     * 暂停所有请求直到指定时长之后（Retry-After）
+     */
+    public synchronized void pauseFor(long millis, long now) {
+        pausedUntil = Math.max(pausedUntil, now + millis);
+    }
+
+    public synchronized int getUsedWeight() {
+        rollWindow(System.currentTimeMillis());
+        return usedWeight;
+    }
+
+    public int getWeightPerMinute() {
+        return weightPerMinute;
+    }
+
+    private void rollWindow(long now) {
+        long window = now - now % WINDOW_MS;
+        if (window != windowStart) {
+            windowStart = window;
+            usedWeight = 0;
+            nextPacedAt = 0;
+        }
+    }
+
+    record Reservation(long waitMs, boolean granted) {
+    }
+}
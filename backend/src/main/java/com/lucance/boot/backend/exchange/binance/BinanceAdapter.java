@@ -5,14 +5,15 @@ import com.lucance.boot.backend.config.ExchangeProperties;
 import com.lucance.boot.backend.entity.Kline;
 import com.lucance.boot.backend.exchange.*;
 import com.lucance.boot.backend.exchange.model.*;
+import okhttp3.Request;
 import org.apache.commons.codec.binary.Hex;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 import java.math.BigDecimal;
-import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 /**
@@ -23,18 +24,24 @@ import java.util.function.Consumer;
 public class BinanceAdapter extends BaseHttpClient implements ExchangeAdapter {
 
     private static final String EXCHANGE_NAME = "Binance";
+    private static final String USED_WEIGHT_HEADER = "X-MBX-USED-WEIGHT-1M";
 
     private BinanceWebSocketClient wsClient;
+    private KlineDispatcher klineDispatcher;
     private final ExchangeProperties properties;
+    private final OkHttpClientFactory clientFactory;
 
-    public BinanceAdapter(ExchangeProperties properties) {
+    public BinanceAdapter(ExchangeProperties properties, OkHttpClientFactory clientFactory) {
         super(
                 properties.getBinance().getBaseUrl(),
                 properties.getBinance().getApiKey(),
                 properties.getBinance().getSecretKey(),
-                createProxyConfig(properties.getProxy()),
-                properties.getBinance().getRateLimit().getRequestsPerSecond());
+                clientFactory.httpClientBuilder("binance", properties.getBinance().getHttp(),
+                        createProxyConfig(properties.getProxy())),
+                properties.getBinance().getRateLimit().getRequestsPerSecond(),
+                properties.getBinance().getRateLimit().getRequestsPerMinute());
         this.properties = properties;
+        this.clientFactory = clientFactory;
     }
 
     /**
@@ -42,24 +49,64 @@ public class BinanceAdapter extends BaseHttpClient implements ExchangeAdapter {
      */
     private synchronized BinanceWebSocketClient getWsClient() {
         if (wsClient == null) {
-            wsClient = new BinanceWebSocketClient(createProxyConfig(properties.getProxy()));
+            wsClient = new BinanceWebSocketClient(
+                    clientFactory.webSocketClient(createProxyConfig(properties.getProxy())),
+                    clientFactory.scheduler(),
+                    properties.getBinance().getWsUrl(),
+                    properties.getBinance().getStream(),
+                    klineDispatcher);
+            // 重连后通过 REST 补齐断线期间的闭合K线
+            wsClient.setCatchUpFetcher((symbol, interval, startTime, limit) ->
+                    getKlines(symbol, interval, startTime, null, limit));
             log.info("BinanceWebSocketClient initialized");
         }
         return wsClient;
     }
 
-    private static ProxyConfig createProxyConfig(ExchangeProperties.ProxySettings proxy) {
-        if (proxy == null || !proxy.isEnabled()) {
-            return ProxyConfig.disabled();
+    /**
+     * 设置K线分发器（可选，未设置时回调在 WebSocket 读线程上执行）
+     */
+    public void setKlineDispatcher(KlineDispatcher klineDispatcher) {
+        this.klineDispatcher = klineDispatcher;
+    }
+
+    /**
+     * Binance 端点权重
+     */
+    @Override
+    protected int requestWeight(Request request) {
+        String path = request.url().encodedPath();
+        return switch (path) {
+            case "/api/v3/klines" -> klinesWeight(request.url().queryParameter("limit"));
+            case "/api/v3/ticker/24hr" -> request.url().queryParameter("symbol") != null ? 2 : 80;
+            case "/api/v3/account", "/api/v3/exchangeInfo" -> 20;
+            case "/api/v3/order" -> "GET".equals(request.method()) ? 4 : 1;
+            default -> 1;
+        };
+    }
+
+    /**
+     * K线权重随 limit 增加
+     */
+    static int klinesWeight(String limit) {
+        int value = limit != null ? Integer.parseInt(limit) : 500;
+        if (value <= 100) {
+            return 1;
+        } else if (value <= 500) {
+            return 2;
+        } else if (value <= 1000) {
+            return 5;
         }
+        return 10;
+    }
+
+    @Override
+    protected String usedWeightHeader() {
+        return USED_WEIGHT_HEADER;
+    }
 
-        return ProxyConfig.fromProperties(
-                proxy.isEnabled(),
-                proxy.getType(),
-                proxy.getHost(),
-                proxy.getPort(),
-                proxy.getUsername(),
-                proxy.getPassword());
+    private static ProxyConfig createProxyConfig(ExchangeProperties.ProxySettings proxy) {
+        return ProxyConfig.fromSettings(proxy);
     }
 
     @Override
@@ -82,6 +129,12 @@ public class BinanceAdapter extends BaseHttpClient implements ExchangeAdapter {
 
     @Override
     public List<Kline> getKlines(String symbol, String interval, Long startTime, Long endTime, int limit) {
+        return await(getKlinesAsync(symbol, interval, startTime, endTime, limit));
+    }
+
+    @Override
+    public CompletableFuture<List<Kline>> getKlinesAsync(String symbol, String interval,
+            Long startTime, Long endTime, int limit) {
         Map<String, String> params = new HashMap<>();
         params.put("symbol", convertSymbol(symbol));
         params.put("interval", interval);
@@ -95,13 +148,9 @@ public class BinanceAdapter extends BaseHttpClient implements ExchangeAdapter {
         int resolvedLimit = limit > 0 ? limit : 500;
         params.put("limit", String.valueOf(resolvedLimit));
 
-        // Binance 返回二维数组格式
-        List<List<Object>> response = get("/api/v3/klines", params, new TypeReference<>() {
-        });
-
-        return response.stream()
-                .map(data -> convertToKline(symbol, interval, data))
-                .toList();
+        // Binance 返回二维数组格式，直接从响应字节流解码
+        return getAsync("/api/v3/klines", params,
+                parser -> BinanceKlineArrayDecoder.decode(parser, symbol, interval, resolvedLimit), false);
     }
 
     @Override
@@ -135,6 +184,24 @@ public class BinanceAdapter extends BaseHttpClient implements ExchangeAdapter {
         log.info("Unsubscribed from kline via adapter: {} {}", symbol, interval);
     }
 
+    @Override
+    public boolean supportsTradeKline() {
+        return true;
+    }
+
+    @Override
+    public void subscribeTradeKline(String symbol, String interval, Consumer<Kline> callback,
+            boolean closedOnly, long publishIntervalMs) {
+        getWsClient().subscribeTradeKline(convertSymbol(symbol), interval, callback, closedOnly, publishIntervalMs);
+        log.info("Subscribed to trade kline via adapter: {} {}", symbol, interval);
+    }
+
+    @Override
+    public void unsubscribeTradeKline(String symbol, String interval) {
+        getWsClient().unsubscribeTradeKline(convertSymbol(symbol), interval);
+        log.info("Unsubscribed from trade kline via adapter: {} {}", symbol, interval);
+    }
+
     @Override
     public Order placeOrder(OrderRequest request) {
         Map<String, String> params = new HashMap<>();
@@ -169,10 +236,6 @@ public class BinanceAdapter extends BaseHttpClient implements ExchangeAdapter {
         Map<String, String> params = new HashMap<>();
         params.put("symbol", convertSymbol(symbol));
         params.put("orderId", orderId);
-        params.put("timestamp", String.valueOf(System.currentTimeMillis()));
-
-        String queryString = buildQueryString(params);
-        params.put("signature", sign(queryString));
 
         Map<String, Object> response = get("/api/v3/order", params, new TypeReference<>() {
         }, true); // signed = true
@@ -181,13 +244,7 @@ public class BinanceAdapter extends BaseHttpClient implements ExchangeAdapter {
 
     @Override
     public List<Balance> getBalances() {
-        Map<String, String> params = new HashMap<>();
-        params.put("timestamp", String.valueOf(System.currentTimeMillis()));
-
-        String queryString = buildQueryString(params);
-        params.put("signature", sign(queryString));
-
-        Map<String, Object> response = get("/api/v3/account", params, new TypeReference<>() {
+        Map<String, Object> response = get("/api/v3/account", new HashMap<>(), new TypeReference<>() {
         }, true); // signed = true
 
         @SuppressWarnings("unchecked")
@@ -228,23 +285,6 @@ public class BinanceAdapter extends BaseHttpClient implements ExchangeAdapter {
         return symbol.replace("/", "");
     }
 
-    /**
-     * 转换为统一的 Kline 格式
-     * Binance 格式: [openTime, open, high, low, close, volume, closeTime, ...]
-     */
-    private Kline convertToKline(String symbol, String interval, List<Object> data) {
-        return Kline.builder()
-                .symbol(symbol)
-                .interval(interval)
-                .time(Instant.ofEpochMilli(((Number) data.get(0)).longValue()))
-                .open(new BigDecimal(data.get(1).toString()))
-                .high(new BigDecimal(data.get(2).toString()))
-                .low(new BigDecimal(data.get(3).toString()))
-                .close(new BigDecimal(data.get(4).toString()))
-                .volume(new BigDecimal(data.get(5).toString()))
-                .build();
-    }
-
     private Ticker convertToTicker(Map<String, Object> response) {
         return Ticker.builder()
                 .symbol(response.get("symbol").toString())
@@ -0,0 +1,77 @@
+package com.lucance.boot.backend.exchange.binance;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.lucance.boot.backend.entity.Kline;
+import com.lucance.boot.backend.exchange.ExchangeApiException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binance K线 REST 响应的流式解码
+ * 按令牌遍历二维数组，价格直接由解析器字符缓冲构造 BigDecimal，不生成中间字符串和装箱列表
+ */
+final class BinanceKlineArrayDecoder {
+
+    private BinanceKlineArrayDecoder() {
+    }
+
+    /**
+     * 解码K线数组
+     * 格式: [[openTime, "open", "high", "low", "close", "volume", closeTime, ...], ...]
+     */
+    static List<Kline> decode(JsonParser parser, String symbol, String interval, int expectedSize)
+            throws IOException {
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new ExchangeApiException("Unexpected klines response, expected array but got: "
+                    + parser.currentToken());
+        }
+
+        List<Kline> klines = new ArrayList<>(expectedSize);
+        while (parser.nextToken() == JsonToken.START_ARRAY) {
+            klines.add(decodeRow(parser, symbol, interval));
+        }
+        return klines;
+    }
+
+    private static Kline decodeRow(JsonParser parser, String symbol, String interval) throws IOException {
+        parser.nextToken();
+        long openTime = parser.getLongValue();
+        BigDecimal open = nextDecimal(parser);
+        BigDecimal high = nextDecimal(parser);
+        BigDecimal low = nextDecimal(parser);
+        BigDecimal close = nextDecimal(parser);
+        BigDecimal volume = nextDecimal(parser);
+
+        // 跳过 closeTime、成交额等剩余字段
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            parser.skipChildren();
+        }
+
+        return Kline.builder()
+                .symbol(symbol)
+                .interval(interval)
+                .time(Instant.ofEpochMilli(openTime))
+                .open(open)
+                .high(high)
+                .low(low)
+                .close(close)
+                .volume(volume)
+                .build();
+    }
+
+    private static BigDecimal nextDecimal(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            return parser.getDecimalValue();
+        }
+        if (token != JsonToken.VALUE_STRING) {
+            throw new ExchangeApiException("Unexpected kline field token: " + token);
+        }
+        return new BigDecimal(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+    }
+}
@@ -0,0 +1,219 @@
+package com.lucance.boot.backend.exchange.binance;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.lucance.boot.backend.entity.Kline;
+import com.lucance.boot.backend.exchange.TradeBarAggregator;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Binance 组合流消息的流式解析结果（按线程复用）
+ * 只提取K线与成交需要的字段，价格保留为原始字符区间，确认需要回调后才构造 BigDecimal 或定点数
+ */
+final class BinanceKlineFrame {
+
+    static final int OPEN = 0;
+    static final int HIGH = 1;
+    static final int LOW = 2;
+    static final int CLOSE = 3;
+    static final int VOLUME = 4;
+    static final int PRICE = 5;
+    static final int QUANTITY = 6;
+
+    private String stream;
+    private boolean kline;
+    private boolean trade;
+    private long tradeTime;
+    private boolean closed;
+    private boolean ack;
+    private boolean error;
+    private long openTime;
+
+    // 价格字段的原始字符，按 OPEN..VOLUME 记录区间
+    private char[] chars = new char[128];
+    private int used;
+    private final int[] offsets = new int[7];
+    private final int[] lengths = new int[7];
+
+    /**
+     * 解析一帧组合流消息
+     * 格式: {"stream":"btcusdt@kline_1m","data":{"e":"kline","s":"BTCUSDT","k":{"t":...,"o":"...",...,"x":false}}}
+     */
+    void parse(JsonParser parser) throws IOException {
+        reset();
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken token = parser.nextToken();
+            switch (name) {
+                case "stream" -> stream = parser.getText();
+                case "data" -> parseData(parser, token);
+                case "result" -> ack = token == JsonToken.VALUE_NULL;
+                case "error" -> {
+                    error = true;
+                    parser.skipChildren();
+                }
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    private void parseData(JsonParser parser, JsonToken token) throws IOException {
+        if (token != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        boolean klineEvent = false;
+        boolean tradeEvent = false;
+        boolean hasK = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (name) {
+                case "e" -> {
+                    klineEvent = textEquals(parser, "kline");
+                    tradeEvent = textEquals(parser, "aggTrade") || textEquals(parser, "trade");
+                }
+                case "k" -> {
+                    if (value == JsonToken.START_OBJECT) {
+                        parseKline(parser);
+                        hasK = true;
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                // 成交事件: {"e":"aggTrade","s":"BTCUSDT","p":"...","q":"...","T":...,"m":true}
+                case "p" -> capture(parser, PRICE);
+                case "q" -> capture(parser, QUANTITY);
+                case "T" -> tradeTime = parser.getLongValue();
+                default -> parser.skipChildren();
+            }
+        }
+        kline = klineEvent && hasK;
+        trade = tradeEvent && lengths[PRICE] > 0 && lengths[QUANTITY] > 0;
+    }
+
+    private void parseKline(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (name) {
+                case "t" -> openTime = parser.getLongValue();
+                case "o" -> capture(parser, OPEN);
+                case "h" -> capture(parser, HIGH);
+                case "l" -> capture(parser, LOW);
+                case "c" -> capture(parser, CLOSE);
+                case "v" -> capture(parser, VOLUME);
+                case "x" -> closed = value == JsonToken.VALUE_TRUE;
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * 直接复制解析器缓冲区中的字符，不生成中间字符串
+     */
+    private void capture(JsonParser parser, int field) throws IOException {
+        int length = parser.getTextLength();
+        if (used + length > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(chars.length * 2, used + length));
+        }
+        System.arraycopy(parser.getTextCharacters(), parser.getTextOffset(), chars, used, length);
+        offsets[field] = used;
+        lengths[field] = length;
+        used += length;
+    }
+
+    private static boolean textEquals(JsonParser parser, String expected) throws IOException {
+        int length = parser.getTextLength();
+        if (length != expected.length()) {
+            return false;
+        }
+        char[] text = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        for (int i = 0; i < length; i++) {
+            if (text[offset + i] != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void reset() {
+        stream = null;
+        kline = false;
+        trade = false;
+        tradeTime = 0;
+        closed = false;
+        ack = false;
+        error = false;
+        openTime = 0;
+        used = 0;
+        Arrays.fill(lengths, 0);
+    }
+
+    String stream() {
+        return stream;
+    }
+
+    boolean isKline() {
+        return kline;
+    }
+
+    boolean isTrade() {
+        return trade;
+    }
+
+    long tradeTime() {
+        return tradeTime;
+    }
+
+    /**
+     * 字段的定点数值（不构造 BigDecimal）
+     */
+    long fixed(int field) {
+        return TradeBarAggregator.toFixed(chars, offsets[field], lengths[field]);
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    boolean isAck() {
+        return ack;
+    }
+
+    boolean isError() {
+        return error;
+    }
+
+    long openTime() {
+        return openTime;
+    }
+
+    BigDecimal decimal(int field) {
+        return lengths[field] == 0 ? BigDecimal.ZERO : new BigDecimal(chars, offsets[field], lengths[field]);
+    }
+
+    /**
+     * 构造K线（交易对与周期取自路由表）
+     */
+    Kline toKline(String symbol, String interval) {
+        return Kline.builder()
+                .symbol(symbol)
+                .interval(interval)
+                .time(Instant.ofEpochMilli(openTime))
+                .open(decimal(OPEN))
+                .high(decimal(HIGH))
+                .low(decimal(LOW))
+                .close(decimal(CLOSE))
+                .volume(decimal(VOLUME))
+                .build();
+    }
+}
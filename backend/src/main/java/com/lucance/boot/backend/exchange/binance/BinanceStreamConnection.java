@@ -0,0 +1,213 @@
+package com.lucance.boot.backend.exchange.binance;
+
+import com.lucance.boot.backend.config.ExchangeProperties;
+import com.lucance.boot.backend.exchange.BaseWebSocketClient;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Binance 组合流连接（单个分片）
+ * 通过 /stream?streams= 建立连接，之后的增减以批量 SUBSCRIBE/UNSUBSCRIBE 消息完成，
+ * 控制消息按每秒上限节流发送
+ */
+@Slf4j
+class BinanceStreamConnection extends BaseWebSocketClient {
+
+    private static final Consumer<String> NO_OP = msg -> {
+    };
+
+    private final int id;
+    private final String streamBaseUrl;
+    private final ExchangeProperties.StreamConfig config;
+    private final Consumer<String> messageHandler;
+    private final Consumer<List<String>> reconnectHandler;
+
+    // 已包含在连接地址中的流，连接建立后无需再发送 SUBSCRIBE
+    private final Set<String> urlStreams = ConcurrentHashMap.newKeySet();
+    private final Queue<String> pendingSubscribe = new ConcurrentLinkedQueue<>();
+    private final Queue<String> pendingUnsubscribe = new ConcurrentLinkedQueue<>();
+    private final AtomicLong requestId = new AtomicLong();
+    private volatile boolean started = false;
+
+    private final ScheduledFuture<?> flushTask;
+
+    /**
+     * @param scheduler 共享调度器，为 null 时连接自带调度线程
+     */
+    BinanceStreamConnection(int id, String streamBaseUrl, ExchangeProperties.StreamConfig config,
+            OkHttpClient client, ScheduledExecutorService scheduler,
+            Consumer<String> messageHandler, Consumer<List<String>> reconnectHandler) {
+        super(client, scheduler);
+        this.id = id;
+        this.streamBaseUrl = streamBaseUrl;
+        this.config = config;
+        this.messageHandler = messageHandler;
+        this.reconnectHandler = reconnectHandler;
+
+        long period = Math.max(1, 1000 / Math.max(1, config.getMaxMessagesPerSecond()));
+        flushTask = this.scheduler.scheduleAtFixedRate(this::flushControlMessages, period, period,
+                TimeUnit.MILLISECONDS);
+    }
+
+    int getId() {
+        return id;
+    }
+
+    int streamCount() {
+        return subscriptions.size();
+    }
+
+    boolean hasCapacity() {
+        return subscriptions.size() < config.getMaxStreamsPerConnection();
+    }
+
+    /**
+     * 添加流，首次添加时建立连接
+     */
+    synchronized void addStream(String stream) {
+        if (subscriptions.putIfAbsent(stream, NO_OP) != null) {
+            return;
+        }
+        if (!started) {
+            started = true;
+            connect(buildUrl());
+        } else if (isConnected()) {
+            sendSubscribeMessage(stream);
+        }
+        // 正在连接中的流会在 onConnected 中补发订阅
+    }
+
+    /**
+     * 移除流
+     */
+    synchronized void removeStream(String stream) {
+        if (subscriptions.remove(stream) == null) {
+            return;
+        }
+        urlStreams.remove(stream);
+        pendingSubscribe.remove(stream);
+        if (isConnected()) {
+            sendUnsubscribeMessage(stream);
+        }
+    }
+
+    @Override
+    public void close() {
+        flushTask.cancel(false);
+        super.close();
+    }
+
+    @Override
+    protected void onConnected() {
+        pendingSubscribe.clear();
+        pendingUnsubscribe.clear();
+        for (String stream : subscriptions.keySet()) {
+            if (!urlStreams.contains(stream)) {
+                pendingSubscribe.add(stream);
+            }
+        }
+        log.info("Binance stream connection #{} connected: {} streams ({} pending subscribe)",
+                id, subscriptions.size(), pendingSubscribe.size());
+    }
+
+    /**
+     * 重连后通知管理器对本连接上的流补齐断线期间的K线
+     */
+    @Override
+    protected void onReconnected() {
+        reconnectHandler.accept(new ArrayList<>(subscriptions.keySet()));
+    }
+
+    @Override
+    protected String reconnectUrl() {
+        return buildUrl();
+    }
+
+    @Override
+    protected void sendSubscribeMessage(String channel) {
+        pendingUnsubscribe.remove(channel);
+        pendingSubscribe.add(channel);
+    }
+
+    @Override
+    protected void sendUnsubscribeMessage(String channel) {
+        pendingSubscribe.remove(channel);
+        pendingUnsubscribe.add(channel);
+    }
+
+    @Override
+    protected void handleMessage(String message) {
+        messageHandler.accept(message);
+    }
+
+    /**
+     * 连接地址携带首批流，其余流连接后批量订阅
+     */
+    private String buildUrl() {
+        urlStreams.clear();
+        List<String> first = new ArrayList<>();
+        for (String stream : subscriptions.keySet()) {
+            if (first.size() >= config.getSubscribeBatchSize()) {
+                break;
+            }
+            first.add(stream);
+        }
+        urlStreams.addAll(first);
+        return streamBaseUrl + "/stream?streams=" + String.join("/", first);
+    }
+
+    /**
+     * 每个节拍最多发送一条控制消息，每条最多携带 subscribeBatchSize 个流
+     */
+    private void flushControlMessages() {
+        if (!isConnected()) {
+            return;
+        }
+        try {
+            List<String> batch = drain(pendingSubscribe);
+            if (!batch.isEmpty()) {
+                sendControl("SUBSCRIBE", batch);
+                return;
+            }
+            batch = drain(pendingUnsubscribe);
+            if (!batch.isEmpty()) {
+                sendControl("UNSUBSCRIBE", batch);
+            }
+        } catch (Exception e) {
+            log.error("Failed to flush control messages on connection #{}", id, e);
+        }
+    }
+
+    private List<String> drain(Queue<String> queue) {
+        List<String> batch = new ArrayList<>();
+        String stream;
+        while (batch.size() < config.getSubscribeBatchSize() && (stream = queue.poll()) != null) {
+            if (!batch.contains(stream)) {
+                batch.add(stream);
+            }
+        }
+        return batch;
+    }
+
+    private void sendControl(String method, List<String> streams) throws Exception {
+        String message = objectMapper.writeValueAsString(Map.of(
+                "method", method,
+                "params", streams,
+                "id", requestId.incrementAndGet()));
+        send(message);
+        log.debug("Connection #{} sent {} for {} streams", id, method, streams.size());
+    }
+}
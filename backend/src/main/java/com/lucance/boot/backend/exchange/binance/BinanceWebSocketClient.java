@@ -1,46 +1,108 @@
 package com.lucance.boot.backend.exchange.binance;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lucance.boot.backend.config.ExchangeProperties;
 import com.lucance.boot.backend.entity.Kline;
 import com.lucance.boot.backend.exchange.BaseWebSocketClient;
+import com.lucance.boot.backend.exchange.KlineDispatcher;
 import com.lucance.boot.backend.exchange.ProxyConfig;
+import com.lucance.boot.backend.exchange.TradeBarAggregator;
+import com.lucance.boot.backend.util.KlineIntervalUtil;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
 
-import java.math.BigDecimal;
-import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
 /**
  * Binance WebSocket 客户端
- * 支持闭合 K 线过滤
+ * 所有K线流复用组合流连接（/stream?streams=），按流名称路由到订阅者；
+ * 单连接流数量达到上限时自动开新连接分片，支持闭合 K 线过滤
  */
 @Slf4j
-public class BinanceWebSocketClient extends BaseWebSocketClient {
+public class BinanceWebSocketClient {
 
     private static final String WS_BASE_URL = "wss://stream.binance.com:9443";
 
-    // 存储回调函数
-    private final Map<String, Consumer<Kline>> klineCallbacks = new ConcurrentHashMap<>();
+    // 断线补数：每页条数与最多页数，更长的缺口交给数据完整性扫描
+    private static final int CATCH_UP_PAGE_SIZE = 1000;
+    private static final int MAX_CATCH_UP_PAGES = 10;
 
-    // 存储闭合K线回调（仅闭合时触发）
-    private final Map<String, Consumer<Kline>> closedKlineCallbacks = new ConcurrentHashMap<>();
+    // 成交合成K线：到期检查周期与容忍的交易所/本地时钟偏差
+    private static final long TRADE_CLOSE_CHECK_MS = 200;
+    private static final long TRADE_CLOSE_GRACE_MS = 500;
 
-    // 是否只通知闭合K线
-    private final Map<String, Boolean> closedOnlyFlags = new ConcurrentHashMap<>();
+    private final OkHttpClient client;
+    private final ScheduledExecutorService scheduler;
+    private final String streamBaseUrl;
+    private final ExchangeProperties.StreamConfig streamConfig;
+    private final KlineDispatcher dispatcher;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // 路由表：流名称 -> 订阅者
+    private final Map<String, StreamRoute> routes = new ConcurrentHashMap<>();
+    // 成交流 -> 合成K线
+    private final Map<String, TradeRoute> tradeRoutes = new ConcurrentHashMap<>();
+    private ScheduledExecutorService tradeTimer;
+    private ScheduledFuture<?> tradeCloseTask;
+
+    // 组合流连接分片
+    private final List<BinanceStreamConnection> connections = new CopyOnWriteArrayList<>();
+    private final AtomicInteger connectionIds = new AtomicInteger();
+    private final ExecutorService catchUpExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile CatchUpFetcher catchUpFetcher;
+
+    // 每个连接的读线程复用一个解析缓冲
+    private static final ThreadLocal<BinanceKlineFrame> FRAMES = ThreadLocal.withInitial(BinanceKlineFrame::new);
 
     public BinanceWebSocketClient() {
-        super();
+        this(null);
     }
 
     public BinanceWebSocketClient(ProxyConfig proxyConfig) {
-        super(proxyConfig);
+        this(proxyConfig, WS_BASE_URL, new ExchangeProperties.StreamConfig(), null);
+    }
+
+    /**
+     * @param dispatcher K线分发器，为 null 时回调在 WebSocket 读线程上直接执行
+     */
+    public BinanceWebSocketClient(ProxyConfig proxyConfig, String wsUrl, ExchangeProperties.StreamConfig streamConfig,
+            KlineDispatcher dispatcher) {
+        this(BaseWebSocketClient.createClient(proxyConfig), null, wsUrl, streamConfig, dispatcher);
+    }
+
+    /**
+     * 所有分片共用同一个 OkHttp 客户端
+     *
+     * @param scheduler  共享调度器，为 null 时每个分片自带调度线程
+     * @param dispatcher K线分发器，为 null 时回调在 WebSocket 读线程上直接执行
+     */
+    public BinanceWebSocketClient(OkHttpClient client, ScheduledExecutorService scheduler, String wsUrl,
+            ExchangeProperties.StreamConfig streamConfig, KlineDispatcher dispatcher) {
+        this.client = client;
+        this.scheduler = scheduler;
+        this.streamBaseUrl = toStreamBaseUrl(wsUrl);
+        this.streamConfig = streamConfig;
+        this.dispatcher = dispatcher;
     }
 
     /**
      * 订阅 K线数据
-     * 
+     *
      * @param symbol   交易对 (如 "BTCUSDT")
      * @param interval 周期 (如 "1m")
      * @param callback 回调函数
@@ -51,7 +113,7 @@ public class BinanceWebSocketClient extends BaseWebSocketClient {
 
     /**
      * 订阅 K线数据（支持闭合过滤）
-     * 
+     *
      * @param symbol     交易对 (如 "BTCUSDT")
      * @param interval   周期 (如 "1m")
      * @param callback   回调函数
@@ -59,24 +121,16 @@ public class BinanceWebSocketClient extends BaseWebSocketClient {
      */
     public void subscribeKline(String symbol, String interval, Consumer<Kline> callback, boolean closedOnly) {
         String stream = symbol.toLowerCase() + "@kline_" + interval;
-
-        if (closedOnly) {
-            closedKlineCallbacks.put(stream, callback);
-            closedOnlyFlags.put(stream, true);
-        } else {
-            klineCallbacks.put(stream, callback);
-            closedOnlyFlags.put(stream, false);
-        }
-
-        // 使用组合流URL
-        String url = WS_BASE_URL + "/ws/" + stream;
         log.info("Subscribing to kline: {} (closedOnly={})", stream, closedOnly);
 
-        if (!isConnected()) {
-            connect(url);
-        } else {
-            addSubscription(stream, msg -> {
-            });
+        synchronized (this) {
+            StreamRoute route = routes.computeIfAbsent(stream,
+                    s -> new StreamRoute(toStandardSymbol(symbol.toUpperCase()), interval));
+            route.subscribers.add(new Subscriber(callback, closedOnly));
+            if (route.connection == null) {
+                route.connection = assignConnection();
+                route.connection.addStream(stream);
+            }
         }
     }
 
@@ -85,125 +139,432 @@ public class BinanceWebSocketClient extends BaseWebSocketClient {
      */
     public void unsubscribeKline(String symbol, String interval) {
         String stream = symbol.toLowerCase() + "@kline_" + interval;
-        klineCallbacks.remove(stream);
-        closedKlineCallbacks.remove(stream);
-        closedOnlyFlags.remove(stream);
-        removeSubscription(stream);
+
+        synchronized (this) {
+            StreamRoute route = routes.remove(stream);
+            if (route == null || route.connection == null) {
+                return;
+            }
+            if (dispatcher != null) {
+                dispatcher.remove(dispatchKey(stream));
+            }
+            releaseStream(route.connection, stream);
+        }
         log.info("Unsubscribed from kline: {}", stream);
     }
 
-    @Override
-    protected void onConnected() {
-        log.info("WebSocket connected, resubscribing {} channels", subscriptions.size());
-        subscriptions.keySet().forEach(this::sendSubscribeMessage);
+    /**
+     * 订阅由逐笔成交（aggTrade）合成的K线，支持交易所不提供的周期
+     * 同一交易对的多个周期共用一条成交流
+     *
+     * @param symbol            交易对 (如 "BTCUSDT")
+     * @param interval          周期，可为自定义周期 (如 "1s"、"10s")
+     * @param callback          回调函数
+     * @param closedOnly        是否仅闭合K线
+     * @param publishIntervalMs 未闭合K线的最小推送间隔
+     */
+    public void subscribeTradeKline(String symbol, String interval, Consumer<Kline> callback, boolean closedOnly,
+            long publishIntervalMs) {
+        String stream = symbol.toLowerCase() + "@aggTrade";
+        long intervalMs = KlineIntervalUtil.parseMillis(interval);
+        log.info("Subscribing to trade kline: {} {} (closedOnly={})", stream, interval, closedOnly);
+
+        synchronized (this) {
+            TradeRoute route = tradeRoutes.computeIfAbsent(stream, s -> new TradeRoute());
+            TradeBars bars = route.find(interval);
+            if (bars == null) {
+                bars = new TradeBars(stream + "/" + interval);
+                TradeBars target = bars;
+                bars.aggregator = new TradeBarAggregator(toStandardSymbol(symbol.toUpperCase()), interval,
+                        intervalMs, publishIntervalMs, (kline, closed) -> deliverBar(target, kline, closed));
+                route.add(bars);
+            }
+            bars.subscribers.add(new Subscriber(callback, closedOnly));
+            bars.aggregator.setPublishPartial(bars.hasLiveSubscriber());
+            if (route.connection == null) {
+                route.connection = assignConnection();
+                route.connection.addStream(stream);
+            }
+            startTradeCloseTask();
+        }
+    }
+
+    /**
+     * 取消订阅成交合成K线，交易对的所有周期都取消后退订成交流
+     */
+    public void unsubscribeTradeKline(String symbol, String interval) {
+        String stream = symbol.toLowerCase() + "@aggTrade";
+
+        synchronized (this) {
+            TradeRoute route = tradeRoutes.get(stream);
+            if (route == null) {
+                return;
+            }
+            TradeBars bars = route.remove(interval);
+            if (bars != null && dispatcher != null) {
+                dispatcher.remove(dispatchKey(bars.key));
+            }
+            if (route.bars.length == 0) {
+                tradeRoutes.remove(stream);
+                if (route.connection != null) {
+                    releaseStream(route.connection, stream);
+                }
+                if (tradeRoutes.isEmpty()) {
+                    stopTradeCloseTask();
+                }
+            }
+        }
+        log.info("Unsubscribed from trade kline: {} {}", stream, interval);
     }
 
-    @Override
-    protected void sendSubscribeMessage(String channel) {
-        try {
-            String subscribeMsg = objectMapper.writeValueAsString(Map.of(
-                    "method", "SUBSCRIBE",
-                    "params", new String[] { channel },
-                    "id", System.currentTimeMillis()));
-            send(subscribeMsg);
-            log.debug("Sent subscribe message: {}", channel);
+    /**
+     * 设置断线补数使用的 REST 查询（未设置时重连后不补数）
+     */
+    public void setCatchUpFetcher(CatchUpFetcher catchUpFetcher) {
+        this.catchUpFetcher = catchUpFetcher;
+    }
+
+    /**
+     * 是否有可用连接
+     */
+    public boolean isConnected() {
+        return connections.stream().anyMatch(BinanceStreamConnection::isConnected);
+    }
+
+    /**
+     * 当前订阅的流数量
+     */
+    public int getStreamCount() {
+        return routes.size();
+    }
+
+    /**
+     * 当前连接分片数量
+     */
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    /**
+     * 关闭所有连接
+     */
+    public synchronized void close() {
+        connections.forEach(BinanceStreamConnection::close);
+        connections.clear();
+        catchUpExecutor.shutdownNow();
+        stopTradeCloseTask();
+        if (tradeTimer != null && tradeTimer != scheduler) {
+            tradeTimer.shutdown();
+        }
+        tradeTimer = null;
+        routes.clear();
+        tradeRoutes.clear();
+    }
+
+    /**
+     * 定时关闭到期的成交合成K线（成交稀疏时不必等下一笔成交才闭合）
+     */
+    private void startTradeCloseTask() {
+        if (tradeCloseTask != null) {
+            return;
+        }
+        if (tradeTimer == null) {
+            tradeTimer = scheduler != null ? scheduler : Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "binance-trade-bars");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        tradeCloseTask = tradeTimer.scheduleAtFixedRate(() -> {
+            long now = System.currentTimeMillis() - TRADE_CLOSE_GRACE_MS;
+            for (TradeRoute route : tradeRoutes.values()) {
+                for (TradeBars bars : route.bars) {
+                    try {
+                        bars.aggregator.closeExpired(now);
+                    } catch (Exception e) {
+                        log.error("Failed to close trade bar: {}", bars.key, e);
+                    }
+                }
+            }
+        }, TRADE_CLOSE_CHECK_MS, TRADE_CLOSE_CHECK_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 没有成交合成K线订阅时停止到期检查，定时器保留给下次订阅复用
+     */
+    private void stopTradeCloseTask() {
+        if (tradeCloseTask != null) {
+            tradeCloseTask.cancel(false);
+            tradeCloseTask = null;
+        }
+    }
+
+    /**
+     * 从连接移除流，连接空闲时关闭
+     */
+    private void releaseStream(BinanceStreamConnection connection, String stream) {
+        connection.removeStream(stream);
+        if (connection.streamCount() == 0) {
+            connections.remove(connection);
+            connection.close();
+            log.info("Closed idle Binance stream connection #{}", connection.getId());
+        }
+    }
+
+    /**
+     * 选择有剩余容量的连接，全部已满时新建分片
+     */
+    private BinanceStreamConnection assignConnection() {
+        for (BinanceStreamConnection connection : connections) {
+            if (connection.hasCapacity()) {
+                return connection;
+            }
+        }
+        BinanceStreamConnection connection = new BinanceStreamConnection(connectionIds.incrementAndGet(),
+                streamBaseUrl, streamConfig, client, scheduler, this::handleMessage, this::onReconnected);
+        connections.add(connection);
+        log.info("Opened Binance stream connection #{} ({} connections)", connection.getId(), connections.size());
+        return connection;
+    }
+
+    /**
+     * 处理组合流消息
+     * 使用流式解析，只提取K线字段；仅闭合订阅者在未闭合更新上不会构造任何对象
+     */
+    private void handleMessage(String message) {
+        BinanceKlineFrame frame = FRAMES.get();
+        try (JsonParser parser = objectMapper.getFactory().createParser(message)) {
+            frame.parse(parser);
         } catch (Exception e) {
-            log.error("Failed to create subscribe message", e);
+            log.error("Failed to handle message: {}", message, e);
+            return;
+        }
+
+        // 处理 K线数据
+        if (frame.isKline()) {
+            StreamRoute route = frame.stream() != null ? routes.get(frame.stream()) : null;
+            if (route != null) {
+                dispatch(frame.stream(), route, frame);
+            }
+        }
+        // 处理成交数据：定点数直接写入各周期的聚合器，不分配对象
+        else if (frame.isTrade()) {
+            TradeRoute route = frame.stream() != null ? tradeRoutes.get(frame.stream()) : null;
+            if (route != null) {
+                long price = frame.fixed(BinanceKlineFrame.PRICE);
+                long quantity = frame.fixed(BinanceKlineFrame.QUANTITY);
+                for (TradeBars bars : route.bars) {
+                    bars.aggregator.onTrade(frame.tradeTime(), price, quantity);
+                }
+            }
+        }
+        // 处理订阅确认
+        else if (frame.isAck()) {
+            log.debug("Subscription confirmed");
+        }
+        // 处理错误
+        else if (frame.isError()) {
+            log.error("WebSocket error: {}", message);
         }
     }
 
-    @Override
-    protected void sendUnsubscribeMessage(String channel) {
+    /**
+     * 在读线程上完成解析，订阅者回调交给分发器按流串行执行；补数期间实时消息先缓存
+     */
+    private void dispatch(String stream, StreamRoute route, BinanceKlineFrame frame) {
+        boolean isClosed = frame.isClosed();
+        // 仅闭合模式：只有闭合时才回调
+        if (!isClosed && !route.hasLiveSubscriber()) {
+            return;
+        }
+        Kline kline = frame.toKline(route.symbol, route.interval);
+        synchronized (route) {
+            if (route.catchingUp) {
+                route.pending.add(new PendingKline(kline, isClosed));
+                return;
+            }
+            deliver(stream, route, kline, isClosed);
+        }
+    }
+
+    private void deliver(String stream, StreamRoute route, Kline kline, boolean isClosed) {
+        List<Consumer<Kline>> callbacks = new ArrayList<>(route.subscribers.size());
+        for (Subscriber subscriber : route.subscribers) {
+            if (isClosed || !subscriber.closedOnly()) {
+                callbacks.add(subscriber.callback());
+            }
+        }
+        if (isClosed) {
+            route.lastClosedTime = kline.getTimestamp();
+        }
+        if (callbacks.isEmpty()) {
+            return;
+        }
+
+        Runnable task = () -> {
+            for (Consumer<Kline> callback : callbacks) {
+                try {
+                    callback.accept(kline);
+                } catch (Exception e) {
+                    log.error("Kline callback failed: {} {}", route.symbol, route.interval, e);
+                }
+            }
+        };
+        if (dispatcher != null) {
+            dispatcher.submit(dispatchKey(stream), isClosed, task);
+        } else {
+            task.run();
+        }
+    }
+
+    /**
+     * 连接重连后补齐断线期间错过的闭合K线
+     * 在读线程上先把各流标记为补数中（之后到达的实时消息进入缓存），
+     * 再异步通过 REST 拉取缺失K线，按时间顺序经正常回调路径回放，最后回放缓存的实时消息
+     */
+    private void onReconnected(List<String> streams) {
+        if (catchUpFetcher == null) {
+            return;
+        }
+        List<String> targets = new ArrayList<>();
+        for (String stream : streams) {
+            StreamRoute route = routes.get(stream);
+            if (route != null) {
+                synchronized (route) {
+                    route.catchingUp = true;
+                }
+                targets.add(stream);
+            }
+        }
+        if (targets.isEmpty()) {
+            return;
+        }
         try {
-            String unsubscribeMsg = objectMapper.writeValueAsString(Map.of(
-                    "method", "UNSUBSCRIBE",
-                    "params", new String[] { channel },
-                    "id", System.currentTimeMillis()));
-            send(unsubscribeMsg);
-            log.debug("Sent unsubscribe message: {}", channel);
-        } catch (Exception e) {
-            log.error("Failed to create unsubscribe message", e);
+            catchUpExecutor.execute(() -> targets.forEach(this::catchUp));
+        } catch (RejectedExecutionException e) {
+            targets.forEach(stream -> {
+                StreamRoute route = routes.get(stream);
+                if (route != null) {
+                    flushPending(stream, route);
+                }
+            });
         }
     }
 
-    @Override
-    protected void handleMessage(String message) {
+    private void catchUp(String stream) {
+        StreamRoute route = routes.get(stream);
+        if (route == null) {
+            return;
+        }
+        int replayed = 0;
         try {
-            JsonNode json = objectMapper.readTree(message);
-
-            // 处理 K线数据
-            if (json.has("e") && "kline".equals(json.get("e").asText())) {
-                JsonNode k = json.get("k");
-                boolean isClosed = k.get("x").asBoolean();
-
-                String stream = json.get("s").asText().toLowerCase() + "@kline_" +
-                        k.get("i").asText();
-
-                // 检查是否需要只处理闭合K线
-                Boolean closedOnly = closedOnlyFlags.get(stream);
-
-                if (closedOnly != null && closedOnly) {
-                    // 仅闭合模式：只有闭合时才回调
-                    if (isClosed) {
-                        Kline kline = parseKlineMessage(json, true);
-                        Consumer<Kline> callback = closedKlineCallbacks.get(stream);
-                        if (callback != null) {
-                            log.debug("Closed kline received: {} {}", kline.getSymbol(), kline.getInterval());
-                            callback.accept(kline);
-                        }
+            long intervalMs = KlineIntervalUtil.toMillis(route.interval);
+            long from = route.lastClosedTime > 0 ? route.lastClosedTime + intervalMs : route.subscribedAt;
+            for (int page = 0; page < MAX_CATCH_UP_PAGES; page++) {
+                List<Kline> klines = catchUpFetcher.fetch(route.symbol, route.interval, from, CATCH_UP_PAGE_SIZE);
+                long now = System.currentTimeMillis();
+                for (Kline kline : klines) {
+                    // 只回放已闭合且晚于最后一根已推送闭合K线的数据
+                    if (kline.getTimestamp() + intervalMs > now || kline.getTimestamp() <= route.lastClosedTime) {
+                        continue;
                     }
-                } else {
-                    // 实时模式：每次更新都回调
-                    Kline kline = parseKlineMessage(json, isClosed);
-                    Consumer<Kline> callback = klineCallbacks.get(stream);
-                    if (callback != null) {
-                        callback.accept(kline);
+                    synchronized (route) {
+                        deliver(stream, route, kline, true);
                     }
+                    replayed++;
                 }
+                if (klines.size() < CATCH_UP_PAGE_SIZE) {
+                    break;
+                }
+                from = klines.get(klines.size() - 1).getTimestamp() + intervalMs;
             }
-            // 处理订阅确认
-            else if (json.has("result") && json.get("result").isNull()) {
-                log.debug("Subscription confirmed");
-            }
-            // 处理错误
-            else if (json.has("error")) {
-                log.error("WebSocket error: {}", json.get("error"));
+            if (replayed > 0) {
+                log.info("Caught up {} missed klines for {}", replayed, stream);
             }
-
         } catch (Exception e) {
-            log.error("Failed to handle message: {}", message, e);
+            log.warn("Failed to catch up {} after reconnect: {}", stream, e.getMessage());
+        } finally {
+            flushPending(stream, route);
+        }
+    }
+
+    /**
+     * 回放补数期间缓存的实时消息并恢复直接推送
+     */
+    private void flushPending(String stream, StreamRoute route) {
+        synchronized (route) {
+            for (PendingKline pending : route.pending) {
+                // 已由补数回放过的闭合K线不再重复推送
+                if (pending.closed() && pending.kline().getTimestamp() <= route.lastClosedTime) {
+                    continue;
+                }
+                deliver(stream, route, pending.kline(), pending.closed());
+            }
+            route.pending.clear();
+            route.catchingUp = false;
         }
     }
 
     /**
-     * 解析 K线消息
-     * 格式: {"e":"kline","E":1234567890,"s":"BTCUSDT","k":{...,"x":true/false}}
-     * 
-     * @param json     K线 JSON 数据
-     * @param isClosed 是否已闭合
+     * 推送成交合成K线，经分发器按周期串行回调
      */
-    private Kline parseKlineMessage(JsonNode json, boolean isClosed) {
-        JsonNode k = json.get("k");
-        String symbol = json.get("s").asText();
+    private void deliverBar(TradeBars bars, Kline kline, boolean isClosed) {
+        List<Consumer<Kline>> callbacks = new ArrayList<>(bars.subscribers.size());
+        for (Subscriber subscriber : bars.subscribers) {
+            if (isClosed || !subscriber.closedOnly()) {
+                callbacks.add(subscriber.callback());
+            }
+        }
+        if (callbacks.isEmpty()) {
+            return;
+        }
+
+        Runnable task = () -> {
+            for (Consumer<Kline> callback : callbacks) {
+                try {
+                    callback.accept(kline);
+                } catch (Exception e) {
+                    log.error("Trade kline callback failed: {}", bars.key, e);
+                }
+            }
+        };
+        if (dispatcher != null) {
+            dispatcher.submit(dispatchKey(bars.key), isClosed, task);
+        } else {
+            task.run();
+        }
+    }
+
+    private static String dispatchKey(String stream) {
+        return "binance:" + stream;
+    }
 
-        // 转换为标准格式 BTCUSDT -> BTC/USDT
-        String standardSymbol = symbol;
+    /**
+     * 转换为标准格式 BTCUSDT -> BTC/USDT
+     */
+    private static String toStandardSymbol(String symbol) {
         if (symbol.endsWith("USDT")) {
-            standardSymbol = symbol.replace("USDT", "/USDT");
+            return symbol.replace("USDT", "/USDT");
         } else if (symbol.endsWith("BUSD")) {
-            standardSymbol = symbol.replace("BUSD", "/BUSD");
+            return symbol.replace("BUSD", "/BUSD");
         }
+        return symbol;
+    }
 
-        return Kline.builder()
-                .symbol(standardSymbol)
-                .interval(k.get("i").asText())
-                .time(Instant.ofEpochMilli(k.get("t").asLong()))
-                .open(new BigDecimal(k.get("o").asText()))
-                .high(new BigDecimal(k.get("h").asText()))
-                .low(new BigDecimal(k.get("l").asText()))
-                .close(new BigDecimal(k.get("c").asText()))
-                .volume(new BigDecimal(k.get("v").asText()))
-                .build();
+    /**
+     * 配置的 wsUrl 可能带 /ws 或 /stream 路径，组合流需要主机根地址
+     */
+    private static String toStreamBaseUrl(String wsUrl) {
+        String url = wsUrl != null && !wsUrl.isBlank() ? wsUrl : WS_BASE_URL;
+        if (url.endsWith("/")) {
+            url = url.substring(0, url.length() - 1);
+        }
+        if (url.endsWith("/ws")) {
+            url = url.substring(0, url.length() - 3);
+        } else if (url.endsWith("/stream")) {
+            url = url.substring(0, url.length() - 7);
+        }
+        return url;
     }
 
     /**
@@ -212,4 +573,99 @@ public class BinanceWebSocketClient extends BaseWebSocketClient {
     public static boolean isKlineClosed(JsonNode klineJson) {
         return klineJson.has("x") && klineJson.get("x").asBoolean();
     }
+
+    /**
+     * 路由表条目
+     */
+    private static final class StreamRoute {
+        private final String symbol;
+        private final String interval;
+        private final long subscribedAt = System.currentTimeMillis();
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        private final List<PendingKline> pending = new ArrayList<>();
+        private BinanceStreamConnection connection;
+        private volatile long lastClosedTime;
+        private boolean catchingUp;
+
+        StreamRoute(String symbol, String interval) {
+            this.symbol = symbol;
+            this.interval = interval;
+        }
+
+        boolean hasLiveSubscriber() {
+            for (Subscriber subscriber : subscribers) {
+                if (!subscriber.closedOnly()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 成交流条目：同一交易对的各周期聚合器，以数组保存以便读线程无分配遍历
+     */
+    private static final class TradeRoute {
+        private volatile TradeBars[] bars = new TradeBars[0];
+        private BinanceStreamConnection connection;
+
+        TradeBars find(String interval) {
+            for (TradeBars item : bars) {
+                if (item.aggregator.getInterval().equals(interval)) {
+                    return item;
+                }
+            }
+            return null;
+        }
+
+        void add(TradeBars item) {
+            TradeBars[] next = Arrays.copyOf(bars, bars.length + 1);
+            next[bars.length] = item;
+            bars = next;
+        }
+
+        TradeBars remove(String interval) {
+            TradeBars item = find(interval);
+            if (item != null) {
+                bars = Arrays.stream(bars).filter(b -> b != item).toArray(TradeBars[]::new);
+            }
+            return item;
+        }
+    }
+
+    /**
+     * 单个周期的成交合成K线及其订阅者
+     */
+    private static final class TradeBars {
+        private final String key;
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        private TradeBarAggregator aggregator;
+
+        TradeBars(String key) {
+            this.key = key;
+        }
+
+        boolean hasLiveSubscriber() {
+            for (Subscriber subscriber : subscribers) {
+                if (!subscriber.closedOnly()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private record Subscriber(Consumer<Kline> callback, boolean closedOnly) {
+    }
+
+    private record PendingKline(Kline kline, boolean closed) {
+    }
+
+    /**
+     * 断线补数使用的 REST K线查询
+     */
+    @FunctionalInterface
+    public interface CatchUpFetcher {
+        List<Kline> fetch(String symbol, String interval, long startTime, int limit);
+    }
 }
@@ -6,9 +6,11 @@ import com.lucance.boot.backend.entity.Kline;
 import com.lucance.boot.backend.exchange.BaseHttpClient;
 import com.lucance.boot.backend.exchange.ExchangeAdapter;
 import com.lucance.boot.backend.exchange.ExchangeApiException;
+import com.lucance.boot.backend.exchange.OkHttpClientFactory;
 import com.lucance.boot.backend.exchange.ProxyConfig;
 import com.lucance.boot.backend.exchange.model.*;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.HmacAlgorithms;
 import org.apache.commons.codec.digest.HmacUtils;
 
 import java.math.BigDecimal;
@@ -27,9 +29,24 @@ public class BybitAdapter extends BaseHttpClient implements ExchangeAdapter {
 
     private BybitWebSocketClient wsClient;
     private final ProxyConfig proxyConfig;
+    private final OkHttpClientFactory clientFactory;
 
     public BybitAdapter(ExchangeProperties.BybitConfig config, ProxyConfig proxyConfig) {
-        super(config.getBaseUrl(), config.getApiKey(), config.getSecretKey(), proxyConfig, 10.0);
+        super(config.getBaseUrl(), config.getApiKey(), config.getSecretKey(), proxyConfig,
+                config.getRateLimit().getRequestsPerSecond(), config.getRateLimit().getRequestsPerMinute());
+        this.clientFactory = null;
+        this.proxyConfig = proxyConfig;
+        log.info("BybitAdapter initialized: baseUrl={}", config.getBaseUrl());
+    }
+
+    /**
+     * 使用共享连接池创建
+     */
+    public BybitAdapter(ExchangeProperties.BybitConfig config, ProxyConfig proxyConfig, OkHttpClientFactory clientFactory) {
+        super(config.getBaseUrl(), config.getApiKey(), config.getSecretKey(),
+                clientFactory.httpClientBuilder("bybit", config.getHttp(), proxyConfig),
+                config.getRateLimit().getRequestsPerSecond(), config.getRateLimit().getRequestsPerMinute());
+        this.clientFactory = clientFactory;
         this.proxyConfig = proxyConfig;
         log.info("BybitAdapter initialized: baseUrl={}", config.getBaseUrl());
     }
@@ -39,7 +56,9 @@ public class BybitAdapter extends BaseHttpClient implements ExchangeAdapter {
      */
     private synchronized BybitWebSocketClient getWsClient() {
         if (wsClient == null) {
-            wsClient = new BybitWebSocketClient(proxyConfig);
+            wsClient = clientFactory != null
+                    ? new BybitWebSocketClient(clientFactory.webSocketClient(proxyConfig), clientFactory.scheduler())
+                    : new BybitWebSocketClient(proxyConfig);
             log.info("BybitWebSocketClient initialized");
         }
         return wsClient;
@@ -185,7 +204,7 @@ public class BybitAdapter extends BaseHttpClient implements ExchangeAdapter {
         }
 
         // Bybit V5 使用 HMAC-SHA256
-        return HmacUtils.hmacSha256Hex(secretKey, payload);
+        return new HmacUtils(HmacAlgorithms.HMAC_SHA_256, secretKey).hmacHex(payload);
     }
 
     /**
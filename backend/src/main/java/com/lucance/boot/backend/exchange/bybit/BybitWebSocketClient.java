@@ -1,15 +1,21 @@
 package com.lucance.boot.backend.exchange.bybit;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.lucance.boot.backend.entity.Kline;
 import com.lucance.boot.backend.exchange.BaseWebSocketClient;
 import com.lucance.boot.backend.exchange.ProxyConfig;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.Consumer;
 
 /**
@@ -33,6 +39,10 @@ public class BybitWebSocketClient extends BaseWebSocketClient {
         super(proxyConfig);
     }
 
+    public BybitWebSocketClient(OkHttpClient client, ScheduledExecutorService scheduler) {
+        super(client, scheduler);
+    }
+
     /**
      * 订阅 K线数据
      */
@@ -99,48 +109,52 @@ public class BybitWebSocketClient extends BaseWebSocketClient {
         }
     }
 
+    /**
+     * 流式解析推送消息，不构造 JsonNode 树
+     * 格式: {"topic":"kline.1.BTCUSDT","data":[{"start":...,"open":"...",...,"confirm":false}],"ts":...}
+     */
     @Override
     protected void handleMessage(String message) {
-        try {
-            JsonNode json = objectMapper.readTree(message);
+        try (JsonParser parser = objectMapper.getFactory().createParser(message)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return;
+            }
+            String op = null;
+            String topic = null;
+            List<Bar> bars = List.of();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken token = parser.nextToken();
+                switch (name) {
+                    case "op" -> op = parser.getText();
+                    case "topic" -> topic = parser.getText();
+                    case "data" -> bars = parseBars(parser, token);
+                    default -> parser.skipChildren();
+                }
+            }
 
-            // 处理订阅确认
-            if (json.has("op")) {
-                String op = json.get("op").asText();
+            // 处理订阅确认与心跳
+            if (op != null) {
                 if ("subscribe".equals(op)) {
                     log.debug("Bybit subscription confirmed");
                 }
                 return;
             }
 
-            // 处理心跳
-            if (json.has("op") && "pong".equals(json.get("op").asText())) {
+            // 处理 K线数据
+            if (topic == null) {
                 return;
             }
-
-            // 处理 K线数据
-            if (json.has("topic") && json.has("data")) {
-                String topic = json.get("topic").asText();
-                JsonNode dataArray = json.get("data");
-
-                if (dataArray.isArray() && dataArray.size() > 0) {
-                    for (JsonNode klineData : dataArray) {
-                        // Bybit K线格式包含 confirm 字段
-                        // confirm: true = 已闭合, false = 未闭合
-                        boolean isClosed = klineData.has("confirm") && klineData.get("confirm").asBoolean();
-
-                        Boolean closedOnly = closedOnlyFlags.get(topic);
-                        if (closedOnly != null && closedOnly && !isClosed) {
-                            // 仅闭合模式：跳过未闭合的K线
-                            continue;
-                        }
-
-                        Kline kline = parseKlineMessage(topic, klineData);
-                        Consumer<Kline> callback = klineCallbacks.get(topic);
-                        if (callback != null) {
-                            callback.accept(kline);
-                        }
-                    }
+            Consumer<Kline> callback = klineCallbacks.get(topic);
+            Boolean closedOnly = closedOnlyFlags.get(topic);
+            for (Bar bar : bars) {
+                // confirm: true = 已闭合, false = 未闭合
+                if (closedOnly != null && closedOnly && !bar.confirm()) {
+                    // 仅闭合模式：跳过未闭合的K线
+                    continue;
+                }
+                if (callback != null) {
+                    callback.accept(parseKlineMessage(topic, bar));
                 }
             }
 
@@ -149,11 +163,51 @@ public class BybitWebSocketClient extends BaseWebSocketClient {
         }
     }
 
+    /**
+     * 读取 data 数组中的K线对象
+     */
+    private static List<Bar> parseBars(JsonParser parser, JsonToken token) throws IOException {
+        if (token != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return List.of();
+        }
+        List<Bar> bars = new ArrayList<>(1);
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            long start = 0;
+            String open = null;
+            String high = null;
+            String low = null;
+            String close = null;
+            String volume = null;
+            boolean confirm = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (name) {
+                    case "start" -> start = parser.getValueAsLong();
+                    case "open" -> open = parser.getText();
+                    case "high" -> high = parser.getText();
+                    case "low" -> low = parser.getText();
+                    case "close" -> close = parser.getText();
+                    case "volume" -> volume = parser.getText();
+                    case "confirm" -> confirm = value == JsonToken.VALUE_TRUE;
+                    default -> parser.skipChildren();
+                }
+            }
+            bars.add(new Bar(start, open, high, low, close, volume, confirm));
+        }
+        return bars;
+    }
+
     /**
      * 解析 K线消息
      * Bybit 格式: {start, end, interval, open, close, high, low, volume, turnover, confirm, timestamp}
      */
-    private Kline parseKlineMessage(String topic, JsonNode data) {
+    private Kline parseKlineMessage(String topic, Bar bar) {
         // 从 topic 提取 symbol 和 interval
         // topic 格式: "kline.1.BTCUSDT"
         String[] parts = topic.split("\\.");
@@ -171,15 +225,22 @@ public class BybitWebSocketClient extends BaseWebSocketClient {
         return Kline.builder()
                 .symbol(symbol)
                 .interval(interval)
-                .time(Instant.ofEpochMilli(data.get("start").asLong()))
-                .open(new BigDecimal(data.get("open").asText()))
-                .high(new BigDecimal(data.get("high").asText()))
-                .low(new BigDecimal(data.get("low").asText()))
-                .close(new BigDecimal(data.get("close").asText()))
-                .volume(new BigDecimal(data.get("volume").asText()))
+                .time(Instant.ofEpochMilli(bar.start()))
+                .open(new BigDecimal(bar.open()))
+                .high(new BigDecimal(bar.high()))
+                .low(new BigDecimal(bar.low()))
+                .close(new BigDecimal(bar.close()))
+                .volume(new BigDecimal(bar.volume()))
                 .build();
     }
 
+    /**
+     * 推送中的一根K线（价格保留原始文本）
+     */
+    private record Bar(long start, String open, String high, String low, String close, String volume,
+            boolean confirm) {
+    }
+
     /**
      * 转换交易对格式: BTC/USDT -> BTCUSDT
      */
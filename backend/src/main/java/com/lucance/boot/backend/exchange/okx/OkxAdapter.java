@@ -6,6 +6,7 @@ import com.lucance.boot.backend.entity.Kline;
 import com.lucance.boot.backend.exchange.BaseHttpClient;
 import com.lucance.boot.backend.exchange.ExchangeAdapter;
 import com.lucance.boot.backend.exchange.ExchangeApiException;
+import com.lucance.boot.backend.exchange.OkHttpClientFactory;
 import com.lucance.boot.backend.exchange.ProxyConfig;
 import com.lucance.boot.backend.exchange.model.*;
 import lombok.extern.slf4j.Slf4j;
@@ -34,9 +35,25 @@ public class OkxAdapter extends BaseHttpClient implements ExchangeAdapter {
     private final String passphrase;
     private OkxWebSocketClient wsClient;
     private final ProxyConfig proxyConfig;
+    private final OkHttpClientFactory clientFactory;
 
     public OkxAdapter(ExchangeProperties.OkxConfig config, ProxyConfig proxyConfig) {
-        super(config.getBaseUrl(), config.getApiKey(), config.getSecretKey(), proxyConfig, 10.0);
+        super(config.getBaseUrl(), config.getApiKey(), config.getSecretKey(), proxyConfig,
+                config.getRateLimit().getRequestsPerSecond(), config.getRateLimit().getRequestsPerMinute());
+        this.clientFactory = null;
+        this.passphrase = config.getPassphrase();
+        this.proxyConfig = proxyConfig;
+        log.info("OkxAdapter initialized: baseUrl={}", config.getBaseUrl());
+    }
+
+    /**
+     * 使用共享连接池创建
+     */
+    public OkxAdapter(ExchangeProperties.OkxConfig config, ProxyConfig proxyConfig, OkHttpClientFactory clientFactory) {
+        super(config.getBaseUrl(), config.getApiKey(), config.getSecretKey(),
+                clientFactory.httpClientBuilder("okx", config.getHttp(), proxyConfig),
+                config.getRateLimit().getRequestsPerSecond(), config.getRateLimit().getRequestsPerMinute());
+        this.clientFactory = clientFactory;
         this.passphrase = config.getPassphrase();
         this.proxyConfig = proxyConfig;
         log.info("OkxAdapter initialized: baseUrl={}", config.getBaseUrl());
@@ -47,7 +64,9 @@ public class OkxAdapter extends BaseHttpClient implements ExchangeAdapter {
      */
     private synchronized OkxWebSocketClient getWsClient() {
         if (wsClient == null) {
-            wsClient = new OkxWebSocketClient(proxyConfig);
+            wsClient = clientFactory != null
+                    ? new OkxWebSocketClient(clientFactory.webSocketClient(proxyConfig), clientFactory.scheduler())
+                    : new OkxWebSocketClient(proxyConfig);
             log.info("OkxWebSocketClient initialized");
         }
         return wsClient;
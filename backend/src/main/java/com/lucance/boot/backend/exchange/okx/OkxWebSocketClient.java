@@ -1,15 +1,21 @@
 package com.lucance.boot.backend.exchange.okx;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.lucance.boot.backend.entity.Kline;
 import com.lucance.boot.backend.exchange.BaseWebSocketClient;
 import com.lucance.boot.backend.exchange.ProxyConfig;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.Consumer;
 
 /**
@@ -33,6 +39,10 @@ public class OkxWebSocketClient extends BaseWebSocketClient {
         super(proxyConfig);
     }
 
+    public OkxWebSocketClient(OkHttpClient client, ScheduledExecutorService scheduler) {
+        super(client, scheduler);
+    }
+
     /**
      * 订阅 K线数据
      */
@@ -111,50 +121,76 @@ public class OkxWebSocketClient extends BaseWebSocketClient {
         }
     }
 
+    /**
+     * 流式解析推送消息，不构造 JsonNode 树
+     * 格式: {"arg":{"channel":"candle1m","instId":"BTC-USDT"},"data":[["ts","o","h","l","c","vol",...,"confirm"]]}
+     */
     @Override
     protected void handleMessage(String message) {
-        try {
-            JsonNode json = objectMapper.readTree(message);
+        try (JsonParser parser = objectMapper.getFactory().createParser(message)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return;
+            }
+            String event = null;
+            String msg = null;
+            String channel = null;
+            String instId = null;
+            List<String> klineData = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken token = parser.nextToken();
+                switch (name) {
+                    case "event" -> event = parser.getText();
+                    case "msg" -> msg = parser.getText();
+                    case "arg" -> {
+                        if (token != JsonToken.START_OBJECT) {
+                            parser.skipChildren();
+                            break;
+                        }
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            String field = parser.currentName();
+                            parser.nextToken();
+                            switch (field) {
+                                case "channel" -> channel = parser.getText();
+                                case "instId" -> instId = parser.getText();
+                                default -> parser.skipChildren();
+                            }
+                        }
+                    }
+                    case "data" -> klineData = parseFirstRow(parser, token);
+                    default -> parser.skipChildren();
+                }
+            }
 
             // 处理订阅确认
-            if (json.has("event")) {
-                String event = json.get("event").asText();
+            if (event != null) {
                 if ("subscribe".equals(event)) {
                     log.debug("OKX subscription confirmed");
                 } else if ("error".equals(event)) {
-                    log.error("OKX WebSocket error: {}", json.get("msg"));
+                    log.error("OKX WebSocket error: {}", msg);
                 }
                 return;
             }
 
             // 处理 K线数据
-            if (json.has("arg") && json.has("data")) {
-                JsonNode arg = json.get("arg");
-                String channel = arg.get("channel").asText();
-                String instId = arg.get("instId").asText();
-                String stream = channel + ":" + instId;
-
-                JsonNode dataArray = json.get("data");
-                if (dataArray.isArray() && dataArray.size() > 0) {
-                    JsonNode klineData = dataArray.get(0);
-
-                    // OKX K线格式: [ts, o, h, l, c, vol, volCcy, volCcyQuote, confirm]
-                    // confirm: "0" = 未闭合, "1" = 已闭合
-                    String confirm = klineData.get(8).asText();
-                    boolean isClosed = "1".equals(confirm);
-
-                    Boolean closedOnly = closedOnlyFlags.get(stream);
-                    if (closedOnly != null && closedOnly && !isClosed) {
-                        // 仅闭合模式：跳过未闭合的K线
-                        return;
-                    }
+            // OKX K线格式: [ts, o, h, l, c, vol, volCcy, volCcyQuote, confirm]
+            if (channel == null || instId == null || klineData == null || klineData.size() < 9) {
+                return;
+            }
+            String stream = channel + ":" + instId;
 
-                    Kline kline = parseKlineMessage(instId, channel, klineData);
-                    Consumer<Kline> callback = klineCallbacks.get(stream);
-                    if (callback != null) {
-                        callback.accept(kline);
-                    }
-                }
+            // confirm: "0" = 未闭合, "1" = 已闭合
+            boolean isClosed = "1".equals(klineData.get(8));
+
+            Boolean closedOnly = closedOnlyFlags.get(stream);
+            if (closedOnly != null && closedOnly && !isClosed) {
+                // 仅闭合模式：跳过未闭合的K线
+                return;
+            }
+
+            Consumer<Kline> callback = klineCallbacks.get(stream);
+            if (callback != null) {
+                callback.accept(parseKlineMessage(instId, channel, klineData));
             }
 
         } catch (Exception e) {
@@ -162,11 +198,33 @@ public class OkxWebSocketClient extends BaseWebSocketClient {
         }
     }
 
+    /**
+     * 读取 data 数组的第一行，其余行跳过
+     */
+    private static List<String> parseFirstRow(JsonParser parser, JsonToken token) throws IOException {
+        if (token != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        List<String> row = null;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (row != null || parser.currentToken() != JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                continue;
+            }
+            row = new ArrayList<>(9);
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                row.add(parser.getText());
+            }
+        }
+        return row;
+    }
+
     /**
      * 解析 K线消息
      * OKX 格式: [ts, o, h, l, c, vol, volCcy, volCcyQuote, confirm]
      */
-    private Kline parseKlineMessage(String instId, String channel, JsonNode data) {
+    private Kline parseKlineMessage(String instId, String channel, List<String> data) {
         // 从 channel 提取 interval (如 "candle1m" -> "1m")
         String interval = channel.replace("candle", "");
         interval = convertIntervalBack(interval);
@@ -177,12 +235,12 @@ public class OkxWebSocketClient extends BaseWebSocketClient {
         return Kline.builder()
                 .symbol(symbol)
                 .interval(interval)
-                .time(Instant.ofEpochMilli(data.get(0).asLong()))
-                .open(new BigDecimal(data.get(1).asText()))
-                .high(new BigDecimal(data.get(2).asText()))
-                .low(new BigDecimal(data.get(3).asText()))
-                .close(new BigDecimal(data.get(4).asText()))
-                .volume(new BigDecimal(data.get(5).asText()))
+                .time(Instant.ofEpochMilli(Long.parseLong(data.get(0))))
+                .open(new BigDecimal(data.get(1)))
+                .high(new BigDecimal(data.get(2)))
+                .low(new BigDecimal(data.get(3)))
+                .close(new BigDecimal(data.get(4)))
+                .volume(new BigDecimal(data.get(5)))
                 .build();
     }
 
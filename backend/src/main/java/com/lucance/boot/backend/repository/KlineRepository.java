@@ -4,6 +4,7 @@ import com.lucance.boot.backend.entity.Kline;
 import com.lucance.boot.backend.entity.KlineId;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -13,30 +14,10 @@ import java.util.List;
 
 /**
  * K线数据仓库
+ * 范围与最新K线查询见 {@link KlineRepositoryCustom}
  */
 @Repository
-public interface KlineRepository extends JpaRepository<Kline, KlineId> {
-
-        /**
-         * 查询指定范围的K线数据
-         */
-        @Query("SELECT k FROM Kline k WHERE k.symbol = :symbol AND k.interval = :interval " +
-                        "AND k.time >= :startTime AND k.time < :endTime ORDER BY k.time ASC")
-        List<Kline> findBySymbolAndIntervalAndTimeRange(
-                        @Param("symbol") String symbol,
-                        @Param("interval") String interval,
-                        @Param("startTime") Instant startTime,
-                        @Param("endTime") Instant endTime);
-
-        /**
-         * 查询最新的N条K线（使用 Pageable）
-         */
-        @Query("SELECT k FROM Kline k WHERE k.symbol = :symbol AND k.interval = :interval " +
-                        "ORDER BY k.time DESC")
-        List<Kline> findLatestKlines(
-                        @Param("symbol") String symbol,
-                        @Param("interval") String interval,
-                        Pageable pageable);
+public interface KlineRepository extends JpaRepository<Kline, KlineId>, KlineRepositoryCustom {
 
         /**
          * 查询最新的N条K线（便捷方法）
@@ -45,16 +26,6 @@ public interface KlineRepository extends JpaRepository<Kline, KlineId> {
                 return findLatestKlines(symbol, interval, Pageable.ofSize(limit));
         }
 
-        /**
-         * 获取最新一条K线（使用 Pageable）
-         */
-        @Query("SELECT k FROM Kline k WHERE k.symbol = :symbol AND k.interval = :interval " +
-                        "ORDER BY k.time DESC")
-        List<Kline> findTopBySymbolAndInterval(
-                        @Param("symbol") String symbol,
-                        @Param("interval") String interval,
-                        Pageable pageable);
-
         /**
          * 获取最新一条K线（便捷方法）
          */
@@ -72,4 +43,13 @@ public interface KlineRepository extends JpaRepository<Kline, KlineId> {
          * 检查是否存在指定时间的K线
          */
         boolean existsBySymbolAndIntervalAndTime(String symbol, String interval, Instant time);
+
+        /**
+         * 删除指定周期早于某时间的K线（保留策略）
+         */
+        @Modifying
+        @Query("DELETE FROM Kline k WHERE k.interval = :interval AND k.time < :before")
+        int deleteByIntervalAndTimeBefore(
+                        @Param("interval") String interval,
+                        @Param("before") Instant before);
 }
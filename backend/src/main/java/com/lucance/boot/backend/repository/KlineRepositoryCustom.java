@@ -0,0 +1,66 @@
+package com.lucance.boot.backend.repository;
+
+import com.lucance.boot.backend.entity.Kline;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * K线仓库自定义查询
+ * 派生周期以连续聚合方式存储时，查询透明地路由到对应的聚合视图
+ * ReadOnly 系列方法走 JDBC 流式读取，返回的 Kline 不受持久化上下文管理
+ */
+public interface KlineRepositoryCustom {
+
+    /**
+     * 查询指定范围的K线数据（按时间升序，结束时间不包含）
+     */
+    List<Kline> findBySymbolAndIntervalAndTimeRange(String symbol, String interval,
+            Instant startTime, Instant endTime);
+
+    /**
+     * 查询最新的N条K线（按时间降序）
+     */
+    List<Kline> findLatestKlines(String symbol, String interval, Pageable pageable);
+
+    /**
+     * 获取最新的K线（按时间降序）
+     */
+    List<Kline> findTopBySymbolAndInterval(String symbol, String interval, Pageable pageable);
+
+    /**
+     * 只读流式读取指定范围的K线（按时间升序，结束时间不包含），逐行回调
+     */
+    void streamRangeReadOnly(String symbol, String interval, Instant startTime, Instant endTime,
+            Consumer<Kline> consumer);
+
+    /**
+     * 只读读取指定范围内最早的 limit 根K线（按时间升序，结束时间不包含），用于游标分页
+     */
+    List<Kline> findRangePageReadOnly(String symbol, String interval, Instant startTime, Instant endTime, int limit);
+
+    /**
+     * 只读读取指定范围的K线（按时间升序，结束时间不包含）
+     */
+    List<Kline> findRangeReadOnly(String symbol, String interval, Instant startTime, Instant endTime);
+
+    /**
+     * 只读批量读取多个序列各自最新的 limit 根K线（每个序列按时间升序），没有数据的序列不出现在结果中
+     */
+    Map<SeriesKey, List<Kline>> findLatestKlinesBatchReadOnly(Collection<SeriesKey> series, int limit);
+
+    /**
+     * 只读读取指定范围内K线的开盘时间戳（毫秒，升序）
+     */
+    long[] findOpenTimesReadOnly(String symbol, String interval, Instant startTime, Instant endTime);
+
+    /**
+     * 序列标识
+     */
+    record SeriesKey(String symbol, String interval) {
+    }
+}
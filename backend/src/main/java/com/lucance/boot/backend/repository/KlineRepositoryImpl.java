@@ -0,0 +1,246 @@
+package com.lucance.boot.backend.repository;
+
+import com.lucance.boot.backend.config.KlineAggregationProperties;
+import com.lucance.boot.backend.entity.Kline;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * K线仓库自定义查询实现
+ * 基础周期与应用内聚合的派生周期走 JPA，连续聚合的派生周期走 klines_<interval> 视图
+ */
+public class KlineRepositoryImpl implements KlineRepositoryCustom {
+
+    // 只读路径的游标批量大小（Postgres 在事务内按批拉取，避免整体加载结果集）
+    private static final int READ_FETCH_SIZE = 5000;
+    private static final String KLINE_COLUMNS = "time, open, high, low, close, volume";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate readJdbcTemplate;
+    private final KlineAggregationProperties aggregationProperties;
+
+    public KlineRepositoryImpl(JdbcTemplate jdbcTemplate, KlineAggregationProperties aggregationProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.aggregationProperties = aggregationProperties;
+        this.readJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.readJdbcTemplate.setFetchSize(READ_FETCH_SIZE);
+    }
+
+    @Override
+    public List<Kline> findBySymbolAndIntervalAndTimeRange(String symbol, String interval,
+            Instant startTime, Instant endTime) {
+        if (aggregationProperties.isContinuousAggregate(interval)) {
+            String sql = "SELECT symbol, time, open, high, low, close, volume FROM " + viewName(interval) +
+                    " WHERE symbol = ? AND time >= ? AND time < ? ORDER BY time ASC";
+            return jdbcTemplate.query(sql, viewRowMapper(interval),
+                    symbol, Timestamp.from(startTime), Timestamp.from(endTime));
+        }
+
+        return entityManager.createQuery(
+                        "SELECT k FROM Kline k WHERE k.symbol = :symbol AND k.interval = :interval " +
+                                "AND k.time >= :startTime AND k.time < :endTime ORDER BY k.time ASC", Kline.class)
+                .setParameter("symbol", symbol)
+                .setParameter("interval", interval)
+                .setParameter("startTime", startTime)
+                .setParameter("endTime", endTime)
+                .getResultList();
+    }
+
+    @Override
+    public List<Kline> findLatestKlines(String symbol, String interval, Pageable pageable) {
+        if (aggregationProperties.isContinuousAggregate(interval)) {
+            String sql = "SELECT symbol, time, open, high, low, close, volume FROM " + viewName(interval) +
+                    " WHERE symbol = ? ORDER BY time DESC";
+            if (pageable.isPaged()) {
+                sql += " LIMIT " + pageable.getPageSize() + " OFFSET " + pageable.getOffset();
+            }
+            return jdbcTemplate.query(sql, viewRowMapper(interval), symbol);
+        }
+
+        TypedQuery<Kline> query = entityManager.createQuery(
+                        "SELECT k FROM Kline k WHERE k.symbol = :symbol AND k.interval = :interval " +
+                                "ORDER BY k.time DESC", Kline.class)
+                .setParameter("symbol", symbol)
+                .setParameter("interval", interval);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return query.getResultList();
+    }
+
+    @Override
+    public List<Kline> findTopBySymbolAndInterval(String symbol, String interval, Pageable pageable) {
+        return findLatestKlines(symbol, interval, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamRangeReadOnly(String symbol, String interval, Instant startTime, Instant endTime,
+            Consumer<Kline> consumer) {
+        readJdbcTemplate.query(rangeSql(KLINE_COLUMNS, interval), rowHandler(symbol, interval, consumer),
+                rangeArgs(symbol, interval, startTime, endTime));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Kline> findRangePageReadOnly(String symbol, String interval, Instant startTime, Instant endTime,
+            int limit) {
+        List<Kline> klines = new ArrayList<>(Math.min(limit, READ_FETCH_SIZE));
+        readJdbcTemplate.query(rangeSql(KLINE_COLUMNS, interval) + " LIMIT " + limit,
+                rowHandler(symbol, interval, klines::add), rangeArgs(symbol, interval, startTime, endTime));
+        return klines;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Kline> findRangeReadOnly(String symbol, String interval, Instant startTime, Instant endTime) {
+        List<Kline> klines = new ArrayList<>();
+        streamRangeReadOnly(symbol, interval, startTime, endTime, klines::add);
+        return klines;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<SeriesKey, List<Kline>> findLatestKlinesBatchReadOnly(Collection<SeriesKey> series, int limit) {
+        Map<SeriesKey, List<Kline>> result = new HashMap<>();
+        // 原始表的序列一次查询，连续聚合视图按周期各一次；每个序列走 (symbol, interval, time) 索引倒序取 limit 根
+        Map<String, List<SeriesKey>> groups = new LinkedHashMap<>();
+        for (SeriesKey key : new LinkedHashSet<>(series)) {
+            String group = aggregationProperties.isContinuousAggregate(key.interval()) ? key.interval() : "";
+            groups.computeIfAbsent(group, g -> new ArrayList<>()).add(key);
+        }
+
+        for (Map.Entry<String, List<SeriesKey>> group : groups.entrySet()) {
+            boolean view = !group.getKey().isEmpty();
+            List<SeriesKey> keys = group.getValue();
+            List<Object> args = new ArrayList<>(keys.size() * 2 + 1);
+            StringBuilder values = new StringBuilder();
+            for (SeriesKey key : keys) {
+                values.append(values.isEmpty() ? "" : ", ").append(view ? "(?)" : "(?, ?)");
+                args.add(key.symbol());
+                if (!view) {
+                    args.add(key.interval());
+                }
+            }
+            args.add(limit);
+
+            String sql = view
+                    ? "SELECT s.sym, k.time, k.open, k.high, k.low, k.close, k.volume FROM (VALUES " + values +
+                            ") AS s(sym) CROSS JOIN LATERAL (SELECT time, open, high, low, close, volume FROM " +
+                            viewName(group.getKey()) + " WHERE symbol = s.sym ORDER BY time DESC LIMIT ?) k"
+                    : "SELECT s.sym, k.time, k.open, k.high, k.low, k.close, k.volume, s.itv FROM (VALUES " + values +
+                            ") AS s(sym, itv) CROSS JOIN LATERAL (SELECT time, open, high, low, close, volume " +
+                            "FROM klines WHERE symbol = s.sym AND interval = s.itv ORDER BY time DESC LIMIT ?) k";
+
+            readJdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+                String symbol = rs.getString(1);
+                String interval = view ? group.getKey() : rs.getString(8);
+                result.computeIfAbsent(new SeriesKey(symbol, interval), k -> new ArrayList<>(limit))
+                        .add(Kline.builder()
+                                .symbol(symbol)
+                                .interval(interval)
+                                .time(rs.getTimestamp(2).toInstant())
+                                .open(rs.getBigDecimal(3))
+                                .high(rs.getBigDecimal(4))
+                                .low(rs.getBigDecimal(5))
+                                .close(rs.getBigDecimal(6))
+                                .volume(rs.getBigDecimal(7))
+                                .build());
+            }, args.toArray());
+        }
+
+        result.values().forEach(Collections::reverse);
+        return result;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long[] findOpenTimesReadOnly(String symbol, String interval, Instant startTime, Instant endTime) {
+        long[][] buffer = { new long[1024] };
+        int[] size = { 0 };
+        RowCallbackHandler handler = rs -> {
+            if (size[0] == buffer[0].length) {
+                buffer[0] = Arrays.copyOf(buffer[0], buffer[0].length * 2);
+            }
+            buffer[0][size[0]++] = rs.getTimestamp(1).getTime();
+        };
+
+        readJdbcTemplate.query(rangeSql("time", interval), handler, rangeArgs(symbol, interval, startTime, endTime));
+        return Arrays.copyOf(buffer[0], size[0]);
+    }
+
+    /**
+     * 范围查询 SQL（连续聚合视图没有 interval 列）
+     */
+    private String rangeSql(String columns, String interval) {
+        if (aggregationProperties.isContinuousAggregate(interval)) {
+            return "SELECT " + columns + " FROM " + viewName(interval) +
+                    " WHERE symbol = ? AND time >= ? AND time < ? ORDER BY time ASC";
+        }
+        return "SELECT " + columns + " FROM klines" +
+                " WHERE symbol = ? AND interval = ? AND time >= ? AND time < ? ORDER BY time ASC";
+    }
+
+    private RowCallbackHandler rowHandler(String symbol, String interval, Consumer<Kline> consumer) {
+        return rs -> consumer.accept(Kline.builder()
+                .symbol(symbol)
+                .interval(interval)
+                .time(rs.getTimestamp(1).toInstant())
+                .open(rs.getBigDecimal(2))
+                .high(rs.getBigDecimal(3))
+                .low(rs.getBigDecimal(4))
+                .close(rs.getBigDecimal(5))
+                .volume(rs.getBigDecimal(6))
+                .build());
+    }
+
+    private Object[] rangeArgs(String symbol, String interval, Instant startTime, Instant endTime) {
+        if (aggregationProperties.isContinuousAggregate(interval)) {
+            return new Object[] { symbol, Timestamp.from(startTime), Timestamp.from(endTime) };
+        }
+        return new Object[] { symbol, interval, Timestamp.from(startTime), Timestamp.from(endTime) };
+    }
+
+    /**
+     * 连续聚合视图名（周期已在配置白名单内校验）
+     */
+    private String viewName(String interval) {
+        return "klines_" + interval;
+    }
+
+    private RowMapper<Kline> viewRowMapper(String interval) {
+        return (rs, rowNum) -> Kline.builder()
+                .symbol(rs.getString("symbol"))
+                .interval(interval)
+                .time(rs.getTimestamp("time").toInstant())
+                .open(rs.getBigDecimal("open"))
+                .high(rs.getBigDecimal("high"))
+                .low(rs.getBigDecimal("low"))
+                .close(rs.getBigDecimal("close"))
+                .volume(rs.getBigDecimal("volume"))
+                .build();
+    }
+}
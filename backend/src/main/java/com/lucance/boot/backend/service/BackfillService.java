@@ -1,5 +1,7 @@
 package com.lucance.boot.backend.service;
 
+import com.lucance.boot.backend.config.BackfillProperties;
+import com.lucance.boot.backend.config.KlineAggregationProperties;
 import com.lucance.boot.backend.entity.BackfillTask;
 import com.lucance.boot.backend.entity.BackfillTaskBatch;
 import com.lucance.boot.backend.entity.Kline;
@@ -7,14 +9,19 @@ import com.lucance.boot.backend.exchange.ExchangeAdapter;
 import com.lucance.boot.backend.repository.BackfillTaskBatchRepository;
 import com.lucance.boot.backend.repository.BackfillTaskRepository;
 import com.lucance.boot.backend.repository.KlineRepository;
+import com.lucance.boot.backend.util.KlineIntervalUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * 历史数据回补服务
@@ -29,6 +36,9 @@ public class BackfillService {
     private final KlineRepository klineRepository;
     private final BackfillTaskRepository taskRepository;
     private final BackfillTaskBatchRepository batchRepository;
+    private final KlineRollupService klineRollupService;
+    private final KlineAggregationProperties aggregationProperties;
+    private final BackfillProperties backfillProperties;
 
     // 每批次获取的K线数量
     private static final int BATCH_SIZE = 1000;
@@ -36,30 +46,13 @@ public class BackfillService {
     // 最大重试次数
     private static final int MAX_RETRY_COUNT = 3;
 
-    // 各周期对应的毫秒数（完整映射）
-    private static final java.util.Map<String, Long> INTERVAL_MS = java.util.Map.ofEntries(
-            java.util.Map.entry("1m", 60_000L),
-            java.util.Map.entry("3m", 180_000L),
-            java.util.Map.entry("5m", 300_000L),
-            java.util.Map.entry("15m", 900_000L),
-            java.util.Map.entry("30m", 1_800_000L),
-            java.util.Map.entry("1h", 3_600_000L),
-            java.util.Map.entry("2h", 7_200_000L),
-            java.util.Map.entry("4h", 14_400_000L),
-            java.util.Map.entry("6h", 21_600_000L),
-            java.util.Map.entry("8h", 28_800_000L),
-            java.util.Map.entry("12h", 43_200_000L),
-            java.util.Map.entry("1d", 86_400_000L),
-            java.util.Map.entry("3d", 259_200_000L),
-            java.util.Map.entry("1w", 604_800_000L));
-
     /**
      * 创建回补任务
      */
     @Transactional
     public BackfillTask createTask(String symbol, String interval, long startTime, long endTime) {
-        // 计算总K线数量
-        long intervalMs = INTERVAL_MS.getOrDefault(interval, 60_000L);
+        // 计算总K线数量（派生周期按基础周期采集）
+        long intervalMs = KlineIntervalUtil.toMillis(resolveFetchInterval(interval));
         int totalCount = (int) ((endTime - startTime) / intervalMs);
 
         BackfillTask task = BackfillTask.builder()
@@ -145,14 +138,16 @@ public class BackfillService {
         String interval = task.getInterval();
         long startTime = task.getStartTime();
         long endTime = task.getEndTime();
-        long intervalMs = INTERVAL_MS.getOrDefault(interval, 60_000L);
+        String fetchInterval = resolveFetchInterval(interval);
+        long intervalMs = KlineIntervalUtil.toMillis(fetchInterval);
 
         // 计算批次
         List<long[]> batches = calculateBatches(startTime, endTime, intervalMs, BATCH_SIZE);
         int totalBatches = batches.size();
         int successCount = 0;
 
-        log.info("Starting backfill: symbol={}, interval={}, batches={}", symbol, interval, totalBatches);
+        log.info("Starting backfill: symbol={}, interval={}, fetchInterval={}, batches={}",
+                symbol, interval, fetchInterval, totalBatches);
 
         // 创建批次记录
         List<BackfillTaskBatch> batchEntities = new ArrayList<>();
@@ -169,25 +164,28 @@ public class BackfillService {
         }
         batchRepository.saveAll(batchEntities);
 
-        // 执行每个批次
+        // 流水线执行：同时保持 pipelineDepth 个批次在途，按顺序处理结果与写库
+        ExchangeAdapter adapter = exchangeRouterService.getDefaultAdapter();
+        int pipelineDepth = Math.max(1, backfillProperties.getPipelineDepth());
+        Deque<CompletableFuture<List<Kline>>> inFlight = new ArrayDeque<>();
+        int next = 0;
         for (int i = 0; i < batchEntities.size(); i++) {
+            while (next < batchEntities.size() && inFlight.size() < pipelineDepth) {
+                BackfillTaskBatch pending = batchEntities.get(next++);
+                inFlight.addLast(adapter.getKlinesAsync(symbol, fetchInterval,
+                        pending.getStartTime(), pending.getEndTime(), BATCH_SIZE));
+            }
+
             BackfillTaskBatch batchEntity = batchEntities.get(i);
-            long batchStart = batchEntity.getStartTime();
-            long batchEnd = batchEntity.getEndTime();
+            CompletableFuture<List<Kline>> future = inFlight.removeFirst();
 
             try {
-                // 添加限流延迟
-                if (i > 0) {
-                    Thread.sleep(100); // 100ms between batches
-                }
-
                 // 更新批次状态为运行中
                 batchEntity.setStatus(BackfillTaskBatch.BatchStatus.RUNNING);
                 batchRepository.save(batchEntity);
 
-                // 从交易所获取数据
-                ExchangeAdapter adapter = exchangeRouterService.getDefaultAdapter();
-                List<Kline> klines = adapter.getKlines(symbol, interval, batchStart, batchEnd, BATCH_SIZE);
+                // 等待交易所数据
+                List<Kline> klines = future.join();
 
                 // 保存到数据库
                 if (!klines.isEmpty()) {
@@ -209,11 +207,12 @@ public class BackfillService {
                 log.debug("Batch {}/{} completed: {} klines", i + 1, totalBatches, klines.size());
 
             } catch (Exception e) {
-                log.warn("Batch {} failed: {}", i + 1, e.getMessage());
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                log.warn("Batch {} failed: {}", i + 1, cause.getMessage());
 
                 // 更新批次状态为失败
                 batchEntity.setStatus(BackfillTaskBatch.BatchStatus.FAILED);
-                batchEntity.setErrorMessage(e.getMessage());
+                batchEntity.setErrorMessage(cause.getMessage());
                 batchRepository.save(batchEntity);
 
                 // 继续处理下一批
@@ -221,6 +220,27 @@ public class BackfillService {
         }
 
         task.setSuccessCount(successCount);
+
+        // 基础周期写入后重建派生周期
+        if (successCount > 0) {
+            rollupDerived(symbol, fetchInterval, startTime, endTime);
+        }
+    }
+
+    /**
+     * 派生周期改为采集基础周期
+     */
+    private String resolveFetchInterval(String interval) {
+        return aggregationProperties.isDerived(interval) ? aggregationProperties.getBaseInterval() : interval;
+    }
+
+    /**
+     * 基础周期数据变化后重建派生周期
+     */
+    private void rollupDerived(String symbol, String fetchInterval, long startTime, long endTime) {
+        if (aggregationProperties.isEnabled() && aggregationProperties.getBaseInterval().equals(fetchInterval)) {
+            klineRollupService.rebuild(symbol, startTime, endTime);
+        }
     }
 
     /**
@@ -308,9 +328,10 @@ public class BackfillService {
 
                 // 重试获取数据
                 ExchangeAdapter adapter = exchangeRouterService.getDefaultAdapter();
+                String fetchInterval = resolveFetchInterval(task.getInterval());
                 List<Kline> klines = adapter.getKlines(
                         task.getSymbol(),
-                        task.getInterval(),
+                        fetchInterval,
                         batch.getStartTime(),
                         batch.getEndTime(),
                         BATCH_SIZE);
@@ -319,6 +340,7 @@ public class BackfillService {
                 if (!klines.isEmpty()) {
                     klineRepository.saveAll(klines);
                     batch.setRecordCount(klines.size());
+                    rollupDerived(task.getSymbol(), fetchInterval, batch.getStartTime(), batch.getEndTime());
                 }
 
                 // 更新批次状态为完成
@@ -368,9 +390,10 @@ public class BackfillService {
 
             // 重试获取数据
             ExchangeAdapter adapter = exchangeRouterService.getDefaultAdapter();
+            String fetchInterval = resolveFetchInterval(task.getInterval());
             List<Kline> klines = adapter.getKlines(
                     task.getSymbol(),
-                    task.getInterval(),
+                    fetchInterval,
                     batch.getStartTime(),
                     batch.getEndTime(),
                     BATCH_SIZE);
@@ -379,6 +402,7 @@ public class BackfillService {
             if (!klines.isEmpty()) {
                 klineRepository.saveAll(klines);
                 batch.setRecordCount(klines.size());
+                rollupDerived(task.getSymbol(), fetchInterval, batch.getStartTime(), batch.getEndTime());
             }
 
             // 更新批次状态为完成
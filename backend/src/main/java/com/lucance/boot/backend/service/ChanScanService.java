@@ -0,0 +1,200 @@
+package com.lucance.boot.backend.service;
+
+import com.lucance.boot.backend.chan.ChanCalculationEngine;
+import com.lucance.boot.backend.chan.model.Bi;
+import com.lucance.boot.backend.chan.model.ChanResultLite;
+import com.lucance.boot.backend.chan.model.TradingPoint;
+import com.lucance.boot.backend.chan.model.Xianduan;
+import com.lucance.boot.backend.chan.model.Zhongshu;
+import com.lucance.boot.backend.config.ChanScanProperties;
+import com.lucance.boot.backend.config.ExchangeProperties;
+import com.lucance.boot.backend.entity.Kline;
+import com.lucance.boot.backend.repository.KlineRepository;
+import com.lucance.boot.backend.repository.KlineRepositoryCustom.SeriesKey;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多序列批量缠论扫描
+ * 一次取齐所有序列的K线（热点缓存优先，其余一条 SQL 从数据库批量读取；未入库的交易所在计算任务中从交易所获取），
+ * 在有界线程池上并行计算，每个序列只返回摘要（趋势、当前中枢、最新买卖点）
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChanScanService {
+
+    private final ChanCalculationEngine chanEngine;
+    private final KlineCacheService klineCacheService;
+    private final KlineRepository klineRepository;
+    private final ChanScanProperties properties;
+    private final ExchangeRouterService exchangeRouterService;
+    private final ExchangeProperties exchangeProperties;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newFixedThreadPool(properties.resolveParallelism(),
+                Thread.ofPlatform().name("chan-scan-", 0).daemon().factory());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 扫描多个序列，结果顺序与请求一致；单个序列失败或无数据时在其摘要中返回错误
+     */
+    public List<SeriesSummary> scan(String exchange, List<SeriesKey> targets, int limit) {
+        if (targets.isEmpty()) {
+            return List.of();
+        }
+        if (targets.size() > properties.getMaxSeries()) {
+            throw new IllegalArgumentException("Too many series, max " + properties.getMaxSeries());
+        }
+        if (limit <= 0 || limit > properties.getMaxLimit()) {
+            throw new IllegalArgumentException("limit must be between 1 and " + properties.getMaxLimit());
+        }
+        // 不支持的交易所直接失败
+        exchangeRouterService.getAdapter(exchange);
+        List<SeriesKey> series = new ArrayList<>(new LinkedHashSet<>(targets));
+        long start = System.currentTimeMillis();
+
+        Map<SeriesKey, List<Kline>> klines = loadKlines(exchange, series, limit);
+
+        List<Future<SeriesSummary>> futures;
+        try {
+            futures = executor.invokeAll(series.stream()
+                    .map(key -> (Callable<SeriesSummary>) () -> summarize(key,
+                            klinesFor(exchange, key, klines, limit)))
+                    .toList(), properties.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Chan scan interrupted", e);
+        }
+
+        List<SeriesSummary> summaries = new ArrayList<>(series.size());
+        for (int i = 0; i < series.size(); i++) {
+            summaries.add(result(series.get(i), futures.get(i)));
+        }
+        log.info("Chan scan completed: {} series in {} ms", series.size(), System.currentTimeMillis() - start);
+        return summaries;
+    }
+
+    /**
+     * 实时订阅/热点序列从内存读取，其余序列一次批量查询数据库（仅入库交易所）
+     */
+    private Map<SeriesKey, List<Kline>> loadKlines(String exchange, List<SeriesKey> series, int limit) {
+        Map<SeriesKey, List<Kline>> klines = new HashMap<>();
+        List<SeriesKey> misses = new ArrayList<>();
+        for (SeriesKey key : series) {
+            List<Kline> cached = klineCacheService.getLatest(exchange, key.symbol(), key.interval(), limit);
+            if (cached != null && !cached.isEmpty()) {
+                klines.put(key, cached);
+            } else {
+                misses.add(key);
+            }
+        }
+        if (!misses.isEmpty() && exchangeProperties.isPersisted(exchange)) {
+            klines.putAll(klineRepository.findLatestKlinesBatchReadOnly(misses, limit));
+        }
+        return klines;
+    }
+
+    /**
+     * 已取得的K线；数据库中没有其他交易所的K线，未命中缓存时从交易所获取
+     */
+    private List<Kline> klinesFor(String exchange, SeriesKey key, Map<SeriesKey, List<Kline>> loaded, int limit) {
+        List<Kline> klines = loaded.get(key);
+        if (klines != null || exchangeProperties.isPersisted(exchange)) {
+            return klines != null ? klines : List.of();
+        }
+        return exchangeRouterService.getAdapter(exchange).getKlines(key.symbol(), key.interval(), null, null, limit);
+    }
+
+    private SeriesSummary result(SeriesKey key, Future<SeriesSummary> future) {
+        try {
+            return future.get();
+        } catch (CancellationException e) {
+            return SeriesSummary.failed(key, "Timed out");
+        } catch (ExecutionException e) {
+            log.warn("Chan scan failed for {} {}: {}", key.symbol(), key.interval(), e.getCause().getMessage());
+            return SeriesSummary.failed(key, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return SeriesSummary.failed(key, "Interrupted");
+        }
+    }
+
+    private SeriesSummary summarize(SeriesKey key, List<Kline> klines) {
+        if (klines.isEmpty()) {
+            return SeriesSummary.failed(key, "No klines stored");
+        }
+        ChanCalculationEngine.Computation computation = chanEngine.compute(klines);
+        Kline last = klines.get(klines.size() - 1);
+
+        // 趋势取最后一条线段的方向，尚无线段时取最后一笔
+        List<Xianduan> xianduans = computation.xianduans();
+        List<Bi> bis = computation.bis();
+        String trend = !xianduans.isEmpty() ? xianduans.get(xianduans.size() - 1).getDirection().name()
+                : !bis.isEmpty() ? bis.get(bis.size() - 1).getDirection().name() : null;
+
+        ChanResultLite.ZhongshuLite currentZhongshu = computation.zhongshus().stream()
+                .max(Comparator.comparingLong(Zhongshu::getEndTime))
+                .map(z -> new ChanResultLite.ZhongshuLite(z.getStartTime(), z.getEndTime(), z.getHigh(), z.getLow(),
+                        z.getCenter()))
+                .orElse(null);
+
+        List<ChanResultLite.TradingPointLite> tradingPoints = computation.tradingPoints().stream()
+                .sorted(Comparator.comparingLong(TradingPoint::getTimestamp).reversed())
+                .limit(properties.getTradingPoints())
+                .map(t -> new ChanResultLite.TradingPointLite(t.getTimestamp(), t.getType().name(), t.getLevel(),
+                        t.getPrice()))
+                .toList();
+
+        return new SeriesSummary(key.symbol(), key.interval(), klines.size(), last.getTimestamp(), last.getClose(),
+                trend, currentZhongshu, tradingPoints, null);
+    }
+
+    /**
+     * 单个序列的扫描摘要
+     *
+     * @param trend 最后一条线段（无线段时为最后一笔）的方向
+     * @param error 失败原因，成功时为空
+     */
+    public record SeriesSummary(
+            String symbol,
+            String interval,
+            int klineCount,
+            Long lastTime,
+            BigDecimal lastClose,
+            String trend,
+            ChanResultLite.ZhongshuLite currentZhongshu,
+            List<ChanResultLite.TradingPointLite> latestTradingPoints,
+            String error) {
+
+        static SeriesSummary failed(SeriesKey key, String error) {
+            return new SeriesSummary(key.symbol(), key.interval(), 0, null, null, null, null, List.of(), error);
+        }
+    }
+}
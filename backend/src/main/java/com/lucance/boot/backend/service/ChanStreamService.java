@@ -0,0 +1,426 @@
+package com.lucance.boot.backend.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.lucance.boot.backend.chan.ChanCalculationEngine;
+import com.lucance.boot.backend.chan.model.ChanResultLite;
+import com.lucance.boot.backend.chan.model.KlineLite;
+import com.lucance.boot.backend.config.ChanStreamProperties;
+import com.lucance.boot.backend.config.ExchangeProperties;
+import com.lucance.boot.backend.entity.Kline;
+import com.lucance.boot.backend.repository.KlineRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 缠论结构实时推送服务
+ * 每个 (exchange, symbol, interval) 序列在实时K线到达时重新计算一次（多次到达合并为一次计算），
+ * 各订阅者只收到与其上次已发送结果相比的增量；订阅者发送跟不上时，中间状态直接合并，只发送最新增量
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChanStreamService {
+
+    public static final String TYPE_SNAPSHOT = "snapshot";
+    public static final String TYPE_DELTA = "delta";
+
+    private final ChanCalculationEngine chanEngine;
+    private final KlineCacheService klineCacheService;
+    private final KlineRepository klineRepository;
+    private final RealtimeSyncService realtimeSyncService;
+    private final ChanStreamProperties properties;
+    private final ExchangeRouterService exchangeRouterService;
+    private final ExchangeProperties exchangeProperties;
+
+    private final Map<String, StreamSeries> seriesMap = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final RealtimeSyncService.KlineListener listener = this::onKline;
+
+    @PostConstruct
+    public void init() {
+        realtimeSyncService.addListener(listener);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        realtimeSyncService.removeListener(listener);
+        executor.shutdownNow();
+        seriesMap.values().forEach(this::releaseRealtime);
+        seriesMap.clear();
+    }
+
+    /**
+     * 订阅序列，首条消息为全量快照，之后只推送增量
+     * 序列尚未实时订阅时自动订阅（不保存到数据库），最后一个订阅者离开时取消。
+     * 首次打开序列（加载K线并计算）只持有该序列自己的锁，不阻塞其他序列的订阅与取消
+     */
+    public Subscription subscribe(String exchange, String symbol, String interval, StreamSink sink) {
+        String key = key(exchange, symbol, interval);
+        while (true) {
+            StreamSeries series = seriesMap.computeIfAbsent(key, k -> new StreamSeries(exchange, symbol, interval));
+            Subscription subscription;
+            synchronized (series.lifecycleLock) {
+                if (series.retired) {
+                    // 最后一个订阅者刚离开，序列已移除，重新创建
+                    continue;
+                }
+                if (!series.opened) {
+                    open(series);
+                }
+                subscription = new Subscription(series, sink);
+                series.subscribers.add(subscription);
+            }
+            scheduleFlush(subscription);
+            return subscription;
+        }
+    }
+
+    /**
+     * 取消订阅
+     */
+    public void unsubscribe(Subscription subscription) {
+        synchronized (subscription) {
+            subscription.closed = true;
+        }
+        StreamSeries series = subscription.series;
+        synchronized (series.lifecycleLock) {
+            series.subscribers.remove(subscription);
+            if (!series.subscribers.isEmpty() || series.retired) {
+                return;
+            }
+            series.retired = true;
+        }
+        // 在该 key 的映射内释放实时订阅，同一序列的新订阅等待释放完成后再重新打开
+        seriesMap.computeIfPresent(series.key(), (k, current) -> {
+            if (current != series) {
+                return current;
+            }
+            releaseRealtime(series);
+            return null;
+        });
+        log.info("Chan stream closed: {}", series.key());
+    }
+
+    /**
+     * 推送统计
+     */
+    public List<StreamStats> getStats() {
+        return seriesMap.values().stream()
+                .map(series -> new StreamStats(series.key(), series.subscribers.size(),
+                        series.snapshot != null ? series.snapshot.version() : 0, series.klineCount()))
+                .toList();
+    }
+
+    /**
+     * 打开序列：按需实时订阅，加载初始K线并计算首个快照；失败时移除序列
+     */
+    private void open(StreamSeries series) {
+        try {
+            if (!realtimeSyncService.isSubscribed(series.exchange, series.symbol, series.interval)) {
+                realtimeSyncService.subscribe(series.exchange, series.symbol, series.interval, false, null);
+                series.ownsRealtime = true;
+            }
+            series.load(initialKlines(series.exchange, series.symbol, series.interval));
+            recompute(series);
+            series.opened = true;
+            log.info("Chan stream opened: {}", series.key());
+        } catch (RuntimeException e) {
+            series.retired = true;
+            seriesMap.remove(series.key(), series);
+            releaseRealtime(series);
+            throw e;
+        }
+    }
+
+    private void releaseRealtime(StreamSeries series) {
+        if (series.ownsRealtime) {
+            try {
+                realtimeSyncService.unsubscribe(series.exchange, series.symbol, series.interval);
+            } catch (Exception e) {
+                log.warn("Failed to release realtime subscription for {}: {}", series.key(), e.getMessage());
+            }
+        }
+    }
+
+    private List<Kline> initialKlines(String exchange, String symbol, String interval) {
+        int window = properties.getWindow();
+        List<Kline> cached = klineCacheService.getLatestOrLoad(exchange, symbol, interval, window);
+        if (cached != null) {
+            return cached;
+        }
+        // 数据库只保存入库交易所的K线
+        if (!exchangeProperties.isPersisted(exchange)) {
+            return exchangeRouterService.getAdapter(exchange).getKlines(symbol, interval, null, null, window);
+        }
+        List<Kline> latest = new ArrayList<>(klineRepository.findLatestKlines(symbol, interval, window));
+        Collections.reverse(latest);
+        return latest;
+    }
+
+    private void onKline(String exchange, String symbol, String interval, Kline kline) {
+        StreamSeries series = seriesMap.get(key(exchange, symbol, interval));
+        if (series == null) {
+            return;
+        }
+        series.append(kline, properties.getWindow());
+        if (series.computeScheduled.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                series.computeScheduled.set(false);
+                recompute(series);
+                series.subscribers.forEach(this::scheduleFlush);
+            });
+        }
+    }
+
+    /**
+     * 以序列当前K线重新计算，计算期间到达的K线会触发下一次计算
+     */
+    private void recompute(StreamSeries series) {
+        synchronized (series.computeLock) {
+            StreamSeries.Window window = series.window();
+            try {
+                ChanResultLite result = new ChanResultLite(chanEngine.calculateFull(window.klines()));
+                List<KlineLite> klines = window.klines().stream().map(KlineLite::of).toList();
+                series.snapshot = new Snapshot(series.nextVersion(), window.epoch(), klines, result);
+            } catch (Exception e) {
+                log.error("Chan stream calculation failed: {}", series.key(), e);
+            }
+        }
+    }
+
+    private void scheduleFlush(Subscription subscription) {
+        if (subscription.flushScheduled.compareAndSet(false, true)) {
+            executor.execute(() -> flush(subscription));
+        }
+    }
+
+    /**
+     * 向订阅者发送其上次已发送结果到最新结果之间的增量
+     */
+    private void flush(Subscription subscription) {
+        subscription.flushScheduled.set(false);
+        boolean failed = false;
+        synchronized (subscription) {
+            Snapshot latest = subscription.series.snapshot;
+            if (subscription.closed || latest == null || latest == subscription.lastSent) {
+                return;
+            }
+            StreamSeries series = subscription.series;
+            StreamMessage message = diff(series.exchange, series.symbol, series.interval,
+                    subscription.lastSent, latest);
+            try {
+                subscription.sink.send(message);
+                subscription.lastSent = latest;
+            } catch (Exception e) {
+                log.warn("Chan stream send failed for {}: {}", series.key(), e.getMessage());
+                failed = true;
+            }
+        }
+        if (failed) {
+            unsubscribe(subscription);
+        }
+    }
+
+    /**
+     * 计算两次结果之间的增量；上次为空或窗口已重新对齐时返回全量快照
+     */
+    static StreamMessage diff(String exchange, String symbol, String interval, Snapshot previous, Snapshot next) {
+        boolean full = previous == null || previous.epoch() != next.epoch();
+        Snapshot base = full ? Snapshot.EMPTY : previous;
+        ChanResultLite before = base.result();
+        ChanResultLite after = next.result();
+        return new StreamMessage(
+                full ? TYPE_SNAPSHOT : TYPE_DELTA,
+                exchange, symbol, interval, next.version(),
+                diffList(base.klines(), next.klines(), full),
+                diffList(before.mergedKlines(), after.mergedKlines(), full),
+                diffList(before.fenxings(), after.fenxings(), full),
+                diffList(before.bis(), after.bis(), full),
+                diffList(before.xianduans(), after.xianduans(), full),
+                diffList(before.zhongshus(), after.zhongshus(), full),
+                diffList(before.tradingPoints(), after.tradingPoints(), full));
+    }
+
+    /**
+     * 以最长公共前缀求增量：客户端从 from 处截断后追加 items；无变化时返回 null
+     */
+    static <T> ListDelta<T> diffList(List<T> previous, List<T> next, boolean full) {
+        if (full) {
+            return new ListDelta<>(0, next);
+        }
+        int common = 0;
+        int max = Math.min(previous.size(), next.size());
+        while (common < max && previous.get(common).equals(next.get(common))) {
+            common++;
+        }
+        if (common == previous.size() && common == next.size()) {
+            return null;
+        }
+        return new ListDelta<>(common, next.subList(common, next.size()));
+    }
+
+    private static String key(String exchange, String symbol, String interval) {
+        return exchange.toLowerCase() + "|" + symbol.replace("/", "").toUpperCase() + "|" + interval;
+    }
+
+    /**
+     * 消息发送目标（由 WebSocket 连接实现）
+     */
+    @FunctionalInterface
+    public interface StreamSink {
+        void send(StreamMessage message) throws Exception;
+    }
+
+    /**
+     * 一次计算结果
+     *
+     * @param epoch 窗口对齐编号，变化时增量基准失效
+     */
+    record Snapshot(long version, long epoch, List<KlineLite> klines, ChanResultLite result) {
+        static final Snapshot EMPTY = new Snapshot(0, -1, List.of(),
+                new ChanResultLite(List.of(), List.of(), List.of(), List.of(), List.of(), List.of()));
+    }
+
+    /**
+     * 列表增量
+     */
+    public record ListDelta<T>(int from, List<T> items) {
+    }
+
+    /**
+     * 推送消息，未变化的列表省略
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record StreamMessage(
+            String type,
+            String exchange,
+            String symbol,
+            String interval,
+            long version,
+            ListDelta<KlineLite> klines,
+            ListDelta<ChanResultLite.MergedKlineLite> mergedKlines,
+            ListDelta<ChanResultLite.FenxingLite> fenxings,
+            ListDelta<ChanResultLite.BiLite> bis,
+            ListDelta<ChanResultLite.XianduanLite> xianduans,
+            ListDelta<ChanResultLite.ZhongshuLite> zhongshus,
+            ListDelta<ChanResultLite.TradingPointLite> tradingPoints) {
+    }
+
+    public record StreamStats(String series, int subscribers, long version, int klineCount) {
+    }
+
+    /**
+     * 单个订阅者
+     */
+    public static final class Subscription {
+        private final StreamSeries series;
+        private final StreamSink sink;
+        private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+        private Snapshot lastSent;
+        private boolean closed;
+
+        Subscription(StreamSeries series, StreamSink sink) {
+            this.series = series;
+            this.sink = sink;
+        }
+
+        public String getExchange() {
+            return series.exchange;
+        }
+
+        public String getSymbol() {
+            return series.symbol;
+        }
+
+        public String getInterval() {
+            return series.interval;
+        }
+    }
+
+    /**
+     * 单个序列：K线窗口与最新计算结果
+     * 窗口从起点开始增长，超过两倍窗口后丢弃最早部分并重新对齐（epoch 加一），避免每根新K线都使全部下标失效
+     */
+    static final class StreamSeries {
+        private final String exchange;
+        private final String symbol;
+        private final String interval;
+        private final List<Subscription> subscribers = new CopyOnWriteArrayList<>();
+        private final AtomicBoolean computeScheduled = new AtomicBoolean(false);
+        // 打开/关闭序列与增减订阅者，只在该序列上串行
+        private final Object lifecycleLock = new Object();
+        // 计算串行执行，与K线追加使用不同的锁，避免计算期间阻塞推送线程
+        private final Object computeLock = new Object();
+        private final List<Kline> klines = new ArrayList<>();
+        private long epoch;
+        private long version;
+        private volatile Snapshot snapshot;
+        private boolean ownsRealtime;
+        private boolean opened;
+        private boolean retired;
+
+        StreamSeries(String exchange, String symbol, String interval) {
+            this.exchange = exchange;
+            this.symbol = symbol;
+            this.interval = interval;
+        }
+
+        String key() {
+            return ChanStreamService.key(exchange, symbol, interval);
+        }
+
+        synchronized void load(List<Kline> initial) {
+            klines.clear();
+            klines.addAll(initial);
+        }
+
+        /**
+         * 未闭合K线覆盖同一时间的上一条，更早的K线忽略
+         */
+        synchronized void append(Kline kline, int window) {
+            if (!klines.isEmpty()) {
+                long diff = kline.getTimestamp() - klines.get(klines.size() - 1).getTimestamp();
+                if (diff == 0) {
+                    klines.set(klines.size() - 1, kline);
+                    return;
+                }
+                if (diff < 0) {
+                    return;
+                }
+            }
+            klines.add(kline);
+            if (klines.size() > window * 2) {
+                klines.subList(0, klines.size() - window).clear();
+                epoch++;
+            }
+        }
+
+        synchronized Window window() {
+            return new Window(epoch, List.copyOf(klines));
+        }
+
+        synchronized long nextVersion() {
+            return ++version;
+        }
+
+        synchronized int klineCount() {
+            return klines.size();
+        }
+
+        record Window(long epoch, List<Kline> klines) {
+        }
+    }
+}
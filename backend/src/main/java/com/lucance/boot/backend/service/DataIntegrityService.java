@@ -2,7 +2,6 @@ package com.lucance.boot.backend.service;
 
 import com.lucance.boot.backend.config.DataIntegrityProperties;
 import com.lucance.boot.backend.entity.BackfillTask;
-import com.lucance.boot.backend.entity.Kline;
 import com.lucance.boot.backend.repository.KlineRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -45,11 +44,10 @@ public class DataIntegrityService {
     public List<Gap> findGaps(String symbol, String interval, Instant startTime, Instant endTime) {
         List<Gap> gaps = new ArrayList<>();
 
-        // 获取时间范围内的所有 K 线
-        List<Kline> klines = klineRepository.findBySymbolAndIntervalAndTimeRange(
-                symbol, interval, startTime, endTime);
+        // 只读取时间范围内 K 线的开盘时间
+        long[] times = klineRepository.findOpenTimesReadOnly(symbol, interval, startTime, endTime);
 
-        if (klines.isEmpty()) {
+        if (times.length == 0) {
             // 整个范围都缺失
             long expectedBars = calculateExpectedBars(interval, startTime, endTime);
             gaps.add(new Gap(symbol, interval, startTime, endTime, expectedBars));
@@ -62,40 +60,36 @@ public class DataIntegrityService {
             log.warn("Unknown interval: {}", interval);
             return gaps;
         }
+        long intervalMs = intervalDuration.toMillis();
 
         // 检查开头是否有缺口
-        Kline first = klines.get(0);
-        if (first.getTime().isAfter(startTime)) {
-            long missingBars = Duration.between(startTime, first.getTime()).toMillis()
-                    / intervalDuration.toMillis();
+        long first = times[0];
+        if (first > startTime.toEpochMilli()) {
+            long missingBars = (first - startTime.toEpochMilli()) / intervalMs;
             if (missingBars > 0) {
-                gaps.add(new Gap(symbol, interval, startTime, first.getTime(), missingBars));
+                gaps.add(new Gap(symbol, interval, startTime, Instant.ofEpochMilli(first), missingBars));
             }
         }
 
         // 检查中间的缺口
-        for (int i = 0; i < klines.size() - 1; i++) {
-            Kline current = klines.get(i);
-            Kline next = klines.get(i + 1);
-
-            Instant expectedNext = current.getTime().plus(intervalDuration);
-            if (next.getTime().isAfter(expectedNext)) {
-                long missingBars = Duration.between(expectedNext, next.getTime()).toMillis()
-                        / intervalDuration.toMillis();
+        for (int i = 0; i < times.length - 1; i++) {
+            long expectedNext = times[i] + intervalMs;
+            long next = times[i + 1];
+            if (next > expectedNext) {
+                long missingBars = (next - expectedNext) / intervalMs;
                 if (missingBars > 0) {
-                    gaps.add(new Gap(symbol, interval, expectedNext, next.getTime(), missingBars));
+                    gaps.add(new Gap(symbol, interval,
+                            Instant.ofEpochMilli(expectedNext), Instant.ofEpochMilli(next), missingBars));
                 }
             }
         }
 
         // 检查末尾是否有缺口
-        Kline last = klines.get(klines.size() - 1);
-        Instant expectedEnd = last.getTime().plus(intervalDuration);
-        if (expectedEnd.isBefore(endTime)) {
-            long missingBars = Duration.between(expectedEnd, endTime).toMillis()
-                    / intervalDuration.toMillis();
+        long expectedEnd = times[times.length - 1] + intervalMs;
+        if (expectedEnd < endTime.toEpochMilli()) {
+            long missingBars = (endTime.toEpochMilli() - expectedEnd) / intervalMs;
             if (missingBars > 0) {
-                gaps.add(new Gap(symbol, interval, expectedEnd, endTime, missingBars));
+                gaps.add(new Gap(symbol, interval, Instant.ofEpochMilli(expectedEnd), endTime, missingBars));
             }
         }
 
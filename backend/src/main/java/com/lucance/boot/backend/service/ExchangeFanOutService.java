@@ -0,0 +1,171 @@
+package com.lucance.boot.backend.service;
+
+import com.lucance.boot.backend.config.ExchangeProperties;
+import com.lucance.boot.backend.entity.Kline;
+import com.lucance.boot.backend.exchange.ExchangeAdapter;
+import com.lucance.boot.backend.exchange.ExchangeApiException;
+import com.lucance.boot.backend.exchange.model.Ticker;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 多交易所并发查询服务
+ * 同一请求并发发往多个交易所，每个交易所独立超时：
+ * first 模式返回最先成功的结果，all 模式合并所有成功的结果
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExchangeFanOutService {
+
+    private final ExchangeRouterService exchangeRouterService;
+    private final ExchangeProperties exchangeProperties;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * 获取K线，返回最先成功的交易所结果
+     */
+    public FanOutResult<List<Kline>> getKlinesFirst(Collection<String> exchanges, String symbol, String interval,
+            Long startTime, Long endTime, int limit) {
+        return first(exchanges, adapter -> adapter.getKlines(symbol, interval, startTime, endTime, limit));
+    }
+
+    /**
+     * 获取K线，合并所有成功交易所的结果
+     */
+    public Map<String, List<Kline>> getKlinesAll(Collection<String> exchanges, String symbol, String interval,
+            Long startTime, Long endTime, int limit) {
+        return all(exchanges, adapter -> adapter.getKlines(symbol, interval, startTime, endTime, limit));
+    }
+
+    /**
+     * 获取各交易所行情
+     */
+    public Map<String, Ticker> getTickers(Collection<String> exchanges, String symbol) {
+        return all(exchanges, adapter -> adapter.getTicker(symbol));
+    }
+
+    /**
+     * 并发调用，返回最先成功的结果；全部失败或超时时抛出 ExchangeApiException
+     */
+    public <T> FanOutResult<T> first(Collection<String> exchanges, Function<ExchangeAdapter, T> call) {
+        List<String> targets = resolve(exchanges);
+        CompletableFuture<FanOutResult<T>> winner = new CompletableFuture<>();
+        Map<String, String> errors = new ConcurrentHashMap<>();
+        AtomicInteger remaining = new AtomicInteger(targets.size());
+
+        for (String exchange : targets) {
+            long start = System.nanoTime();
+            submit(exchange, call).whenComplete((value, error) -> {
+                if (error == null) {
+                    winner.complete(new FanOutResult<>(exchange, value, elapsedMs(start)));
+                } else {
+                    errors.put(exchange, describe(error));
+                }
+                if (remaining.decrementAndGet() == 0) {
+                    winner.completeExceptionally(new ExchangeApiException("All exchanges failed: " + errors));
+                }
+            });
+        }
+
+        try {
+            return winner.join();
+        } catch (Exception e) {
+            throw e.getCause() instanceof ExchangeApiException apiException
+                    ? apiException
+                    : new ExchangeApiException("Fan-out request failed", e);
+        }
+    }
+
+    /**
+     * 并发调用，合并所有成功的结果（按请求顺序），失败或超时的交易所被忽略
+     */
+    public <T> Map<String, T> all(Collection<String> exchanges, Function<ExchangeAdapter, T> call) {
+        List<String> targets = resolve(exchanges);
+        Map<String, CompletableFuture<T>> futures = new LinkedHashMap<>();
+        for (String exchange : targets) {
+            futures.put(exchange, submit(exchange, call));
+        }
+
+        Map<String, T> results = new LinkedHashMap<>();
+        futures.forEach((exchange, future) -> {
+            try {
+                results.put(exchange, future.join());
+            } catch (Exception e) {
+                log.warn("Fan-out call to {} failed: {}", exchange, describe(e));
+            }
+        });
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> CompletableFuture<T> submit(String exchange, Function<ExchangeAdapter, T> call) {
+        Duration timeout = exchangeProperties.getFanOut().getTimeout();
+        return CompletableFuture
+                .supplyAsync(() -> call.apply(exchangeRouterService.getAdapter(exchange)), executor)
+                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 未指定交易所时使用全部已注册的交易所
+     */
+    private List<String> resolve(Collection<String> exchanges) {
+        List<String> targets = new ArrayList<>();
+        Collection<String> requested = exchanges == null || exchanges.isEmpty()
+                ? exchangeRouterService.getAvailableExchanges()
+                : exchanges;
+        for (String exchange : requested) {
+            String key = exchange.trim().toLowerCase();
+            if (!exchangeRouterService.isExchangeAvailable(key)) {
+                throw new ExchangeApiException("Unsupported exchange: " + exchange +
+                        ". Available: " + exchangeRouterService.getAvailableExchanges());
+            }
+            if (!targets.contains(key)) {
+                targets.add(key);
+            }
+        }
+        if (targets.isEmpty()) {
+            throw new ExchangeApiException("No exchange available");
+        }
+        return targets;
+    }
+
+    private static String describe(Throwable error) {
+        Throwable cause = error.getCause() != null ? error.getCause() : error;
+        return cause instanceof TimeoutException
+                ? "timeout"
+                : cause.getClass().getSimpleName() + ": " + cause.getMessage();
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * 最先成功的结果及其来源交易所
+     */
+    public record FanOutResult<T>(String exchange, T data, long latencyMs) {
+    }
+}
@@ -3,19 +3,36 @@ package com.lucance.boot.backend.service;
 import com.lucance.boot.backend.config.ExchangeProperties;
 import com.lucance.boot.backend.exchange.ExchangeAdapter;
 import com.lucance.boot.backend.exchange.ExchangeApiException;
+import com.lucance.boot.backend.exchange.KlineDispatcher;
+import com.lucance.boot.backend.exchange.OkHttpClientFactory;
+import com.lucance.boot.backend.exchange.ProxyConfig;
 import com.lucance.boot.backend.exchange.binance.BinanceAdapter;
+import com.lucance.boot.backend.exchange.bybit.BybitAdapter;
+import com.lucance.boot.backend.exchange.okx.OkxAdapter;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 /**
  * 交易所路由服务
- * 根据交易所名称返回对应的适配器实例
+ * 根据交易所名称返回对应的适配器实例；读请求可按近期 p95 与错误率自动选路，
+ * 支持对冲请求与错误率熔断
  */
 @Slf4j
 @Service
@@ -24,26 +41,59 @@ public class ExchangeRouterService {
 
     private final ExchangeProperties exchangeProperties;
     private final LatencyStatsService latencyStatsService;
+    private final KlineDispatcher klineDispatcher;
+    private final OkHttpClientFactory clientFactory;
 
-    private final Map<String, ExchangeAdapter> adapters = new HashMap<>();
-    private String defaultExchange = "binance";
+    private final Map<String, ExchangeAdapter> adapters = new ConcurrentHashMap<>();
+    private final Map<String, CircuitState> circuits = new ConcurrentHashMap<>();
+    private final ExecutorService routingExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile String defaultExchange = "binance";
 
     @PostConstruct
     public void init() {
         // 初始化 Binance 适配器
         if (exchangeProperties.getBinance().isEnabled()) {
-            BinanceAdapter binanceAdapter = new BinanceAdapter(exchangeProperties);
+            BinanceAdapter binanceAdapter = new BinanceAdapter(exchangeProperties, clientFactory);
             binanceAdapter.setLatencyStatsService(latencyStatsService);
-            adapters.put("binance", binanceAdapter);
+            binanceAdapter.setKlineDispatcher(klineDispatcher);
+            registerAdapter("binance", binanceAdapter);
             log.info("Binance adapter registered");
         }
 
+        ProxyConfig proxyConfig = ProxyConfig.fromSettings(exchangeProperties.getProxy());
 
+        // 初始化 OKX 适配器
+        if (exchangeProperties.getOkx().isEnabled()) {
+            OkxAdapter okxAdapter = new OkxAdapter(exchangeProperties.getOkx(), proxyConfig, clientFactory);
+            okxAdapter.setLatencyStatsService(latencyStatsService);
+            registerAdapter("okx", okxAdapter);
+            log.info("OKX adapter registered");
+        }
+
+        // 初始化 Bybit 适配器
+        if (exchangeProperties.getBybit().isEnabled()) {
+            BybitAdapter bybitAdapter = new BybitAdapter(exchangeProperties.getBybit(), proxyConfig, clientFactory);
+            bybitAdapter.setLatencyStatsService(latencyStatsService);
+            registerAdapter("bybit", bybitAdapter);
+            log.info("Bybit adapter registered");
+        }
 
         log.info("ExchangeRouterService initialized with {} adapters: {}",
                 adapters.size(), adapters.keySet());
     }
 
+    @PreDestroy
+    public void destroy() {
+        routingExecutor.shutdownNow();
+    }
+
+    /**
+     * 注册适配器
+     */
+    public void registerAdapter(String exchange, ExchangeAdapter adapter) {
+        adapters.put(exchange.toLowerCase(), adapter);
+    }
+
     /**
      * 获取指定交易所的适配器
      * 
@@ -101,4 +151,223 @@ public class ExchangeRouterService {
         return defaultExchange;
     }
 
+    // ==================== 延迟感知路由 ====================
+
+    /**
+     * 按延迟与错误率选择交易所执行读请求
+     * 首选交易所超过其 p95 仍未返回、或直接失败时，向次选交易所发起对冲请求，返回最先成功的结果
+     *
+     * @param candidates 候选交易所，为空时使用全部已注册交易所
+     * @param call       读请求
+     */
+    public <T> T routeRead(Collection<String> candidates, Function<ExchangeAdapter, T> call) {
+        List<RouteStatus> ranked = rankExchanges(candidates).stream()
+                .filter(status -> !status.circuitOpen())
+                .toList();
+        if (ranked.isEmpty()) {
+            throw new ExchangeApiException("No healthy exchange available, all circuits open");
+        }
+
+        RouteStatus primary = ranked.get(0);
+        ExchangeProperties.RoutingConfig routing = exchangeProperties.getRouting();
+        String backup = routing.isHedge() && ranked.size() > 1 ? ranked.get(1).exchange() : null;
+
+        HedgedRead<T> read = new HedgedRead<>(call, primary.exchange(), backup);
+        read.start();
+        if (backup != null) {
+            long delay = Math.max(routing.getMinHedgeDelay().toMillis(), (long) primary.p95Latency());
+            CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, routingExecutor).execute(read::hedge);
+        }
+
+        try {
+            return read.result.join();
+        } catch (Exception e) {
+            throw e.getCause() instanceof ExchangeApiException apiException
+                    ? apiException
+                    : new ExchangeApiException("Routed request failed", e);
+        }
+    }
+
+    /**
+     * 选出当前最优的交易所（不发起请求）
+     */
+    public ExchangeAdapter getBestAdapter(Collection<String> candidates) {
+        return rankExchanges(candidates).stream()
+                .filter(status -> !status.circuitOpen())
+                .findFirst()
+                .map(status -> getAdapter(status.exchange()))
+                .orElseThrow(() -> new ExchangeApiException("No healthy exchange available, all circuits open"));
+    }
+
+    /**
+     * 各交易所的路由状态，按优先级排序（只读，不改变熔断状态）
+     */
+    public List<RouteStatus> getRoutingStatus() {
+        return rankExchanges(null, false);
+    }
+
+    private List<RouteStatus> rankExchanges(Collection<String> candidates) {
+        return rankExchanges(candidates, true);
+    }
+
+    /**
+     * 按得分排序：p95 / 成功率，越小越优；样本不足的交易所取已采样交易所中最差的得分，
+     * 同分时排在已采样交易所之后，只作为对冲次选被探测，不会因统计窗口清空而立即成为首选
+     *
+     * @param route 是否为路由决策；只有路由决策会打开/半开熔断，状态查询只读取当前状态
+     */
+    private List<RouteStatus> rankExchanges(Collection<String> candidates, boolean route) {
+        Collection<String> names = candidates == null || candidates.isEmpty() ? adapters.keySet() : candidates;
+        long now = System.currentTimeMillis();
+        ExchangeProperties.RoutingConfig routing = exchangeProperties.getRouting();
+
+        List<RouteStatus> statuses = new ArrayList<>();
+        for (String name : names) {
+            String exchange = name.trim().toLowerCase();
+            if (!adapters.containsKey(exchange)) {
+                throw new ExchangeApiException("Unsupported exchange: " + name + ". Available: " + adapters.keySet());
+            }
+            CircuitState circuit = route
+                    ? circuits.computeIfAbsent(exchange, k -> new CircuitState())
+                    : circuits.getOrDefault(exchange, CircuitState.CLOSED);
+            long since = Math.max(now - routing.getWindow().toMillis(), circuit.closedSince);
+            LatencyStatsService.LatencyStats stats = latencyStatsService.getExchangeSummary(exchange, since);
+
+            boolean enoughSamples = stats.sampleCount() >= routing.getMinSamples();
+            double errorRate = stats.sampleCount() > 0 ? 1 - stats.successRate() / 100 : 0;
+            boolean unhealthy = enoughSamples && errorRate >= routing.getErrorRateThreshold();
+            boolean open = route
+                    ? circuit.update(now, unhealthy, routing.getOpenDuration().toMillis(), exchange)
+                    : circuit.peek(now, unhealthy);
+
+            double score = enoughSamples ? stats.p95Latency() / Math.max(1 - errorRate, 0.05) : Double.NaN;
+            statuses.add(new RouteStatus(exchange, stats.sampleCount(), stats.p95Latency(), errorRate, open, score));
+        }
+
+        double worstScore = statuses.stream()
+                .mapToDouble(RouteStatus::score)
+                .filter(score -> !Double.isNaN(score))
+                .max()
+                .orElse(0);
+        statuses.replaceAll(status -> Double.isNaN(status.score())
+                ? new RouteStatus(status.exchange(), status.sampleCount(), status.p95Latency(), status.errorRate(),
+                        status.circuitOpen(), worstScore)
+                : status);
+        statuses.sort(Comparator.comparingDouble(RouteStatus::score)
+                .thenComparing(status -> status.sampleCount() < routing.getMinSamples())
+                .thenComparing(status -> !status.exchange().equals(defaultExchange)));
+        return statuses;
+    }
+
+    private static String describe(Throwable error) {
+        Throwable cause = error.getCause() != null ? error.getCause() : error;
+        return cause.getClass().getSimpleName() + ": " + cause.getMessage();
+    }
+
+    /**
+     * 交易所路由状态
+     */
+    public record RouteStatus(String exchange, long sampleCount, double p95Latency, double errorRate,
+            boolean circuitOpen, double score) {
+    }
+
+    /**
+     * 熔断状态：错误率超限时打开，到期后半开并从该时刻重新统计
+     */
+    private static final class CircuitState {
+        private static final CircuitState CLOSED = new CircuitState();
+
+        private volatile long openUntil;
+        private volatile long closedSince;
+
+        /**
+         * 下一次路由决策看到的熔断状态，不修改状态
+         */
+        boolean peek(long now, boolean unhealthy) {
+            long until = openUntil;
+            if (until > 0) {
+                return now < until;
+            }
+            return unhealthy;
+        }
+
+        synchronized boolean update(long now, boolean unhealthy, long openDurationMs, String exchange) {
+            if (openUntil > 0) {
+                if (now < openUntil) {
+                    return true;
+                }
+                openUntil = 0;
+                closedSince = now;
+                log.info("Circuit half-open for exchange: {}", exchange);
+                return false;
+            }
+            if (unhealthy) {
+                openUntil = now + openDurationMs;
+                log.warn("Circuit opened for exchange: {} ({} ms)", exchange, openDurationMs);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 一次带对冲的读请求
+     */
+    private final class HedgedRead<T> {
+        private final Function<ExchangeAdapter, T> call;
+        private final String primary;
+        private final String backup;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final Map<String, String> errors = new LinkedHashMap<>();
+        private boolean backupStarted;
+        private int launched;
+        private int failed;
+
+        HedgedRead(Function<ExchangeAdapter, T> call, String primary, String backup) {
+            this.call = call;
+            this.primary = primary;
+            this.backup = backup;
+        }
+
+        synchronized void start() {
+            launch(primary);
+        }
+
+        /**
+         * 首选交易所超过等待时间仍未返回
+         */
+        synchronized void hedge() {
+            if (!result.isDone() && !backupStarted) {
+                log.debug("Hedging request from {} to {}", primary, backup);
+                startBackup();
+            }
+        }
+
+        private void startBackup() {
+            backupStarted = true;
+            launch(backup);
+        }
+
+        private void launch(String exchange) {
+            launched++;
+            CompletableFuture.supplyAsync(() -> call.apply(getAdapter(exchange)), routingExecutor)
+                    .whenComplete((value, error) -> {
+                        if (error == null) {
+                            result.complete(value);
+                        } else {
+                            onFailure(exchange, error);
+                        }
+                    });
+        }
+
+        private synchronized void onFailure(String exchange, Throwable error) {
+            errors.put(exchange, describe(error));
+            if (backup != null && !backupStarted) {
+                startBackup();
+            }
+            if (++failed == launched) {
+                result.completeExceptionally(new ExchangeApiException("All routed exchanges failed: " + errors));
+            }
+        }
+    }
 }
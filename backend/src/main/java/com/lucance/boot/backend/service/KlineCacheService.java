@@ -0,0 +1,312 @@
+package com.lucance.boot.backend.service;
+
+import com.lucance.boot.backend.config.ExchangeProperties;
+import com.lucance.boot.backend.config.KlineCacheProperties;
+import com.lucance.boot.backend.config.MarketProperties;
+import com.lucance.boot.backend.entity.Kline;
+import com.lucance.boot.backend.repository.KlineRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * 热点K线缓存服务
+ * 每个 (exchange, symbol, interval) 序列用环形缓冲保存最新 N 根K线：
+ * 已订阅序列由 RealtimeSyncService 实时推送更新，常驻内存；
+ * 未订阅序列按需从数据库加载，过期后重新加载，超出容量时按 LRU 淘汰
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class KlineCacheService {
+
+    private final KlineRepository klineRepository;
+    private final KlineCacheProperties properties;
+    private final MarketProperties marketProperties;
+    private final ExchangeProperties exchangeProperties;
+
+    // 序列的替换与订阅标记都在 compute 内完成，同一序列的 pin/load/unpin/淘汰互斥
+    private final Map<String, Series> seriesMap = new ConcurrentHashMap<>();
+    private LongSupplier clock = System::currentTimeMillis;
+
+    /**
+     * 启动时从数据库预热常用序列
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        int warmed = 0;
+        for (MarketProperties.SymbolConfig symbolConfig : marketProperties.getSymbols()) {
+            for (String interval : properties.getWarmIntervals()) {
+                try {
+                    if (load(properties.getWarmExchange(), symbolConfig.getSymbol(), interval, false) != null) {
+                        warmed++;
+                    }
+                } catch (Exception e) {
+                    log.warn("Failed to warm kline cache for {} {}: {}", symbolConfig.getSymbol(), interval, e.getMessage());
+                }
+            }
+        }
+        log.info("Kline cache warmed: {} series", warmed);
+    }
+
+    /**
+     * 标记序列为已订阅（常驻，不淘汰），并从数据库预热
+     */
+    public void pin(String exchange, String symbol, String interval) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Series series = seriesMap.get(key(exchange, symbol, interval));
+        if (series != null && series.pinned) {
+            return;
+        }
+        load(exchange, symbol, interval, true);
+    }
+
+    /**
+     * 取消订阅后序列转为普通 LRU 条目
+     */
+    public void unpin(String exchange, String symbol, String interval) {
+        seriesMap.computeIfPresent(key(exchange, symbol, interval), (k, series) -> {
+            series.pinned = false;
+            series.loadedAt = clock.getAsLong();
+            return series;
+        });
+    }
+
+    /**
+     * 实时K线推送（未闭合K线覆盖同一时间的上一条）
+     */
+    public void onKline(String exchange, String symbol, String interval, Kline kline) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Series series = seriesMap.get(key(exchange, symbol, interval));
+        if (series != null) {
+            series.append(kline);
+        }
+    }
+
+    /**
+     * 是否为实时推送维护的序列
+     */
+    public boolean isLive(String exchange, String symbol, String interval) {
+        Series series = seriesMap.get(key(exchange, symbol, interval));
+        return series != null && series.pinned;
+    }
+
+    /**
+     * 从内存读取最新 limit 根K线（时间升序），缓存无法满足时返回 null
+     */
+    public List<Kline> getLatest(String exchange, String symbol, String interval, int limit) {
+        if (!properties.isEnabled() || limit > properties.getCapacity()) {
+            return null;
+        }
+        Series series = seriesMap.get(key(exchange, symbol, interval));
+        if (series == null || (!series.pinned && isExpired(series))) {
+            return null;
+        }
+        // 缓存不足 limit 根且不是完整历史时交给调用方回源
+        if (series.size() < limit && !series.complete) {
+            return null;
+        }
+        series.lastAccess = clock.getAsLong();
+        return series.latest(limit);
+    }
+
+    /**
+     * 读取最新 limit 根K线（时间升序），未命中时从数据库加载到缓存；数据库也没有时返回 null
+     */
+    public List<Kline> getLatestOrLoad(String exchange, String symbol, String interval, int limit) {
+        List<Kline> cached = getLatest(exchange, symbol, interval, limit);
+        if (cached != null || !properties.isEnabled() || limit > properties.getCapacity()) {
+            return cached;
+        }
+        Series series = load(exchange, symbol, interval, false);
+        return series != null ? series.latest(limit) : null;
+    }
+
+    /**
+     * 缓存统计
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("seriesCount", seriesMap.size());
+        stats.put("pinnedCount", seriesMap.values().stream().filter(s -> s.pinned).count());
+        stats.put("capacity", properties.getCapacity());
+        stats.put("maxSeries", properties.getMaxSeries());
+        return stats;
+    }
+
+    /**
+     * 从数据库加载序列最新 capacity 根K线并装入缓存；数据库只保存入库交易所的K线，其他交易所不加载
+     * 查库在锁外进行，装入时在 compute 内判断订阅状态：已订阅序列由实时推送维护，只补齐历史，不会被替换
+     *
+     * @param pin 是否同时标记为已订阅；数据库没有数据时也建立空序列等待实时推送
+     * @return 缓存中的序列，未订阅且数据库没有数据时返回 null
+     */
+    private Series load(String exchange, String symbol, String interval, boolean pin) {
+        Series loaded = fetch(exchange, symbol, interval);
+        if (loaded == null && !pin) {
+            return null;
+        }
+        Series series = seriesMap.compute(key(exchange, symbol, interval), (k, existing) -> {
+            if (existing != null && (existing.pinned || (pin && loaded == null))) {
+                if (loaded != null) {
+                    existing.merge(loaded.latest(loaded.size()));
+                    existing.complete = loaded.complete;
+                }
+                existing.pinned |= pin;
+                return existing;
+            }
+            Series next = loaded != null ? loaded : new Series(properties.getCapacity(), clock.getAsLong());
+            next.pinned = pin;
+            return next;
+        });
+        if (seriesMap.size() > properties.getMaxSeries()) {
+            evict();
+        }
+        return series;
+    }
+
+    private Series fetch(String exchange, String symbol, String interval) {
+        if (!exchangeProperties.isPersisted(exchange)) {
+            return null;
+        }
+        List<Kline> latest = klineRepository.findLatestKlines(symbol, interval, properties.getCapacity());
+        if (latest.isEmpty()) {
+            return null;
+        }
+        List<Kline> ascending = new ArrayList<>(latest);
+        Collections.reverse(ascending);
+
+        Series series = new Series(properties.getCapacity(), clock.getAsLong());
+        ascending.forEach(series::append);
+        // 数据库不足 capacity 根，说明缓存已持有该序列的全部历史
+        series.complete = latest.size() < properties.getCapacity();
+        return series;
+    }
+
+    /**
+     * 按 LRU 淘汰未订阅的序列
+     */
+    private void evict() {
+        int excess = seriesMap.size() - properties.getMaxSeries();
+        if (excess <= 0) {
+            return;
+        }
+        seriesMap.entrySet().stream()
+                .filter(e -> !e.getValue().pinned)
+                .sorted(Comparator.comparingLong(e -> e.getValue().lastAccess))
+                .limit(excess)
+                .map(Map.Entry::getKey)
+                .toList()
+                // 选出后可能已被订阅，删除前在 compute 内再确认
+                .forEach(key -> seriesMap.computeIfPresent(key, (k, series) -> series.pinned ? series : null));
+    }
+
+    private boolean isExpired(Series series) {
+        return clock.getAsLong() - series.loadedAt > properties.getUnsubscribedTtl().toMillis();
+    }
+
+    /**
+     * 替换时钟（测试用）
+     */
+    void setClock(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * 缓存键，交易对统一去掉分隔符（BTC/USDT 与 BTCUSDT 视为同一序列）
+     */
+    private String key(String exchange, String symbol, String interval) {
+        return exchange.toLowerCase() + "|" + symbol.replace("/", "").toUpperCase() + "|" + interval;
+    }
+
+    /**
+     * 单个序列的环形缓冲
+     */
+    private static final class Series {
+        private final Kline[] buffer;
+        private int head;
+        private int size;
+        private volatile boolean pinned;
+        private volatile boolean complete;
+        private volatile long lastAccess;
+        private volatile long loadedAt;
+
+        Series(int capacity, long now) {
+            this.buffer = new Kline[capacity];
+            this.lastAccess = now;
+            this.loadedAt = now;
+        }
+
+        synchronized void append(Kline kline) {
+            if (size > 0) {
+                Kline last = buffer[(head + size - 1) % buffer.length];
+                long diff = kline.getTimestamp() - last.getTimestamp();
+                if (diff == 0) {
+                    buffer[(head + size - 1) % buffer.length] = kline;
+                    return;
+                }
+                if (diff < 0) {
+                    return;
+                }
+            }
+            if (size < buffer.length) {
+                buffer[(head + size) % buffer.length] = kline;
+                size++;
+            } else {
+                buffer[head] = kline;
+                head = (head + 1) % buffer.length;
+            }
+        }
+
+        /**
+         * 合并更早的历史（只保留早于当前首根的部分）
+         */
+        synchronized void merge(List<Kline> ascending) {
+            List<Kline> combined = new ArrayList<>(ascending.size() + size);
+            long firstTime = size > 0 ? buffer[head].getTimestamp() : Long.MAX_VALUE;
+            for (Kline kline : ascending) {
+                if (kline.getTimestamp() < firstTime) {
+                    combined.add(kline);
+                }
+            }
+            combined.addAll(latest(size));
+            head = 0;
+            size = 0;
+            int from = Math.max(0, combined.size() - buffer.length);
+            for (int i = from; i < combined.size(); i++) {
+                buffer[size++] = combined.get(i);
+            }
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized List<Kline> latest(int limit) {
+            int count = Math.min(limit, size);
+            List<Kline> result = new ArrayList<>(count);
+            for (int i = size - count; i < size; i++) {
+                result.add(buffer[(head + i) % buffer.length]);
+            }
+            return result;
+        }
+    }
+}
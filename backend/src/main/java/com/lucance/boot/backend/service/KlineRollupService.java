@@ -0,0 +1,297 @@
+package com.lucance.boot.backend.service;
+
+import com.lucance.boot.backend.config.ExchangeProperties;
+import com.lucance.boot.backend.config.KlineAggregationProperties;
+import com.lucance.boot.backend.entity.Kline;
+import com.lucance.boot.backend.repository.KlineRepository;
+import com.lucance.boot.backend.util.KlineIntervalUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * K线周期聚合服务
+ * 由基础周期（默认1m）增量聚合出更高周期的 OHLCV
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class KlineRollupService {
+
+    private final KlineRepository klineRepository;
+    private final KlineAggregationProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ExchangeProperties exchangeProperties;
+
+    // 进行中的派生K线，key: exchange|symbol|interval
+    private final Map<String, PartialBar> partialBars = new ConcurrentHashMap<>();
+
+    /**
+     * 将基础周期K线聚合为目标周期（输入需按时间升序）
+     */
+    public List<Kline> rollup(List<Kline> baseKlines, String targetInterval) {
+        List<Kline> result = new ArrayList<>();
+        Kline current = null;
+
+        for (Kline base : baseKlines) {
+            long bucket = KlineIntervalUtil.bucketStart(base.getTimestamp(), targetInterval);
+            if (current != null && current.getTimestamp() == bucket) {
+                accumulate(current, base);
+            } else {
+                current = openBar(base, targetInterval, bucket);
+                result.add(current);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * 处理一根基础周期K线，增量更新所有派生周期
+     * 同一根基础K线的多次推送（未闭合时的实时更新）替换上一次的值而不是重复累加；
+     * 只有入库交易所会从数据库补齐/重算并保存派生K线
+     *
+     * @return 本次更新后的派生K线（当前未闭合的桶也会返回）
+     */
+    public List<Kline> onBaseKline(String exchange, Kline base) {
+        if (!properties.isEnabled() || !properties.getBaseInterval().equals(base.getInterval())) {
+            return List.of();
+        }
+        // 连续聚合模式由数据库刷新策略维护
+        if (properties.getMode() != KlineAggregationProperties.Mode.ROLLUP) {
+            return List.of();
+        }
+
+        boolean persisted = exchangeProperties.isPersisted(exchange);
+        List<Kline> updated = new ArrayList<>();
+        for (String interval : properties.getDerivedIntervals()) {
+            long bucket = KlineIntervalUtil.bucketStart(base.getTimestamp(), interval);
+            String key = exchange + "|" + base.getSymbol() + "|" + interval;
+
+            PartialBar partial = partialBars.compute(key, (k, current) -> {
+                if (current != null && current.bucket() == bucket) {
+                    long lastTime = current.last().getTimestamp();
+                    if (base.getTimestamp() == lastTime) {
+                        // 同一根基础K线的更新，替换
+                        return new PartialBar(bucket, current.settled(), base);
+                    }
+                    if (base.getTimestamp() > lastTime) {
+                        return new PartialBar(bucket, merge(current.settled(), current.last()), base);
+                    }
+                    // 桶内迟到的K线，保留当前状态，下面单独重算
+                    return current;
+                }
+                if (current != null && current.bucket() > bucket) {
+                    // 迟到的K线，保留当前桶，迟到桶下面单独重算
+                    return current;
+                }
+                return new PartialBar(bucket, persisted ? seedBar(base, interval, bucket) : null, base);
+            });
+
+            if (partial.last() == base) {
+                updated.add(toBar(partial, interval));
+            } else if (persisted) {
+                updated.addAll(recomputeBuckets(base.getSymbol(), interval, bucket,
+                        bucket + KlineIntervalUtil.toMillis(interval)));
+            }
+        }
+
+        if (persisted && !updated.isEmpty()) {
+            klineRepository.saveAll(updated);
+        }
+        return updated;
+    }
+
+    /**
+     * 重建时间范围内的派生K线（回补基础周期后调用）
+     * 基础周期只读取一次，单次遍历同时聚合所有派生周期；
+     * 连续聚合模式的刷新在独立连接上执行，存在外层事务时延迟到提交之后
+     */
+    public void rebuild(String symbol, long startTime, long endTime) {
+        if (!properties.isEnabled() || startTime >= endTime) {
+            return;
+        }
+
+        if (properties.getMode() == KlineAggregationProperties.Mode.CONTINUOUS_AGGREGATE) {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        refreshContinuousAggregates(startTime, endTime);
+                    }
+                });
+            } else {
+                refreshContinuousAggregates(startTime, endTime);
+            }
+            return;
+        }
+
+        List<String> intervals = properties.getDerivedIntervals();
+        int count = intervals.size();
+        long[] alignedStarts = new long[count];
+        long[] alignedEnds = new long[count];
+        long from = startTime;
+        long to = endTime;
+        for (int i = 0; i < count; i++) {
+            String interval = intervals.get(i);
+            alignedStarts[i] = KlineIntervalUtil.bucketStart(startTime, interval);
+            alignedEnds[i] = KlineIntervalUtil.bucketStart(endTime - 1, interval)
+                    + KlineIntervalUtil.toMillis(interval);
+            from = Math.min(from, alignedStarts[i]);
+            to = Math.max(to, alignedEnds[i]);
+        }
+
+        // 只读路径走 JDBC，先把本事务内刚写入的基础K线刷到数据库
+        klineRepository.flush();
+        List<Kline> baseKlines = klineRepository.findRangeReadOnly(symbol, properties.getBaseInterval(),
+                Instant.ofEpochMilli(from), Instant.ofEpochMilli(to));
+
+        List<List<Kline>> bars = new ArrayList<>(count);
+        Kline[] current = new Kline[count];
+        for (int i = 0; i < count; i++) {
+            bars.add(new ArrayList<>());
+        }
+        for (Kline base : baseKlines) {
+            long time = base.getTimestamp();
+            for (int i = 0; i < count; i++) {
+                if (time < alignedStarts[i] || time >= alignedEnds[i]) {
+                    continue;
+                }
+                long bucket = KlineIntervalUtil.bucketStart(time, intervals.get(i));
+                if (current[i] != null && current[i].getTimestamp() == bucket) {
+                    accumulate(current[i], base);
+                } else {
+                    current[i] = openBar(base, intervals.get(i), bucket);
+                    bars.get(i).add(current[i]);
+                }
+            }
+        }
+
+        int saved = 0;
+        for (int i = 0; i < count; i++) {
+            klineRepository.saveAll(bars.get(i));
+            saved += bars.get(i).size();
+            partialBars.remove(exchangeProperties.getPersistedExchange() + "|" + symbol + "|" + intervals.get(i));
+        }
+
+        log.info("Rebuilt derived klines: symbol={}, range=[{}, {}), bars={}", symbol, startTime, endTime, saved);
+    }
+
+    /**
+     * 从已存储的基础周期K线重算派生桶
+     */
+    private List<Kline> recomputeBuckets(String symbol, String interval, long alignedStart, long alignedEnd) {
+        List<Kline> baseKlines = klineRepository.findRangeReadOnly(
+                symbol, properties.getBaseInterval(),
+                Instant.ofEpochMilli(alignedStart), Instant.ofEpochMilli(alignedEnd));
+        return rollup(baseKlines, interval);
+    }
+
+    /**
+     * 新桶中 base 之前的部分；重启后桶内已有数据时从数据库补齐，没有时为 null
+     */
+    private Kline seedBar(Kline base, String interval, long bucket) {
+        if (base.getTimestamp() > bucket) {
+            List<Kline> earlier = klineRepository.findRangeReadOnly(
+                    base.getSymbol(), properties.getBaseInterval(),
+                    Instant.ofEpochMilli(bucket), base.getTime());
+            if (!earlier.isEmpty()) {
+                Kline bar = openBar(earlier.get(0), interval, bucket);
+                for (int i = 1; i < earlier.size(); i++) {
+                    accumulate(bar, earlier.get(i));
+                }
+                return bar;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 手动刷新连续聚合（刷新过程不能在事务内执行）
+     */
+    private void refreshContinuousAggregates(long startTime, long endTime) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_NOT_SUPPORTED);
+
+        for (String interval : properties.getDerivedIntervals()) {
+            long intervalMs = KlineIntervalUtil.toMillis(interval);
+            Timestamp from = new Timestamp(KlineIntervalUtil.bucketStart(startTime, interval));
+            Timestamp to = new Timestamp(KlineIntervalUtil.bucketStart(endTime - 1, interval) + intervalMs);
+            try {
+                template.executeWithoutResult(status -> jdbcTemplate.update(
+                        "CALL refresh_continuous_aggregate('klines_" + interval + "', ?, ?)", from, to));
+            } catch (Exception e) {
+                log.warn("Failed to refresh continuous aggregate klines_{}: {}", interval, e.getMessage());
+            }
+        }
+    }
+
+    private Kline openBar(Kline base, String interval, long bucket) {
+        return Kline.builder()
+                .symbol(base.getSymbol())
+                .interval(interval)
+                .time(Instant.ofEpochMilli(bucket))
+                .open(base.getOpen())
+                .high(base.getHigh())
+                .low(base.getLow())
+                .close(base.getClose())
+                .volume(base.getVolume())
+                .build();
+    }
+
+    private void accumulate(Kline bar, Kline base) {
+        if (base.getHigh().compareTo(bar.getHigh()) > 0) {
+            bar.setHigh(base.getHigh());
+        }
+        if (base.getLow().compareTo(bar.getLow()) < 0) {
+            bar.setLow(base.getLow());
+        }
+        bar.setClose(base.getClose());
+        bar.setVolume(bar.getVolume().add(base.getVolume()));
+    }
+
+    private Kline copy(Kline bar) {
+        return openBar(bar, bar.getInterval(), bar.getTimestamp());
+    }
+
+    private Kline toBar(PartialBar partial, String interval) {
+        if (partial.settled() == null) {
+            return openBar(partial.last(), interval, partial.bucket());
+        }
+        Kline bar = openBar(partial.settled(), interval, partial.bucket());
+        accumulate(bar, partial.last());
+        return bar;
+    }
+
+    /**
+     * 将一根基础K线并入已结算部分，返回新对象
+     */
+    private Kline merge(Kline settled, Kline base) {
+        if (settled == null) {
+            return openBar(base, properties.getBaseInterval(), base.getTimestamp());
+        }
+        Kline next = copy(settled);
+        accumulate(next, base);
+        return next;
+    }
+
+    /**
+     * 进行中的派生桶：settled 为桶内已结算的基础K线聚合（可为 null），last 为最新一根基础K线（可能仍在更新）
+     */
+    private record PartialBar(long bucket, Kline settled, Kline last) {
+    }
+}
@@ -0,0 +1,183 @@
+package com.lucance.boot.backend.service;
+
+import com.lucance.boot.backend.config.KlineStorageProperties;
+import com.lucance.boot.backend.repository.KlineRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * K线存储策略服务
+ * 启动时检查并幂等地应用 TimescaleDB 分块、压缩和保留策略；逐笔级别数据按周期定时清理
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class KlineStoragePolicyService {
+
+    private static final String HYPERTABLE = "klines";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final KlineRepository klineRepository;
+    private final KlineStorageProperties properties;
+
+    /**
+     * 启动时应用存储策略（非 TimescaleDB 数据库直接跳过）
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void applyPolicies() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (!isTimescaleAvailable()) {
+            log.info("TimescaleDB not available, skipping kline storage policies");
+            return;
+        }
+
+        runStep("drop duplicate index", this::dropDuplicateIndex);
+        runStep("chunk interval", this::applyChunkIntervals);
+        if (properties.getCompression().isEnabled()) {
+            runStep("compression", this::applyCompression);
+        }
+        runStep("retention", this::applyRetention);
+
+        log.info("Kline storage policies applied: chunkInterval={}, compressAfter={}, dropAfter={}",
+                properties.getChunkInterval(),
+                properties.getCompression().isEnabled() ? properties.getCompression().getAfter() : "disabled",
+                properties.getRetention().getDropAfter());
+    }
+
+    /**
+     * 定时清理逐笔级别K线
+     */
+    @Scheduled(cron = "0 15 * * * *")
+    @Transactional
+    public void purgeTickData() {
+        KlineStorageProperties.Retention retention = properties.getRetention();
+        if (!properties.isEnabled() || retention.getTickIntervals().isEmpty()) {
+            return;
+        }
+
+        Instant before = Instant.now().minus(retention.getTickKeep());
+        for (String interval : retention.getTickIntervals()) {
+            int deleted = klineRepository.deleteByIntervalAndTimeBefore(interval, before);
+            if (deleted > 0) {
+                log.info("Purged {} {} klines older than {}", deleted, interval, before);
+            }
+        }
+    }
+
+    /**
+     * 主键 (symbol, interval, time) 已覆盖该索引，反向扫描即可满足倒序查询
+     */
+    private void dropDuplicateIndex() {
+        jdbcTemplate.execute("DROP INDEX IF EXISTS idx_klines_symbol_interval_time");
+    }
+
+    private void applyChunkIntervals() {
+        callFunction("SELECT set_chunk_time_interval(CAST(? AS regclass), CAST(? AS interval))",
+                HYPERTABLE, toPgInterval(properties.getChunkInterval()));
+
+        for (Map.Entry<String, Duration> entry : properties.getAggregateChunkIntervals().entrySet()) {
+            List<String> tables = jdbcTemplate.queryForList(
+                    "SELECT format('%I.%I', materialization_hypertable_schema, materialization_hypertable_name) " +
+                            "FROM timescaledb_information.continuous_aggregates WHERE view_name = ?",
+                    String.class, HYPERTABLE + "_" + entry.getKey());
+            for (String table : tables) {
+                callFunction("SELECT set_chunk_time_interval(CAST(? AS regclass), CAST(? AS interval))",
+                        table, toPgInterval(entry.getValue()));
+            }
+        }
+    }
+
+    private void applyCompression() {
+        Boolean enabled = jdbcTemplate.queryForObject(
+                "SELECT compression_enabled FROM timescaledb_information.hypertables WHERE hypertable_name = ?",
+                Boolean.class, HYPERTABLE);
+        if (!Boolean.TRUE.equals(enabled)) {
+            jdbcTemplate.execute("ALTER TABLE klines SET (timescaledb.compress, " +
+                    "timescaledb.compress_segmentby = 'symbol, interval', " +
+                    "timescaledb.compress_orderby = 'time DESC')");
+            log.info("Enabled compression on klines (segmentby symbol, interval)");
+        }
+
+        String after = toPgInterval(properties.getCompression().getAfter());
+        if (!hasPolicy("policy_compression", "compress_after", after)) {
+            callFunction("SELECT remove_compression_policy(CAST(? AS regclass), if_exists => TRUE)", HYPERTABLE);
+            callFunction("SELECT add_compression_policy(CAST(? AS regclass), CAST(? AS interval))", HYPERTABLE, after);
+            log.info("Compression policy set: compress_after={}", after);
+        }
+    }
+
+    private void applyRetention() {
+        Duration dropAfter = properties.getRetention().getDropAfter();
+        if (dropAfter == null) {
+            callFunction("SELECT remove_retention_policy(CAST(? AS regclass), if_exists => TRUE)", HYPERTABLE);
+            return;
+        }
+
+        String after = toPgInterval(dropAfter);
+        if (!hasPolicy("policy_retention", "drop_after", after)) {
+            callFunction("SELECT remove_retention_policy(CAST(? AS regclass), if_exists => TRUE)", HYPERTABLE);
+            callFunction("SELECT add_retention_policy(CAST(? AS regclass), CAST(? AS interval))", HYPERTABLE, after);
+            log.info("Retention policy set: drop_after={}", after);
+        }
+    }
+
+    /**
+     * 检查已存在且参数一致的策略任务
+     */
+    private boolean hasPolicy(String procName, String configKey, String pgInterval) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM timescaledb_information.jobs WHERE proc_name = ? AND hypertable_name = ? " +
+                        "AND CAST(config ->> ? AS interval) = CAST(? AS interval)",
+                Integer.class, procName, HYPERTABLE, configKey, pgInterval);
+        return count != null && count > 0;
+    }
+
+    private boolean isTimescaleAvailable() {
+        try {
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            if (!"PostgreSQL".equalsIgnoreCase(product)) {
+                return false;
+            }
+            Integer count = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM pg_extension WHERE extname = 'timescaledb'", Integer.class);
+            return count != null && count > 0;
+        } catch (Exception e) {
+            log.warn("Failed to detect TimescaleDB: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void runStep(String name, Runnable step) {
+        try {
+            step.run();
+        } catch (Exception e) {
+            log.warn("Failed to apply kline storage policy [{}]: {}", name, e.getMessage());
+        }
+    }
+
+    /**
+     * 调用 TimescaleDB 管理函数（返回值忽略）
+     */
+    private void callFunction(String sql, Object... args) {
+        jdbcTemplate.queryForList(sql, args);
+    }
+
+    private String toPgInterval(Duration duration) {
+        return duration.toSeconds() + " seconds";
+    }
+}
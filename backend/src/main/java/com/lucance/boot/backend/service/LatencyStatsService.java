@@ -117,6 +117,20 @@ public class LatencyStatsService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * 汇总指定交易所所有端点自 sinceMillis 以来的样本（交易所名称不区分大小写）
+     */
+    public LatencyStats getExchangeSummary(String exchange, long sinceMillis) {
+        String prefix = exchange.toLowerCase() + ":";
+        List<LatencySample> recent = new ArrayList<>();
+        samples.forEach((key, deque) -> {
+            if (key.toLowerCase().startsWith(prefix)) {
+                deque.stream().filter(s -> s.timestamp() >= sinceMillis).forEach(recent::add);
+            }
+        });
+        return calculateStats(exchange, recent);
+    }
+
     /**
      * 清除统计数据
      */
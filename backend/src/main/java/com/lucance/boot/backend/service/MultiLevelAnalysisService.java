@@ -0,0 +1,275 @@
+package com.lucance.boot.backend.service;
+
+import com.lucance.boot.backend.chan.ChanCalculationEngine;
+import com.lucance.boot.backend.config.ExchangeProperties;
+import com.lucance.boot.backend.config.MultiLevelAnalysisProperties;
+import com.lucance.boot.backend.entity.Kline;
+import com.lucance.boot.backend.exchange.ExchangeAdapter;
+import com.lucance.boot.backend.repository.KlineRepository;
+import com.lucance.boot.backend.repository.KlineRepositoryCustom.SeriesKey;
+import com.lucance.boot.backend.strategy.ConditionEvaluator.EvaluationContext;
+import com.lucance.boot.backend.util.KlineIntervalUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 多级别缠论分析
+ * 同一交易对的多个级别一次取齐K线（热点缓存优先，其余一条 SQL 批量读取；未入库的交易所并行从交易所获取），
+ * 高级别最近的K线由最小级别聚合补齐，各级别在有界线程池上并行计算；
+ * 每个级别按最新K线指纹缓存分析结果，K线未变化时多个策略直接复用，不重复计算
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MultiLevelAnalysisService {
+
+    private final ChanCalculationEngine chanEngine;
+    private final KlineCacheService klineCacheService;
+    private final KlineRepository klineRepository;
+    private final KlineRollupService klineRollupService;
+    private final MultiLevelAnalysisProperties properties;
+    private final ExchangeRouterService exchangeRouterService;
+    private final ExchangeProperties exchangeProperties;
+
+    // key: exchange|symbol|level
+    private final Map<String, LevelState> states = new ConcurrentHashMap<>();
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newFixedThreadPool(properties.resolveParallelism(),
+                Thread.ofPlatform().name("chan-level-", 0).daemon().factory());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 分析交易对的多个级别
+     *
+     * @return 级别 -> 评估上下文，不支持或无数据的级别不在结果中
+     */
+    public Map<String, EvaluationContext> analyze(String exchange, String symbol, Collection<String> levels) {
+        List<String> sorted = levels.stream()
+                .distinct()
+                .filter(level -> {
+                    if (!KlineIntervalUtil.isSupported(level)) {
+                        log.warn("Skipping unsupported level {} for {}", level, symbol);
+                        return false;
+                    }
+                    return true;
+                })
+                .sorted(Comparator.comparingLong(KlineIntervalUtil::toMillis))
+                .toList();
+        if (sorted.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<String, List<Kline>> klines = loadKlines(exchange, symbol, sorted);
+        if (properties.isDeriveFromBase()) {
+            deriveFromBase(klines, sorted);
+        }
+
+        Map<String, EvaluationContext> contexts = new LinkedHashMap<>();
+        Map<String, Callable<LevelState>> pending = new LinkedHashMap<>();
+        for (String level : sorted) {
+            List<Kline> series = klines.get(level);
+            if (series == null || series.isEmpty()) {
+                continue;
+            }
+            Fingerprint fingerprint = Fingerprint.of(series);
+            LevelState state = states.get(stateKey(exchange, symbol, level));
+            if (state != null && state.fingerprint().equals(fingerprint)) {
+                contexts.put(level, state.context());
+            } else {
+                pending.put(level, () -> new LevelState(fingerprint, compute(series)));
+            }
+        }
+
+        if (!pending.isEmpty()) {
+            List<Future<LevelState>> futures;
+            try {
+                futures = executor.invokeAll(pending.values());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Multi-level analysis interrupted", e);
+            }
+            int i = 0;
+            for (String level : pending.keySet()) {
+                LevelState state = await(futures.get(i++), symbol, level);
+                if (state != null) {
+                    states.put(stateKey(exchange, symbol, level), state);
+                    contexts.put(level, state.context());
+                }
+            }
+        }
+
+        log.debug("Multi-level analysis for {}: {} levels, {} computed", symbol, contexts.size(), pending.size());
+        return contexts;
+    }
+
+    /**
+     * 实时订阅/热点级别从内存读取，其余级别一次批量查询数据库；
+     * 数据库中没有其他交易所的K线，这些交易所未命中的级别并行从交易所获取
+     */
+    private Map<String, List<Kline>> loadKlines(String exchange, String symbol, List<String> levels) {
+        int window = properties.getWindow();
+        Map<String, List<Kline>> klines = new HashMap<>();
+        List<SeriesKey> misses = new ArrayList<>();
+        for (String level : levels) {
+            List<Kline> cached = klineCacheService.getLatest(exchange, symbol, level, window);
+            if (cached != null && !cached.isEmpty()) {
+                klines.put(level, cached);
+            } else {
+                misses.add(new SeriesKey(symbol, level));
+            }
+        }
+        if (misses.isEmpty()) {
+            return klines;
+        }
+        if (exchangeProperties.isPersisted(exchange)) {
+            klineRepository.findLatestKlinesBatchReadOnly(misses, window)
+                    .forEach((key, series) -> klines.put(key.interval(), series));
+            return klines;
+        }
+        ExchangeAdapter adapter = exchangeRouterService.getAdapter(exchange);
+        Map<String, CompletableFuture<List<Kline>>> fetches = new LinkedHashMap<>();
+        for (SeriesKey key : misses) {
+            fetches.put(key.interval(), adapter.getKlinesAsync(symbol, key.interval(), null, null, window));
+        }
+        fetches.forEach((level, future) -> {
+            try {
+                klines.put(level, future.join());
+            } catch (CompletionException e) {
+                log.warn("Failed to fetch {} {} from {}: {}", symbol, level, exchange, e.getCause().getMessage());
+            }
+        });
+        return klines;
+    }
+
+    /**
+     * 用最小级别的K线聚合出高级别最近的K线，替换已存储但可能滞后的部分（含未闭合的当前桶）
+     */
+    private void deriveFromBase(Map<String, List<Kline>> klines, List<String> levels) {
+        String baseLevel = levels.get(0);
+        List<Kline> base = klines.get(baseLevel);
+        if (base == null || base.isEmpty()) {
+            return;
+        }
+        for (String level : levels.subList(1, levels.size())) {
+            if (KlineIntervalUtil.isMultipleOf(level, baseLevel)) {
+                klines.put(level, derive(klines.getOrDefault(level, List.of()), base, level));
+            }
+        }
+    }
+
+    List<Kline> derive(List<Kline> stored, List<Kline> base, String level) {
+        long levelMs = KlineIntervalUtil.toMillis(level);
+        long baseFirst = base.get(0).getTimestamp();
+        // 第一个被基础K线完整覆盖的桶
+        long firstFull = KlineIntervalUtil.bucketStart(baseFirst, level);
+        if (firstFull < baseFirst) {
+            firstFull += levelMs;
+        }
+
+        long from = firstFull;
+        if (!stored.isEmpty()) {
+            long storedLast = stored.get(stored.size() - 1).getTimestamp();
+            if (storedLast + levelMs < firstFull) {
+                // 基础K线与已存储的K线之间有缺口，不拼接
+                return stored;
+            }
+            from = Math.max(firstFull, storedLast);
+        }
+
+        long since = from;
+        List<Kline> tail = base.stream().filter(k -> k.getTimestamp() >= since).toList();
+        if (tail.isEmpty()) {
+            return stored;
+        }
+
+        List<Kline> merged = new ArrayList<>(stored.size() + 1);
+        for (Kline kline : stored) {
+            if (kline.getTimestamp() < since) {
+                merged.add(kline);
+            }
+        }
+        merged.addAll(klineRollupService.rollup(tail, level));
+
+        int window = properties.getWindow();
+        return merged.size() > window ? merged.subList(merged.size() - window, merged.size()) : merged;
+    }
+
+    private EvaluationContext compute(List<Kline> klines) {
+        ChanCalculationEngine.ChanResultFull result = chanEngine.calculateFull(klines);
+        Kline current = klines.get(klines.size() - 1);
+        return new EvaluationContext(
+                current.getClose(),
+                current.getTime().toEpochMilli(),
+                result.bis(),
+                result.xianduans(),
+                result.zhongshus(),
+                result.tradingPoints(),
+                Collections.emptyList(), // divergences - not implemented yet
+                Collections.emptyList()  // MACD data - not implemented yet
+        );
+    }
+
+    private static LevelState await(Future<LevelState> future, String symbol, String level) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Multi-level analysis interrupted", e);
+        } catch (ExecutionException e) {
+            log.error("Chan analysis failed for {}/{}: {}", symbol, level, e.getCause().getMessage());
+            return null;
+        }
+    }
+
+    private static String stateKey(String exchange, String symbol, String level) {
+        return exchange + "|" + symbol + "|" + level;
+    }
+
+    /**
+     * 已缓存的级别分析结果
+     */
+    private record LevelState(Fingerprint fingerprint, EvaluationContext context) {
+    }
+
+    /**
+     * K线序列指纹：首尾时间与最后一根K线的收盘价、成交量，任一变化即重新计算
+     */
+    record Fingerprint(int size, long firstTime, long lastTime, BigDecimal lastClose, BigDecimal lastVolume) {
+
+        static Fingerprint of(List<Kline> klines) {
+            Kline last = klines.get(klines.size() - 1);
+            return new Fingerprint(klines.size(), klines.get(0).getTimestamp(), last.getTimestamp(),
+                    last.getClose(), last.getVolume());
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package com.lucance.boot.backend.service;
 
+import com.lucance.boot.backend.config.ExchangeProperties;
+import com.lucance.boot.backend.config.KlineAggregationProperties;
+import com.lucance.boot.backend.config.TradeIngestProperties;
 import com.lucance.boot.backend.entity.Kline;
 import com.lucance.boot.backend.exchange.ExchangeAdapter;
+import com.lucance.boot.backend.exchange.binance.BinanceAdapter;
 import com.lucance.boot.backend.repository.KlineRepository;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
@@ -9,9 +13,11 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
 
 /**
@@ -25,9 +31,18 @@ public class RealtimeSyncService {
 
     private final KlineRepository klineRepository;
     private final ExchangeRouterService exchangeRouterService;
+    private final KlineRollupService klineRollupService;
+    private final KlineAggregationProperties aggregationProperties;
+    private final KlineCacheService klineCacheService;
+    private final TradeIngestProperties tradeIngestProperties;
+    private final ExchangeProperties exchangeProperties;
 
     private final Set<String> activeSubscriptions = ConcurrentHashMap.newKeySet();
     private final Map<String, Consumer<Kline>> externalCallbacks = new ConcurrentHashMap<>();
+    // 由成交流合成的订阅
+    private final Set<String> tradeSubscriptions = ConcurrentHashMap.newKeySet();
+    // 所有实时K线（含派生周期）的监听者
+    private final List<KlineListener> listeners = new CopyOnWriteArrayList<>();
 
     @PostConstruct
     public void init() {
@@ -45,13 +60,18 @@ public class RealtimeSyncService {
                 String interval = parts[2];
                 try {
                     ExchangeAdapter adapter = exchangeRouterService.getAdapter(exchange);
-                    adapter.unsubscribeKline(symbol, interval);
+                    if (tradeSubscriptions.contains(key)) {
+                        adapter.unsubscribeTradeKline(symbol, interval);
+                    } else {
+                        adapter.unsubscribeKline(symbol, interval);
+                    }
                 } catch (Exception e) {
                     log.warn("Failed to unsubscribe: {}", key, e);
                 }
             }
         });
         activeSubscriptions.clear();
+        tradeSubscriptions.clear();
         log.info("RealtimeSyncService destroyed");
     }
 
@@ -77,78 +97,105 @@ public class RealtimeSyncService {
             externalCallbacks.put(key, callback);
         }
 
-        ExchangeAdapter adapter = exchangeRouterService.getAdapter(exchange);
+        // 热点缓存常驻该序列，先从数据库预热再接收推送
+        klineCacheService.pin(exchange, symbol, interval);
 
-        // 如果需要保存到数据库，使用闭合K线订阅
-        if (saveToDb) {
-            // 对于 Binance，使用 closedOnly 模式
-            if ("binance".equalsIgnoreCase(exchange) && adapter instanceof com.lucance.boot.backend.exchange.binance.BinanceAdapter) {
-                com.lucance.boot.backend.exchange.binance.BinanceAdapter binanceAdapter =
-                    (com.lucance.boot.backend.exchange.binance.BinanceAdapter) adapter;
-                binanceAdapter.subscribeKlineClosedOnly(symbol, interval, kline -> {
-                    log.debug("Received closed kline: {} {} close={}", kline.getSymbol(), kline.getInterval(), kline.getClose());
-
-                    // 保存到数据库
-                    try {
-                        klineRepository.save(kline);
-                    } catch (Exception e) {
-                        log.error("Failed to save kline", e);
-                    }
+        // 派生周期不直接从交易所订阅，由基础周期聚合得到
+        if (saveToDb && aggregationProperties.isDerived(interval)) {
+            String baseKey = exchange + "_" + symbol + "_" + aggregationProperties.getBaseInterval();
+            if (!activeSubscriptions.contains(baseKey)) {
+                subscribe(exchange, symbol, aggregationProperties.getBaseInterval(), true, null);
+            }
+            activeSubscriptions.add(key);
+            log.info("Subscribed to: {} (derived from {})", key, baseKey);
+            return;
+        }
 
-                    // 调用外部回调
-                    Consumer<Kline> externalCallback = externalCallbacks.get(key);
-                    if (externalCallback != null) {
-                        try {
-                            externalCallback.accept(kline);
-                        } catch (Exception e) {
-                            log.error("External callback error", e);
-                        }
-                    }
-                });
-            } else {
-                // 其他交易所暂时使用普通订阅（未来可扩展）
-                adapter.subscribeKline(symbol, interval, kline -> {
-                    log.debug("Received kline: {} {} close={}", kline.getSymbol(), kline.getInterval(), kline.getClose());
-
-                    // 保存到数据库
-                    try {
-                        klineRepository.save(kline);
-                    } catch (Exception e) {
-                        log.error("Failed to save kline", e);
-                    }
+        ExchangeAdapter adapter = exchangeRouterService.getAdapter(exchange);
+        Consumer<Kline> handler = kline -> onKline(key, exchange, symbol, interval, saveToDb, kline);
 
-                    // 调用外部回调
-                    Consumer<Kline> externalCallback = externalCallbacks.get(key);
-                    if (externalCallback != null) {
-                        try {
-                            externalCallback.accept(kline);
-                        } catch (Exception e) {
-                            log.error("External callback error", e);
-                        }
-                    }
-                });
-            }
+        if (tradeIngestProperties.isTradeInterval(interval) && adapter.supportsTradeKline()) {
+            // 由逐笔成交在进程内合成K线；保存到数据库时只推送闭合K线
+            adapter.subscribeTradeKline(symbol, interval, handler, saveToDb,
+                    tradeIngestProperties.getPublishInterval().toMillis());
+            tradeSubscriptions.add(key);
+        } else if (saveToDb && adapter instanceof BinanceAdapter binanceAdapter) {
+            // 如果需要保存到数据库，Binance 使用闭合K线订阅
+            binanceAdapter.subscribeKlineClosedOnly(symbol, interval, handler);
         } else {
-            // 不保存到数据库，直接订阅
-            adapter.subscribeKline(symbol, interval, kline -> {
-                log.debug("Received kline: {} {} close={}", kline.getSymbol(), kline.getInterval(), kline.getClose());
-
-                // 调用外部回调
-                Consumer<Kline> externalCallback = externalCallbacks.get(key);
-                if (externalCallback != null) {
-                    try {
-                        externalCallback.accept(kline);
-                    } catch (Exception e) {
-                        log.error("External callback error", e);
-                    }
-                }
-            });
+            // 其他交易所暂时使用普通订阅（未来可扩展）
+            adapter.subscribeKline(symbol, interval, handler);
         }
 
         activeSubscriptions.add(key);
         log.info("Subscribed to: {} via {} (saveToDb={})", key, exchange, saveToDb);
     }
 
+    /**
+     * 处理推送的K线：更新热点缓存，按需保存并聚合派生周期，最后调用外部回调
+     */
+    private void onKline(String key, String exchange, String symbol, String interval, boolean saveToDb, Kline kline) {
+        log.debug("Received kline: {} {} close={}", kline.getSymbol(), kline.getInterval(), kline.getClose());
+
+        klineCacheService.onKline(exchange, symbol, interval, kline);
+        notifyListeners(exchange, symbol, interval, kline);
+
+        if (saveToDb) {
+            // 保存到数据库（klines 表只保存入库交易所的K线）
+            if (exchangeProperties.isPersisted(exchange)) {
+                try {
+                    klineRepository.save(kline);
+                } catch (Exception e) {
+                    log.error("Failed to save kline", e);
+                }
+            }
+
+            // 聚合派生周期（未闭合K线的重复推送由聚合服务替换，不会重复累加）
+            publishDerived(exchange, symbol, kline);
+        }
+
+        // 调用外部回调
+        Consumer<Kline> externalCallback = externalCallbacks.get(key);
+        if (externalCallback != null) {
+            try {
+                externalCallback.accept(kline);
+            } catch (Exception e) {
+                log.error("External callback error", e);
+            }
+        }
+    }
+
+    private void notifyListeners(String exchange, String symbol, String interval, Kline kline) {
+        for (KlineListener listener : listeners) {
+            try {
+                listener.onKline(exchange, symbol, interval, kline);
+            } catch (Exception e) {
+                log.error("Kline listener error", e);
+            }
+        }
+    }
+
+    /**
+     * 由基础周期K线更新派生周期，并通知派生周期的外部回调
+     */
+    private void publishDerived(String exchange, String symbol, Kline kline) {
+        if (!aggregationProperties.isEnabled()) {
+            return;
+        }
+        try {
+            for (Kline derived : klineRollupService.onBaseKline(exchange, kline)) {
+                klineCacheService.onKline(exchange, symbol, derived.getInterval(), derived);
+                notifyListeners(exchange, symbol, derived.getInterval(), derived);
+                Consumer<Kline> derivedCallback = externalCallbacks.get(exchange + "_" + symbol + "_" + derived.getInterval());
+                if (derivedCallback != null) {
+                    derivedCallback.accept(derived);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to roll up kline {} {}", kline.getSymbol(), kline.getInterval(), e);
+        }
+    }
+
     /**
      * 简化的订阅方法（使用默认交易所，保存到数据库）
      */
@@ -167,14 +214,38 @@ public class RealtimeSyncService {
             return;
         }
 
-        ExchangeAdapter adapter = exchangeRouterService.getAdapter(exchange);
-        adapter.unsubscribeKline(symbol, interval);
+        // 派生周期没有交易所订阅，基础周期订阅保留
+        if (tradeSubscriptions.remove(key)) {
+            exchangeRouterService.getAdapter(exchange).unsubscribeTradeKline(symbol, interval);
+        } else if (!aggregationProperties.isDerived(interval)) {
+            ExchangeAdapter adapter = exchangeRouterService.getAdapter(exchange);
+            adapter.unsubscribeKline(symbol, interval);
+        }
 
         activeSubscriptions.remove(key);
         externalCallbacks.remove(key);
+        klineCacheService.unpin(exchange, symbol, interval);
         log.info("Unsubscribed from: {}", key);
     }
 
+    /**
+     * 是否已订阅
+     */
+    public boolean isSubscribed(String exchange, String symbol, String interval) {
+        return activeSubscriptions.contains(exchange + "_" + symbol + "_" + interval);
+    }
+
+    /**
+     * 注册实时K线监听（所有订阅共用，监听者自行按序列过滤）
+     */
+    public void addListener(KlineListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(KlineListener listener) {
+        listeners.remove(listener);
+    }
+
     /**
      * 获取活动订阅列表
      */
@@ -188,4 +259,12 @@ public class RealtimeSyncService {
     public Set<String> getAvailableExchanges() {
         return exchangeRouterService.getAvailableExchanges();
     }
+
+    /**
+     * 实时K线监听
+     */
+    @FunctionalInterface
+    public interface KlineListener {
+        void onKline(String exchange, String symbol, String interval, Kline kline);
+    }
 }
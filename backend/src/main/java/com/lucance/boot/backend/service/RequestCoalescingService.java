@@ -0,0 +1,120 @@
+package com.lucance.boot.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 请求合并服务（single-flight）
+ * 参数相同的并发请求只执行一次，其余请求等待并共享同一结果（包括异常）；
+ * 执行完成后立即移除，不做结果缓存，之后到达的请求会重新执行
+ */
+@Slf4j
+@Service
+public class RequestCoalescingService {
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+    /**
+     * 合并执行
+     *
+     * @param operation 操作名（统计维度）
+     * @param supplier  实际计算，返回值会被多个请求共享，调用方不得修改
+     * @param keyParts  区分请求的参数，null 视为未指定
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String operation, Supplier<T> supplier, Object... keyParts) {
+        String key = key(operation, keyParts);
+        Counters stats = counters.computeIfAbsent(operation, k -> new Counters());
+        stats.requests.increment();
+
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            stats.coalesced.increment();
+            log.debug("Coalesced request: {}", key);
+            return (T) await(existing);
+        }
+
+        try {
+            T result = supplier.get();
+            future.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * 各操作的合并统计
+     */
+    public List<CoalescingStats> getStats() {
+        return counters.entrySet().stream()
+                .map(e -> {
+                    long requests = e.getValue().requests.sum();
+                    long coalesced = e.getValue().coalesced.sum();
+                    return new CoalescingStats(e.getKey(), requests, requests - coalesced, coalesced,
+                            requests > 0 ? (double) coalesced / requests : 0);
+                })
+                .sorted(Comparator.comparing(CoalescingStats::operation))
+                .toList();
+    }
+
+    /**
+     * 当前正在执行的请求数
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    private static Object await(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * 请求键：操作名 + 参数（交易所名等大小写不敏感的参数由调用方统一）
+     */
+    private static String key(String operation, Object[] keyParts) {
+        StringBuilder key = new StringBuilder(operation);
+        for (Object part : keyParts) {
+            key.append('|').append(part != null ? part : "-");
+        }
+        return key.toString();
+    }
+
+    private static final class Counters {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder coalesced = new LongAdder();
+    }
+
+    /**
+     * @param executions 实际执行次数
+     * @param coalesced  共享了其他请求结果的次数
+     */
+    public record CoalescingStats(String operation, long requests, long executions, long coalesced,
+            double coalescedRate) {
+    }
+}
@@ -1,12 +1,12 @@
 package com.lucance.boot.backend.service;
 
-import com.lucance.boot.backend.chan.ChanCalculationEngine;
 import com.lucance.boot.backend.chan.model.TradingPoint;
-import com.lucance.boot.backend.entity.Kline;
 import com.lucance.boot.backend.entity.Signal;
 import com.lucance.boot.backend.entity.Strategy;
-import com.lucance.boot.backend.repository.KlineRepository;
+import com.lucance.boot.backend.strategy.CompiledEntryConditions;
+import com.lucance.boot.backend.strategy.CompiledStrategyCache;
 import com.lucance.boot.backend.strategy.ConditionEvaluator;
+import com.lucance.boot.backend.strategy.model.ConditionGroup;
 import com.lucance.boot.backend.strategy.model.EntryConditionConfig;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -16,8 +16,11 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * 信号生成服务
@@ -30,9 +33,9 @@ public class SignalGeneratorService {
 
     private final StrategyService strategyService;
     private final SignalService signalService;
-    private final KlineRepository klineRepository;
-    private final ChanCalculationEngine chanEngine;
-    private final ConditionEvaluator conditionEvaluator;
+    private final CompiledStrategyCache compiledStrategyCache;
+    private final MultiLevelAnalysisService multiLevelAnalysisService;
+    private final ExchangeRouterService exchangeRouterService;
 
     /**
      * 定时任务：每分钟检查一次信号
@@ -68,8 +71,9 @@ public class SignalGeneratorService {
      * 为指定策略检查信号
      */
     private void checkStrategySignals(Strategy strategy) {
-        // Parse strategy conditions
-        EntryConditionConfig entryConfig = conditionEvaluator.parseEntryConditions(strategy.getEntryConditions());
+        // Conditions are compiled once per strategy version
+        CompiledStrategyCache.CompiledStrategy compiled = compiledStrategyCache.get(strategy);
+        EntryConditionConfig entryConfig = compiled.entryConfig();
         if (entryConfig == null) {
             log.warn("Invalid entry conditions for strategy {}", strategy.getId());
             return;
@@ -84,16 +88,38 @@ public class SignalGeneratorService {
         // Check signals for each level
         // For now, we'll check common symbols - this could be configurable
         String[] symbols = {"BTCUSDT", "ETHUSDT"}; // TODO: Make this configurable
+        Set<String> analysisLevels = analysisLevels(entryConfig, levels);
 
         for (String symbol : symbols) {
-            for (String level : levels) {
-                try {
-                    checkSignalForSymbolAndLevel(strategy, entryConfig, symbol, level);
-                } catch (Exception e) {
-                    log.error("Error checking signal for {}/{}: {}", symbol, level, e.getMessage());
+            try {
+                // All levels used by the strategy are analyzed together and shared across strategies
+                Map<String, ConditionEvaluator.EvaluationContext> contexts = multiLevelAnalysisService.analyze(
+                        exchangeRouterService.getDefaultExchangeName(), symbol, analysisLevels);
+                for (String level : levels) {
+                    try {
+                        checkSignalForSymbolAndLevel(strategy, compiled.entry(), symbol, level, contexts);
+                    } catch (Exception e) {
+                        log.error("Error checking signal for {}/{}: {}", symbol, level, e.getMessage());
+                    }
                 }
+            } catch (Exception e) {
+                log.error("Error analyzing levels for {}: {}", symbol, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 策略需要分析的级别：策略级别 + 各条件组的级别
+     */
+    private Set<String> analysisLevels(EntryConditionConfig entryConfig, String... levels) {
+        Set<String> result = new LinkedHashSet<>(Arrays.asList(levels));
+        for (ConditionGroup group : new ConditionGroup[] {
+                entryConfig.getPrimary(), entryConfig.getSecondary(), entryConfig.getTertiary() }) {
+            if (group != null && group.getLevel() != null) {
+                result.add(group.getLevel());
             }
         }
+        return result;
     }
 
     /**
@@ -101,50 +127,18 @@ public class SignalGeneratorService {
      */
     private void checkSignalForSymbolAndLevel(
             Strategy strategy,
-            EntryConditionConfig entryConfig,
+            CompiledEntryConditions entryConditions,
             String symbol,
-            String level) {
+            String level,
+            Map<String, ConditionEvaluator.EvaluationContext> contexts) {
 
-        // Load recent K-lines (last 500 for Chan analysis)
-        OffsetDateTime endTime = OffsetDateTime.now();
-        OffsetDateTime startTime = endTime.minusHours(24); // Last 24 hours
-
-        List<Kline> klines = klineRepository.findBySymbolAndIntervalAndTimeRange(
-                symbol,
-                level,
-                startTime.toInstant(),
-                endTime.toInstant()
-        );
-
-        if (klines.isEmpty()) {
+        ConditionEvaluator.EvaluationContext context = contexts.get(level);
+        if (context == null) {
             return;
         }
 
-        // Limit to last 500 K-lines for performance
-        if (klines.size() > 500) {
-            klines = klines.subList(klines.size() - 500, klines.size());
-        }
-
-        // Calculate Chan analysis
-        ChanCalculationEngine.ChanResultFull chanResult = chanEngine.calculateFull(klines);
-
-        // Get current K-line
-        Kline currentKline = klines.get(klines.size() - 1);
-
-        // Build evaluation context
-        ConditionEvaluator.EvaluationContext context = new ConditionEvaluator.EvaluationContext(
-                currentKline.getClose(),
-                currentKline.getTime().toEpochMilli(),
-                chanResult.bis(),
-                chanResult.xianduans(),
-                chanResult.zhongshus(),
-                chanResult.tradingPoints(),
-                Collections.emptyList(), // divergences - not implemented yet
-                Collections.emptyList()  // MACD data - not implemented yet
-        );
-
-        // Evaluate entry conditions
-        ConditionEvaluator.EvaluationResult result = conditionEvaluator.evaluateEntry(entryConfig, context);
+        // Evaluate entry conditions, secondary/tertiary groups against their own levels
+        ConditionEvaluator.EvaluationResult result = entryConditions.evaluate(contexts, level);
 
         if (result.satisfied()) {
             // Check if we already have a recent pending signal for this symbol/strategy
@@ -162,7 +156,8 @@ public class SignalGeneratorService {
             // Create new signal
             TradingPoint triggerPoint = result.triggerPoint();
             if (triggerPoint != null) {
-                Signal signal = createSignal(strategy, symbol, level, triggerPoint, currentKline, result.reason());
+                Signal signal = createSignal(strategy, symbol, level, triggerPoint, context.currentPrice(),
+                        result.reason());
                 signalService.createSignal(signal);
 
                 log.info("Generated signal: {} {} for {} on {}/{} - {}",
@@ -184,7 +179,7 @@ public class SignalGeneratorService {
             String symbol,
             String interval,
             TradingPoint tradingPoint,
-            Kline currentKline,
+            BigDecimal currentPrice,
             String reason) {
 
         Signal signal = new Signal();
@@ -193,18 +188,18 @@ public class SignalGeneratorService {
         signal.setInterval(interval);
         signal.setSignalType(tradingPoint.getType() == TradingPoint.PointType.BUY ? "buy" : "sell");
         signal.setLevel(tradingPoint.getLevel());
-        signal.setEntryPrice(currentKline.getClose());
+        signal.setEntryPrice(currentPrice);
 
         // Calculate stop loss and take profit (simple 2% / 4% for now)
         BigDecimal stopLossPercent = new BigDecimal("0.02");
         BigDecimal takeProfitPercent = new BigDecimal("0.04");
 
         if ("buy".equals(signal.getSignalType())) {
-            signal.setStopLoss(currentKline.getClose().multiply(BigDecimal.ONE.subtract(stopLossPercent)));
-            signal.setTakeProfit(currentKline.getClose().multiply(BigDecimal.ONE.add(takeProfitPercent)));
+            signal.setStopLoss(currentPrice.multiply(BigDecimal.ONE.subtract(stopLossPercent)));
+            signal.setTakeProfit(currentPrice.multiply(BigDecimal.ONE.add(takeProfitPercent)));
         } else {
-            signal.setStopLoss(currentKline.getClose().multiply(BigDecimal.ONE.add(stopLossPercent)));
-            signal.setTakeProfit(currentKline.getClose().multiply(BigDecimal.ONE.subtract(takeProfitPercent)));
+            signal.setStopLoss(currentPrice.multiply(BigDecimal.ONE.add(stopLossPercent)));
+            signal.setTakeProfit(currentPrice.multiply(BigDecimal.ONE.subtract(takeProfitPercent)));
         }
 
         // Set confidence based on trading point confidence
@@ -258,9 +253,12 @@ public class SignalGeneratorService {
                 continue;
             }
 
-            EntryConditionConfig entryConfig = conditionEvaluator.parseEntryConditions(strategy.getEntryConditions());
-            if (entryConfig != null) {
-                checkSignalForSymbolAndLevel(strategy, entryConfig, symbol, interval);
+            CompiledStrategyCache.CompiledStrategy compiled = compiledStrategyCache.get(strategy);
+            if (compiled.entryConfig() != null) {
+                Map<String, ConditionEvaluator.EvaluationContext> contexts = multiLevelAnalysisService.analyze(
+                        exchangeRouterService.getDefaultExchangeName(), symbol,
+                        analysisLevels(compiled.entryConfig(), interval));
+                checkSignalForSymbolAndLevel(strategy, compiled.entry(), symbol, interval, contexts);
             }
         }
     }
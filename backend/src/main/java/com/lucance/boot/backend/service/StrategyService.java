@@ -2,6 +2,7 @@ package com.lucance.boot.backend.service;
 
 import com.lucance.boot.backend.entity.Strategy;
 import com.lucance.boot.backend.repository.StrategyRepository;
+import com.lucance.boot.backend.strategy.CompiledStrategyCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -20,6 +21,7 @@ import java.util.Optional;
 public class StrategyService {
 
     private final StrategyRepository strategyRepository;
+    private final CompiledStrategyCache compiledStrategyCache;
 
     /**
      * Get all strategies.
@@ -49,7 +51,9 @@ public class StrategyService {
     public Strategy createStrategy(Strategy strategy) {
         validateStrategy(strategy);
         log.info("Creating strategy: {}", strategy.getName());
-        return strategyRepository.save(strategy);
+        Strategy saved = strategyRepository.save(strategy);
+        compiledStrategyCache.compile(saved);
+        return saved;
     }
 
     /**
@@ -94,7 +98,9 @@ public class StrategyService {
         existing.setVersion(incrementVersion(currentVersion));
 
         log.info("Updating strategy: {} to version {}", existing.getName(), existing.getVersion());
-        return strategyRepository.save(existing);
+        Strategy saved = strategyRepository.save(existing);
+        compiledStrategyCache.compile(saved);
+        return saved;
     }
 
     /**
@@ -107,6 +113,7 @@ public class StrategyService {
         }
         log.info("Deleting strategy: {}", id);
         strategyRepository.deleteById(id);
+        compiledStrategyCache.evict(id);
     }
 
     /**
@@ -0,0 +1,395 @@
+package com.lucance.boot.backend.strategy;
+
+import com.lucance.boot.backend.chan.model.MACDResult;
+import com.lucance.boot.backend.chan.model.TradingPoint;
+import com.lucance.boot.backend.strategy.ConditionEvaluator.EvaluationContext;
+import com.lucance.boot.backend.strategy.ConditionEvaluator.EvaluationResult;
+import com.lucance.boot.backend.strategy.model.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 编译后的入场条件
+ * <p>
+ * 入场条件的唯一评估实现（{@link ConditionEvaluator#evaluateEntry} 委托至此），条件树在编译时一次性展开为不可变的节点数组：
+ * 条件类型分派、方向/级别/置信度阈值、固定参考价格的比较边界都在编译时确定，查询走上下文的 {@link EvaluationIndex}；
+ * 失败结果与不带买卖点的成功结果为预先构造的常量，只有命中买卖点时才拼接原因。
+ * 未满足条件（绝大多数情况）的评估路径不分配对象
+ */
+public final class CompiledEntryConditions {
+
+    /**
+     * 只检查最近5分钟内的买卖点
+     */
+    static final long TRADING_POINT_WINDOW_MS = 300000;
+
+    private static final EvaluationResult INVALID = EvaluationResult.failure("Invalid entry condition config");
+
+    private final boolean valid;
+    private final Group primary;
+    private final Group secondary;
+    private final Group tertiary;
+    private final boolean requireResonance;
+    private final Long resonanceWindowMs;
+
+    private CompiledEntryConditions(EntryConditionConfig config) {
+        this.valid = config != null && config.isValid();
+        this.primary = valid ? new Group(config.getPrimary(), "Primary") : null;
+        this.secondary = valid && config.getSecondary() != null ? new Group(config.getSecondary(), "Secondary") : null;
+        this.tertiary = valid && config.getTertiary() != null ? new Group(config.getTertiary(), "Tertiary") : null;
+        this.requireResonance = valid && Boolean.TRUE.equals(config.getRequireResonance());
+        this.resonanceWindowMs = valid ? config.getResonanceWindowMs() : null;
+    }
+
+    /**
+     * 编译入场条件，无效配置编译为始终失败的条件
+     */
+    public static CompiledEntryConditions compile(EntryConditionConfig config) {
+        return new CompiledEntryConditions(config);
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    /**
+     * 单级别评估：主条件组满足即可，要求共振时次要/第三级条件组在同一上下文上也须满足
+     */
+    public EvaluationResult evaluate(EvaluationContext context) {
+        if (!valid) {
+            return INVALID;
+        }
+        if (!primary.test(context)) {
+            return primary.failure;
+        }
+        if (requireResonance) {
+            if (secondary != null && !secondary.test(context)) {
+                return secondary.singleLevelFailure;
+            }
+            if (tertiary != null && !tertiary.test(context)) {
+                return tertiary.singleLevelFailure;
+            }
+        }
+        return primary.success(context);
+    }
+
+    /**
+     * 多级别评估
+     * 主条件组在触发级别上评估，次要/第三级条件组在各自 level 的上下文上评估（缺失时回退到触发级别）；
+     * 要求共振时，各级别的触发买卖点须在 resonanceWindowMs 内
+     */
+    public EvaluationResult evaluate(Map<String, EvaluationContext> contexts, String triggerLevel) {
+        if (!valid) {
+            return INVALID;
+        }
+        EvaluationContext triggerContext = contexts.get(triggerLevel);
+        if (triggerContext == null) {
+            return EvaluationResult.failure("No analysis for level " + triggerLevel);
+        }
+        if (!primary.test(triggerContext)) {
+            return primary.failure;
+        }
+        if (requireResonance) {
+            EvaluationResult failure = resonance(secondary, contexts, triggerContext);
+            if (failure == null) {
+                failure = resonance(tertiary, contexts, triggerContext);
+            }
+            if (failure != null) {
+                return failure;
+            }
+        }
+        return primary.success(triggerContext);
+    }
+
+    /**
+     * 共振条件组满足时返回 null；只有两个级别都有触发买卖点时才检查时间窗口
+     */
+    private EvaluationResult resonance(Group group, Map<String, EvaluationContext> contexts,
+            EvaluationContext triggerContext) {
+        if (group == null) {
+            return null;
+        }
+        EvaluationContext context = contexts.getOrDefault(group.level, triggerContext);
+        if (!group.test(context)) {
+            return group.multiLevelFailure;
+        }
+        if (resonanceWindowMs != null) {
+            TradingPoint primaryPoint = primary.trigger(triggerContext);
+            TradingPoint point = group.trigger(context);
+            if (primaryPoint != null && point != null
+                    && Math.abs(primaryPoint.getTimestamp() - point.getTimestamp()) > resonanceWindowMs) {
+                return group.windowFailure;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 条件组
+     */
+    private static final class Group {
+        private final String level;
+        private final boolean and;
+        private final Node[] nodes;
+        private final EvaluationResult failure;
+        private final EvaluationResult singleLevelFailure;
+        private final EvaluationResult multiLevelFailure;
+        private final EvaluationResult windowFailure;
+        private final EvaluationResult allSatisfied;
+
+        Group(ConditionGroup group, String name) {
+            this.level = group.getLevel();
+            this.and = group.getLogic() == ConditionGroup.Logic.AND;
+            this.nodes = group.getConditions().stream().map(CompiledEntryConditions::node).toArray(Node[]::new);
+            this.failure = EvaluationResult.failure(name + " condition not satisfied: " + group.toHumanReadable());
+            this.singleLevelFailure = EvaluationResult.failure(name + " condition not satisfied for resonance");
+            this.multiLevelFailure = EvaluationResult.failure(
+                    name + " condition not satisfied for resonance at " + level);
+            this.windowFailure = EvaluationResult.failure(
+                    name + " trading point at " + level + " outside resonance window");
+            this.allSatisfied = EvaluationResult.success("All conditions satisfied", null, null);
+        }
+
+        boolean test(EvaluationContext context) {
+            for (Node node : nodes) {
+                if (node.test(context) != and) {
+                    return !and;
+                }
+            }
+            return and;
+        }
+
+        /**
+         * 组内首个命中的买卖点，仅在 test 通过后调用
+         */
+        TradingPoint trigger(EvaluationContext context) {
+            for (Node node : nodes) {
+                if (and || node.test(context)) {
+                    TradingPoint point = node.trigger(context);
+                    if (point != null || !and) {
+                        return point;
+                    }
+                }
+            }
+            return null;
+        }
+
+        /**
+         * 组满足时的结果，仅在 test 通过后调用
+         */
+        EvaluationResult success(EvaluationContext context) {
+            for (Node node : nodes) {
+                if (!and) {
+                    if (node.test(context)) {
+                        return node.success(context);
+                    }
+                    continue;
+                }
+                TradingPoint point = node.trigger(context);
+                if (point != null) {
+                    return EvaluationResult.success("All conditions satisfied", node.condition(), point);
+                }
+            }
+            return allSatisfied;
+        }
+    }
+
+    /**
+     * 编译后的单个条件
+     */
+    private interface Node {
+        boolean test(EvaluationContext context);
+
+        /**
+         * 命中的买卖点，非买卖点条件为 null
+         */
+        default TradingPoint trigger(EvaluationContext context) {
+            return null;
+        }
+
+        /**
+         * 满足时的结果，仅在 test 通过后调用
+         */
+        EvaluationResult success(EvaluationContext context);
+
+        Condition condition();
+    }
+
+    private static Node node(Condition condition) {
+        Node node = switch (condition) {
+            case TradingPointCondition tpc -> new TradingPointNode(tpc);
+            case TrendCondition tc -> new SimpleNode(tc, "Trend condition satisfied: ",
+                    context -> tc.matches(context.index()));
+            case DivergenceCondition dc -> new SimpleNode(dc, "Found matching divergence: ",
+                    context -> dc.matchesAny(context.index()));
+            case ZhongshuCondition zc -> new SimpleNode(zc, "Zhongshu condition satisfied: ",
+                    context -> zc.matches(context.currentPrice(), context.index()));
+            case MACDCondition mc -> new SimpleNode(mc, "MACD condition satisfied: ",
+                    context -> matchesLatest(mc, context.macdData()));
+            case PriceCondition pc -> new SimpleNode(pc, "Price condition satisfied: ", priceCheck(pc));
+            default -> new SimpleNode(condition, "", context -> false);
+        };
+        return condition.isNegated() ? new NegatedNode(node) : node;
+    }
+
+    private static boolean matchesLatest(MACDCondition condition, List<MACDResult> macdData) {
+        if (macdData == null || macdData.isEmpty()) {
+            return false;
+        }
+        int size = macdData.size();
+        return condition.matches(macdData.get(size - 1), size > 1 ? macdData.get(size - 2) : null);
+    }
+
+    /**
+     * 价格条件：固定参考价格的比较边界在编译时算好，其余参考类型按上下文取值后比较
+     */
+    private static Check priceCheck(PriceCondition condition) {
+        String referenceType = condition.getReferenceType();
+        if ("fixed".equals(referenceType)) {
+            BigDecimal reference = condition.getValue();
+            if (reference == null) {
+                return context -> false;
+            }
+            BigDecimal adjusted = condition.getOffsetPercent() != null
+                    ? reference.add(reference.multiply(condition.getOffsetPercent()))
+                    : reference;
+            return switch (condition.getCompareType()) {
+                case "above" -> context -> context.currentPrice() != null
+                        && context.currentPrice().compareTo(adjusted) > 0;
+                case "below" -> context -> context.currentPrice() != null
+                        && context.currentPrice().compareTo(adjusted) < 0;
+                case "between" -> {
+                    BigDecimal upper = condition.getUpperValue() != null ? condition.getUpperValue() : adjusted;
+                    yield context -> context.currentPrice() != null
+                            && context.currentPrice().compareTo(reference) >= 0
+                            && context.currentPrice().compareTo(upper) <= 0;
+                }
+                case "breakout" -> {
+                    BigDecimal threshold = reference.multiply(condition.getOffsetPercent() != null
+                            ? condition.getOffsetPercent() : BigDecimal.valueOf(0.005));
+                    BigDecimal upper = reference.add(threshold);
+                    BigDecimal lower = reference.subtract(threshold);
+                    // |price - reference| > threshold
+                    yield context -> context.currentPrice() != null
+                            && (context.currentPrice().compareTo(upper) > 0
+                                    || context.currentPrice().compareTo(lower) < 0);
+                }
+                default -> context -> false;
+            };
+        }
+        return switch (referenceType) {
+            case "zhongshu_high" -> context -> context.currentPrice() != null
+                    && context.index().latestZhongshu() != null
+                    && condition.matches(context.currentPrice(), context.index().latestZhongshu().getHigh());
+            case "zhongshu_low" -> context -> context.currentPrice() != null
+                    && context.index().latestZhongshu() != null
+                    && condition.matches(context.currentPrice(), context.index().latestZhongshu().getLow());
+            case "fenxing" -> context -> context.currentPrice() != null
+                    && context.index().lastTradingPoint() != null
+                    && condition.matches(context.currentPrice(), context.index().lastTradingPoint().getPrice());
+            default -> context -> false;
+        };
+    }
+
+    @FunctionalInterface
+    private interface Check {
+        boolean test(EvaluationContext context);
+    }
+
+    /**
+     * 不产生买卖点的条件，成功结果为常量
+     */
+    private record SimpleNode(Condition condition, Check check, EvaluationResult satisfied) implements Node {
+
+        SimpleNode(Condition condition, String reasonPrefix, Check check) {
+            this(condition, check, EvaluationResult.success(reasonPrefix + condition.toHumanReadable(), condition,
+                    null));
+        }
+
+        @Override
+        public boolean test(EvaluationContext context) {
+            return check.test(context);
+        }
+
+        @Override
+        public EvaluationResult success(EvaluationContext context) {
+            return satisfied;
+        }
+    }
+
+    private record NegatedNode(Node inner, EvaluationResult satisfied) implements Node {
+
+        NegatedNode(Node inner) {
+            this(inner, EvaluationResult.success("Negated condition not satisfied (expected)", inner.condition(),
+                    null));
+        }
+
+        @Override
+        public boolean test(EvaluationContext context) {
+            return !inner.test(context);
+        }
+
+        @Override
+        public EvaluationResult success(EvaluationContext context) {
+            return satisfied;
+        }
+
+        @Override
+        public Condition condition() {
+            return inner.condition();
+        }
+    }
+
+    /**
+     * 买卖点条件：方向、级别、最低置信度在编译时转换为枚举和整数
+     */
+    private static final class TradingPointNode implements Node {
+        private final TradingPointCondition condition;
+        private final TradingPoint.PointType type;
+        private final int level;
+        private final int minConfidence;
+
+        TradingPointNode(TradingPointCondition condition) {
+            this.condition = condition;
+            this.type = "buy".equals(condition.getDirection()) ? TradingPoint.PointType.BUY
+                    : "sell".equals(condition.getDirection()) ? TradingPoint.PointType.SELL : null;
+            this.level = condition.getLevel() != null ? condition.getLevel() : 0;
+            this.minConfidence = condition.getMinConfidence() == null ? 0
+                    : switch (condition.getMinConfidence()) {
+                        case "high" -> 3;
+                        case "medium" -> 2;
+                        case "low" -> 1;
+                        default -> 0;
+                    };
+        }
+
+        @Override
+        public boolean test(EvaluationContext context) {
+            return trigger(context) != null;
+        }
+
+        @Override
+        public TradingPoint trigger(EvaluationContext context) {
+            if (type == null) {
+                return null;
+            }
+            // 最近5分钟内最新的匹配买卖点
+            return context.index().latestTradingPoint(type, level, minConfidence,
+                    context.currentTime() - TRADING_POINT_WINDOW_MS);
+        }
+
+        @Override
+        public EvaluationResult success(EvaluationContext context) {
+            TradingPoint point = trigger(context);
+            return EvaluationResult.success("Found matching trading point: " + point.getSignalDescription(),
+                    condition, point);
+        }
+
+        @Override
+        public Condition condition() {
+            return condition;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.lucance.boot.backend.strategy;
+
+import com.lucance.boot.backend.entity.Strategy;
+import com.lucance.boot.backend.strategy.model.EntryConditionConfig;
+import com.lucance.boot.backend.strategy.model.ExitConditionConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 编译后策略缓存
+ * 策略保存/激活时编译一次（解析条件 JSON 并编译入场条件），按策略 ID + 版本号缓存；
+ * 信号生成与回测直接取用，不再每次解析 JSON。版本号未变但条件 JSON 被直接改库时同样会重新编译
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CompiledStrategyCache {
+
+    private final ConditionEvaluator conditionEvaluator;
+
+    private final Map<Long, CompiledStrategy> compiled = new ConcurrentHashMap<>();
+
+    /**
+     * 取编译结果，缓存缺失或已过期时编译
+     */
+    public CompiledStrategy get(Strategy strategy) {
+        if (strategy.getId() == null) {
+            return compileStrategy(strategy);
+        }
+        CompiledStrategy cached = compiled.get(strategy.getId());
+        if (cached != null && cached.matches(strategy)) {
+            return cached;
+        }
+        return compile(strategy);
+    }
+
+    /**
+     * 编译并替换缓存（策略保存后调用）
+     */
+    public CompiledStrategy compile(Strategy strategy) {
+        CompiledStrategy result = compileStrategy(strategy);
+        if (strategy.getId() != null) {
+            compiled.put(strategy.getId(), result);
+            log.debug("Compiled strategy {} version {}", strategy.getId(), strategy.getVersion());
+        }
+        return result;
+    }
+
+    public void evict(Long strategyId) {
+        compiled.remove(strategyId);
+    }
+
+    public int size() {
+        return compiled.size();
+    }
+
+    private CompiledStrategy compileStrategy(Strategy strategy) {
+        EntryConditionConfig entryConfig = conditionEvaluator.parseEntryConditions(strategy.getEntryConditions());
+        ExitConditionConfig exitConfig = conditionEvaluator.parseExitConditions(strategy.getExitConditions());
+        return new CompiledStrategy(strategy.getId(), strategy.getVersion(), strategy.getEntryConditions(),
+                strategy.getExitConditions(), entryConfig, exitConfig,
+                entryConfig != null ? CompiledEntryConditions.compile(entryConfig) : null);
+    }
+
+    /**
+     * @param entryConfig 解析失败时为 null
+     * @param exitConfig  解析失败时为 null
+     * @param entry       编译后的入场条件，entryConfig 为 null 时为 null
+     */
+    public record CompiledStrategy(
+            Long strategyId,
+            String version,
+            String entryConditions,
+            String exitConditions,
+            EntryConditionConfig entryConfig,
+            ExitConditionConfig exitConfig,
+            CompiledEntryConditions entry) {
+
+        boolean matches(Strategy strategy) {
+            return Objects.equals(version, strategy.getVersion())
+                    && Objects.equals(entryConditions, strategy.getEntryConditions())
+                    && Objects.equals(exitConditions, strategy.getExitConditions());
+        }
+    }
+}
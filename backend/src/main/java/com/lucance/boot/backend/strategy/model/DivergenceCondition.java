@@ -7,6 +7,8 @@ import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
 
+import java.util.List;
+
 /**
  * 背驰条件
  * 用于检测MACD背驰信号
@@ -116,6 +118,27 @@ public class DivergenceCondition extends Condition {
         return true;
     }
 
+    /**
+     * 在索引中同类型的背驰里查找是否有满足条件的
+     */
+    public boolean matchesAny(EvaluationIndex index) {
+        DivergenceResult.DivergenceType divergenceTypeEnum = switch (divergenceType) {
+            case "bullish" -> DivergenceResult.DivergenceType.BULLISH;
+            case "bearish" -> DivergenceResult.DivergenceType.BEARISH;
+            default -> null;
+        };
+        if (divergenceTypeEnum == null) {
+            return false;
+        }
+        List<DivergenceResult> divergences = index.divergences(divergenceTypeEnum);
+        for (int i = divergences.size() - 1; i >= 0; i--) {
+            if (matches(divergences.get(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private int getStrengthLevel(String strength) {
         return switch (strength) {
             case "strong" -> 3;
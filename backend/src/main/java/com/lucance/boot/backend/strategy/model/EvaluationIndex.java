@@ -0,0 +1,181 @@
+package com.lucance.boot.backend.strategy.model;
+
+import com.lucance.boot.backend.chan.model.DivergenceResult;
+import com.lucance.boot.backend.chan.model.MergedKline;
+import com.lucance.boot.backend.chan.model.TradingPoint;
+import com.lucance.boot.backend.chan.model.Xianduan;
+import com.lucance.boot.backend.chan.model.Zhongshu;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 评估上下文的预计算索引
+ * 每次构建评估上下文时建立一次（O(n)），之后各类条件的查询为 O(1)，与历史长度无关：
+ * <ul>
+ * <li>买卖点按 方向 × 级别 × 置信度 分桶，只保留每个桶中时间最新的一个</li>
+ * <li>背驰按类型分桶</li>
+ * <li>最新/前一个中枢、最新买卖点的句柄</li>
+ * <li>线段趋势摘要：最后一次破坏上涨/下跌结构的线段下标</li>
+ * </ul>
+ */
+public final class EvaluationIndex {
+
+    private static final int LEVELS = 4; // 0 为 1~3 以外的级别
+    private static final int CONFIDENCES = 4; // 0 为缺失，1~3 为 LOW~HIGH
+
+    private final TradingPoint[] latestPoints = new TradingPoint[2 * LEVELS * CONFIDENCES];
+    private final TradingPoint lastTradingPoint;
+    private final List<DivergenceResult> bullishDivergences = new ArrayList<>();
+    private final List<DivergenceResult> bearishDivergences = new ArrayList<>();
+    private final Zhongshu latestZhongshu;
+    private final Zhongshu previousZhongshu;
+    private final int zhongshuCount;
+    private final List<Xianduan> xianduans;
+    private final int lastUpViolation;
+    private final int lastDownViolation;
+
+    private EvaluationIndex(List<TradingPoint> tradingPoints, List<DivergenceResult> divergences,
+            List<Zhongshu> zhongshus, List<Xianduan> xianduans) {
+        List<TradingPoint> points = tradingPoints != null ? tradingPoints : List.of();
+        for (TradingPoint point : points) {
+            if (point.getType() == null) {
+                continue;
+            }
+            int slot = slot(point.getType(), levelSlot(point.getLevel()), confidenceRank(point.getConfidence()));
+            TradingPoint current = latestPoints[slot];
+            if (current == null || point.getTimestamp() >= current.getTimestamp()) {
+                latestPoints[slot] = point;
+            }
+        }
+        this.lastTradingPoint = points.isEmpty() ? null : points.get(points.size() - 1);
+
+        if (divergences != null) {
+            for (DivergenceResult divergence : divergences) {
+                if (divergence.getType() == DivergenceResult.DivergenceType.BULLISH) {
+                    bullishDivergences.add(divergence);
+                } else if (divergence.getType() == DivergenceResult.DivergenceType.BEARISH) {
+                    bearishDivergences.add(divergence);
+                }
+            }
+        }
+
+        this.zhongshuCount = zhongshus != null ? zhongshus.size() : 0;
+        this.latestZhongshu = zhongshuCount > 0 ? zhongshus.get(zhongshuCount - 1) : null;
+        this.previousZhongshu = zhongshuCount > 1 ? zhongshus.get(zhongshuCount - 2) : null;
+
+        this.xianduans = xianduans != null ? xianduans : List.of();
+        int upViolation = -1;
+        int downViolation = -1;
+        for (int i = 1; i < this.xianduans.size(); i++) {
+            Xianduan current = this.xianduans.get(i);
+            Xianduan previous = this.xianduans.get(i - 1);
+            // 向上线段未创新高 / 向下线段未创新低
+            if (current.getDirection() == MergedKline.Direction.UP
+                    && current.getHigh().compareTo(previous.getHigh()) <= 0) {
+                upViolation = i;
+            }
+            if (current.getDirection() == MergedKline.Direction.DOWN
+                    && current.getLow().compareTo(previous.getLow()) >= 0) {
+                downViolation = i;
+            }
+        }
+        this.lastUpViolation = upViolation;
+        this.lastDownViolation = downViolation;
+    }
+
+    public static EvaluationIndex build(List<TradingPoint> tradingPoints, List<DivergenceResult> divergences,
+            List<Zhongshu> zhongshus, List<Xianduan> xianduans) {
+        return new EvaluationIndex(tradingPoints, divergences, zhongshus, xianduans);
+    }
+
+    /**
+     * 时间不早于 since 的最新买卖点
+     *
+     * @param level         买卖点级别，0 表示任意级别
+     * @param minConfidence 最低置信度（1~3），0 表示不限
+     */
+    public TradingPoint latestTradingPoint(TradingPoint.PointType type, int level, int minConfidence, long since) {
+        TradingPoint latest = null;
+        for (int l = 0; l < LEVELS; l++) {
+            if (level != 0 && l != levelSlot(level)) {
+                continue;
+            }
+            for (int c = minConfidence; c < CONFIDENCES; c++) {
+                TradingPoint point = latestPoints[slot(type, l, c)];
+                if (point != null && (level == 0 || point.getLevel() == level)
+                        && (latest == null || point.getTimestamp() > latest.getTimestamp())) {
+                    latest = point;
+                }
+            }
+        }
+        return latest != null && latest.getTimestamp() >= since ? latest : null;
+    }
+
+    /**
+     * 列表中最后一个买卖点
+     */
+    public TradingPoint lastTradingPoint() {
+        return lastTradingPoint;
+    }
+
+    public List<DivergenceResult> divergences(DivergenceResult.DivergenceType type) {
+        return type == DivergenceResult.DivergenceType.BULLISH ? bullishDivergences : bearishDivergences;
+    }
+
+    public Zhongshu latestZhongshu() {
+        return latestZhongshu;
+    }
+
+    public Zhongshu previousZhongshu() {
+        return previousZhongshu;
+    }
+
+    public int zhongshuCount() {
+        return zhongshuCount;
+    }
+
+    public int xianduanCount() {
+        return xianduans.size();
+    }
+
+    /**
+     * 最近 count 个线段（视图）
+     */
+    public List<Xianduan> recentXianduans(int count) {
+        return xianduans.subList(Math.max(0, xianduans.size() - count), xianduans.size());
+    }
+
+    /**
+     * 最近 count 个线段中的向上线段是否都创出新高
+     */
+    public boolean isUptrend(int count) {
+        return lastUpViolation <= xianduans.size() - count;
+    }
+
+    /**
+     * 最近 count 个线段中的向下线段是否都创出新低
+     */
+    public boolean isDowntrend(int count) {
+        return lastDownViolation <= xianduans.size() - count;
+    }
+
+    public static int confidenceRank(TradingPoint.Confidence confidence) {
+        if (confidence == null) {
+            return 0;
+        }
+        return switch (confidence) {
+            case HIGH -> 3;
+            case MEDIUM -> 2;
+            case LOW -> 1;
+        };
+    }
+
+    private static int levelSlot(int level) {
+        return level >= 1 && level <= 3 ? level : 0;
+    }
+
+    private static int slot(TradingPoint.PointType type, int level, int confidence) {
+        return (type.ordinal() * LEVELS + level) * CONFIDENCES + confidence;
+    }
+}
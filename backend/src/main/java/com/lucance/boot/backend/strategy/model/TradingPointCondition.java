@@ -122,6 +122,22 @@ public class TradingPointCondition extends Condition {
         return true;
     }
 
+    /**
+     * 从索引中查找时间不早于 since 的最新匹配买卖点
+     */
+    public TradingPoint findLatest(EvaluationIndex index, long since) {
+        TradingPoint.PointType pointType = switch (direction) {
+            case "buy" -> TradingPoint.PointType.BUY;
+            case "sell" -> TradingPoint.PointType.SELL;
+            default -> null;
+        };
+        if (pointType == null) {
+            return null;
+        }
+        return index.latestTradingPoint(pointType, level != null ? level : 0,
+                minConfidence != null ? getConfidenceLevel(minConfidence) : 0, since);
+    }
+
     private int getConfidenceLevel(String confidence) {
         return switch (confidence) {
             case "high" -> 3;
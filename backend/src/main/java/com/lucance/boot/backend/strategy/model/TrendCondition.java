@@ -106,6 +106,23 @@ public class TrendCondition extends Condition {
         };
     }
 
+    /**
+     * 基于预计算的趋势摘要判断，O(1)
+     */
+    public boolean matches(EvaluationIndex index) {
+        int count = minXianduanCount != null ? minXianduanCount : 2;
+        if (index.xianduanCount() == 0 || index.xianduanCount() < count) {
+            return false;
+        }
+
+        return switch (direction) {
+            case "up" -> index.isUptrend(count);
+            case "down" -> index.isDowntrend(count);
+            case "sideways" -> isSideways(index.recentXianduans(count));
+            default -> false;
+        };
+    }
+
     private boolean isUptrend(List<Xianduan> xianduans) {
         // 上涨趋势: 高点和低点不断抬高
         for (int i = 1; i < xianduans.size(); i++) {
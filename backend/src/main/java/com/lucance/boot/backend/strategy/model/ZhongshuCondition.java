@@ -104,26 +104,42 @@ public class ZhongshuCondition extends Condition {
 
         // 获取最近的中枢
         Zhongshu latestZs = zhongshus.get(zhongshus.size() - 1);
+        Zhongshu prevZs = zhongshus.size() >= 2 ? zhongshus.get(zhongshus.size() - 2) : null;
 
+        return matchesLatest(currentPrice, latestZs, prevZs);
+    }
+
+    /**
+     * 基于索引中的最新/前一个中枢判断，O(1)
+     */
+    public boolean matches(BigDecimal currentPrice, EvaluationIndex index) {
+        if (currentPrice == null || index.zhongshuCount() == 0) {
+            return false;
+        }
+        if (minCount != null && index.zhongshuCount() < minCount) {
+            return false;
+        }
+        return matchesLatest(currentPrice, index.latestZhongshu(), index.previousZhongshu());
+    }
+
+    private boolean matchesLatest(BigDecimal currentPrice, Zhongshu latestZs, Zhongshu prevZs) {
         return switch (position) {
             case "above" -> currentPrice.compareTo(latestZs.getHigh()) > 0;
             case "below" -> currentPrice.compareTo(latestZs.getLow()) < 0;
             case "inside" -> currentPrice.compareTo(latestZs.getLow()) >= 0 &&
                     currentPrice.compareTo(latestZs.getHigh()) <= 0;
-            case "breakout" -> isBreakout(currentPrice, latestZs, zhongshus);
+            case "breakout" -> isBreakout(currentPrice, latestZs, prevZs);
             default -> false;
         };
     }
 
-    private boolean isBreakout(BigDecimal price, Zhongshu latestZs, List<Zhongshu> zhongshus) {
+    private boolean isBreakout(BigDecimal price, Zhongshu latestZs, Zhongshu prevZs) {
         // 突破判定: 价格脱离中枢区间，且是刚刚发生
         boolean isAbove = price.compareTo(latestZs.getHigh()) > 0;
         boolean isBelow = price.compareTo(latestZs.getLow()) < 0;
 
         // 如果有前一个中枢，检查是否是趋势性突破
-        if (zhongshus.size() >= 2) {
-            Zhongshu prevZs = zhongshus.get(zhongshus.size() - 2);
-
+        if (prevZs != null) {
             // 向上突破: 当前中枢高于前一中枢
             if (isAbove && latestZs.getHigh().compareTo(prevZs.getHigh()) > 0) {
                 return true;
@@ -0,0 +1,92 @@
+package com.lucance.boot.backend.util;
+
+import java.util.Map;
+
+/**
+ * K线周期工具
+ * 周期时长换算与时间桶对齐（UTC，周线按周一对齐，与交易所一致）
+ */
+public final class KlineIntervalUtil {
+
+    // 各周期对应的毫秒数
+    private static final Map<String, Long> INTERVAL_MS = Map.ofEntries(
+            Map.entry("1s", 1_000L),
+            Map.entry("1m", 60_000L),
+            Map.entry("3m", 180_000L),
+            Map.entry("5m", 300_000L),
+            Map.entry("15m", 900_000L),
+            Map.entry("30m", 1_800_000L),
+            Map.entry("1h", 3_600_000L),
+            Map.entry("2h", 7_200_000L),
+            Map.entry("4h", 14_400_000L),
+            Map.entry("6h", 21_600_000L),
+            Map.entry("8h", 28_800_000L),
+            Map.entry("12h", 43_200_000L),
+            Map.entry("1d", 86_400_000L),
+            Map.entry("3d", 259_200_000L),
+            Map.entry("1w", 604_800_000L));
+
+    // 1970-01-05 是周一，周线以此为起点对齐
+    private static final long WEEK_OFFSET_MS = 4 * 86_400_000L;
+
+    private KlineIntervalUtil() {
+    }
+
+    /**
+     * 是否为支持的周期
+     */
+    public static boolean isSupported(String interval) {
+        return interval != null && INTERVAL_MS.containsKey(interval);
+    }
+
+    /**
+     * 周期时长（毫秒）
+     */
+    public static long toMillis(String interval) {
+        Long ms = INTERVAL_MS.get(interval);
+        if (ms == null) {
+            throw new IllegalArgumentException("Unsupported interval: " + interval);
+        }
+        return ms;
+    }
+
+    /**
+     * 周期时长（毫秒），除标准周期外还接受自定义周期（如 "10s"、"2m"、"90m"），
+     * 用于由成交流自行合成交易所不提供的周期
+     */
+    public static long parseMillis(String interval) {
+        Long ms = interval != null ? INTERVAL_MS.get(interval) : null;
+        if (ms != null) {
+            return ms;
+        }
+        if (interval == null || !interval.matches("[1-9]\\d*[smhd]")) {
+            throw new IllegalArgumentException("Unsupported interval: " + interval);
+        }
+        long amount = Long.parseLong(interval.substring(0, interval.length() - 1));
+        long unit = switch (interval.charAt(interval.length() - 1)) {
+            case 's' -> 1_000L;
+            case 'm' -> 60_000L;
+            case 'h' -> 3_600_000L;
+            default -> 86_400_000L;
+        };
+        return Math.multiplyExact(amount, unit);
+    }
+
+    /**
+     * 计算时间戳所在时间桶的起始时间
+     */
+    public static long bucketStart(long timestamp, String interval) {
+        long ms = toMillis(interval);
+        long offset = "1w".equals(interval) ? WEEK_OFFSET_MS : 0L;
+        return Math.floorDiv(timestamp - offset, ms) * ms + offset;
+    }
+
+    /**
+     * 判断 target 周期能否由 base 周期聚合得到
+     */
+    public static boolean isMultipleOf(String target, String base) {
+        long targetMs = toMillis(target);
+        long baseMs = toMillis(base);
+        return targetMs > baseMs && targetMs % baseMs == 0;
+    }
+}
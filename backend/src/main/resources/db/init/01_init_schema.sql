@@ -17,10 +17,10 @@ CREATE TABLE IF NOT EXISTS klines (
 );
 
 -- Convert to hypertable (TimescaleDB feature)
-SELECT create_hypertable('klines', 'time', if_not_exists => TRUE);
+-- Chunk interval, compression and retention are applied at startup (kline-storage.*)
+SELECT create_hypertable('klines', 'time', chunk_time_interval => INTERVAL '1 day', if_not_exists => TRUE);
 
--- Create index for common queries
-CREATE INDEX IF NOT EXISTS idx_klines_symbol_interval_time ON klines(symbol, interval, time DESC);
+-- No secondary index: the primary key (symbol, interval, time) also serves time DESC scans
 
 -- ============================================
 -- Chan Theory Results Table
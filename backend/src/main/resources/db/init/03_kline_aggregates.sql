@@ -0,0 +1,115 @@
+-- ============================================
+-- Derived K-Line Intervals (TimescaleDB Continuous Aggregates)
+-- Used when kline-aggregation.enabled=true and kline-aggregation.mode=CONTINUOUS_AGGREGATE:
+-- only 1m klines are ingested, higher intervals are read from klines_<interval>.
+-- ============================================
+
+CREATE MATERIALIZED VIEW IF NOT EXISTS klines_5m
+WITH (timescaledb.continuous, timescaledb.materialized_only = false) AS
+SELECT symbol,
+       time_bucket(INTERVAL '5 minutes', time) AS time,
+       first(open, time) AS open,
+       max(high) AS high,
+       min(low) AS low,
+       last(close, time) AS close,
+       sum(volume) AS volume
+FROM klines
+WHERE interval = '1m'
+GROUP BY symbol, time_bucket(INTERVAL '5 minutes', time)
+WITH NO DATA;
+
+CREATE MATERIALIZED VIEW IF NOT EXISTS klines_15m
+WITH (timescaledb.continuous, timescaledb.materialized_only = false) AS
+SELECT symbol,
+       time_bucket(INTERVAL '15 minutes', time) AS time,
+       first(open, time) AS open,
+       max(high) AS high,
+       min(low) AS low,
+       last(close, time) AS close,
+       sum(volume) AS volume
+FROM klines
+WHERE interval = '1m'
+GROUP BY symbol, time_bucket(INTERVAL '15 minutes', time)
+WITH NO DATA;
+
+CREATE MATERIALIZED VIEW IF NOT EXISTS klines_30m
+WITH (timescaledb.continuous, timescaledb.materialized_only = false) AS
+SELECT symbol,
+       time_bucket(INTERVAL '30 minutes', time) AS time,
+       first(open, time) AS open,
+       max(high) AS high,
+       min(low) AS low,
+       last(close, time) AS close,
+       sum(volume) AS volume
+FROM klines
+WHERE interval = '1m'
+GROUP BY symbol, time_bucket(INTERVAL '30 minutes', time)
+WITH NO DATA;
+
+CREATE MATERIALIZED VIEW IF NOT EXISTS klines_1h
+WITH (timescaledb.continuous, timescaledb.materialized_only = false) AS
+SELECT symbol,
+       time_bucket(INTERVAL '1 hour', time) AS time,
+       first(open, time) AS open,
+       max(high) AS high,
+       min(low) AS low,
+       last(close, time) AS close,
+       sum(volume) AS volume
+FROM klines
+WHERE interval = '1m'
+GROUP BY symbol, time_bucket(INTERVAL '1 hour', time)
+WITH NO DATA;
+
+CREATE MATERIALIZED VIEW IF NOT EXISTS klines_4h
+WITH (timescaledb.continuous, timescaledb.materialized_only = false) AS
+SELECT symbol,
+       time_bucket(INTERVAL '4 hours', time) AS time,
+       first(open, time) AS open,
+       max(high) AS high,
+       min(low) AS low,
+       last(close, time) AS close,
+       sum(volume) AS volume
+FROM klines
+WHERE interval = '1m'
+GROUP BY symbol, time_bucket(INTERVAL '4 hours', time)
+WITH NO DATA;
+
+CREATE MATERIALIZED VIEW IF NOT EXISTS klines_1d
+WITH (timescaledb.continuous, timescaledb.materialized_only = false) AS
+SELECT symbol,
+       time_bucket(INTERVAL '1 day', time) AS time,
+       first(open, time) AS open,
+       max(high) AS high,
+       min(low) AS low,
+       last(close, time) AS close,
+       sum(volume) AS volume
+FROM klines
+WHERE interval = '1m'
+GROUP BY symbol, time_bucket(INTERVAL '1 day', time)
+WITH NO DATA;
+
+-- Refresh policies: the open bucket is served by real-time aggregation,
+-- older history written by backfill is refreshed explicitly by the application.
+SELECT add_continuous_aggregate_policy('klines_5m',
+    start_offset => INTERVAL '1 day', end_offset => INTERVAL '5 minutes',
+    schedule_interval => INTERVAL '1 minute', if_not_exists => TRUE);
+
+SELECT add_continuous_aggregate_policy('klines_15m',
+    start_offset => INTERVAL '1 day', end_offset => INTERVAL '15 minutes',
+    schedule_interval => INTERVAL '5 minutes', if_not_exists => TRUE);
+
+SELECT add_continuous_aggregate_policy('klines_30m',
+    start_offset => INTERVAL '2 days', end_offset => INTERVAL '30 minutes',
+    schedule_interval => INTERVAL '5 minutes', if_not_exists => TRUE);
+
+SELECT add_continuous_aggregate_policy('klines_1h',
+    start_offset => INTERVAL '3 days', end_offset => INTERVAL '1 hour',
+    schedule_interval => INTERVAL '15 minutes', if_not_exists => TRUE);
+
+SELECT add_continuous_aggregate_policy('klines_4h',
+    start_offset => INTERVAL '7 days', end_offset => INTERVAL '4 hours',
+    schedule_interval => INTERVAL '30 minutes', if_not_exists => TRUE);
+
+SELECT add_continuous_aggregate_policy('klines_1d',
+    start_offset => INTERVAL '30 days', end_offset => INTERVAL '1 day',
+    schedule_interval => INTERVAL '1 hour', if_not_exists => TRUE);
@@ -17,6 +17,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 /**
  * 缠论计算引擎集成测试
@@ -70,6 +72,35 @@ class ChanCalculationEngineTest {
         assertNotNull(result.tradingPoints()); // Phase 2: 买卖点必须非空
     }
 
+    @Test
+    @DisplayName("按需计算只执行到所访问的阶段，结果与完整计算一致")
+    void testStageSelectiveComputation() {
+        MACDCalculator macdCalculator = new MACDCalculator();
+        TradingPointIdentifier tradingPointIdentifier = spy(
+                new TradingPointIdentifier(macdCalculator, new DivergenceDetector(macdCalculator)));
+        ChanCalculationEngine lazyEngine = new ChanCalculationEngine(
+                new InclusionHandler(),
+                new FenxingIdentifier(),
+                new BiBuilder(),
+                new XianduanIdentifier(),
+                new ZhongshuIdentifier(),
+                tradingPointIdentifier);
+        List<Kline> klines = createLargeTestKlines();
+
+        ChanCalculationEngine.Computation computation = lazyEngine.compute(klines);
+        List<Zhongshu> zhongshus = computation.zhongshus();
+
+        verifyNoInteractions(tradingPointIdentifier);
+        // 重复访问直接返回缓存结果
+        assertSame(zhongshus, computation.zhongshus());
+
+        ChanCalculationEngine.ChanResultFull full = engine.calculateFull(klines);
+        assertEquals(full.bis().size(), computation.bis().size());
+        assertEquals(full.xianduans().size(), computation.xianduans().size());
+        assertEquals(full.zhongshus().size(), zhongshus.size());
+        assertEquals(full.tradingPoints().size(), computation.tradingPoints().size());
+    }
+
     @Test
     @DisplayName("买卖点应包含完整的必要字段")
     void testTradingPointsCompleteness() {
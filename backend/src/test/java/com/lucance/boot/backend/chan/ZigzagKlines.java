@@ -0,0 +1,64 @@
+package com.lucance.boot.backend.chan;
+
+import com.lucance.boot.backend.entity.Kline;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 测试用锯齿形K线：每个波段先 8 根上涨再 8 根下跌，足以形成笔、线段、中枢与买卖点
+ */
+public final class ZigzagKlines {
+
+    private ZigzagKlines() {
+    }
+
+    /**
+     * 3 个等高波段（每波回落到起点）
+     */
+    public static List<Kline> waves(String symbol, String interval, long startMillis, long stepMillis) {
+        return waves(symbol, interval, startMillis, stepMillis, 3, 14);
+    }
+
+    /**
+     * @param waves    波段数
+     * @param pullback 每个波段下跌段结束后相对上涨段高点的回落幅度，小于 14 时整体逐波抬高
+     */
+    public static List<Kline> waves(String symbol, String interval, long startMillis, long stepMillis, int waves,
+            double pullback) {
+        List<Kline> klines = new ArrayList<>();
+        double base = 100;
+        long time = startMillis;
+        for (int wave = 0; wave < waves; wave++) {
+            for (int i = 0; i < 8; i++) {
+                double open = base + i * 2;
+                klines.add(kline(symbol, interval, time, open, open + 3 + (i % 2), open - 1, open + 2));
+                time += stepMillis;
+            }
+            base += 14;
+            for (int i = 0; i < 8; i++) {
+                double open = base - i * 2;
+                klines.add(kline(symbol, interval, time, open, open + 1, open - 3 - (i % 2), open - 2));
+                time += stepMillis;
+            }
+            base -= pullback;
+        }
+        return klines;
+    }
+
+    public static Kline kline(String symbol, String interval, long timeMillis, double open, double high, double low,
+            double close) {
+        return Kline.builder()
+                .symbol(symbol)
+                .interval(interval)
+                .time(Instant.ofEpochMilli(timeMillis))
+                .open(BigDecimal.valueOf(open))
+                .high(BigDecimal.valueOf(high))
+                .low(BigDecimal.valueOf(low))
+                .close(BigDecimal.valueOf(close))
+                .volume(BigDecimal.ONE)
+                .build();
+    }
+}
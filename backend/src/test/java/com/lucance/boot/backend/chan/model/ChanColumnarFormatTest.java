@@ -0,0 +1,84 @@
+package com.lucance.boot.backend.chan.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 二进制列式编码单元测试
+ */
+@DisplayName("ChanColumnarFormat 单元测试")
+class ChanColumnarFormatTest {
+
+    private static final int HEADER_SIZE = 40;
+
+    @Test
+    @DisplayName("头部包含版本、字典与各列表长度")
+    void testHeader() {
+        ByteBuffer buffer = encode();
+
+        assertEquals('C', buffer.get(0));
+        assertEquals('N', buffer.get(3));
+        assertEquals(ChanColumnarFormat.VERSION, buffer.getInt(4));
+        assertEquals(2, buffer.getInt(8)); // TOP, UP
+        assertEquals(2, buffer.getInt(12)); // klines
+        assertEquals(0, buffer.getInt(16)); // mergedKlines
+        assertEquals(1, buffer.getInt(20)); // fenxings
+        assertEquals(1, buffer.getInt(24)); // bis
+
+        assertEquals(3, buffer.get(HEADER_SIZE));
+        assertEquals('T', buffer.get(HEADER_SIZE + 1));
+    }
+
+    @Test
+    @DisplayName("K线时间差分编码，价格为 8 字节对齐的 float64 列")
+    void testKlineColumns() {
+        ByteBuffer buffer = encode();
+        // 字典: [3]TOP [2]UP = 7 字节，对齐到 48
+        int klines = 48;
+
+        assertEquals(1_700_000_000_000d, buffer.getDouble(klines));
+        assertEquals(60_000d, buffer.getDouble(klines + 8));
+        // open 列
+        assertEquals(100.5d, buffer.getDouble(klines + 16));
+        assertEquals(101.25d, buffer.getDouble(klines + 24));
+        // volume 列
+        assertEquals(3d, buffer.getDouble(klines + 5 * 16 + 8));
+    }
+
+    @Test
+    @DisplayName("每列长度都是 8 的倍数")
+    void testAlignment() {
+        byte[] bytes = ChanColumnarFormat.encode(List.of(), emptyResult());
+
+        assertEquals(HEADER_SIZE, bytes.length);
+        assertEquals(0, encode().limit() % 8);
+    }
+
+    private static ByteBuffer encode() {
+        List<KlineLite> klines = List.of(
+                kline(1_700_000_000_000L, "100.5", "2"),
+                kline(1_700_000_060_000L, "101.25", "3"));
+        ChanResultLite result = new ChanResultLite(
+                List.of(),
+                List.of(new ChanResultLite.FenxingLite(1, "TOP", new BigDecimal("102"))),
+                List.of(new ChanResultLite.BiLite(0, 1, "UP", new BigDecimal("99"), new BigDecimal("102"))),
+                List.of(), List.of(), List.of());
+        return ByteBuffer.wrap(ChanColumnarFormat.encode(klines, result)).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static ChanResultLite emptyResult() {
+        return new ChanResultLite(List.of(), List.of(), List.of(), List.of(), List.of(), List.of());
+    }
+
+    private static KlineLite kline(long time, String price, String volume) {
+        BigDecimal value = new BigDecimal(price);
+        return new KlineLite(time, value, value, value, value, new BigDecimal(volume));
+    }
+}
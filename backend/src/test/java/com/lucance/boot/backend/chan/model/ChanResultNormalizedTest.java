@@ -0,0 +1,83 @@
+package com.lucance.boot.backend.chan.model;
+
+import com.lucance.boot.backend.chan.BiBuilder;
+import com.lucance.boot.backend.chan.ChanCalculationEngine;
+import com.lucance.boot.backend.chan.DivergenceDetector;
+import com.lucance.boot.backend.chan.FenxingIdentifier;
+import com.lucance.boot.backend.chan.InclusionHandler;
+import com.lucance.boot.backend.chan.MACDCalculator;
+import com.lucance.boot.backend.chan.TradingPointIdentifier;
+import com.lucance.boot.backend.chan.XianduanIdentifier;
+import com.lucance.boot.backend.chan.ZigzagKlines;
+import com.lucance.boot.backend.chan.ZhongshuIdentifier;
+import com.lucance.boot.backend.entity.Kline;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 归一化缠论结果单元测试
+ */
+@DisplayName("ChanResultNormalized 单元测试")
+class ChanResultNormalizedTest {
+
+    private static final long HOUR = 3_600_000L;
+    private static final long HOUR_START = 1_700_000_000_000L;
+
+    private List<Kline> klines;
+    private ChanCalculationEngine.ChanResultFull full;
+    private ChanResultNormalized normalized;
+
+    @BeforeEach
+    void setUp() {
+        MACDCalculator macdCalculator = new MACDCalculator();
+        ChanCalculationEngine engine = new ChanCalculationEngine(
+                new InclusionHandler(),
+                new FenxingIdentifier(),
+                new BiBuilder(),
+                new XianduanIdentifier(),
+                new ZhongshuIdentifier(),
+                new TradingPointIdentifier(macdCalculator, new DivergenceDetector(macdCalculator)));
+        klines = ZigzagKlines.waves("BTCUSDT", "1h", HOUR_START, HOUR, 5, 10);
+        full = engine.calculateFull(klines);
+        normalized = ChanResultNormalized.from(full);
+    }
+
+    @Test
+    @DisplayName("各结构数量与完整结果一致，合并K线覆盖全部原始K线")
+    void testCountsAndKlineRanges() {
+        assertEquals(full.mergedKlines().size(), normalized.mergedKlines().size());
+        assertEquals(full.fenxings().size(), normalized.fenxings().size());
+        assertEquals(full.bis().size(), normalized.bis().size());
+        assertEquals(full.xianduans().size(), normalized.xianduans().size());
+        assertEquals(full.zhongshus().size(), normalized.zhongshus().size());
+        assertEquals(full.tradingPoints().size(), normalized.tradingPoints().size());
+
+        ChanResultNormalized.MergedBar last = normalized.mergedKlines().get(normalized.mergedKlines().size() - 1);
+        assertEquals(klines.size(), last.firstKline() + last.klineCount());
+    }
+
+    @Test
+    @DisplayName("下标引用指向与对象图相同的结构")
+    void testReferencesResolve() {
+        assertFalse(full.bis().isEmpty());
+        for (int i = 0; i < full.bis().size(); i++) {
+            Bi bi = full.bis().get(i);
+            ChanResultNormalized.BiRef ref = normalized.bis().get(i);
+            assertSame(bi.getStartFenxing(), full.fenxings().get(ref.startFenxing()));
+            assertSame(bi.getEndFenxing(), full.fenxings().get(ref.endFenxing()));
+            assertEquals(bi.getEndFenxing().getCenterIndex() - bi.getStartFenxing().getCenterIndex() + 1,
+                    normalized.biBars(i).size());
+        }
+        for (int i = 0; i < full.xianduans().size(); i++) {
+            assertEquals(full.xianduans().get(i).getBis().size(), normalized.xianduanBis(i).size());
+        }
+        for (int i = 0; i < full.fenxings().size(); i++) {
+            assertEquals(3, normalized.fenxingBars(i).size());
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.lucance.boot.backend.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * K线查询范围限制单元测试
+ */
+@DisplayName("KlineQueryProperties 单元测试")
+class KlineQueryPropertiesTest {
+
+    private static final long MINUTE = 60_000L;
+
+    @Test
+    @DisplayName("估算行数不超过上限时放行，超过时拒绝并提示分页/导出")
+    void testCheckRange() {
+        KlineQueryProperties properties = new KlineQueryProperties();
+        properties.setMaxRangeRows(100);
+
+        assertDoesNotThrow(() -> properties.checkRange("1m", 0, 100 * MINUTE));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> properties.checkRange("1m", 0, 101 * MINUTE));
+        assertTrue(e.getMessage().contains("/api/klines/page"));
+
+        // 同一范围在更大周期上行数更少
+        assertDoesNotThrow(() -> properties.checkRange("1h", 0, 101 * MINUTE));
+    }
+
+    @Test
+    @DisplayName("不支持估算的周期不做限制")
+    void testUnsupportedIntervalNotChecked() {
+        KlineQueryProperties properties = new KlineQueryProperties();
+        properties.setMaxRangeRows(1);
+
+        assertDoesNotThrow(() -> properties.checkRange("unknown", 0, Long.MAX_VALUE));
+    }
+}
@@ -0,0 +1,211 @@
+package com.lucance.boot.backend.controller;
+
+import com.lucance.boot.backend.config.ExchangeProperties;
+import com.lucance.boot.backend.config.KlineQueryProperties;
+import com.lucance.boot.backend.entity.Kline;
+import com.lucance.boot.backend.exchange.ExchangeAdapter;
+import com.lucance.boot.backend.exchange.model.Ticker;
+import com.lucance.boot.backend.repository.KlineRepository;
+import com.lucance.boot.backend.service.ExchangeFanOutService;
+import com.lucance.boot.backend.service.ExchangeRouterService;
+import com.lucance.boot.backend.service.KlineCacheService;
+import com.lucance.boot.backend.service.RequestCoalescingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * K线控制器分页、导出与多交易所查询单元测试
+ */
+@DisplayName("KlineController 单元测试")
+class KlineControllerTest {
+
+    private static final long MINUTE = 60_000L;
+
+    private KlineRepository klineRepository;
+    private KlineQueryProperties queryProperties;
+    private ExchangeFanOutService fanOutService;
+    private ExchangeRouterService routerService;
+    private ExchangeAdapter okxAdapter;
+    private KlineController controller;
+
+    @BeforeEach
+    void setUp() {
+        klineRepository = mock(KlineRepository.class);
+        queryProperties = new KlineQueryProperties();
+        fanOutService = mock(ExchangeFanOutService.class);
+        routerService = mock(ExchangeRouterService.class);
+        okxAdapter = mock(ExchangeAdapter.class);
+        when(routerService.getAdapter("okx")).thenReturn(okxAdapter);
+        controller = new KlineController(klineRepository, routerService, mock(KlineCacheService.class), fanOutService,
+                queryProperties, new RequestCoalescingService(), new ExchangeProperties());
+    }
+
+    @Test
+    @DisplayName("分页多取一根作为下一页游标，最后一页游标为空")
+    void testPageCursorContinuation() {
+        List<Kline> stored = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            stored.add(kline(i * MINUTE, "100"));
+        }
+        when(klineRepository.findRangePageReadOnly(eq("BTCUSDT"), eq("1m"), any(), any(), anyInt()))
+                .thenAnswer(invocation -> {
+                    Instant from = invocation.getArgument(2);
+                    int limit = invocation.getArgument(4);
+                    return stored.stream()
+                            .filter(k -> !k.getTime().isBefore(from))
+                            .limit(limit)
+                            .toList();
+                });
+
+        KlineController.KlinePage first = controller.getKlinePage("BTCUSDT", "1m", 0L, 10 * MINUTE, null, 2).getBody();
+        assertEquals(List.of(0L, MINUTE), times(first));
+        assertEquals(2 * MINUTE, first.nextCursor());
+
+        KlineController.KlinePage second = controller.getKlinePage("BTCUSDT", "1m", 0L, 10 * MINUTE,
+                first.nextCursor(), 2).getBody();
+        assertEquals(List.of(2 * MINUTE, 3 * MINUTE), times(second));
+        assertEquals(4 * MINUTE, second.nextCursor());
+
+        KlineController.KlinePage last = controller.getKlinePage("BTCUSDT", "1m", 0L, 10 * MINUTE,
+                second.nextCursor(), 2).getBody();
+        assertEquals(List.of(4 * MINUTE), times(last));
+        assertNull(last.nextCursor());
+
+        verify(klineRepository).findRangePageReadOnly("BTCUSDT", "1m", Instant.ofEpochMilli(2 * MINUTE),
+                Instant.ofEpochMilli(10 * MINUTE), 3);
+    }
+
+    @Test
+    @DisplayName("每页行数超出范围时拒绝")
+    void testPageSizeRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> controller.getKlinePage("BTCUSDT", "1m", 0L, MINUTE, null, 0));
+        assertThrows(IllegalArgumentException.class, () -> controller.getKlinePage("BTCUSDT", "1m", 0L, MINUTE,
+                null, queryProperties.getMaxPageSize() + 1));
+    }
+
+    @Test
+    @DisplayName("导出每行一个 JSON 对象，以换行分隔")
+    @SuppressWarnings("unchecked")
+    void testExportNdjsonLines() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<Kline> consumer = invocation.getArgument(4);
+            consumer.accept(kline(0, "100.5"));
+            consumer.accept(kline(MINUTE, "101"));
+            return null;
+        }).when(klineRepository).streamRangeReadOnly(eq("BTCUSDT"), eq("1m"), any(), any(), any(Consumer.class));
+
+        StreamingResponseBody body = controller.exportKlines("BTCUSDT", "1m", 0L, 2 * MINUTE).getBody();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+
+        assertEquals("""
+                {"symbol":"BTCUSDT","interval":"1m","time":0,"open":100.5,"high":100.5,"low":100.5,"close":100.5,"volume":1}
+                {"symbol":"BTCUSDT","interval":"1m","time":60000,"open":101,"high":101,"low":101,"close":101,"volume":1}
+                """, out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("fanout 默认 first 模式只返回最先成功的交易所，all 模式返回全部")
+    void testFanOutModes() {
+        List<Kline> okx = List.of(kline(0, "100"));
+        List<Kline> bybit = List.of(kline(0, "101"));
+        List<String> exchanges = List.of("okx", "bybit");
+        when(fanOutService.getKlinesFirst(exchanges, "BTC/USDT", "1m", null, null, 10))
+                .thenReturn(new ExchangeFanOutService.FanOutResult<>("okx", okx, 12));
+        when(fanOutService.getKlinesAll(exchanges, "BTC/USDT", "1m", null, null, 10))
+                .thenReturn(Map.of("okx", okx, "bybit", bybit));
+
+        assertEquals(Map.of("okx", okx),
+                controller.getKlinesFanOut("BTC/USDT", "1m", null, null, 10, exchanges, "first").getBody());
+        assertEquals(Map.of("okx", okx, "bybit", bybit),
+                controller.getKlinesFanOut("BTC/USDT", "1m", null, null, 10, exchanges, "ALL").getBody());
+    }
+
+    @Test
+    @DisplayName("tickers 返回各交易所行情")
+    void testTickers() {
+        Map<String, Ticker> tickers = Map.of("okx", Ticker.builder().symbol("BTC/USDT").build());
+        when(fanOutService.getTickers(null, "BTC/USDT")).thenReturn(tickers);
+
+        assertEquals(tickers, controller.getTickers("BTC/USDT", null).getBody());
+    }
+
+    @Test
+    @DisplayName("未入库交易所与 auto 的时间范围查询不读数据库，直接从交易所获取")
+    @SuppressWarnings("unchecked")
+    void testRangeQueryForNonPersistedExchangeSkipsDatabase() {
+        List<Kline> okx = List.of(kline(0, "100"));
+        when(okxAdapter.getKlines("BTCUSDT", "1m", 0L, MINUTE, 10)).thenReturn(okx);
+        when(routerService.routeRead(isNull(), any(Function.class)))
+                .thenAnswer(invocation -> ((Function<ExchangeAdapter, ?>) invocation.getArgument(1))
+                        .apply(okxAdapter));
+
+        assertEquals(okx, controller.getKlines("BTCUSDT", "1m", 0L, MINUTE, 10, "okx").getBody());
+        assertEquals(okx, controller.getKlines("BTCUSDT", "1m", 0L, MINUTE, 10, "auto").getBody());
+        verifyNoInteractions(klineRepository);
+    }
+
+    @Test
+    @DisplayName("未入库交易所的最新K线缓存未命中时不回退到数据库")
+    void testLatestForNonPersistedExchangeSkipsDatabase() {
+        List<Kline> okx = List.of(kline(0, "100"));
+        when(okxAdapter.getKlines("BTCUSDT", "1m", null, null, 10)).thenReturn(okx);
+
+        assertEquals(okx, controller.getLatestKlines("BTCUSDT", "1m", 10, "okx").getBody());
+        verifyNoInteractions(klineRepository);
+    }
+
+    @Test
+    @DisplayName("入库交易所的时间范围查询命中数据库")
+    void testRangeQueryForPersistedExchangeUsesDatabase() {
+        List<Kline> stored = List.of(kline(0, "100"));
+        when(klineRepository.findBySymbolAndIntervalAndTimeRange("BTCUSDT", "1m", Instant.EPOCH,
+                Instant.ofEpochMilli(MINUTE))).thenReturn(stored);
+
+        assertEquals(stored, controller.getKlines("BTCUSDT", "1m", 0L, MINUTE, 10, "binance").getBody());
+        verifyNoInteractions(routerService);
+    }
+
+    @Test
+    @DisplayName("拒绝保存未入库交易所的K线")
+    void testFetchRejectsNonPersistedExchange() {
+        assertThrows(IllegalArgumentException.class,
+                () -> controller.fetchAndSaveKlines("BTCUSDT", "1m", null, null, 10, "okx"));
+        verifyNoInteractions(klineRepository);
+    }
+
+    private static List<Long> times(KlineController.KlinePage page) {
+        return page.items().stream().map(Kline::getTimestamp).toList();
+    }
+
+    private static Kline kline(long time, String price) {
+        BigDecimal value = new BigDecimal(price);
+        return Kline.builder()
+                .symbol("BTCUSDT")
+                .interval("1m")
+                .time(Instant.ofEpochMilli(time))
+                .open(value)
+                .high(value)
+                .low(value)
+                .close(value)
+                .volume(BigDecimal.ONE)
+                .build();
+    }
+}
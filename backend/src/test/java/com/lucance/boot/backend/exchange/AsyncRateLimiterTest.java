@@ -0,0 +1,75 @@
+package com.lucance.boot.backend.exchange;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 非阻塞令牌桶限流器单元测试
+ */
+@DisplayName("AsyncRateLimiter 单元测试")
+class AsyncRateLimiterTest {
+
+    @Test
+    @DisplayName("空闲后允许最多 1 秒的突发许可")
+    void testBurst() {
+        AtomicLong clock = new AtomicLong();
+        AsyncRateLimiter limiter = new AsyncRateLimiter(10, clock::get);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1_100));
+
+        // 积累的 10 个许可加上当前许可
+        for (int i = 0; i < 11; i++) {
+            assertEquals(0, limiter.reserve(), "permit " + i);
+        }
+        assertTrue(limiter.reserve() > 0);
+    }
+
+    @Test
+    @DisplayName("突发用尽后按速率递增等待时间")
+    void testSpacing() {
+        AtomicLong clock = new AtomicLong();
+        AsyncRateLimiter limiter = new AsyncRateLimiter(10, clock::get);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1_100));
+        for (int i = 0; i < 11; i++) {
+            limiter.reserve();
+        }
+
+        long first = limiter.reserve();
+        long second = limiter.reserve();
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), second - first);
+    }
+
+    @Test
+    @DisplayName("异步获取应在定时器上延迟完成而不阻塞调用方")
+    void testAsyncAcquire() throws Exception {
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+        try {
+            AsyncRateLimiter limiter = new AsyncRateLimiter(5);
+            while (limiter.reserve() == 0) {
+                // 耗尽突发许可
+            }
+
+            long start = System.nanoTime();
+            CompletableFuture<Void> permit = limiter.acquire(timer);
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 50);
+
+            permit.get(2, TimeUnit.SECONDS);
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 150);
+        } finally {
+            timer.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("非法速率应抛出异常")
+    void testInvalidRate() {
+        assertThrows(IllegalArgumentException.class, () -> new AsyncRateLimiter(0));
+    }
+}
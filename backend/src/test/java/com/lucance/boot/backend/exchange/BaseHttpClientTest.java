@@ -0,0 +1,130 @@
+package com.lucance.boot.backend.exchange;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 基础 HTTP 客户端请求构造与重试单元测试
+ */
+@DisplayName("BaseHttpClient 单元测试")
+class BaseHttpClientTest {
+
+    @Test
+    @DisplayName("签名 GET 重试时重新构造请求并重新签名，不修改调用方参数")
+    void testSignedGetRetryResigns() throws Exception {
+        List<Request> requests = new CopyOnWriteArrayList<>();
+        TestClient client = new TestClient(requests, 500, 200);
+        Map<String, String> params = new HashMap<>();
+        params.put("symbol", "BTCUSDT");
+
+        assertEquals("ok", client.getSigned("/api/v3/order", params).get(5, TimeUnit.SECONDS));
+
+        assertEquals(2, requests.size());
+        assertEquals(Map.of("symbol", "BTCUSDT"), params);
+        for (Request request : requests) {
+            String timestamp = request.url().queryParameter("timestamp");
+            assertNotNull(timestamp);
+            assertEquals(1, request.url().queryParameterValues("signature").size());
+            assertEquals("sig(symbol=BTCUSDT&timestamp=" + timestamp + ")",
+                    request.url().queryParameter("signature"));
+        }
+        assertNotSame(requests.get(0), requests.get(1));
+    }
+
+    @Test
+    @DisplayName("下单等非 GET 请求遇到 5xx 不重试")
+    void testPostNotRetried() {
+        List<Request> requests = new CopyOnWriteArrayList<>();
+        TestClient client = new TestClient(requests, 500, 200);
+        Map<String, String> params = new HashMap<>();
+        params.put("symbol", "BTCUSDT");
+
+        assertThrows(ExchangeApiException.class, () -> client.postSigned("/api/v3/order", params));
+        assertEquals(1, requests.size());
+        assertEquals("POST", requests.get(0).method());
+        assertEquals(Map.of("symbol", "BTCUSDT"), params);
+    }
+
+    @Test
+    @DisplayName("许可之后构造请求失败时结果异常完成而不是一直挂起")
+    void testFailureAfterPermitCompletesResult() {
+        TestClient client = new TestClient(new CopyOnWriteArrayList<>(), 200);
+        AtomicInteger created = new AtomicInteger();
+        CompletableFuture<String> future = client.execute(() -> {
+            if (created.incrementAndGet() > 1) {
+                throw new IllegalStateException("boom");
+            }
+            return new Request.Builder().url("https://api.test/ping").build();
+        });
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ExchangeApiException.class, e.getCause());
+        assertInstanceOf(IllegalStateException.class, e.getCause().getCause());
+    }
+
+    /**
+     * 用拦截器按顺序返回预设状态码的测试客户端
+     */
+    private static class TestClient extends BaseHttpClient {
+
+        TestClient(List<Request> requests, int... codes) {
+            super("https://api.test", "key", "secret", new OkHttpClient.Builder()
+                    .addInterceptor(respond(requests, codes)), 1000, 0);
+        }
+
+        private static Interceptor respond(List<Request> requests, int... codes) {
+            AtomicInteger index = new AtomicInteger();
+            return chain -> {
+                requests.add(chain.request());
+                int code = codes[Math.min(index.getAndIncrement(), codes.length - 1)];
+                return new Response.Builder()
+                        .request(chain.request())
+                        .protocol(Protocol.HTTP_1_1)
+                        .code(code)
+                        .message("test")
+                        .body(ResponseBody.create("\"ok\"", MediaType.get("application/json")))
+                        .build();
+            };
+        }
+
+        CompletableFuture<String> getSigned(String endpoint, Map<String, String> params) {
+            return getAsync(endpoint, params, String.class, true);
+        }
+
+        String postSigned(String endpoint, Map<String, String> params) {
+            return post(endpoint, params, String.class);
+        }
+
+        CompletableFuture<String> execute(RequestFactory factory) {
+            return executeAsync("/ping", factory, response -> response.body().string());
+        }
+
+        @Override
+        protected long retryDelayMs(int attempt) {
+            return 1;
+        }
+
+        @Override
+        protected String sign(String payload) {
+            return "sig(" + payload + ")";
+        }
+    }
+}
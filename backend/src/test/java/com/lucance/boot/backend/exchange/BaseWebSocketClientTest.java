@@ -0,0 +1,34 @@
+package com.lucance.boot.backend.exchange;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * WebSocket 重连退避单元测试
+ */
+@DisplayName("BaseWebSocketClient 单元测试")
+class BaseWebSocketClientTest {
+
+    @Test
+    @DisplayName("重连等待应指数增长并带抖动")
+    void testReconnectBackoff() {
+        for (int i = 0; i < 100; i++) {
+            long first = BaseWebSocketClient.reconnectDelayMs(0);
+            assertTrue(first >= 500 && first <= 1_000, "first=" + first);
+
+            long third = BaseWebSocketClient.reconnectDelayMs(2);
+            assertTrue(third >= 2_000 && third <= 4_000, "third=" + third);
+        }
+    }
+
+    @Test
+    @DisplayName("重连等待不应超过上限")
+    void testReconnectBackoffCap() {
+        for (int attempt : new int[] { 6, 10, 30, Integer.MAX_VALUE }) {
+            long delay = BaseWebSocketClient.reconnectDelayMs(attempt);
+            assertTrue(delay >= 30_000 && delay <= 60_000, "delay=" + delay);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.lucance.boot.backend.exchange;
+
+import com.lucance.boot.backend.config.KlineDispatchProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 实时K线分发器单元测试
+ */
+@DisplayName("KlineDispatcher 单元测试")
+class KlineDispatcherTest {
+
+    private KlineDispatchProperties properties;
+    private KlineDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        properties = new KlineDispatchProperties();
+        properties.setQueueCapacity(3);
+        dispatcher = new KlineDispatcher(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    @DisplayName("同一流应按提交顺序执行")
+    void testPerStreamOrdering() throws Exception {
+        List<Integer> received = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        properties.setQueueCapacity(1000);
+
+        for (int i = 0; i < 500; i++) {
+            int value = i;
+            dispatcher.submit("s1", true, () -> received.add(value));
+        }
+        dispatcher.submit("s1", true, done::countDown);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 500; i++) {
+            assertEquals(i, received.get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("队列满时应丢弃最早的未闭合K线，保留闭合K线")
+    void testDropOldestPartial() throws Exception {
+        List<String> received = new CopyOnWriteArrayList<>();
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+
+        // 第一个任务阻塞消费者，后续任务在队列中堆积
+        dispatcher.submit("s1", false, () -> {
+            started.countDown();
+            awaitQuietly(blocker);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        dispatcher.submit("s1", false, () -> received.add("p1"));
+        dispatcher.submit("s1", true, () -> received.add("c1"));
+        dispatcher.submit("s1", false, () -> received.add("p2"));
+        dispatcher.submit("s1", true, () -> received.add("c2"));
+        dispatcher.submit("s1", true, () -> received.add("c3"));
+        dispatcher.submit("s1", true, done::countDown);
+
+        blocker.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        assertEquals(List.of("c1", "c2", "c3"), received);
+        KlineDispatcher.StreamStats stats = dispatcher.getStats().get(0);
+        assertEquals(2, stats.dropped());
+        assertEquals(0, stats.depth());
+    }
+
+    @Test
+    @DisplayName("DROP_NEWEST_PARTIAL 策略应丢弃新到达的未闭合K线")
+    void testDropNewestPartial() throws Exception {
+        properties.setOverflowPolicy(KlineDispatchProperties.OverflowPolicy.DROP_NEWEST_PARTIAL);
+        List<String> received = new CopyOnWriteArrayList<>();
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+
+        dispatcher.submit("s1", false, () -> {
+            started.countDown();
+            awaitQuietly(blocker);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        dispatcher.submit("s1", false, () -> received.add("p1"));
+        dispatcher.submit("s1", false, () -> received.add("p2"));
+        dispatcher.submit("s1", true, done::countDown);
+        dispatcher.submit("s1", false, () -> received.add("p3"));
+
+        blocker.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        assertEquals(List.of("p1", "p2"), received);
+        assertEquals(1, dispatcher.getStats().get(0).dropped());
+    }
+
+    @Test
+    @DisplayName("消费中移除后立即重新订阅应复用原队列，不产生第二个消费者")
+    void testRemoveWhileDrainingKeepsSingleConsumer() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        Runnable tracked = () -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            awaitQuietly(blocker);
+            running.decrementAndGet();
+        };
+
+        dispatcher.submit("s1", true, tracked);
+        dispatcher.remove("s1");
+        dispatcher.submit("s1", true, tracked);
+        dispatcher.submit("s1", true, done::countDown);
+        assertEquals(1, dispatcher.getStats().size());
+
+        blocker.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(1, maxRunning.get());
+    }
+
+    @Test
+    @DisplayName("移除后队列在已排队任务执行完时释放")
+    void testRemovedQueueReleasedAfterDrain() throws Exception {
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch ran = new CountDownLatch(1);
+        dispatcher.submit("s1", true, () -> {
+            awaitQuietly(blocker);
+            ran.countDown();
+        });
+
+        dispatcher.remove("s1");
+        assertEquals(1, dispatcher.getStats().size());
+
+        blocker.countDown();
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!dispatcher.getStats().isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(dispatcher.getStats().isEmpty());
+
+        dispatcher.remove("s2");
+        assertTrue(dispatcher.getStats().isEmpty());
+    }
+
+    @Test
+    @DisplayName("关闭时应在调用线程上直接执行")
+    void testDisabledRunsInline() {
+        properties.setEnabled(false);
+        Thread caller = Thread.currentThread();
+        Thread[] runner = new Thread[1];
+
+        dispatcher.submit("s1", false, () -> runner[0] = Thread.currentThread());
+
+        assertSame(caller, runner[0]);
+        assertTrue(dispatcher.getStats().isEmpty());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.lucance.boot.backend.exchange;
+
+import com.lucance.boot.backend.config.ExchangeProperties;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * OkHttp 客户端工厂测试
+ */
+@DisplayName("OkHttpClientFactory 单元测试")
+class OkHttpClientFactoryTest {
+
+    private ExchangeProperties properties;
+    private OkHttpClientFactory factory;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ExchangeProperties();
+        factory = new OkHttpClientFactory(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        factory.shutdown();
+    }
+
+    @Test
+    @DisplayName("各交易所应共享连接池，但使用独立的 Dispatcher")
+    void testSharedPool() {
+        ExchangeProperties.HttpClientConfig okx = new ExchangeProperties.HttpClientConfig();
+        okx.setMaxRequestsPerHost(8);
+
+        OkHttpClient binance = factory.httpClientBuilder("binance", properties.getBinance().getHttp(), null).build();
+        OkHttpClient okxClient = factory.httpClientBuilder("okx", okx, null).build();
+        OkHttpClient ws = factory.webSocketClient(ProxyConfig.disabled());
+
+        assertSame(binance.connectionPool(), okxClient.connectionPool());
+        assertSame(binance.connectionPool(), ws.connectionPool());
+        assertNotSame(binance.dispatcher(), okxClient.dispatcher());
+        assertEquals(64, binance.dispatcher().getMaxRequestsPerHost());
+        assertEquals(8, okxClient.dispatcher().getMaxRequestsPerHost());
+    }
+
+    @Test
+    @DisplayName("关闭 HTTP/2 时应只协商 HTTP/1.1")
+    void testHttp2Toggle() {
+        ExchangeProperties.HttpClientConfig config = new ExchangeProperties.HttpClientConfig();
+        config.setHttp2(false);
+
+        OkHttpClient client = factory.httpClientBuilder("bybit", config, null).build();
+        OkHttpClient defaults = factory.httpClientBuilder("binance", new ExchangeProperties.HttpClientConfig(), null)
+                .build();
+
+        assertEquals(List.of(Protocol.HTTP_1_1), client.protocols());
+        assertTrue(defaults.protocols().contains(Protocol.HTTP_2));
+    }
+
+    @Test
+    @DisplayName("统计应包含每个已创建客户端的交易所")
+    void testStats() {
+        factory.httpClientBuilder("Binance", properties.getBinance().getHttp(), null);
+        factory.httpClientBuilder("okx", properties.getOkx().getHttp(), null);
+
+        OkHttpClientFactory.PoolStats stats = factory.getStats();
+
+        assertEquals(List.of("binance", "okx"), List.copyOf(stats.dispatchers().keySet()));
+        assertEquals(0, stats.connectionCount());
+        assertEquals(20, stats.maxIdleConnections());
+        assertEquals(256, stats.dispatchers().get("binance").maxRequests());
+    }
+}
@@ -0,0 +1,109 @@
+package com.lucance.boot.backend.exchange;
+
+import com.lucance.boot.backend.entity.Kline;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 成交合成K线测试
+ */
+@DisplayName("TradeBarAggregator 单元测试")
+class TradeBarAggregatorTest {
+
+    private final List<Kline> partial = new ArrayList<>();
+    private final List<Kline> closed = new ArrayList<>();
+
+    private TradeBarAggregator aggregator(long publishIntervalMs) {
+        return new TradeBarAggregator("BTC/USDT", "1s", 1_000, publishIntervalMs,
+                (kline, isClosed) -> (isClosed ? closed : partial).add(kline));
+    }
+
+    private static long fixed(String value) {
+        return TradeBarAggregator.toFixed(value.toCharArray(), 0, value.length());
+    }
+
+    @Test
+    @DisplayName("定点数解析应支持整数、小数与超长小数截断")
+    void testToFixed() {
+        assertEquals(3_700_012_000_000L, fixed("37000.12"));
+        assertEquals(100_000_000L, fixed("1"));
+        assertEquals(1L, fixed("0.000000019"));
+        assertEquals(-50_000_000L, fixed("-0.5"));
+        assertThrows(IllegalArgumentException.class, () -> fixed("1.2.3"));
+        assertThrows(IllegalArgumentException.class, () -> fixed("abc"));
+    }
+
+    @Test
+    @DisplayName("跨入下一根K线时应闭合上一根并计算 OHLCV")
+    void testCloseOnNextBar() {
+        TradeBarAggregator aggregator = aggregator(10_000);
+
+        aggregator.onTrade(1_000, fixed("100"), fixed("1"));
+        aggregator.onTrade(1_200, fixed("105"), fixed("0.5"));
+        aggregator.onTrade(1_500, fixed("98"), fixed("2"));
+        aggregator.onTrade(1_900, fixed("101"), fixed("0.25"));
+        aggregator.onTrade(2_100, fixed("102"), fixed("1"));
+
+        assertEquals(1, closed.size());
+        Kline bar = closed.get(0);
+        assertEquals(Instant.ofEpochMilli(1_000), bar.getTime());
+        assertEquals(0, new BigDecimal("100").compareTo(bar.getOpen()));
+        assertEquals(0, new BigDecimal("105").compareTo(bar.getHigh()));
+        assertEquals(0, new BigDecimal("98").compareTo(bar.getLow()));
+        assertEquals(0, new BigDecimal("101").compareTo(bar.getClose()));
+        assertEquals(0, new BigDecimal("3.75").compareTo(bar.getVolume()));
+        assertEquals(1, aggregator.getTradeCount());
+    }
+
+    @Test
+    @DisplayName("未闭合K线应按推送间隔节流")
+    void testPartialThrottle() {
+        TradeBarAggregator aggregator = aggregator(250);
+
+        for (int i = 0; i < 10; i++) {
+            aggregator.onTrade(1_000 + i * 50L, fixed("100"), fixed("1"));
+        }
+
+        // 1000、1250 各推送一次，其余被节流
+        assertEquals(2, partial.size());
+        assertEquals(0, new BigDecimal("6").compareTo(partial.get(1).getVolume()));
+    }
+
+    @Test
+    @DisplayName("到期后由定时检查闭合，迟到成交应忽略")
+    void testCloseExpired() {
+        TradeBarAggregator aggregator = aggregator(10_000);
+        aggregator.onTrade(1_100, fixed("100"), fixed("1"));
+
+        aggregator.closeExpired(1_999);
+        assertTrue(closed.isEmpty());
+
+        aggregator.closeExpired(2_000);
+        assertEquals(1, closed.size());
+
+        aggregator.onTrade(1_950, fixed("90"), fixed("1"));
+        aggregator.closeExpired(3_000);
+        assertEquals(1, closed.size());
+    }
+
+    @Test
+    @DisplayName("关闭未闭合推送后只推送闭合K线")
+    void testClosedOnly() {
+        TradeBarAggregator aggregator = aggregator(0);
+        aggregator.setPublishPartial(false);
+
+        aggregator.onTrade(1_000, fixed("100"), fixed("1"));
+        aggregator.onTrade(1_500, fixed("101"), fixed("1"));
+        aggregator.closeExpired(2_500);
+
+        assertTrue(partial.isEmpty());
+        assertEquals(1, closed.size());
+    }
+}
@@ -0,0 +1,85 @@
+package com.lucance.boot.backend.exchange;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 权重限流器单元测试
+ */
+@DisplayName("WeightedRateLimiter 单元测试")
+class WeightedRateLimiterTest {
+
+    // 取分钟窗口起点，避免跨窗口导致计数被重置
+    private static final long WINDOW_START = 1_700_000_040_000L;
+
+    @Test
+    @DisplayName("额度内应立即放行并累计权重")
+    void testWithinBudget() {
+        WeightedRateLimiter limiter = new WeightedRateLimiter(1000, 100, 0.8);
+
+        for (int i = 0; i < 16; i++) {
+            WeightedRateLimiter.Reservation reservation = limiter.reserve(5, WINDOW_START);
+            assertTrue(reservation.granted());
+            assertEquals(0, reservation.waitMs());
+        }
+    }
+
+    @Test
+    @DisplayName("超过减速阈值后应均匀分布剩余额度")
+    void testSlowdown() {
+        WeightedRateLimiter limiter = new WeightedRateLimiter(1000, 100, 0.8);
+        limiter.syncUsedWeight(80, WINDOW_START);
+
+        WeightedRateLimiter.Reservation first = limiter.reserve(5, WINDOW_START);
+        WeightedRateLimiter.Reservation second = limiter.reserve(5, WINDOW_START);
+
+        assertTrue(first.granted());
+        assertEquals(0, first.waitMs());
+        assertTrue(second.granted());
+        assertTrue(second.waitMs() > 0);
+    }
+
+    @Test
+    @DisplayName("额度耗尽时应等待到下一窗口")
+    void testBudgetExhausted() {
+        WeightedRateLimiter limiter = new WeightedRateLimiter(1000, 100, 0.8);
+        limiter.syncUsedWeight(98, WINDOW_START + 30_000);
+
+        WeightedRateLimiter.Reservation reservation = limiter.reserve(5, WINDOW_START + 30_000);
+
+        assertFalse(reservation.granted());
+        assertEquals(30_001, reservation.waitMs());
+
+        // 新窗口计数重置
+        assertTrue(limiter.reserve(5, WINDOW_START + 60_000).granted());
+    }
+
+    @Test
+    @DisplayName("响应头同步应取本地与服务端的较大值")
+    void testSyncUsedWeight() {
+        WeightedRateLimiter limiter = new WeightedRateLimiter(1000, 1200, 0.8);
+        long now = System.currentTimeMillis();
+        limiter.reserve(10, now);
+
+        limiter.syncUsedWeight(5, now);
+        assertEquals(10, limiter.getUsedWeight());
+
+        limiter.syncUsedWeight(300, now);
+        assertEquals(300, limiter.getUsedWeight());
+    }
+
+    @Test
+    @DisplayName("Retry-After 暂停期间不应放行")
+    void testPause() {
+        WeightedRateLimiter limiter = new WeightedRateLimiter(1000, 0, 0.8);
+        limiter.pauseFor(2_000, WINDOW_START);
+
+        WeightedRateLimiter.Reservation paused = limiter.reserve(1, WINDOW_START + 500);
+        assertFalse(paused.granted());
+        assertEquals(1_500, paused.waitMs());
+
+        assertTrue(limiter.reserve(1, WINDOW_START + 2_000).granted());
+    }
+}
@@ -0,0 +1,68 @@
+package com.lucance.boot.backend.exchange.binance;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.lucance.boot.backend.entity.Kline;
+import com.lucance.boot.backend.exchange.ExchangeApiException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * K线 REST 响应流式解码测试
+ */
+@DisplayName("BinanceKlineArrayDecoder 单元测试")
+class BinanceKlineArrayDecoderTest {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private static List<Kline> decode(String json) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)))) {
+            return BinanceKlineArrayDecoder.decode(parser, "BTC/USDT", "1m", 2);
+        }
+    }
+
+    @Test
+    @DisplayName("应解码完整的K线数组")
+    void testDecode() throws IOException {
+        String json = "[[1700000000000,\"37000.10\",\"37100.00\",\"36950.5\",\"37050.00\",\"12.345\","
+                + "1700000059999,\"457000.1\",100,\"6.1\",\"225000.0\",\"0\"],"
+                + "[1700000060000,\"37050.00\",\"37060.00\",\"37040.00\",\"37055.00\",\"1.5\","
+                + "1700000119999,\"55000.0\",10,\"0.7\",\"26000.0\",\"0\"]]";
+
+        List<Kline> klines = decode(json);
+
+        assertEquals(2, klines.size());
+        Kline first = klines.get(0);
+        assertEquals("BTC/USDT", first.getSymbol());
+        assertEquals("1m", first.getInterval());
+        assertEquals(Instant.ofEpochMilli(1700000000000L), first.getTime());
+        assertEquals(new BigDecimal("37000.10"), first.getOpen());
+        assertEquals(new BigDecimal("37100.00"), first.getHigh());
+        assertEquals(new BigDecimal("36950.5"), first.getLow());
+        assertEquals(new BigDecimal("37050.00"), first.getClose());
+        assertEquals(new BigDecimal("12.345"), first.getVolume());
+        assertEquals(new BigDecimal("1.5"), klines.get(1).getVolume());
+    }
+
+    @Test
+    @DisplayName("空数组应返回空列表")
+    void testEmpty() throws IOException {
+        assertTrue(decode("[]").isEmpty());
+    }
+
+    @Test
+    @DisplayName("非数组响应应抛出异常")
+    void testUnexpectedBody() {
+        assertThrows(ExchangeApiException.class, () -> decode("{\"code\":-1121,\"msg\":\"Invalid symbol.\"}"));
+    }
+}
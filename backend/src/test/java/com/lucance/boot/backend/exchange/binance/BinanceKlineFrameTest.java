@@ -0,0 +1,101 @@
+package com.lucance.boot.backend.exchange.binance;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.lucance.boot.backend.entity.Kline;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Binance 组合流消息流式解析单元测试
+ */
+@DisplayName("BinanceKlineFrame 单元测试")
+class BinanceKlineFrameTest {
+
+    private static final String KLINE_MESSAGE = "{\"stream\":\"btcusdt@kline_1m\",\"data\":{\"e\":\"kline\","
+            + "\"E\":1700000001000,\"s\":\"BTCUSDT\",\"k\":{\"t\":1700000000000,\"T\":1700000059999,"
+            + "\"s\":\"BTCUSDT\",\"i\":\"1m\",\"f\":100,\"L\":200,\"o\":\"37000.10\",\"c\":\"37010.50\","
+            + "\"h\":\"37020.00\",\"l\":\"36990.01\",\"v\":\"12.345\",\"n\":100,\"x\":%s,"
+            + "\"q\":\"456789.12\",\"V\":\"6.1\",\"Q\":\"225000.5\",\"B\":\"0\"}}}";
+
+    private final JsonFactory factory = new JsonFactory();
+
+    private BinanceKlineFrame parse(String message) throws Exception {
+        BinanceKlineFrame frame = new BinanceKlineFrame();
+        try (JsonParser parser = factory.createParser(message)) {
+            frame.parse(parser);
+        }
+        return frame;
+    }
+
+    @Test
+    @DisplayName("应解析K线字段与流名称")
+    void testParseKline() throws Exception {
+        BinanceKlineFrame frame = parse(KLINE_MESSAGE.formatted("true"));
+
+        assertTrue(frame.isKline());
+        assertTrue(frame.isClosed());
+        assertEquals("btcusdt@kline_1m", frame.stream());
+
+        Kline kline = frame.toKline("BTC/USDT", "1m");
+        assertEquals(1700000000000L, kline.getTimestamp());
+        assertEquals(new BigDecimal("37000.10"), kline.getOpen());
+        assertEquals(new BigDecimal("37020.00"), kline.getHigh());
+        assertEquals(new BigDecimal("36990.01"), kline.getLow());
+        assertEquals(new BigDecimal("37010.50"), kline.getClose());
+        assertEquals(new BigDecimal("12.345"), kline.getVolume());
+    }
+
+    @Test
+    @DisplayName("未闭合K线应识别为未闭合")
+    void testOpenKline() throws Exception {
+        BinanceKlineFrame frame = parse(KLINE_MESSAGE.formatted("false"));
+
+        assertTrue(frame.isKline());
+        assertFalse(frame.isClosed());
+    }
+
+    @Test
+    @DisplayName("复用同一缓冲解析多帧不应串值")
+    void testReuse() throws Exception {
+        BinanceKlineFrame frame = new BinanceKlineFrame();
+        try (JsonParser parser = factory.createParser(KLINE_MESSAGE.formatted("true"))) {
+            frame.parse(parser);
+        }
+        try (JsonParser parser = factory.createParser("{\"result\":null,\"id\":1}")) {
+            frame.parse(parser);
+        }
+
+        assertFalse(frame.isKline());
+        assertTrue(frame.isAck());
+        assertNull(frame.stream());
+    }
+
+    @Test
+    @DisplayName("错误响应应被识别")
+    void testError() throws Exception {
+        BinanceKlineFrame frame = parse("{\"error\":{\"code\":2,\"msg\":\"Invalid request\"},\"id\":3}");
+
+        assertTrue(frame.isError());
+        assertFalse(frame.isKline());
+    }
+
+    @Test
+    @DisplayName("应解析成交事件的定点价格、数量与成交时间")
+    void testParseAggTrade() throws Exception {
+        BinanceKlineFrame frame = parse("{\"stream\":\"btcusdt@aggTrade\",\"data\":{\"e\":\"aggTrade\","
+                + "\"E\":1700000000100,\"s\":\"BTCUSDT\",\"a\":12345,\"p\":\"37000.12\",\"q\":\"0.015\","
+                + "\"f\":100,\"l\":105,\"T\":1700000000050,\"m\":true,\"M\":true}}");
+
+        assertTrue(frame.isTrade());
+        assertFalse(frame.isKline());
+        assertEquals("btcusdt@aggTrade", frame.stream());
+        assertEquals(1700000000050L, frame.tradeTime());
+        assertEquals(3_700_012_000_000L, frame.fixed(BinanceKlineFrame.PRICE));
+        assertEquals(1_500_000L, frame.fixed(BinanceKlineFrame.QUANTITY));
+    }
+}
@@ -0,0 +1,202 @@
+package com.lucance.boot.backend.exchange.binance;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lucance.boot.backend.config.ExchangeProperties;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Binance 组合流连接分片、批量订阅与节流单元测试
+ */
+@DisplayName("BinanceStreamConnection 单元测试")
+class BinanceStreamConnectionTest {
+
+    private static final String BASE_URL = "wss://stream.binance.com:9443";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private OkHttpClient httpClient;
+    private WebSocket webSocket;
+    private ScheduledExecutorService scheduler;
+    private ExchangeProperties.StreamConfig config;
+    private List<String> sent;
+    private List<List<String>> reconnected;
+
+    @BeforeEach
+    void setUp() {
+        sent = new CopyOnWriteArrayList<>();
+        reconnected = new CopyOnWriteArrayList<>();
+        webSocket = mock(WebSocket.class);
+        when(webSocket.send(anyString())).thenAnswer(invocation -> sent.add(invocation.getArgument(0)));
+        httpClient = mock(OkHttpClient.class);
+        when(httpClient.newWebSocket(any(Request.class), any(WebSocketListener.class))).thenReturn(webSocket);
+        scheduler = mock(ScheduledExecutorService.class);
+        doReturn(mock(ScheduledFuture.class)).when(scheduler)
+                .scheduleAtFixedRate(any(Runnable.class), anyLong(), anyLong(), any(TimeUnit.class));
+
+        config = new ExchangeProperties.StreamConfig();
+        config.setMaxStreamsPerConnection(3);
+        config.setMaxMessagesPerSecond(4);
+        config.setSubscribeBatchSize(2);
+    }
+
+    @Test
+    @DisplayName("连接达到流数量上限后客户端新开分片，分片空闲时关闭")
+    void testShardRollover() {
+        BinanceWebSocketClient client = new BinanceWebSocketClient(httpClient, scheduler, BASE_URL, config, null);
+        for (String symbol : List.of("BTCUSDT", "ETHUSDT", "SOLUSDT", "BNBUSDT")) {
+            client.subscribeKline(symbol, "1m", kline -> {
+            });
+        }
+
+        assertEquals(2, client.getConnectionCount());
+        assertEquals(4, client.getStreamCount());
+        verify(httpClient, times(2)).newWebSocket(any(Request.class), any(WebSocketListener.class));
+
+        client.unsubscribeKline("BNBUSDT", "1m");
+        assertEquals(1, client.getConnectionCount());
+        verify(webSocket).close(eq(1000), anyString());
+        client.close();
+    }
+
+    @Test
+    @DisplayName("首个流放在连接地址中，其余流连接后按批量大小合并为 SUBSCRIBE")
+    void testBatchedSubscribe() throws Exception {
+        BinanceStreamConnection connection = connection();
+        List<String> streams = List.of("a@kline_1m", "b@kline_1m", "c@kline_1m");
+        streams.forEach(connection::addStream);
+
+        WebSocketListener listener = listener(1);
+        assertEquals("/stream", lastRequest(1).url().encodedPath());
+        assertEquals("a@kline_1m", lastRequest(1).url().queryParameter("streams"));
+        assertFalse(connection.hasCapacity());
+
+        listener.onOpen(webSocket, null);
+        Runnable flush = flushTask();
+        flush.run();
+        flush.run();
+
+        assertEquals(1, sent.size());
+        assertControl(sent.get(0), "SUBSCRIBE", "b@kline_1m", "c@kline_1m");
+    }
+
+    @Test
+    @DisplayName("控制消息按每秒上限节流，每个节拍最多发送一条")
+    void testThrottledFlush() throws Exception {
+        BinanceStreamConnection connection = connection();
+        ArgumentCaptor<Long> period = ArgumentCaptor.forClass(Long.class);
+        verify(scheduler).scheduleAtFixedRate(any(Runnable.class), anyLong(), period.capture(),
+                eq(TimeUnit.MILLISECONDS));
+        assertEquals(250L, period.getValue());
+
+        connection.addStream("a@kline_1m");
+        listener(1).onOpen(webSocket, null);
+        Runnable flush = flushTask();
+
+        connection.addStream("b@kline_1m");
+        connection.addStream("c@kline_1m");
+        connection.removeStream("a@kline_1m");
+        assertTrue(sent.isEmpty());
+
+        // 订阅优先，退订在下一个节拍发送
+        flush.run();
+        assertEquals(1, sent.size());
+        assertControl(sent.get(0), "SUBSCRIBE", "b@kline_1m", "c@kline_1m");
+        flush.run();
+        assertEquals(2, sent.size());
+        assertControl(sent.get(1), "UNSUBSCRIBE", "a@kline_1m");
+        flush.run();
+        assertEquals(2, sent.size());
+    }
+
+    @Test
+    @DisplayName("重连后地址携带首批流，其余流重新批量订阅并通知补数")
+    void testResubscribeAfterReconnect() throws Exception {
+        BinanceStreamConnection connection = connection();
+        List<String> streams = List.of("a@kline_1m", "b@kline_1m", "c@kline_1m");
+        streams.forEach(connection::addStream);
+        WebSocketListener first = listener(1);
+        first.onOpen(webSocket, null);
+        Runnable flush = flushTask();
+        flush.run();
+        sent.clear();
+
+        first.onFailure(webSocket, new java.io.IOException("reset"), null);
+        ArgumentCaptor<Runnable> reconnect = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).schedule(reconnect.capture(), anyLong(), eq(TimeUnit.MILLISECONDS));
+        reconnect.getValue().run();
+
+        Set<String> urlStreams = new HashSet<>(Arrays.asList(
+                lastRequest(2).url().queryParameter("streams").split("/")));
+        assertEquals(2, urlStreams.size());
+
+        listener(2).onOpen(webSocket, null);
+        flush.run();
+        assertEquals(1, sent.size());
+        Set<String> all = new HashSet<>(urlStreams);
+        JsonNode resubscribe = objectMapper.readTree(sent.get(0));
+        assertEquals("SUBSCRIBE", resubscribe.get("method").asText());
+        assertEquals(1, resubscribe.get("params").size());
+        all.add(resubscribe.get("params").get(0).asText());
+        assertEquals(new HashSet<>(streams), all);
+
+        assertEquals(1, reconnected.size());
+        assertEquals(new HashSet<>(streams), new HashSet<>(reconnected.get(0)));
+    }
+
+    private BinanceStreamConnection connection() {
+        return new BinanceStreamConnection(1, BASE_URL, config, httpClient, scheduler, message -> {
+        }, reconnected::add);
+    }
+
+    private Runnable flushTask() {
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).scheduleAtFixedRate(task.capture(), anyLong(), anyLong(), any(TimeUnit.class));
+        return task.getValue();
+    }
+
+    private WebSocketListener listener(int calls) {
+        ArgumentCaptor<WebSocketListener> listener = ArgumentCaptor.forClass(WebSocketListener.class);
+        verify(httpClient, times(calls)).newWebSocket(any(Request.class), listener.capture());
+        return listener.getValue();
+    }
+
+    private Request lastRequest(int calls) {
+        ArgumentCaptor<Request> request = ArgumentCaptor.forClass(Request.class);
+        verify(httpClient, times(calls)).newWebSocket(request.capture(), any(WebSocketListener.class));
+        return request.getValue();
+    }
+
+    private void assertControl(String message, String method, String... streams) throws Exception {
+        JsonNode node = objectMapper.readTree(message);
+        assertEquals(method, node.get("method").asText());
+        List<String> params = new ArrayList<>();
+        node.get("params").forEach(param -> params.add(param.asText()));
+        assertEquals(new HashSet<>(List.of(streams)), new HashSet<>(params));
+        assertEquals(streams.length, params.size());
+    }
+}
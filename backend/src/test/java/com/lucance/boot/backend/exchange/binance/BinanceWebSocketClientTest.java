@@ -0,0 +1,152 @@
+package com.lucance.boot.backend.exchange.binance;
+
+import com.lucance.boot.backend.config.ExchangeProperties;
+import com.lucance.boot.backend.entity.Kline;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Binance WebSocket 客户端断线补数与成交合成K线单元测试
+ */
+@DisplayName("BinanceWebSocketClient 单元测试")
+class BinanceWebSocketClientTest {
+
+    private static final long MINUTE = 60_000L;
+
+    private static final String KLINE_MESSAGE = "{\"stream\":\"btcusdt@kline_1m\",\"data\":{\"e\":\"kline\","
+            + "\"s\":\"BTCUSDT\",\"k\":{\"t\":%d,\"s\":\"BTCUSDT\",\"i\":\"1m\",\"o\":\"100\",\"c\":\"101\","
+            + "\"h\":\"102\",\"l\":\"99\",\"v\":\"1\",\"x\":true}}}";
+
+    private OkHttpClient httpClient;
+    private ScheduledExecutorService scheduler;
+    private BinanceWebSocketClient client;
+
+    @BeforeEach
+    void setUp() {
+        httpClient = mock(OkHttpClient.class);
+        when(httpClient.newWebSocket(any(Request.class), any(WebSocketListener.class)))
+                .thenReturn(mock(WebSocket.class));
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        client = new BinanceWebSocketClient(httpClient, scheduler, "wss://stream.binance.com:9443",
+                new ExchangeProperties.StreamConfig(), null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("重连后从最后闭合K线之后补数，丢弃重复与未闭合K线")
+    void testReconnectCatchUp() throws Exception {
+        long lastClosed = (System.currentTimeMillis() / MINUTE - 10) * MINUTE;
+        AtomicLong requestedFrom = new AtomicLong();
+        client.setCatchUpFetcher((symbol, interval, startTime, limit) -> {
+            requestedFrom.set(startTime);
+            return List.of(
+                    kline(lastClosed - MINUTE),
+                    kline(lastClosed),
+                    kline(lastClosed + MINUTE),
+                    kline(lastClosed + 2 * MINUTE),
+                    kline(lastClosed + 3 * MINUTE),
+                    kline(System.currentTimeMillis()));
+        });
+
+        List<Long> received = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(5);
+        client.subscribeKline("BTCUSDT", "1m", kline -> {
+            received.add(kline.getTimestamp());
+            latch.countDown();
+        }, true);
+
+        ArgumentCaptor<WebSocketListener> listener = ArgumentCaptor.forClass(WebSocketListener.class);
+        verify(httpClient).newWebSocket(any(Request.class), listener.capture());
+        WebSocket webSocket = mock(WebSocket.class);
+        listener.getValue().onOpen(webSocket, null);
+        listener.getValue().onMessage(webSocket, KLINE_MESSAGE.formatted(lastClosed));
+
+        // 重连：补数期间到达的实时闭合K线在补数完成后推送，因此排在所有回放K线之后
+        listener.getValue().onOpen(webSocket, null);
+        listener.getValue().onMessage(webSocket, KLINE_MESSAGE.formatted(lastClosed + 4 * MINUTE));
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(lastClosed + MINUTE, requestedFrom.get());
+        assertEquals(List.of(lastClosed, lastClosed + MINUTE, lastClosed + 2 * MINUTE, lastClosed + 3 * MINUTE,
+                lastClosed + 4 * MINUTE), received);
+    }
+
+    @Test
+    @DisplayName("成交合成K线全部退订后取消到期检查任务，不关闭共享调度器")
+    void testTradeCloseTaskCancelledWhenLastRouteRemoved() {
+        ScheduledExecutorService sharedScheduler = mock(ScheduledExecutorService.class);
+        List<ScheduledFuture<?>> futures = new CopyOnWriteArrayList<>();
+        when(sharedScheduler.scheduleAtFixedRate(any(Runnable.class), anyLong(), anyLong(), any(TimeUnit.class)))
+                .thenAnswer(invocation -> {
+                    ScheduledFuture<?> future = mock(ScheduledFuture.class);
+                    futures.add(future);
+                    return future;
+                });
+        BinanceWebSocketClient tradeClient = new BinanceWebSocketClient(httpClient, sharedScheduler,
+                "wss://stream.binance.com:9443", new ExchangeProperties.StreamConfig(), null);
+
+        tradeClient.subscribeTradeKline("BTCUSDT", "1s", kline -> {
+        }, true, 0);
+        tradeClient.subscribeTradeKline("ETHUSDT", "1s", kline -> {
+        }, true, 0);
+        // 分片连接的控制消息任务与成交K线到期检查任务
+        assertEquals(2, futures.size());
+        ScheduledFuture<?> tradeTask = futures.get(1);
+
+        tradeClient.unsubscribeTradeKline("BTCUSDT", "1s");
+        verify(tradeTask, never()).cancel(anyBoolean());
+
+        tradeClient.unsubscribeTradeKline("ETHUSDT", "1s");
+        verify(tradeTask).cancel(false);
+        verify(sharedScheduler, never()).shutdown();
+        verify(sharedScheduler, never()).shutdownNow();
+
+        // 再次订阅时重新调度到期检查
+        tradeClient.subscribeTradeKline("BTCUSDT", "1s", kline -> {
+        }, true, 0);
+        assertEquals(4, futures.size());
+        tradeClient.close();
+    }
+
+    private static Kline kline(long time) {
+        return Kline.builder()
+                .symbol("BTC/USDT")
+                .interval("1m")
+                .time(Instant.ofEpochMilli(time))
+                .open(BigDecimal.valueOf(100))
+                .high(BigDecimal.valueOf(102))
+                .low(BigDecimal.valueOf(99))
+                .close(BigDecimal.valueOf(101))
+                .volume(BigDecimal.ONE)
+                .build();
+    }
+}
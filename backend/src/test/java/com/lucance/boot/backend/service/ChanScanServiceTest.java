@@ -0,0 +1,125 @@
+package com.lucance.boot.backend.service;
+
+import com.lucance.boot.backend.chan.BiBuilder;
+import com.lucance.boot.backend.chan.ChanCalculationEngine;
+import com.lucance.boot.backend.chan.DivergenceDetector;
+import com.lucance.boot.backend.chan.FenxingIdentifier;
+import com.lucance.boot.backend.chan.InclusionHandler;
+import com.lucance.boot.backend.chan.MACDCalculator;
+import com.lucance.boot.backend.chan.TradingPointIdentifier;
+import com.lucance.boot.backend.chan.XianduanIdentifier;
+import com.lucance.boot.backend.chan.ZigzagKlines;
+import com.lucance.boot.backend.chan.ZhongshuIdentifier;
+import com.lucance.boot.backend.config.ChanScanProperties;
+import com.lucance.boot.backend.config.ExchangeProperties;
+import com.lucance.boot.backend.entity.Kline;
+import com.lucance.boot.backend.exchange.ExchangeAdapter;
+import com.lucance.boot.backend.repository.KlineRepository;
+import com.lucance.boot.backend.repository.KlineRepositoryCustom.SeriesKey;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 多序列批量扫描单元测试
+ */
+@DisplayName("ChanScanService 单元测试")
+class ChanScanServiceTest {
+
+    private static final SeriesKey BTC = new SeriesKey("BTCUSDT", "1h");
+    private static final SeriesKey ETH = new SeriesKey("ETHUSDT", "1h");
+    private static final SeriesKey SOL = new SeriesKey("SOLUSDT", "1h");
+
+    private KlineCacheService klineCacheService;
+    private KlineRepository klineRepository;
+    private ExchangeRouterService exchangeRouterService;
+    private ChanScanService scanService;
+
+    @BeforeEach
+    void setUp() {
+        MACDCalculator macdCalculator = new MACDCalculator();
+        ChanCalculationEngine engine = new ChanCalculationEngine(
+                new InclusionHandler(),
+                new FenxingIdentifier(),
+                new BiBuilder(),
+                new XianduanIdentifier(),
+                new ZhongshuIdentifier(),
+                new TradingPointIdentifier(macdCalculator, new DivergenceDetector(macdCalculator)));
+        klineCacheService = mock(KlineCacheService.class);
+        klineRepository = mock(KlineRepository.class);
+        ChanScanProperties properties = new ChanScanProperties();
+        properties.setParallelism(2);
+
+        exchangeRouterService = mock(ExchangeRouterService.class);
+
+        scanService = new ChanScanService(engine, klineCacheService, klineRepository, properties,
+                exchangeRouterService, new ExchangeProperties());
+        scanService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scanService.destroy();
+    }
+
+    @Test
+    @DisplayName("缓存命中的序列不查库，其余序列一次批量查询，结果保持请求顺序")
+    void testScanUsesCacheThenSingleBatchQuery() {
+        when(klineCacheService.getLatest("binance", "BTCUSDT", "1h", 100)).thenReturn(waves("BTCUSDT"));
+        when(klineRepository.findLatestKlinesBatchReadOnly(anyCollection(), eq(100)))
+                .thenReturn(Map.of(ETH, waves("ETHUSDT")));
+
+        List<ChanScanService.SeriesSummary> summaries = scanService.scan("binance", List.of(BTC, ETH, SOL), 100);
+
+        verify(klineRepository, times(1)).findLatestKlinesBatchReadOnly(eq(List.of(ETH, SOL)), eq(100));
+        assertEquals(List.of("BTCUSDT", "ETHUSDT", "SOLUSDT"),
+                summaries.stream().map(ChanScanService.SeriesSummary::symbol).toList());
+
+        ChanScanService.SeriesSummary btc = summaries.get(0);
+        assertNull(btc.error());
+        assertEquals(48, btc.klineCount());
+        assertNotNull(btc.trend());
+        assertNotNull(btc.lastClose());
+
+        assertNull(summaries.get(1).error());
+        assertEquals("No klines stored", summaries.get(2).error());
+    }
+
+    @Test
+    @DisplayName("未入库的交易所缓存未命中时从交易所获取，不查库")
+    void testScanFetchesNonPersistedExchangeFromAdapter() {
+        ExchangeAdapter adapter = mock(ExchangeAdapter.class);
+        when(exchangeRouterService.getAdapter("okx")).thenReturn(adapter);
+        when(adapter.getKlines("ETHUSDT", "1h", null, null, 100)).thenReturn(waves("ETHUSDT"));
+
+        List<ChanScanService.SeriesSummary> summaries = scanService.scan("okx", List.of(ETH), 100);
+
+        verifyNoInteractions(klineRepository);
+        assertNull(summaries.get(0).error());
+        assertEquals(48, summaries.get(0).klineCount());
+    }
+
+    @Test
+    @DisplayName("超过序列数或K线数上限时拒绝")
+    void testLimits() {
+        List<SeriesKey> tooMany = new ArrayList<>();
+        for (int i = 0; i <= 200; i++) {
+            tooMany.add(new SeriesKey("S" + i, "1h"));
+        }
+        assertThrows(IllegalArgumentException.class, () -> scanService.scan("binance", tooMany, 100));
+        assertThrows(IllegalArgumentException.class, () -> scanService.scan("binance", List.of(BTC), 5000));
+    }
+
+    private static List<Kline> waves(String symbol) {
+        return ZigzagKlines.waves(symbol, "1h", 1_700_000_000_000L, 3_600_000L);
+    }
+}
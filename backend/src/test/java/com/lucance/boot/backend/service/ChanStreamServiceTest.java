@@ -0,0 +1,84 @@
+package com.lucance.boot.backend.service;
+
+import com.lucance.boot.backend.chan.model.ChanResultLite;
+import com.lucance.boot.backend.chan.model.KlineLite;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 缠论结构增量推送单元测试
+ */
+@DisplayName("ChanStreamService 单元测试")
+class ChanStreamServiceTest {
+
+    private static final ChanResultLite EMPTY_RESULT =
+            new ChanResultLite(List.of(), List.of(), List.of(), List.of(), List.of(), List.of());
+
+    @Test
+    @DisplayName("无上次结果时发送全量快照")
+    void testFirstMessageIsSnapshot() {
+        ChanStreamService.Snapshot next = snapshot(1, 0, kline(1, "10"), kline(2, "11"));
+
+        ChanStreamService.StreamMessage message = ChanStreamService.diff("binance", "BTC/USDT", "1m", null, next);
+
+        assertEquals(ChanStreamService.TYPE_SNAPSHOT, message.type());
+        assertEquals(0, message.klines().from());
+        assertEquals(2, message.klines().items().size());
+        assertEquals(0, message.bis().from());
+        assertTrue(message.bis().items().isEmpty());
+    }
+
+    @Test
+    @DisplayName("最后一根K线更新时只发送公共前缀之后的部分")
+    void testDeltaFromCommonPrefix() {
+        ChanStreamService.Snapshot previous = snapshot(1, 0, kline(1, "10"), kline(2, "11"));
+        ChanStreamService.Snapshot next = snapshot(2, 0, kline(1, "10"), kline(2, "12"), kline(3, "13"));
+
+        ChanStreamService.StreamMessage message = ChanStreamService.diff("binance", "BTC/USDT", "1m", previous, next);
+
+        assertEquals(ChanStreamService.TYPE_DELTA, message.type());
+        assertEquals(2, message.version());
+        assertEquals(1, message.klines().from());
+        assertEquals(List.of(kline(2, "12"), kline(3, "13")), message.klines().items());
+        // 结构未变化时省略
+        assertNull(message.bis());
+        assertNull(message.fenxings());
+    }
+
+    @Test
+    @DisplayName("列表未变化时返回 null，被截短时返回空追加")
+    void testDiffList() {
+        assertNull(ChanStreamService.diffList(List.of(1, 2, 3), List.of(1, 2, 3), false));
+
+        ChanStreamService.ListDelta<Integer> truncated = ChanStreamService.diffList(List.of(1, 2, 3), List.of(1, 2), false);
+        assertEquals(2, truncated.from());
+        assertTrue(truncated.items().isEmpty());
+    }
+
+    @Test
+    @DisplayName("窗口重新对齐后发送全量快照")
+    void testEpochChangeForcesSnapshot() {
+        ChanStreamService.Snapshot previous = snapshot(5, 0, kline(1, "10"), kline(2, "11"));
+        ChanStreamService.Snapshot next = snapshot(6, 1, kline(2, "11"));
+
+        ChanStreamService.StreamMessage message = ChanStreamService.diff("binance", "BTC/USDT", "1m", previous, next);
+
+        assertEquals(ChanStreamService.TYPE_SNAPSHOT, message.type());
+        assertEquals(0, message.klines().from());
+        assertEquals(List.of(kline(2, "11")), message.klines().items());
+    }
+
+    private static ChanStreamService.Snapshot snapshot(long version, long epoch, KlineLite... klines) {
+        return new ChanStreamService.Snapshot(version, epoch, List.of(klines), EMPTY_RESULT);
+    }
+
+    private static KlineLite kline(long index, String close) {
+        BigDecimal price = new BigDecimal(close);
+        return new KlineLite(index * 60_000L, price, price, price, price, BigDecimal.ONE);
+    }
+}
@@ -0,0 +1,105 @@
+package com.lucance.boot.backend.service;
+
+import com.lucance.boot.backend.config.ExchangeProperties;
+import com.lucance.boot.backend.exchange.ExchangeAdapter;
+import com.lucance.boot.backend.exchange.ExchangeApiException;
+import com.lucance.boot.backend.exchange.model.Ticker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 多交易所并发查询单元测试
+ */
+@DisplayName("ExchangeFanOutService 单元测试")
+class ExchangeFanOutServiceTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ExchangeRouterService router;
+    private ExchangeAdapter fast;
+    private ExchangeAdapter slow;
+    private ExchangeAdapter broken;
+    private ExchangeFanOutService fanOutService;
+
+    @BeforeEach
+    void setUp() {
+        ExchangeProperties properties = new ExchangeProperties();
+        properties.getFanOut().setTimeout(Duration.ofMillis(200));
+        router = mock(ExchangeRouterService.class);
+        fast = mock(ExchangeAdapter.class);
+        slow = mock(ExchangeAdapter.class);
+        broken = mock(ExchangeAdapter.class);
+        register("fast", fast);
+        register("slow", slow);
+        register("broken", broken);
+        when(router.getAvailableExchanges()).thenReturn(Set.of("fast", "slow", "broken"));
+        fanOutService = new ExchangeFanOutService(router, properties);
+
+        when(fast.getTicker("BTC/USDT")).thenReturn(ticker("fast"));
+        when(slow.getTicker("BTC/USDT")).thenAnswer(invocation -> {
+            release.await();
+            return ticker("slow");
+        });
+        when(broken.getTicker("BTC/USDT")).thenThrow(new ExchangeApiException("down"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        fanOutService.shutdown();
+    }
+
+    private void register(String name, ExchangeAdapter adapter) {
+        when(router.isExchangeAvailable(name)).thenReturn(true);
+        when(router.getAdapter(name)).thenReturn(adapter);
+    }
+
+    @Test
+    @DisplayName("first 模式返回最先成功的交易所，不等待慢的交易所")
+    void testFirstReturnsFastestSuccess() {
+        ExchangeFanOutService.FanOutResult<Ticker> result = fanOutService.first(
+                List.of("broken", "slow", "fast"), adapter -> adapter.getTicker("BTC/USDT"));
+
+        assertEquals("fast", result.exchange());
+        assertEquals("fast", result.data().getSymbol());
+    }
+
+    @Test
+    @DisplayName("first 模式全部失败或超时时抛出异常")
+    void testFirstAllFailed() {
+        ExchangeApiException e = assertThrows(ExchangeApiException.class, () -> fanOutService.first(
+                List.of("broken", "slow"), adapter -> adapter.getTicker("BTC/USDT")));
+
+        assertTrue(e.getMessage().contains("broken"));
+        assertTrue(e.getMessage().contains("slow=timeout"));
+    }
+
+    @Test
+    @DisplayName("all 模式按请求顺序合并成功结果，忽略失败与超时")
+    void testAllMergesSuccesses() {
+        Map<String, Ticker> tickers = fanOutService.getTickers(List.of("FAST", "broken", "slow", "fast"), "BTC/USDT");
+
+        assertEquals(List.of("fast"), List.copyOf(tickers.keySet()));
+    }
+
+    @Test
+    @DisplayName("不支持的交易所直接拒绝")
+    void testUnknownExchangeRejected() {
+        assertThrows(ExchangeApiException.class, () -> fanOutService.getTickers(List.of("unknown"), "BTC/USDT"));
+        verifyNoInteractions(fast, slow, broken);
+    }
+
+    private static Ticker ticker(String symbol) {
+        return Ticker.builder().symbol(symbol).build();
+    }
+}
@@ -0,0 +1,146 @@
+package com.lucance.boot.backend.service;
+
+import com.lucance.boot.backend.config.ExchangeProperties;
+import com.lucance.boot.backend.exchange.ExchangeAdapter;
+import com.lucance.boot.backend.exchange.ExchangeApiException;
+import com.lucance.boot.backend.exchange.model.Ticker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 交易所延迟感知路由单元测试
+ */
+@DisplayName("ExchangeRouterService 路由单元测试")
+class ExchangeRouterServiceTest {
+
+    private ExchangeProperties properties;
+    private LatencyStatsService latencyStatsService;
+    private ExchangeRouterService router;
+    private ExchangeAdapter fast;
+    private ExchangeAdapter slow;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ExchangeProperties();
+        properties.getBinance().setEnabled(false);
+        properties.getRouting().setMinSamples(5);
+        properties.getRouting().setMinHedgeDelay(Duration.ofMillis(50));
+        latencyStatsService = new LatencyStatsService();
+        router = new ExchangeRouterService(properties, latencyStatsService, null, null);
+        router.init();
+
+        fast = mock(ExchangeAdapter.class);
+        slow = mock(ExchangeAdapter.class);
+        router.registerAdapter("fast", fast);
+        router.registerAdapter("slow", slow);
+    }
+
+    @AfterEach
+    void tearDown() {
+        router.destroy();
+    }
+
+    private void record(String exchange, long latencyMs, boolean success, int count) {
+        for (int i = 0; i < count; i++) {
+            latencyStatsService.recordLatency(exchange, "/api/v3/klines", latencyMs, success);
+        }
+    }
+
+    @Test
+    @DisplayName("应优先选择 p95 更低的交易所")
+    void testRankByLatency() {
+        record("Fast", 20, true, 10);
+        record("Slow", 400, true, 10);
+
+        List<ExchangeRouterService.RouteStatus> statuses = router.getRoutingStatus();
+
+        assertEquals("fast", statuses.get(0).exchange());
+        assertSame(fast, router.getBestAdapter(null));
+    }
+
+    @Test
+    @DisplayName("样本不足的交易所取最差得分并排在已采样交易所之后，只作为对冲次选")
+    void testUnsampledExchangeRanksAsSecondary() {
+        router.registerAdapter("fresh", mock(ExchangeAdapter.class));
+        record("fast", 20, true, 10);
+        record("slow", 400, true, 10);
+        record("fresh", 5, true, 2);
+
+        List<ExchangeRouterService.RouteStatus> statuses = router.getRoutingStatus();
+
+        assertEquals(List.of("fast", "slow", "fresh"),
+                statuses.stream().map(ExchangeRouterService.RouteStatus::exchange).toList());
+        assertEquals(statuses.get(1).score(), statuses.get(2).score());
+        assertSame(fast, router.getBestAdapter(null));
+        assertSame(slow, router.getBestAdapter(List.of("fresh", "slow")));
+    }
+
+    @Test
+    @DisplayName("错误率超限的交易所应被熔断")
+    void testCircuitBreaker() {
+        record("fast", 20, false, 10);
+        record("slow", 400, true, 10);
+
+        ExchangeRouterService.RouteStatus fastStatus = router.getRoutingStatus().stream()
+                .filter(s -> s.exchange().equals("fast"))
+                .findFirst()
+                .orElseThrow();
+
+        assertTrue(fastStatus.circuitOpen());
+        assertSame(slow, router.getBestAdapter(null));
+    }
+
+    @Test
+    @DisplayName("查询路由状态不应打开熔断")
+    void testRoutingStatusIsReadOnly() {
+        record("fast", 20, false, 10);
+        record("slow", 400, true, 10);
+
+        assertTrue(router.getRoutingStatus().stream()
+                .filter(s -> s.exchange().equals("fast"))
+                .allMatch(ExchangeRouterService.RouteStatus::circuitOpen));
+
+        // 错误率回落后，若状态查询打开过熔断，fast 在熔断期内仍会被排除
+        record("fast", 20, true, 20);
+        assertSame(fast, router.getBestAdapter(null));
+    }
+
+    @Test
+    @DisplayName("首选交易所超时应对冲到次选交易所")
+    void testHedgedRead() {
+        record("fast", 20, true, 10);
+        record("slow", 100, true, 10);
+        Ticker hedged = Ticker.builder().symbol("BTC/USDT").build();
+        when(fast.getTicker("BTC/USDT")).thenAnswer(invocation -> {
+            Thread.sleep(2_000);
+            return Ticker.builder().symbol("late").build();
+        });
+        when(slow.getTicker("BTC/USDT")).thenReturn(hedged);
+
+        long start = System.currentTimeMillis();
+        Ticker result = router.routeRead(null, adapter -> adapter.getTicker("BTC/USDT"));
+
+        assertSame(hedged, result);
+        assertTrue(System.currentTimeMillis() - start < 1_500);
+    }
+
+    @Test
+    @DisplayName("首选失败应立即切换，全部失败时抛出异常")
+    void testFailover() {
+        when(fast.getTicker("BTC/USDT")).thenThrow(new ExchangeApiException("down"));
+        when(slow.getTicker("BTC/USDT")).thenThrow(new ExchangeApiException("down"));
+
+        assertThrows(ExchangeApiException.class,
+                () -> router.routeRead(null, adapter -> adapter.getTicker("BTC/USDT")));
+        verify(fast).getTicker("BTC/USDT");
+        verify(slow).getTicker("BTC/USDT");
+    }
+}
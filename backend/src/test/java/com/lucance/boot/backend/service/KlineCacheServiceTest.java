@@ -0,0 +1,188 @@
+package com.lucance.boot.backend.service;
+
+import com.lucance.boot.backend.config.ExchangeProperties;
+import com.lucance.boot.backend.config.KlineCacheProperties;
+import com.lucance.boot.backend.config.MarketProperties;
+import com.lucance.boot.backend.entity.Kline;
+import com.lucance.boot.backend.repository.KlineRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 热点K线缓存单元测试
+ */
+@DisplayName("KlineCacheService 单元测试")
+class KlineCacheServiceTest {
+
+    private static final long MINUTE = 60_000L;
+
+    private KlineRepository klineRepository;
+    private KlineCacheProperties properties;
+    private AtomicLong clock;
+    private KlineCacheService cacheService;
+
+    @BeforeEach
+    void setUp() {
+        klineRepository = mock(KlineRepository.class);
+        properties = new KlineCacheProperties();
+        properties.setCapacity(3);
+        properties.setMaxSeries(2);
+        properties.setUnsubscribedTtl(Duration.ofSeconds(60));
+        clock = new AtomicLong(1_000_000L);
+        cacheService = new KlineCacheService(klineRepository, properties, new MarketProperties(),
+                new ExchangeProperties());
+        cacheService.setClock(clock::get);
+    }
+
+    @Test
+    @DisplayName("环形缓冲写满后覆盖最旧的K线，超出容量的请求不命中")
+    void testRingWrapAround() {
+        cacheService.pin("okx", "BTC/USDT", "1m");
+        for (int minute = 0; minute < 5; minute++) {
+            cacheService.onKline("okx", "BTC/USDT", "1m", kline(minute, 100 + minute));
+        }
+
+        assertEquals(List.of(2 * MINUTE, 3 * MINUTE, 4 * MINUTE),
+                times(cacheService.getLatest("okx", "BTCUSDT", "1m", 3)));
+        assertEquals(List.of(4 * MINUTE), times(cacheService.getLatest("okx", "BTCUSDT", "1m", 1)));
+        assertNull(cacheService.getLatest("okx", "BTCUSDT", "1m", 4));
+    }
+
+    @Test
+    @DisplayName("未闭合K线的更新替换同一时间的上一条，过时的K线被忽略")
+    void testInProgressBarReplaced() {
+        cacheService.pin("okx", "BTCUSDT", "1m");
+        cacheService.onKline("okx", "BTCUSDT", "1m", kline(0, 100));
+        cacheService.onKline("okx", "BTCUSDT", "1m", kline(1, 101));
+        Kline update = kline(1, 105);
+        cacheService.onKline("okx", "BTCUSDT", "1m", update);
+        cacheService.onKline("okx", "BTCUSDT", "1m", kline(0, 90));
+
+        List<Kline> latest = cacheService.getLatest("okx", "BTCUSDT", "1m", 2);
+        assertEquals(List.of(0L, MINUTE), times(latest));
+        assertSame(update, latest.get(1));
+        assertNull(cacheService.getLatest("okx", "BTCUSDT", "1m", 3));
+    }
+
+    @Test
+    @DisplayName("已订阅序列加载历史时只补齐更早的K线，保留实时推送的数据")
+    void testLoadMergesIntoPinnedSeries() {
+        cacheService.pin("binance", "BTCUSDT", "1m");
+        Kline live5 = kline(5, 205);
+        Kline live6 = kline(6, 206);
+        cacheService.onKline("binance", "BTCUSDT", "1m", live5);
+        cacheService.onKline("binance", "BTCUSDT", "1m", live6);
+        when(klineRepository.findLatestKlines(eq("BTCUSDT"), eq("1m"), anyInt()))
+                .thenReturn(List.of(kline(6, 106), kline(5, 105), kline(4, 104)));
+
+        List<Kline> latest = cacheService.getLatestOrLoad("binance", "BTCUSDT", "1m", 3);
+
+        assertEquals(List.of(4 * MINUTE, 5 * MINUTE, 6 * MINUTE), times(latest));
+        assertSame(live5, latest.get(1));
+        assertSame(live6, latest.get(2));
+        assertTrue(cacheService.isLive("binance", "BTCUSDT", "1m"));
+    }
+
+    @Test
+    @DisplayName("未订阅序列过期后不命中，已订阅序列不过期")
+    void testTtlSkipsPinnedSeries() {
+        stubRepository();
+        assertNotNull(cacheService.getLatestOrLoad("binance", "ETHUSDT", "1m", 3));
+        cacheService.pin("okx", "BTCUSDT", "1m");
+        cacheService.onKline("okx", "BTCUSDT", "1m", kline(0, 100));
+
+        clock.addAndGet(Duration.ofSeconds(61).toMillis());
+
+        assertNull(cacheService.getLatest("binance", "ETHUSDT", "1m", 3));
+        assertNotNull(cacheService.getLatest("okx", "BTCUSDT", "1m", 1));
+    }
+
+    @Test
+    @DisplayName("超出序列上限时按 LRU 淘汰未订阅序列，已订阅序列保留")
+    void testLruEvictionSkipsPinnedSeries() {
+        stubRepository();
+        cacheService.pin("okx", "BTCUSDT", "1m");
+        cacheService.getLatestOrLoad("binance", "ETHUSDT", "1m", 3);
+        clock.addAndGet(1_000);
+        cacheService.getLatestOrLoad("binance", "SOLUSDT", "1m", 3);
+
+        assertTrue(cacheService.isLive("okx", "BTCUSDT", "1m"));
+        assertNull(cacheService.getLatest("binance", "ETHUSDT", "1m", 3));
+        assertNotNull(cacheService.getLatest("binance", "SOLUSDT", "1m", 3));
+        assertEquals(2, cacheService.getStats().get("seriesCount"));
+        assertEquals(1L, cacheService.getStats().get("pinnedCount"));
+    }
+
+    @Test
+    @DisplayName("订阅与过期重载并发时序列保持订阅状态")
+    void testPinRacesWithReload() throws Exception {
+        stubRepository();
+        properties.setMaxSeries(1000);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 200; i++) {
+                String symbol = "S" + i + "USDT";
+                cacheService.getLatestOrLoad("binance", symbol, "1m", 3);
+                clock.addAndGet(Duration.ofSeconds(61).toMillis());
+
+                CyclicBarrier barrier = new CyclicBarrier(2);
+                Future<?> pin = executor.submit(() -> {
+                    barrier.await();
+                    cacheService.pin("binance", symbol, "1m");
+                    return null;
+                });
+                Future<?> reload = executor.submit(() -> {
+                    barrier.await();
+                    return cacheService.getLatestOrLoad("binance", symbol, "1m", 3);
+                });
+                pin.get(5, TimeUnit.SECONDS);
+                reload.get(5, TimeUnit.SECONDS);
+
+                assertTrue(cacheService.isLive("binance", symbol, "1m"), symbol);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void stubRepository() {
+        when(klineRepository.findLatestKlines(anyString(), eq("1m"), anyInt()))
+                .thenAnswer(invocation -> List.of(kline(2, 102), kline(1, 101), kline(0, 100)));
+    }
+
+    private static List<Long> times(List<Kline> klines) {
+        List<Long> times = new ArrayList<>();
+        klines.forEach(kline -> times.add(kline.getTimestamp()));
+        return times;
+    }
+
+    private static Kline kline(int minute, double close) {
+        return Kline.builder()
+                .symbol("BTCUSDT")
+                .interval("1m")
+                .time(Instant.ofEpochMilli(minute * MINUTE))
+                .open(BigDecimal.valueOf(close))
+                .high(BigDecimal.valueOf(close))
+                .low(BigDecimal.valueOf(close))
+                .close(BigDecimal.valueOf(close))
+                .volume(BigDecimal.ONE)
+                .build();
+    }
+}
@@ -0,0 +1,201 @@
+package com.lucance.boot.backend.service;
+
+import com.lucance.boot.backend.config.ExchangeProperties;
+import com.lucance.boot.backend.config.KlineAggregationProperties;
+import com.lucance.boot.backend.entity.Kline;
+import com.lucance.boot.backend.repository.KlineRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * K线周期聚合单元测试
+ */
+@DisplayName("KlineRollupService 单元测试")
+class KlineRollupServiceTest {
+
+    private static final long MINUTE = 60_000L;
+
+    private KlineRollupService rollupService;
+
+    @BeforeEach
+    void setUp() {
+        KlineAggregationProperties properties = new KlineAggregationProperties();
+        properties.setEnabled(true);
+        rollupService = new KlineRollupService(null, properties, null, null, new ExchangeProperties());
+    }
+
+    @Test
+    @DisplayName("空列表应返回空结果")
+    void testEmptyList() {
+        assertTrue(rollupService.rollup(new ArrayList<>(), "5m").isEmpty());
+    }
+
+    @Test
+    @DisplayName("1m聚合为5m应正确计算OHLCV")
+    void testRollupToFiveMinutes() {
+        List<Kline> base = List.of(
+                createKline(0, 100, 105, 99, 104, 1),
+                createKline(1, 104, 110, 103, 108, 2),
+                createKline(2, 108, 109, 95, 96, 3),
+                createKline(3, 96, 100, 94, 99, 4),
+                createKline(4, 99, 101, 98, 100, 5),
+                createKline(5, 100, 102, 97, 101, 6));
+
+        List<Kline> result = rollupService.rollup(base, "5m");
+
+        assertEquals(2, result.size());
+        Kline first = result.get(0);
+        assertEquals("5m", first.getInterval());
+        assertEquals(0L, first.getTimestamp());
+        assertEquals(0, new BigDecimal("100").compareTo(first.getOpen()));
+        assertEquals(0, new BigDecimal("110").compareTo(first.getHigh()));
+        assertEquals(0, new BigDecimal("94").compareTo(first.getLow()));
+        assertEquals(0, new BigDecimal("100").compareTo(first.getClose()));
+        assertEquals(0, new BigDecimal("15").compareTo(first.getVolume()));
+
+        // 未闭合的桶也会输出
+        Kline second = result.get(1);
+        assertEquals(5 * MINUTE, second.getTimestamp());
+        assertEquals(0, new BigDecimal("101").compareTo(second.getClose()));
+    }
+
+    @Test
+    @DisplayName("缺失的基础K线不应产生空桶")
+    void testGapDoesNotCreateEmptyBuckets() {
+        List<Kline> base = List.of(
+                createKline(0, 100, 101, 99, 100, 1),
+                createKline(12, 100, 103, 98, 102, 1));
+
+        List<Kline> result = rollupService.rollup(base, "5m");
+
+        assertEquals(2, result.size());
+        assertEquals(10 * MINUTE, result.get(1).getTimestamp());
+    }
+
+    @Test
+    @DisplayName("聚合不应修改输入K线")
+    void testInputNotModified() {
+        Kline first = createKline(0, 100, 101, 99, 100, 1);
+        List<Kline> base = List.of(first, createKline(1, 100, 120, 90, 110, 1));
+
+        rollupService.rollup(base, "5m");
+
+        assertEquals(0, new BigDecimal("101").compareTo(first.getHigh()));
+        assertEquals(0, new BigDecimal("1").compareTo(first.getVolume()));
+    }
+
+    @Test
+    @DisplayName("同一根基础K线的多次推送应替换而不是重复累加")
+    void testInProgressUpdatesReplaceBaseBar() {
+        rollupService.onBaseKline("okx", createKline(0, 100, 101, 99, 100, 1));
+        rollupService.onBaseKline("okx", createKline(1, 100, 102, 99, 101, 1));
+        rollupService.onBaseKline("okx", createKline(1, 100, 104, 99, 103, 2));
+        Kline bar = fiveMinute(rollupService.onBaseKline("okx", createKline(1, 100, 104, 98, 102, 3)));
+
+        assertEquals(0, new BigDecimal("100").compareTo(bar.getOpen()));
+        assertEquals(0, new BigDecimal("104").compareTo(bar.getHigh()));
+        assertEquals(0, new BigDecimal("98").compareTo(bar.getLow()));
+        assertEquals(0, new BigDecimal("102").compareTo(bar.getClose()));
+        assertEquals(0, new BigDecimal("4").compareTo(bar.getVolume()));
+
+        bar = fiveMinute(rollupService.onBaseKline("okx", createKline(2, 102, 103, 101, 102, 5)));
+        assertEquals(0, new BigDecimal("9").compareTo(bar.getVolume()));
+    }
+
+    @Test
+    @DisplayName("不同交易所的同一交易对分别聚合")
+    void testExchangesRolledUpSeparately() {
+        rollupService.onBaseKline("okx", createKline(0, 100, 101, 99, 100, 1));
+        Kline bar = fiveMinute(rollupService.onBaseKline("bybit", createKline(1, 200, 201, 199, 200, 7)));
+
+        assertEquals(0, new BigDecimal("200").compareTo(bar.getOpen()));
+        assertEquals(0, new BigDecimal("7").compareTo(bar.getVolume()));
+    }
+
+    @Test
+    @DisplayName("重建时基础周期只读取一次，同时聚合所有派生周期")
+    void testRebuildReadsBaseRangeOnce() {
+        KlineRepository repository = mock(KlineRepository.class);
+        KlineAggregationProperties properties = new KlineAggregationProperties();
+        properties.setEnabled(true);
+        properties.setDerivedIntervals(List.of("5m", "15m"));
+        KlineRollupService service = new KlineRollupService(repository, properties, null, null,
+                new ExchangeProperties());
+        List<Kline> base = new ArrayList<>();
+        for (int minute = 0; minute < 15; minute++) {
+            base.add(createKline(minute, 100, 101, 99, 100, 1));
+        }
+        when(repository.findRangeReadOnly("BTC/USDT", "1m", Instant.EPOCH, Instant.ofEpochMilli(15 * MINUTE)))
+                .thenReturn(base);
+
+        service.rebuild("BTC/USDT", 2 * MINUTE, 12 * MINUTE);
+
+        verify(repository).flush();
+        verify(repository, times(1)).findRangeReadOnly(anyString(), anyString(), any(), any());
+        verify(repository, never()).findBySymbolAndIntervalAndTimeRange(anyString(), anyString(), any(), any());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Kline>> saved = ArgumentCaptor.forClass(List.class);
+        verify(repository, times(2)).saveAll(saved.capture());
+        assertEquals(List.of(0L, 5 * MINUTE, 10 * MINUTE),
+                saved.getAllValues().get(0).stream().map(Kline::getTimestamp).toList());
+        assertEquals(List.of(0L), saved.getAllValues().get(1).stream().map(Kline::getTimestamp).toList());
+        assertEquals(0, new BigDecimal("15").compareTo(saved.getAllValues().get(1).get(0).getVolume()));
+    }
+
+    @Test
+    @DisplayName("连续聚合在事务内重建时延迟到提交后刷新")
+    void testContinuousAggregateRefreshedAfterCommit() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        KlineAggregationProperties properties = new KlineAggregationProperties();
+        properties.setEnabled(true);
+        properties.setMode(KlineAggregationProperties.Mode.CONTINUOUS_AGGREGATE);
+        properties.setDerivedIntervals(List.of("5m", "1h"));
+        KlineRollupService service = new KlineRollupService(mock(KlineRepository.class), properties, jdbcTemplate,
+                mock(PlatformTransactionManager.class), new ExchangeProperties());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.rebuild("BTC/USDT", 0, 10 * MINUTE);
+            verifyNoInteractions(jdbcTemplate);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(jdbcTemplate, times(2)).update(startsWith("CALL refresh_continuous_aggregate"),
+                any(Timestamp.class), any(Timestamp.class));
+    }
+
+    private Kline fiveMinute(List<Kline> updated) {
+        return updated.stream().filter(k -> "5m".equals(k.getInterval())).findFirst().orElseThrow();
+    }
+
+    private Kline createKline(int minute, double open, double high, double low, double close, double volume) {
+        return Kline.builder()
+                .symbol("BTC/USDT")
+                .interval("1m")
+                .time(Instant.ofEpochMilli(minute * MINUTE))
+                .open(BigDecimal.valueOf(open))
+                .high(BigDecimal.valueOf(high))
+                .low(BigDecimal.valueOf(low))
+                .close(BigDecimal.valueOf(close))
+                .volume(BigDecimal.valueOf(volume))
+                .build();
+    }
+}
@@ -0,0 +1,149 @@
+package com.lucance.boot.backend.service;
+
+import com.lucance.boot.backend.chan.BiBuilder;
+import com.lucance.boot.backend.chan.ChanCalculationEngine;
+import com.lucance.boot.backend.chan.DivergenceDetector;
+import com.lucance.boot.backend.chan.FenxingIdentifier;
+import com.lucance.boot.backend.chan.InclusionHandler;
+import com.lucance.boot.backend.chan.MACDCalculator;
+import com.lucance.boot.backend.chan.TradingPointIdentifier;
+import com.lucance.boot.backend.chan.XianduanIdentifier;
+import com.lucance.boot.backend.chan.ZhongshuIdentifier;
+import com.lucance.boot.backend.config.ExchangeProperties;
+import com.lucance.boot.backend.config.KlineAggregationProperties;
+import com.lucance.boot.backend.config.MultiLevelAnalysisProperties;
+import com.lucance.boot.backend.entity.Kline;
+import com.lucance.boot.backend.exchange.ExchangeAdapter;
+import com.lucance.boot.backend.repository.KlineRepository;
+import com.lucance.boot.backend.strategy.ConditionEvaluator.EvaluationContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static com.lucance.boot.backend.chan.ZigzagKlines.kline;
+import static com.lucance.boot.backend.chan.ZigzagKlines.waves;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 多级别缠论分析单元测试
+ */
+@DisplayName("MultiLevelAnalysisService 单元测试")
+class MultiLevelAnalysisServiceTest {
+
+    private static final long MINUTE = 60_000L;
+
+    private ChanCalculationEngine engine;
+    private KlineCacheService klineCacheService;
+    private KlineRepository klineRepository;
+    private ExchangeRouterService exchangeRouterService;
+    private MultiLevelAnalysisService service;
+
+    @BeforeEach
+    void setUp() {
+        MACDCalculator macdCalculator = new MACDCalculator();
+        engine = spy(new ChanCalculationEngine(
+                new InclusionHandler(),
+                new FenxingIdentifier(),
+                new BiBuilder(),
+                new XianduanIdentifier(),
+                new ZhongshuIdentifier(),
+                new TradingPointIdentifier(macdCalculator, new DivergenceDetector(macdCalculator))));
+        klineCacheService = mock(KlineCacheService.class);
+        MultiLevelAnalysisProperties properties = new MultiLevelAnalysisProperties();
+        properties.setParallelism(2);
+
+        klineRepository = mock(KlineRepository.class);
+        exchangeRouterService = mock(ExchangeRouterService.class);
+
+        service = new MultiLevelAnalysisService(engine, klineCacheService, klineRepository,
+                new KlineRollupService(null, new KlineAggregationProperties(), null, null, new ExchangeProperties()),
+                properties, exchangeRouterService, new ExchangeProperties());
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.destroy();
+    }
+
+    @Test
+    @DisplayName("K线未变化时复用上次结果，最新K线变化后只重算该级别")
+    void testAnalyzeReusesUnchangedLevels() {
+        List<Kline> base = waves("BTCUSDT", "1m", 0, MINUTE);
+        List<Kline> fiveMinute = waves("BTCUSDT", "5m", 0, 5 * MINUTE);
+        when(klineCacheService.getLatest(eq("binance"), eq("BTCUSDT"), eq("1m"), anyInt())).thenReturn(base);
+        when(klineCacheService.getLatest(eq("binance"), eq("BTCUSDT"), eq("5m"), anyInt())).thenReturn(fiveMinute);
+
+        Map<String, EvaluationContext> first = service.analyze("binance", "BTCUSDT", List.of("5m", "1m", "1m"));
+        assertEquals(List.of("1m", "5m"), List.copyOf(first.keySet()));
+        verify(engine, times(2)).calculateFull(anyList());
+
+        Map<String, EvaluationContext> second = service.analyze("binance", "BTCUSDT", List.of("1m", "5m"));
+        assertSame(first.get("1m"), second.get("1m"));
+        assertSame(first.get("5m"), second.get("5m"));
+        verify(engine, times(2)).calculateFull(anyList());
+
+        List<Kline> updated = new ArrayList<>(base);
+        Kline last = updated.remove(updated.size() - 1);
+        updated.add(kline("BTCUSDT", "1m", last.getTimestamp(), 1, 1, 1, 1));
+        when(klineCacheService.getLatest(eq("binance"), eq("BTCUSDT"), eq("1m"), anyInt())).thenReturn(updated);
+
+        Map<String, EvaluationContext> third = service.analyze("binance", "BTCUSDT", List.of("1m"));
+        assertNotSame(first.get("1m"), third.get("1m"));
+        verify(engine, times(3)).calculateFull(anyList());
+    }
+
+    @Test
+    @DisplayName("未入库的交易所缓存未命中的级别从交易所获取，不查库")
+    void testAnalyzeFetchesNonPersistedExchangeFromAdapter() {
+        ExchangeAdapter adapter = mock(ExchangeAdapter.class);
+        when(exchangeRouterService.getAdapter("okx")).thenReturn(adapter);
+        when(adapter.getKlinesAsync(eq("BTCUSDT"), eq("5m"), isNull(), isNull(), anyInt()))
+                .thenReturn(CompletableFuture.completedFuture(waves("BTCUSDT", "5m", 0, 5 * MINUTE)));
+
+        Map<String, EvaluationContext> contexts = service.analyze("okx", "BTCUSDT", List.of("5m"));
+
+        verifyNoInteractions(klineRepository);
+        assertEquals(List.of("5m"), List.copyOf(contexts.keySet()));
+    }
+
+    @Test
+    @DisplayName("高级别最近的K线由基础级别聚合替换，之前的已存储K线保留")
+    void testDeriveReplacesStaleTail() {
+        List<Kline> stored = List.of(
+                kline("BTCUSDT", "5m", 0, 100, 101, 99, 100),
+                kline("BTCUSDT", "5m", 5 * MINUTE, 100, 101, 99, 100),
+                kline("BTCUSDT", "5m", 10 * MINUTE, 100, 101, 99, 100));
+        List<Kline> base = new ArrayList<>();
+        for (int minute = 3; minute <= 17; minute++) {
+            base.add(kline("BTCUSDT", "1m", minute * MINUTE, 200 + minute, 210 + minute, 190 + minute,
+                    201 + minute));
+        }
+
+        List<Kline> derived = service.derive(stored, base, "5m");
+
+        assertEquals(List.of(0L, 5 * MINUTE, 10 * MINUTE, 15 * MINUTE),
+                derived.stream().map(Kline::getTimestamp).toList());
+        assertSame(stored.get(1), derived.get(1));
+        assertEquals(0, new BigDecimal("215").compareTo(derived.get(2).getClose()));
+        assertEquals(0, new BigDecimal("218").compareTo(derived.get(3).getClose()));
+    }
+
+    @Test
+    @DisplayName("基础级别与已存储K线之间有缺口时不拼接")
+    void testDeriveSkipsGap() {
+        List<Kline> stored = List.of(kline("BTCUSDT", "5m", 0, 100, 101, 99, 100));
+        List<Kline> base = List.of(kline("BTCUSDT", "1m", 20 * MINUTE, 200, 210, 190, 201));
+
+        assertSame(stored, service.derive(stored, base, "5m"));
+    }
+}
@@ -0,0 +1,94 @@
+package com.lucance.boot.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 请求合并单元测试
+ */
+@DisplayName("RequestCoalescingService 单元测试")
+class RequestCoalescingServiceTest {
+
+    private RequestCoalescingService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new RequestCoalescingService();
+    }
+
+    @Test
+    @DisplayName("并发的相同请求只执行一次并共享结果")
+    void testConcurrentIdenticalRequestsShareResult() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        List<String> shared = List.of("bar");
+
+        CompletableFuture<List<String>> leader = CompletableFuture.supplyAsync(() -> service.execute("chan", () -> {
+            executions.incrementAndGet();
+            started.countDown();
+            await(release);
+            return shared;
+        }, "binance", "BTC/USDT", "1m"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<List<String>> follower = CompletableFuture.supplyAsync(() -> service.execute("chan", () -> {
+            executions.incrementAndGet();
+            return List.of("other");
+        }, "binance", "BTC/USDT", "1m"));
+        // 等待跟随者进入等待状态
+        while (service.getStats().get(0).coalesced() == 0) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertSame(shared, leader.get(5, TimeUnit.SECONDS));
+        assertSame(shared, follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1, executions.get());
+        RequestCoalescingService.CoalescingStats stats = service.getStats().get(0);
+        assertEquals(2, stats.requests());
+        assertEquals(1, stats.executions());
+        assertEquals(0, service.getInFlightCount());
+    }
+
+    @Test
+    @DisplayName("参数不同或执行完成后不合并")
+    void testDifferentKeysAndCompletedRequestsNotCoalesced() {
+        AtomicInteger executions = new AtomicInteger();
+
+        service.execute("chan", executions::incrementAndGet, "binance", "BTC/USDT", "1m", null);
+        service.execute("chan", executions::incrementAndGet, "binance", "BTC/USDT", "5m", null);
+        service.execute("chan", executions::incrementAndGet, "binance", "BTC/USDT", "1m", null);
+
+        assertEquals(3, executions.get());
+        assertEquals(0, service.getStats().get(0).coalesced());
+    }
+
+    @Test
+    @DisplayName("执行异常传递给调用方且不残留")
+    void testFailurePropagates() {
+        assertThrows(IllegalArgumentException.class, () -> service.execute("chan", () -> {
+            throw new IllegalArgumentException("bad interval");
+        }, "binance", "BTC/USDT", "7m"));
+
+        assertEquals("ok", service.execute("chan", () -> "ok", "binance", "BTC/USDT", "7m"));
+        assertEquals(0, service.getInFlightCount());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
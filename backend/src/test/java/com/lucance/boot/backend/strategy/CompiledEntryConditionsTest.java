@@ -0,0 +1,142 @@
+package com.lucance.boot.backend.strategy;
+
+import com.lucance.boot.backend.chan.model.TradingPoint;
+import com.lucance.boot.backend.chan.model.Zhongshu;
+import com.lucance.boot.backend.strategy.ConditionEvaluator.EvaluationContext;
+import com.lucance.boot.backend.strategy.ConditionEvaluator.EvaluationResult;
+import com.lucance.boot.backend.strategy.model.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 编译后入场条件单元测试
+ */
+@DisplayName("CompiledEntryConditions 单元测试")
+class CompiledEntryConditionsTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Test
+    @DisplayName("AND 条件组：买卖点 + 固定价格")
+    void testAndGroup() {
+        EntryConditionConfig config = config(ConditionGroup.Logic.AND,
+                new TradingPointCondition("buy", 1, "medium"),
+                new PriceCondition("above", "fixed", new BigDecimal("100")));
+        CompiledEntryConditions compiled = CompiledEntryConditions.compile(config);
+        TradingPoint point = point(TradingPoint.PointType.BUY, 1, TradingPoint.Confidence.HIGH, NOW - 60_000);
+
+        EvaluationResult hit = compiled.evaluate(context("105", List.of(point), List.of()));
+        assertTrue(hit.satisfied());
+        assertEquals("All conditions satisfied", hit.reason());
+        assertSame(point, hit.triggerPoint());
+        assertSame(config.getPrimary().getConditions().get(0), hit.matchedCondition());
+
+        EvaluationContext miss = context("95", List.of(point), List.of());
+        assertFalse(compiled.evaluate(miss).satisfied());
+        // 失败结果为编译期常量
+        assertSame(compiled.evaluate(miss), compiled.evaluate(miss));
+
+        // 超出5分钟窗口
+        assertFalse(compiled.evaluate(context("105",
+                List.of(point(TradingPoint.PointType.BUY, 1, TradingPoint.Confidence.HIGH, NOW - 600_000)),
+                List.of())).satisfied());
+        // 置信度不足
+        assertFalse(compiled.evaluate(context("105",
+                List.of(point(TradingPoint.PointType.BUY, 1, TradingPoint.Confidence.LOW, NOW)),
+                List.of())).satisfied());
+    }
+
+    @Test
+    @DisplayName("OR 条件组与取反条件")
+    void testOrGroupAndNegation() {
+        ZhongshuCondition inside = new ZhongshuCondition("inside", "bi");
+        inside.setNegated(true);
+        EntryConditionConfig config = config(ConditionGroup.Logic.OR,
+                new TradingPointCondition("sell", null, null), inside);
+        CompiledEntryConditions compiled = CompiledEntryConditions.compile(config);
+        List<Zhongshu> zhongshus = List.of(Zhongshu.builder()
+                .high(new BigDecimal("110")).low(new BigDecimal("100")).build());
+
+        // 无卖点，价格不在中枢内时取反条件满足
+        assertTrue(compiled.evaluate(context("95", List.of(), zhongshus)).satisfied());
+        assertFalse(compiled.evaluate(context("105", List.of(), zhongshus)).satisfied());
+        assertTrue(compiled.evaluate(context("115", List.of(), zhongshus)).satisfied());
+
+        TradingPoint sell = point(TradingPoint.PointType.SELL, 1, null, NOW);
+        EvaluationResult result = compiled.evaluate(context("105", List.of(sell), zhongshus));
+        assertTrue(result.satisfied());
+        assertSame(sell, result.triggerPoint());
+    }
+
+    @Test
+    @DisplayName("多级别共振：次要条件组使用自身级别的上下文并检查共振窗口")
+    void testMultiLevelResonance() {
+        EntryConditionConfig config = config(ConditionGroup.Logic.AND, new TradingPointCondition("buy", null, null));
+        config.setSecondary(ConditionGroup.builder()
+                .level("5m")
+                .conditions(List.of(new TradingPointCondition("buy", null, null)))
+                .build());
+        config.setRequireResonance(true);
+        config.setResonanceWindowMs(300_000L);
+
+        Map<String, EvaluationContext> contexts = Map.of(
+                "1m", context("100", List.of(point(TradingPoint.PointType.BUY, 1, null, NOW)), List.of()),
+                "5m", context("100", List.of(point(TradingPoint.PointType.BUY, 2, null, NOW - 240_000)), List.of()));
+
+        EvaluationResult compiled = CompiledEntryConditions.compile(config).evaluate(contexts, "1m");
+        assertTrue(compiled.satisfied());
+        assertEquals(1, compiled.triggerPoint().getLevel());
+
+        config.setResonanceWindowMs(60_000L);
+        compiled = CompiledEntryConditions.compile(config).evaluate(contexts, "1m");
+        assertFalse(compiled.satisfied());
+        assertEquals("Secondary trading point at 5m outside resonance window", compiled.reason());
+
+        // 次要级别没有买点
+        Map<String, EvaluationContext> missing = Map.of(
+                "1m", contexts.get("1m"),
+                "5m", context("100", List.of(), List.of()));
+        assertFalse(CompiledEntryConditions.compile(config).evaluate(missing, "1m").satisfied());
+    }
+
+    @Test
+    @DisplayName("无效配置编译为始终失败")
+    void testInvalidConfig() {
+        CompiledEntryConditions compiled = CompiledEntryConditions.compile(new EntryConditionConfig());
+
+        assertFalse(compiled.isValid());
+        assertFalse(compiled.evaluate(context("100", List.of(), List.of())).satisfied());
+    }
+
+    private static EntryConditionConfig config(ConditionGroup.Logic logic, Condition... conditions) {
+        return EntryConditionConfig.builder()
+                .primary(ConditionGroup.builder()
+                        .level("1m")
+                        .logic(logic)
+                        .conditions(List.of(conditions))
+                        .build())
+                .build();
+    }
+
+    private static EvaluationContext context(String price, List<TradingPoint> points, List<Zhongshu> zhongshus) {
+        return new EvaluationContext(new BigDecimal(price), NOW, List.of(), List.of(), zhongshus, points,
+                List.of(), List.of());
+    }
+
+    private static TradingPoint point(TradingPoint.PointType type, int level, TradingPoint.Confidence confidence,
+            long timestamp) {
+        return TradingPoint.builder()
+                .type(type)
+                .level(level)
+                .confidence(confidence)
+                .price(new BigDecimal("100"))
+                .timestamp(timestamp)
+                .build();
+    }
+}
@@ -0,0 +1,97 @@
+package com.lucance.boot.backend.strategy;
+
+import com.lucance.boot.backend.chan.model.MergedKline;
+import com.lucance.boot.backend.chan.model.TradingPoint;
+import com.lucance.boot.backend.chan.model.Xianduan;
+import com.lucance.boot.backend.chan.model.Zhongshu;
+import com.lucance.boot.backend.strategy.model.EvaluationIndex;
+import com.lucance.boot.backend.strategy.model.TrendCondition;
+import com.lucance.boot.backend.strategy.model.ZhongshuCondition;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 评估上下文索引单元测试
+ */
+@DisplayName("EvaluationIndex 单元测试")
+class EvaluationIndexTest {
+
+    @Test
+    @DisplayName("买卖点按方向/级别/置信度取时间最新的一个，不依赖列表顺序")
+    void testLatestTradingPoint() {
+        TradingPoint newest = point(TradingPoint.PointType.BUY, 2, TradingPoint.Confidence.MEDIUM, 5_000);
+        TradingPoint older = point(TradingPoint.PointType.BUY, 1, TradingPoint.Confidence.HIGH, 3_000);
+        TradingPoint sell = point(TradingPoint.PointType.SELL, 1, TradingPoint.Confidence.HIGH, 6_000);
+        EvaluationIndex index = EvaluationIndex.build(List.of(newest, sell, older), null, null, null);
+
+        assertSame(newest, index.latestTradingPoint(TradingPoint.PointType.BUY, 0, 0, 0));
+        assertSame(older, index.latestTradingPoint(TradingPoint.PointType.BUY, 1, 0, 0));
+        assertSame(older, index.latestTradingPoint(TradingPoint.PointType.BUY, 0, 3, 0));
+        assertNull(index.latestTradingPoint(TradingPoint.PointType.BUY, 3, 0, 0));
+        assertNull(index.latestTradingPoint(TradingPoint.PointType.BUY, 0, 0, 5_001));
+        assertSame(older, index.lastTradingPoint());
+    }
+
+    @Test
+    @DisplayName("趋势摘要与逐个线段比较的结果一致")
+    void testTrendSummaryMatchesListScan() {
+        List<Xianduan> xianduans = new ArrayList<>();
+        double[][] swings = { { 100, 120 }, { 120, 110 }, { 110, 130 }, { 130, 115 }, { 115, 125 }, { 125, 105 },
+                { 105, 140 }, { 140, 130 } };
+        for (double[] swing : swings) {
+            xianduans.add(xianduan(swing[0], swing[1]));
+        }
+
+        for (int size = 1; size <= xianduans.size(); size++) {
+            List<Xianduan> prefix = xianduans.subList(0, size);
+            EvaluationIndex index = EvaluationIndex.build(null, null, null, prefix);
+            for (String direction : List.of("up", "down", "sideways")) {
+                for (int count = 1; count <= 4; count++) {
+                    TrendCondition condition = new TrendCondition(direction, count);
+                    assertEquals(condition.matches(prefix), condition.matches(index),
+                            direction + " size=" + size + " count=" + count);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("中枢条件使用最新/前一个中枢句柄")
+    void testZhongshuHandles() {
+        List<Zhongshu> zhongshus = List.of(zhongshu(90, 100), zhongshu(105, 115));
+        EvaluationIndex index = EvaluationIndex.build(null, null, zhongshus, null);
+
+        assertSame(zhongshus.get(1), index.latestZhongshu());
+        assertSame(zhongshus.get(0), index.previousZhongshu());
+        for (String position : List.of("above", "below", "inside", "breakout")) {
+            ZhongshuCondition condition = new ZhongshuCondition(position, "bi");
+            for (String price : List.of("100", "110", "120")) {
+                assertEquals(condition.matches(new BigDecimal(price), zhongshus),
+                        condition.matches(new BigDecimal(price), index), position + " " + price);
+            }
+        }
+    }
+
+    private static TradingPoint point(TradingPoint.PointType type, int level, TradingPoint.Confidence confidence,
+            long timestamp) {
+        return TradingPoint.builder().type(type).level(level).confidence(confidence).timestamp(timestamp).build();
+    }
+
+    private static Xianduan xianduan(double start, double end) {
+        return Xianduan.builder()
+                .direction(end > start ? MergedKline.Direction.UP : MergedKline.Direction.DOWN)
+                .startPrice(BigDecimal.valueOf(start))
+                .endPrice(BigDecimal.valueOf(end))
+                .build();
+    }
+
+    private static Zhongshu zhongshu(double low, double high) {
+        return Zhongshu.builder().low(BigDecimal.valueOf(low)).high(BigDecimal.valueOf(high)).build();
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * application/x-chan-columnar 解码（格式见后端 ChanColumnarFormat）
+ * 解码结果与 /api/chan/analysis?lite=true 的 JSON 结构一致
+ */
+export const CHAN_COLUMNAR_TYPE = 'application/x-chan-columnar'
+
+const SUPPORTED_VERSION = 1
+
+class ColumnReader {
+  private offset: number
+
+  constructor(private readonly buffer: ArrayBuffer, offset: number) {
+    this.offset = offset
+  }
+
+  float64(count: number): Float64Array {
+    const column = new Float64Array(this.buffer, this.offset, count)
+    this.advance(count * 8)
+    return column
+  }
+
+  int32(count: number): Int32Array {
+    const column = new Int32Array(this.buffer, this.offset, count)
+    this.advance(count * 4)
+    return column
+  }
+
+  uint8(count: number): Uint8Array {
+    const column = new Uint8Array(this.buffer, this.offset, count)
+    this.advance(count)
+    return column
+  }
+
+  /** 差分编码的时间列，返回前缀和 */
+  delta(count: number): Float64Array {
+    const column = this.float64(count)
+    const result = new Float64Array(count)
+    let value = 0
+    for (let i = 0; i < count; i++) {
+      value += column[i]
+      result[i] = value
+    }
+    return result
+  }
+
+  private advance(bytes: number) {
+    // 每列按 8 字节对齐
+    this.offset = (this.offset + bytes + 7) & ~7
+  }
+}
+
+export function decodeChanColumnar(buffer: ArrayBuffer) {
+  const view = new DataView(buffer)
+  const magic = String.fromCharCode(view.getUint8(0), view.getUint8(1), view.getUint8(2), view.getUint8(3))
+  if (magic !== 'CHAN') {
+    throw new Error('Invalid chan columnar payload')
+  }
+  const version = view.getInt32(4, true)
+  if (version !== SUPPORTED_VERSION) {
+    throw new Error(`Unsupported chan columnar version: ${version}`)
+  }
+  const dictSize = view.getInt32(8, true)
+  const [klineCount, mergedCount, fenxingCount, biCount, xianduanCount, zhongshuCount, pointCount] =
+    Array.from({ length: 7 }, (_, i) => view.getInt32(12 + i * 4, true))
+
+  const utf8 = new TextDecoder()
+  const dict: string[] = []
+  let offset = 40
+  for (let i = 0; i < dictSize; i++) {
+    const length = view.getUint8(offset)
+    dict.push(utf8.decode(new Uint8Array(buffer, offset + 1, length)))
+    offset += 1 + length
+  }
+
+  const reader = new ColumnReader(buffer, (offset + 7) & ~7)
+
+  const time = reader.delta(klineCount)
+  const open = reader.float64(klineCount)
+  const high = reader.float64(klineCount)
+  const low = reader.float64(klineCount)
+  const close = reader.float64(klineCount)
+  const volume = reader.float64(klineCount)
+  const klines = Array.from({ length: klineCount }, (_, i) => ({
+    time: time[i], open: open[i], high: high[i], low: low[i], close: close[i], volume: volume[i]
+  }))
+
+  const mergedIndex = reader.int32(mergedCount)
+  const mergedTime = reader.delta(mergedCount)
+  const mergedKlines = Array.from({ length: mergedCount }, (_, i) => ({
+    index: mergedIndex[i], timestamp: mergedTime[i]
+  }))
+
+  const fxIndex = reader.int32(fenxingCount)
+  const fxType = reader.uint8(fenxingCount)
+  const fxPrice = reader.float64(fenxingCount)
+  const fenxings = Array.from({ length: fenxingCount }, (_, i) => ({
+    index: fxIndex[i], type: dict[fxType[i]], price: fxPrice[i]
+  }))
+
+  const biStart = reader.int32(biCount)
+  const biEnd = reader.int32(biCount)
+  const biDirection = reader.uint8(biCount)
+  const biStartPrice = reader.float64(biCount)
+  const biEndPrice = reader.float64(biCount)
+  const bis = Array.from({ length: biCount }, (_, i) => ({
+    startIndex: biStart[i], endIndex: biEnd[i], direction: dict[biDirection[i]],
+    startPrice: biStartPrice[i], endPrice: biEndPrice[i]
+  }))
+
+  const xdStart = reader.float64(xianduanCount)
+  const xdEnd = reader.float64(xianduanCount)
+  const xdDirection = reader.uint8(xianduanCount)
+  const xdStartPrice = reader.float64(xianduanCount)
+  const xdEndPrice = reader.float64(xianduanCount)
+  const xianduans = Array.from({ length: xianduanCount }, (_, i) => ({
+    startTime: xdStart[i], endTime: xdEnd[i], direction: dict[xdDirection[i]],
+    startPrice: xdStartPrice[i], endPrice: xdEndPrice[i]
+  }))
+
+  const zsStart = reader.float64(zhongshuCount)
+  const zsEnd = reader.float64(zhongshuCount)
+  const zsHigh = reader.float64(zhongshuCount)
+  const zsLow = reader.float64(zhongshuCount)
+  const zsCenter = reader.float64(zhongshuCount)
+  const zhongshus = Array.from({ length: zhongshuCount }, (_, i) => ({
+    startTime: zsStart[i], endTime: zsEnd[i], high: zsHigh[i], low: zsLow[i], center: zsCenter[i]
+  }))
+
+  const tpTime = reader.float64(pointCount)
+  const tpType = reader.uint8(pointCount)
+  const tpLevel = reader.int32(pointCount)
+  const tpPrice = reader.float64(pointCount)
+  const tradingPoints = Array.from({ length: pointCount }, (_, i) => ({
+    timestamp: tpTime[i], type: dict[tpType[i]], level: tpLevel[i], price: tpPrice[i]
+  }))
+
+  return {
+    klines,
+    result: { mergedKlines, fenxings, bis, xianduans, zhongshus, tradingPoints }
+  }
+}
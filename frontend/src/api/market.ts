@@ -1,5 +1,6 @@
 import axios from 'axios'
 import type { AxiosInstance, AxiosError } from 'axios'
+import { CHAN_COLUMNAR_TYPE, decodeChanColumnar } from './chanColumnar'
 
 // API 基础配置
 const API_BASE_URL = import.meta.env.VITE_API_BASE_URL || 'http://localhost:8080'
@@ -292,10 +293,13 @@ export const chanApi = {
     limit?: number
     exchange?: string
   }): Promise<any> {
+    // 二进制列式格式，体积与解析开销都小于 JSON
     const response = await apiClient.get('/api/chan/analysis', {
-      params: { ...params, lite: true }
+      params: { ...params, lite: true },
+      headers: { Accept: CHAN_COLUMNAR_TYPE },
+      responseType: 'arraybuffer'
     })
-    return response.data
+    return decodeChanColumnar(response.data)
   },
 
   /**